@@ -0,0 +1,516 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.embedded;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.bson.BsonArray;
+import org.bson.BsonBoolean;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonNull;
+import org.bson.BsonValue;
+
+/**
+ * {@link AggregationPipeline} class executes MongoDB aggregation pipelines over in-memory
+ * documents. It supports the '$match', '$project', '$addFields', '$set', '$unset', '$sort',
+ * '$skip', '$limit', '$sample', '$count', '$group', '$unwind', and '$replaceRoot' stages.
+ * Expressions are limited to field paths, literals, and documents or arrays of those.
+ *
+ * It also provides the projection and sorting used by the 'find' command.
+ */
+class AggregationPipeline {
+
+  /**
+   * Comparator used to compare values.
+   */
+  private static final BsonValueComparator comparator = BsonValueComparator.INSTANCE;
+
+  /**
+   * @param documents Documents to feed into the pipeline. They are not modified.
+   * @param pipeline Array of pipeline stages.
+   * @return Documents produced by the last stage of the pipeline.
+   * @throws CommandFailure If the pipeline uses an unsupported stage, accumulator, or expression.
+   */
+  static List<BsonDocument> execute(List<BsonDocument> documents, BsonArray pipeline) {
+
+    List<BsonDocument> results = documents;
+    for (BsonValue stageValue : pipeline) {
+
+      BsonDocument stage = stageValue.asDocument();
+      String stageName = stage.getFirstKey();
+      BsonValue operand = stage.get(stageName);
+
+      switch (stageName) {
+
+        case "$match":
+          List<BsonDocument> matched = new ArrayList<>();
+          for (BsonDocument document : results) {
+            if (QueryMatcher.matches(document, operand.asDocument())) {
+              matched.add(document);
+            }
+          }
+          results = matched;
+          break;
+
+        case "$project":
+          List<BsonDocument> projected = new ArrayList<>();
+          for (BsonDocument document : results) {
+            projected.add(project(document, operand.asDocument()));
+          }
+          results = projected;
+          break;
+
+        case "$addFields":
+        case "$set":
+          List<BsonDocument> extended = new ArrayList<>();
+          for (BsonDocument document : results) {
+            BsonDocument extendedDocument = document.clone();
+            for (Map.Entry<String, BsonValue> entry : operand.asDocument().entrySet()) {
+              DocumentPaths.setValue(
+                  extendedDocument,
+                  entry.getKey(),
+                  evaluate(entry.getValue(), document));
+            }
+            extended.add(extendedDocument);
+          }
+          results = extended;
+          break;
+
+        case "$unset":
+          List<BsonValue> fields = operand.isArray() ? operand.asArray() : List.of(operand);
+          BsonDocument exclusion = new BsonDocument();
+          for (BsonValue field : fields) {
+            exclusion.put(field.asString().getValue(), new BsonInt32(0));
+          }
+          List<BsonDocument> unset = new ArrayList<>();
+          for (BsonDocument document : results) {
+            unset.add(project(document, exclusion));
+          }
+          results = unset;
+          break;
+
+        case "$sort":
+          results = sort(results, operand.asDocument());
+          break;
+
+        case "$skip":
+          int skip = Math.min(operand.asNumber().intValue(), results.size());
+          results = results.subList(skip, results.size());
+          break;
+
+        case "$limit":
+          int limit = Math.min(operand.asNumber().intValue(), results.size());
+          results = results.subList(0, limit);
+          break;
+
+        case "$sample":
+          List<BsonDocument> shuffled = new ArrayList<>(results);
+          Collections.shuffle(shuffled);
+          int size = Math.min(operand.asDocument().getNumber("size").intValue(), shuffled.size());
+          results = shuffled.subList(0, size);
+          break;
+
+        case "$count":
+          List<BsonDocument> count = new ArrayList<>();
+          if (!results.isEmpty()) {
+            String countField = operand.asString().getValue();
+            count.add(new BsonDocument(countField, new BsonInt32(results.size())));
+          }
+          results = count;
+          break;
+
+        case "$group":
+          results = group(results, operand.asDocument());
+          break;
+
+        case "$unwind":
+          results = unwind(results, operand);
+          break;
+
+        case "$replaceRoot":
+        case "$replaceWith":
+          BsonValue newRoot = stageName.equals("$replaceRoot")
+              ? operand.asDocument().get("newRoot")
+              : operand;
+          List<BsonDocument> replaced = new ArrayList<>();
+          for (BsonDocument document : results) {
+            BsonValue root = evaluate(newRoot, document);
+            if (!root.isDocument()) {
+              throw CommandFailure.badValue("'newRoot' must evaluate to a document.");
+            }
+            replaced.add(root.asDocument());
+          }
+          results = replaced;
+          break;
+
+        default:
+          throw CommandFailure.unsupported("Aggregation stage '" + stageName
+              + "' is not supported.");
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * @param document Document to project. It is not modified.
+   * @param projection Projection document, either including or excluding fields. Can be 'null' or
+   * empty, in which case the 'document' is returned as is.
+   * @return New document with only the fields selected by the provided 'projection'.
+   */
+  static BsonDocument project(BsonDocument document, BsonDocument projection) {
+
+    if (projection == null || projection.isEmpty()) {
+      return document;
+    }
+
+    // Projection is an inclusion if any field other than '_id' is included or computed, or if it
+    // only includes '_id'
+    boolean inclusion = projection.size() == 1
+        && projection.containsKey("_id")
+        && isIncludedOrComputed(projection.get("_id"));
+    for (Map.Entry<String, BsonValue> entry : projection.entrySet()) {
+      if (!entry.getKey().equals("_id") && isIncludedOrComputed(entry.getValue())) {
+        inclusion = true;
+      }
+    }
+
+    if (!inclusion) {
+
+      BsonDocument projected = document.clone();
+      for (Map.Entry<String, BsonValue> entry : projection.entrySet()) {
+        DocumentPaths.removeValue(projected, entry.getKey());
+      }
+      return projected;
+    }
+
+    BsonDocument projected = new BsonDocument();
+
+    // Include '_id' unless explicitly excluded
+    BsonValue idProjection = projection.get("_id");
+    if (document.containsKey("_id")
+        && (idProjection == null || QueryMatcher.isTruthy(idProjection))) {
+      projected.put("_id", document.get("_id"));
+    }
+
+    for (Map.Entry<String, BsonValue> entry : projection.entrySet()) {
+
+      String path = entry.getKey();
+      BsonValue value = entry.getValue();
+      if (path.equals("_id") && !value.isDocument() && !value.isString()) {
+        continue;
+      }
+
+      if (value.isBoolean() || value.isNumber()) {
+        BsonValue included = DocumentPaths.getValue(document, path);
+        if (included != null) {
+          DocumentPaths.setValue(projected, path, included);
+        }
+      } else {
+        DocumentPaths.setValue(projected, path, evaluate(value, document));
+      }
+    }
+
+    return projected;
+  }
+
+  /**
+   * @param documents Documents to sort. They are not modified.
+   * @param sortSpecification Sort specification, i.e., field paths mapped to '1' or '-1'. Can be
+   * 'null' or empty, in which case the 'documents' are returned as is.
+   * @return New list of the provided 'documents', sorted by the provided 'sortSpecification'.
+   */
+  static List<BsonDocument> sort(List<BsonDocument> documents, BsonDocument sortSpecification) {
+
+    if (sortSpecification == null || sortSpecification.isEmpty()) {
+      return documents;
+    }
+
+    Comparator<BsonDocument> documentComparator = null;
+    for (Map.Entry<String, BsonValue> entry : sortSpecification.entrySet()) {
+
+      String path = entry.getKey();
+      boolean ascending = entry.getValue().asNumber().intValue() >= 0;
+
+      Comparator<BsonDocument> fieldComparator = (document1, document2) -> comparator.compare(
+          sortKey(document1, path, ascending),
+          sortKey(document2, path, ascending));
+      if (!ascending) {
+        fieldComparator = fieldComparator.reversed();
+      }
+
+      documentComparator = documentComparator == null
+          ? fieldComparator
+          : documentComparator.thenComparing(fieldComparator);
+    }
+
+    List<BsonDocument> sorted = new ArrayList<>(documents);
+    sorted.sort(documentComparator);
+    return sorted;
+  }
+
+  /**
+   * @param document Document to get the sort key of.
+   * @param path Dotted path of the field to sort by.
+   * @param ascending Flag to indicate the sort direction.
+   * @return Value to sort the provided 'document' by. For arrays, that's the smallest element when
+   * sorting in ascending order and the largest one otherwise. Missing fields sort as 'null'.
+   */
+  private static BsonValue sortKey(BsonDocument document, String path, boolean ascending) {
+
+    BsonValue key = null;
+    for (BsonValue value : DocumentPaths.getValues(document, path)) {
+
+      List<BsonValue> candidates = value.isArray() && !value.asArray().isEmpty()
+          ? value.asArray().getValues()
+          : List.of(value);
+      for (BsonValue candidate : candidates) {
+        if (key == null || (ascending
+            ? comparator.compare(candidate, key) < 0
+            : comparator.compare(candidate, key) > 0)) {
+          key = candidate;
+        }
+      }
+    }
+
+    return key == null ? BsonNull.VALUE : key;
+  }
+
+  /**
+   * @param documents Documents to group.
+   * @param specification '$group' stage specification.
+   * @return One document per distinct value of the '_id' expression, with the accumulated fields.
+   * @throws CommandFailure If an unsupported accumulator is used.
+   */
+  private static List<BsonDocument> group(
+      List<BsonDocument> documents,
+      BsonDocument specification) {
+
+    // Group documents by evaluated '_id', keeping the order of first appearance
+    Map<BsonValue, List<BsonDocument>> groups = new LinkedHashMap<>();
+    for (BsonDocument document : documents) {
+      BsonValue groupId = evaluate(specification.get("_id", BsonNull.VALUE), document);
+      groups.computeIfAbsent(groupId, key -> new ArrayList<>()).add(document);
+    }
+
+    List<BsonDocument> results = new ArrayList<>();
+    for (Map.Entry<BsonValue, List<BsonDocument>> groupEntry : groups.entrySet()) {
+
+      BsonDocument result = new BsonDocument("_id", groupEntry.getKey());
+      for (Map.Entry<String, BsonValue> entry : specification.entrySet()) {
+        if (!entry.getKey().equals("_id")) {
+          result.put(entry.getKey(), accumulate(entry.getValue().asDocument(),
+              groupEntry.getValue()));
+        }
+      }
+
+      results.add(result);
+    }
+
+    return results;
+  }
+
+  /**
+   * @param accumulatorDocument Accumulator, e.g., '{ $sum: "$price" }'.
+   * @param documents Documents of the group.
+   * @return Accumulated value.
+   * @throws CommandFailure If the accumulator is not supported.
+   */
+  private static BsonValue accumulate(
+      BsonDocument accumulatorDocument,
+      List<BsonDocument> documents) {
+
+    String accumulator = accumulatorDocument.getFirstKey();
+    BsonValue expression = accumulatorDocument.get(accumulator);
+
+    List<BsonValue> values = new ArrayList<>();
+    for (BsonDocument document : documents) {
+      values.add(evaluate(expression, document));
+    }
+
+    switch (accumulator) {
+
+      case "$count":
+        return new BsonInt32(documents.size());
+
+      case "$sum":
+      case "$avg":
+        long longSum = 0;
+        double doubleSum = 0;
+        boolean isDouble = false;
+        int count = 0;
+        for (BsonValue value : values) {
+          if (value.isNumber()) {
+            isDouble |= value.isDouble() || value.isDecimal128();
+            longSum += value.asNumber().longValue();
+            doubleSum += value.asNumber().doubleValue();
+            count++;
+          }
+        }
+        if (accumulator.equals("$avg")) {
+          return count == 0 ? BsonNull.VALUE : new BsonDouble(doubleSum / count);
+        }
+        if (isDouble) {
+          return new BsonDouble(doubleSum);
+        }
+        return longSum >= Integer.MIN_VALUE && longSum <= Integer.MAX_VALUE
+            ? new BsonInt32((int) longSum)
+            : new BsonInt64(longSum);
+
+      case "$min":
+      case "$max":
+        BsonValue extreme = null;
+        for (BsonValue value : values) {
+          if (value.isNull()) {
+            continue;
+          }
+          int comparison = extreme == null ? 0 : comparator.compare(value, extreme);
+          if (extreme == null
+              || (accumulator.equals("$min") ? comparison < 0 : comparison > 0)) {
+            extreme = value;
+          }
+        }
+        return extreme == null ? BsonNull.VALUE : extreme;
+
+      case "$first":
+        return values.isEmpty() ? BsonNull.VALUE : values.get(0);
+
+      case "$last":
+        return values.isEmpty() ? BsonNull.VALUE : values.get(values.size() - 1);
+
+      case "$push":
+        return new BsonArray(values);
+
+      case "$addToSet":
+        BsonArray set = new BsonArray();
+        for (BsonValue value : values) {
+          if (set.stream().noneMatch(element -> comparator.isEqual(element, value))) {
+            set.add(value);
+          }
+        }
+        return set;
+
+      default:
+        throw CommandFailure.unsupported("Accumulator '" + accumulator + "' is not supported.");
+    }
+  }
+
+  /**
+   * @param documents Documents to unwind.
+   * @param operand '$unwind' stage operand, i.e., a field path or a document with a 'path' field.
+   * @return One document per element of the array at the unwound path of each document.
+   */
+  private static List<BsonDocument> unwind(List<BsonDocument> documents, BsonValue operand) {
+
+    String path = operand.isString()
+        ? operand.asString().getValue()
+        : operand.asDocument().getString("path").getValue();
+    path = path.substring(1);
+    boolean preserveEmpty = operand.isDocument() && operand.asDocument()
+        .getBoolean("preserveNullAndEmptyArrays", BsonBoolean.FALSE)
+        .getValue();
+
+    List<BsonDocument> results = new ArrayList<>();
+    for (BsonDocument document : documents) {
+
+      BsonValue value = DocumentPaths.getValue(document, path);
+      if (value != null && value.isArray() && !value.asArray().isEmpty()) {
+
+        for (BsonValue element : value.asArray()) {
+          BsonDocument unwound = document.clone();
+          DocumentPaths.setValue(unwound, path, element);
+          results.add(unwound);
+        }
+
+      } else if (value != null && !value.isArray() && !value.isNull()) {
+        results.add(document);
+      } else if (preserveEmpty) {
+        results.add(document);
+      }
+    }
+
+    return results;
+  }
+
+  /**
+   * @param expression Aggregation expression, i.e., a field path like '$price', a literal, or a
+   * document or array of those.
+   * @param document Document to evaluate the expression against.
+   * @return Value of the provided 'expression' for the provided 'document'. Missing fields
+   * evaluate to 'null'.
+   * @throws CommandFailure If the expression uses an operator other than '$literal'.
+   */
+  static BsonValue evaluate(BsonValue expression, BsonDocument document) {
+
+    if (expression.isString()) {
+
+      String string = expression.asString().getValue();
+      if (string.startsWith("$$ROOT")) {
+        return document;
+      }
+      if (string.startsWith("$")) {
+        BsonValue value = DocumentPaths.getValue(document, string.substring(1));
+        return value == null ? BsonNull.VALUE : value;
+      }
+
+      return expression;
+    }
+
+    if (expression.isDocument()) {
+
+      BsonDocument expressionDocument = expression.asDocument();
+      if (!expressionDocument.isEmpty() && expressionDocument.getFirstKey().startsWith("$")) {
+
+        if (expressionDocument.getFirstKey().equals("$literal")) {
+          return expressionDocument.get("$literal");
+        }
+
+        throw CommandFailure.unsupported("Expression operator '"
+            + expressionDocument.getFirstKey() + "' is not supported.");
+      }
+
+      BsonDocument evaluated = new BsonDocument();
+      for (Map.Entry<String, BsonValue> entry : expressionDocument.entrySet()) {
+        evaluated.put(entry.getKey(), evaluate(entry.getValue(), document));
+      }
+      return evaluated;
+    }
+
+    if (expression.isArray()) {
+
+      BsonArray evaluated = new BsonArray();
+      for (BsonValue element : expression.asArray()) {
+        evaluated.add(evaluate(element, document));
+      }
+      return evaluated;
+    }
+
+    return expression;
+  }
+
+  /**
+   * @param projectionValue Value of a field in a projection document.
+   * @return 'true' if the value includes the field or computes a new value for it.
+   */
+  private static boolean isIncludedOrComputed(BsonValue projectionValue) {
+
+    if (projectionValue.isBoolean() || projectionValue.isNumber()) {
+      return QueryMatcher.isTruthy(projectionValue);
+    }
+
+    return true;
+  }
+}
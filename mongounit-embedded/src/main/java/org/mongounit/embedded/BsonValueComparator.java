@@ -0,0 +1,261 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.embedded;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import org.bson.BsonArray;
+import org.bson.BsonBinary;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+/**
+ * {@link BsonValueComparator} class compares BSON values the way MongoDB does when sorting, i.e.,
+ * first by the canonical order of their types and then by their values. Numbers of different BSON
+ * types are compared by their numeric values.
+ */
+class BsonValueComparator implements Comparator<BsonValue> {
+
+  /**
+   * Single instance of this comparator.
+   */
+  static final BsonValueComparator INSTANCE = new BsonValueComparator();
+
+  @Override
+  public int compare(BsonValue value1, BsonValue value2) {
+
+    // Compare types first
+    int typeComparison = Integer.compare(typeOrder(value1), typeOrder(value2));
+    if (typeComparison != 0) {
+      return typeComparison;
+    }
+
+    switch (value1.getBsonType()) {
+
+      case MIN_KEY:
+      case MAX_KEY:
+      case NULL:
+      case UNDEFINED:
+        return 0;
+
+      case INT32:
+      case INT64:
+      case DOUBLE:
+      case DECIMAL128:
+        return compareNumbers(value1, value2);
+
+      case STRING:
+      case SYMBOL:
+        return stringValue(value1).compareTo(stringValue(value2));
+
+      case DOCUMENT:
+        return compareDocuments(value1.asDocument(), value2.asDocument());
+
+      case ARRAY:
+        return compareArrays(value1.asArray(), value2.asArray());
+
+      case BINARY:
+        return compareBinaries(value1.asBinary(), value2.asBinary());
+
+      case OBJECT_ID:
+        return value1.asObjectId().getValue().compareTo(value2.asObjectId().getValue());
+
+      case BOOLEAN:
+        return Boolean.compare(value1.asBoolean().getValue(), value2.asBoolean().getValue());
+
+      case DATE_TIME:
+        return Long.compare(value1.asDateTime().getValue(), value2.asDateTime().getValue());
+
+      case TIMESTAMP:
+        return value1.asTimestamp().compareTo(value2.asTimestamp());
+
+      case REGULAR_EXPRESSION:
+        return value1.asRegularExpression().getPattern()
+            .compareTo(value2.asRegularExpression().getPattern());
+
+      default:
+        return value1.toString().compareTo(value2.toString());
+    }
+  }
+
+  /**
+   * @param value1 First BSON value to compare.
+   * @param value2 Second BSON value to compare.
+   * @return 'true' if the provided values are of the same canonical type and are equal, 'false'
+   * otherwise.
+   */
+  boolean isEqual(BsonValue value1, BsonValue value2) {
+    return compare(value1, value2) == 0;
+  }
+
+  /**
+   * @param value BSON value whose type order to return.
+   * @return Position of the type of the provided 'value' in MongoDB's canonical type sort order.
+   */
+  static int typeOrder(BsonValue value) {
+
+    switch (value.getBsonType()) {
+      case MIN_KEY:
+        return 1;
+      case NULL:
+      case UNDEFINED:
+        return 2;
+      case INT32:
+      case INT64:
+      case DOUBLE:
+      case DECIMAL128:
+        return 3;
+      case STRING:
+      case SYMBOL:
+        return 4;
+      case DOCUMENT:
+        return 5;
+      case ARRAY:
+        return 6;
+      case BINARY:
+        return 7;
+      case OBJECT_ID:
+        return 8;
+      case BOOLEAN:
+        return 9;
+      case DATE_TIME:
+        return 10;
+      case TIMESTAMP:
+        return 11;
+      case REGULAR_EXPRESSION:
+        return 12;
+      case MAX_KEY:
+        return 14;
+      default:
+        return 13;
+    }
+  }
+
+  /**
+   * @param value1 First numeric BSON value to compare.
+   * @param value2 Second numeric BSON value to compare.
+   * @return Result of comparing the numeric values of the provided values.
+   */
+  private static int compareNumbers(BsonValue value1, BsonValue value2) {
+
+    // Compare integral numbers exactly
+    if (isIntegral(value1) && isIntegral(value2)) {
+      return Long.compare(value1.asNumber().longValue(), value2.asNumber().longValue());
+    }
+
+    if (value1.isDecimal128() || value2.isDecimal128()) {
+      return toBigDecimal(value1).compareTo(toBigDecimal(value2));
+    }
+
+    return Double.compare(value1.asNumber().doubleValue(), value2.asNumber().doubleValue());
+  }
+
+  /**
+   * @param value Numeric BSON value.
+   * @return 'true' if the provided 'value' is a 32-bit or a 64-bit integer.
+   */
+  private static boolean isIntegral(BsonValue value) {
+    return value.isInt32() || value.isInt64();
+  }
+
+  /**
+   * @param value Numeric BSON value.
+   * @return {@link BigDecimal} representation of the provided 'value'.
+   */
+  private static BigDecimal toBigDecimal(BsonValue value) {
+
+    if (value.isDecimal128()) {
+      return value.asDecimal128().getValue().bigDecimalValue();
+    }
+
+    if (isIntegral(value)) {
+      return BigDecimal.valueOf(value.asNumber().longValue());
+    }
+
+    return BigDecimal.valueOf(value.asNumber().doubleValue());
+  }
+
+  /**
+   * @param value String or symbol BSON value.
+   * @return String value of the provided 'value'.
+   */
+  private static String stringValue(BsonValue value) {
+    return value.isString() ? value.asString().getValue() : value.asSymbol().getSymbol();
+  }
+
+  /**
+   * @param document1 First document to compare.
+   * @param document2 Second document to compare.
+   * @return Result of comparing the provided documents field by field, in order.
+   */
+  private int compareDocuments(BsonDocument document1, BsonDocument document2) {
+
+    Iterator<Map.Entry<String, BsonValue>> iterator1 = document1.entrySet().iterator();
+    Iterator<Map.Entry<String, BsonValue>> iterator2 = document2.entrySet().iterator();
+    while (iterator1.hasNext() && iterator2.hasNext()) {
+
+      Map.Entry<String, BsonValue> entry1 = iterator1.next();
+      Map.Entry<String, BsonValue> entry2 = iterator2.next();
+
+      int comparison = Integer.compare(typeOrder(entry1.getValue()), typeOrder(entry2.getValue()));
+      if (comparison == 0) {
+        comparison = entry1.getKey().compareTo(entry2.getKey());
+      }
+      if (comparison == 0) {
+        comparison = compare(entry1.getValue(), entry2.getValue());
+      }
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+
+    return Boolean.compare(iterator1.hasNext(), iterator2.hasNext());
+  }
+
+  /**
+   * @param array1 First array to compare.
+   * @param array2 Second array to compare.
+   * @return Result of comparing the provided arrays element by element.
+   */
+  private int compareArrays(BsonArray array1, BsonArray array2) {
+
+    int size = Math.min(array1.size(), array2.size());
+    for (int i = 0; i < size; i++) {
+      int comparison = compare(array1.get(i), array2.get(i));
+      if (comparison != 0) {
+        return comparison;
+      }
+    }
+
+    return Integer.compare(array1.size(), array2.size());
+  }
+
+  /**
+   * @param binary1 First binary to compare.
+   * @param binary2 Second binary to compare.
+   * @return Result of comparing the provided binaries by length, subtype, and then bytes.
+   */
+  private static int compareBinaries(BsonBinary binary1, BsonBinary binary2) {
+
+    byte[] data1 = binary1.getData();
+    byte[] data2 = binary2.getData();
+
+    int comparison = Integer.compare(data1.length, data2.length);
+    if (comparison == 0) {
+      comparison = Byte.compare(binary1.getType(), binary2.getType());
+    }
+    for (int i = 0; comparison == 0 && i < data1.length; i++) {
+      comparison = Integer.compare(data1[i] & 0xff, data2[i] & 0xff);
+    }
+
+    return comparison;
+  }
+}
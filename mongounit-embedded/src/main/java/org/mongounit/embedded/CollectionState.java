@@ -0,0 +1,81 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.embedded;
+
+import java.util.Collections;
+import java.util.List;
+import org.bson.BsonDocument;
+
+/**
+ * {@link CollectionState} class is an immutable state of a collection stored by the {@link
+ * EmbeddedMongoServer}. Every change to a collection produces a new state, so a state can be
+ * shared by any number of snapshots without copying.
+ *
+ * NOTE: The stored documents must never be modified once they are part of a state.
+ */
+final class CollectionState {
+
+  /**
+   * State of an empty collection with no indexes other than the one on '_id'.
+   */
+  static final CollectionState EMPTY =
+      new CollectionState(Collections.emptyList(), Collections.emptyList());
+
+  /**
+   * Documents of the collection, in insertion order.
+   */
+  private final List<BsonDocument> documents;
+
+  /**
+   * Specifications of the indexes of the collection other than the one on '_id'.
+   */
+  private final List<BsonDocument> indexes;
+
+  /**
+   * Constructor.
+   *
+   * @param documents Documents of the collection, in insertion order.
+   * @param indexes Specifications of the indexes of the collection other than the one on '_id'.
+   */
+  CollectionState(List<BsonDocument> documents, List<BsonDocument> indexes) {
+    this.documents = Collections.unmodifiableList(documents);
+    this.indexes = Collections.unmodifiableList(indexes);
+  }
+
+  /**
+   * @return Unmodifiable list of the documents of the collection, in insertion order.
+   */
+  List<BsonDocument> getDocuments() {
+    return documents;
+  }
+
+  /**
+   * @return Unmodifiable list of the specifications of the indexes of the collection other than
+   * the one on '_id'.
+   */
+  List<BsonDocument> getIndexes() {
+    return indexes;
+  }
+
+  /**
+   * @param newDocuments Documents of the new state.
+   * @return New state with the provided 'newDocuments' and the indexes of this state.
+   */
+  CollectionState withDocuments(List<BsonDocument> newDocuments) {
+    return new CollectionState(newDocuments, indexes);
+  }
+
+  /**
+   * @param newIndexes Index specifications of the new state.
+   * @return New state with the documents of this state and the provided 'newIndexes'.
+   */
+  CollectionState withIndexes(List<BsonDocument> newIndexes) {
+    return new CollectionState(documents, newIndexes);
+  }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.embedded;
+
+/**
+ * {@link CommandFailure} class is an exception that is reported back to the MongoDB client as a
+ * failed command, with the MongoDB error code and code name that best describe the failure.
+ */
+class CommandFailure extends RuntimeException {
+
+  /**
+   * Version of the serialized form of this class.
+   */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Error code indicating that the command or an operator used in it is not supported.
+   */
+  static final int COMMAND_NOT_FOUND = 59;
+
+  /**
+   * Error code indicating that the command is malformed.
+   */
+  static final int BAD_VALUE = 2;
+
+  /**
+   * Error code indicating that the namespace the command targets does not exist.
+   */
+  static final int NAMESPACE_NOT_FOUND = 26;
+
+  /**
+   * Error code indicating that the namespace the command creates already exists.
+   */
+  static final int NAMESPACE_EXISTS = 48;
+
+  /**
+   * Error code indicating that the cursor the command targets does not exist.
+   */
+  static final int CURSOR_NOT_FOUND = 43;
+
+  /**
+   * Error code indicating that a write would violate a unique index.
+   */
+  static final int DUPLICATE_KEY = 11000;
+
+  /**
+   * MongoDB error code.
+   */
+  private final int code;
+
+  /**
+   * MongoDB error code name.
+   */
+  private final String codeName;
+
+  /**
+   * Constructor.
+   *
+   * @param code MongoDB error code.
+   * @param codeName MongoDB error code name.
+   * @param message Message describing the failure.
+   */
+  CommandFailure(int code, String codeName, String message) {
+    super(message);
+    this.code = code;
+    this.codeName = codeName;
+  }
+
+  /**
+   * @param message Message describing the unsupported feature.
+   * @return New {@link CommandFailure} indicating that a feature is not supported by the embedded
+   * server.
+   */
+  static CommandFailure unsupported(String message) {
+    return new CommandFailure(COMMAND_NOT_FOUND, "CommandNotFound", message);
+  }
+
+  /**
+   * @param message Message describing what is wrong with the command.
+   * @return New {@link CommandFailure} indicating that the command is malformed.
+   */
+  static CommandFailure badValue(String message) {
+    return new CommandFailure(BAD_VALUE, "BadValue", message);
+  }
+
+  /**
+   * @return MongoDB error code.
+   */
+  int getCode() {
+    return code;
+  }
+
+  /**
+   * @return MongoDB error code name.
+   */
+  String getCodeName() {
+    return codeName;
+  }
+}
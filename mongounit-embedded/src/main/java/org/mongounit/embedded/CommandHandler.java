@@ -0,0 +1,1181 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.embedded;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.bson.BsonArray;
+import org.bson.BsonBoolean;
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonNull;
+import org.bson.BsonObjectId;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+
+/**
+ * {@link CommandHandler} class executes MongoDB commands against the {@link InMemoryStore}. It
+ * implements the handshake and diagnostic commands the MongoDB drivers issue, CRUD commands, basic
+ * aggregation, index management, and collection and database management.
+ *
+ * Unique indexes other than the one on '_id' are recorded but not enforced.
+ */
+class CommandHandler {
+
+  /**
+   * Highest MongoDB wire protocol version the embedded server claims to speak (MongoDB 5.0).
+   */
+  private static final int MAX_WIRE_VERSION = 13;
+
+  /**
+   * Version of MongoDB the embedded server reports itself as.
+   */
+  private static final String SERVER_VERSION = "5.0.0";
+
+  /**
+   * Number of documents returned in the first batch of a cursor unless requested otherwise.
+   */
+  private static final int DEFAULT_FIRST_BATCH_SIZE = 101;
+
+  /**
+   * Specification of the index on '_id' every collection has.
+   */
+  private static final BsonDocument ID_INDEX = new BsonDocument("v", new BsonInt32(2))
+      .append("key", new BsonDocument("_id", new BsonInt32(1)))
+      .append("name", new BsonString("_id_"));
+
+  /**
+   * Store that holds all the databases.
+   */
+  private final InMemoryStore store;
+
+  /**
+   * Open cursors by their IDs.
+   */
+  private final Map<Long, Cursor> cursors = new ConcurrentHashMap<>();
+
+  /**
+   * ID to assign to the next cursor.
+   */
+  private final AtomicLong nextCursorId = new AtomicLong(1);
+
+  /**
+   * Constructor.
+   *
+   * @param store Store that holds all the databases.
+   */
+  CommandHandler(InMemoryStore store) {
+    this.store = store;
+  }
+
+  /**
+   * @param databaseName Name of the database the command targets.
+   * @param command Command document, whose first field name is the name of the command.
+   * @param connectionId ID of the connection the command was received on.
+   * @return Response document to send back to the client. Failures are reported as responses with
+   * 'ok' set to '0'.
+   */
+  BsonDocument handle(String databaseName, BsonDocument command, int connectionId) {
+
+    String commandName = command.getFirstKey();
+    try {
+
+      BsonDocument response = execute(databaseName, commandName, command, connectionId);
+      response.put("ok", new BsonDouble(1));
+      return response;
+
+    } catch (CommandFailure commandFailure) {
+
+      return new BsonDocument("ok", new BsonDouble(0))
+          .append("errmsg", new BsonString(commandFailure.getMessage()))
+          .append("code", new BsonInt32(commandFailure.getCode()))
+          .append("codeName", new BsonString(commandFailure.getCodeName()));
+
+    } catch (RuntimeException runtimeException) {
+
+      return new BsonDocument("ok", new BsonDouble(0))
+          .append("errmsg", new BsonString("Command '" + commandName + "' failed: "
+              + runtimeException))
+          .append("code", new BsonInt32(CommandFailure.BAD_VALUE))
+          .append("codeName", new BsonString("BadValue"));
+    }
+  }
+
+  /**
+   * @param databaseName Name of the database the command targets.
+   * @param commandName Name of the command.
+   * @param command Command document.
+   * @param connectionId ID of the connection the command was received on.
+   * @return Response document without the 'ok' field.
+   * @throws CommandFailure If the command is not supported or fails.
+   */
+  private BsonDocument execute(
+      String databaseName,
+      String commandName,
+      BsonDocument command,
+      int connectionId) {
+
+    switch (commandName) {
+
+      case "hello":
+      case "isMaster":
+      case "ismaster":
+        return hello(commandName, connectionId);
+
+      case "ping":
+      case "endSessions":
+      case "killAllSessions":
+      case "refreshSessions":
+        return new BsonDocument();
+
+      case "buildInfo":
+      case "buildinfo":
+        return new BsonDocument("version", new BsonString(SERVER_VERSION))
+            .append("versionArray", new BsonArray(List.of(
+                new BsonInt32(5), new BsonInt32(0), new BsonInt32(0), new BsonInt32(0))))
+            .append("maxBsonObjectSize", new BsonInt32(16 * 1024 * 1024));
+
+      case "getLastError":
+        return new BsonDocument("n", new BsonInt32(0)).append("err", BsonNull.VALUE);
+
+      case "insert":
+        return insert(databaseName, command);
+
+      case "find":
+        return find(databaseName, command);
+
+      case "getMore":
+        return getMore(command);
+
+      case "killCursors":
+        return killCursors(command);
+
+      case "update":
+        return update(databaseName, command);
+
+      case "delete":
+        return delete(databaseName, command);
+
+      case "findAndModify":
+      case "findandmodify":
+        return findAndModify(databaseName, command);
+
+      case "count":
+        return count(databaseName, command);
+
+      case "distinct":
+        return distinct(databaseName, command);
+
+      case "aggregate":
+        return aggregate(databaseName, command);
+
+      case "create":
+        return create(databaseName, command);
+
+      case "drop":
+        return drop(databaseName, command);
+
+      case "dropDatabase":
+        store.dropDatabase(databaseName);
+        return new BsonDocument("dropped", new BsonString(databaseName));
+
+      case "listCollections":
+        return listCollections(databaseName, command);
+
+      case "listDatabases":
+        return listDatabases(command);
+
+      case "createIndexes":
+        return createIndexes(databaseName, command);
+
+      case "listIndexes":
+        return listIndexes(databaseName, command);
+
+      case "dropIndexes":
+      case "deleteIndexes":
+        return dropIndexes(databaseName, command);
+
+      default:
+        throw CommandFailure.unsupported("no such command: '" + commandName + "'");
+    }
+  }
+
+  /**
+   * @param commandName Name of the handshake command, i.e., 'hello' or 'isMaster'.
+   * @param connectionId ID of the connection the command was received on.
+   * @return Response describing the embedded server as a writable standalone server.
+   */
+  private BsonDocument hello(String commandName, int connectionId) {
+
+    BsonDocument response = new BsonDocument();
+    if (commandName.equals("hello")) {
+      response.put("isWritablePrimary", BsonBoolean.TRUE);
+    } else {
+      response.put("ismaster", BsonBoolean.TRUE);
+    }
+
+    return response
+        .append("helloOk", BsonBoolean.TRUE)
+        .append("maxBsonObjectSize", new BsonInt32(16 * 1024 * 1024))
+        .append("maxMessageSizeBytes", new BsonInt32(48000000))
+        .append("maxWriteBatchSize", new BsonInt32(100000))
+        .append("localTime", new BsonDateTime(System.currentTimeMillis()))
+        .append("logicalSessionTimeoutMinutes", new BsonInt32(30))
+        .append("connectionId", new BsonInt32(connectionId))
+        .append("minWireVersion", new BsonInt32(0))
+        .append("maxWireVersion", new BsonInt32(MAX_WIRE_VERSION))
+        .append("readOnly", BsonBoolean.FALSE);
+  }
+
+  /**
+   * @param databaseName Name of the database.
+   * @param command 'insert' command.
+   * @return Response with the number of inserted documents and any write errors.
+   */
+  private BsonDocument insert(String databaseName, BsonDocument command) {
+
+    String collectionName = command.getString("insert").getValue();
+    BsonArray documents = command.getArray("documents", new BsonArray());
+    boolean ordered = command.getBoolean("ordered", BsonBoolean.TRUE).getValue();
+
+    BsonArray writeErrors = new BsonArray();
+    int[] insertedCount = new int[1];
+    store.updateCollection(databaseName, collectionName, state -> {
+
+      CollectionState currentState = state == null ? CollectionState.EMPTY : state;
+      List<BsonDocument> newDocuments = new ArrayList<>(currentState.getDocuments());
+      Set<BsonValue> ids = collectIds(newDocuments);
+
+      for (int i = 0; i < documents.size(); i++) {
+
+        BsonDocument document = withId(documents.get(i).asDocument());
+        if (!ids.add(document.get("_id"))) {
+
+          writeErrors.add(duplicateKeyError(i, databaseName, collectionName, document.get("_id")));
+          if (ordered) {
+            break;
+          }
+          continue;
+        }
+
+        newDocuments.add(document);
+        insertedCount[0]++;
+      }
+
+      return currentState.withDocuments(newDocuments);
+    });
+
+    BsonDocument response = new BsonDocument("n", new BsonInt32(insertedCount[0]));
+    if (!writeErrors.isEmpty()) {
+      response.put("writeErrors", writeErrors);
+    }
+    return response;
+  }
+
+  /**
+   * @param databaseName Name of the database.
+   * @param command 'find' command.
+   * @return Cursor response with the first batch of matching documents.
+   */
+  private BsonDocument find(String databaseName, BsonDocument command) {
+
+    String collectionName = command.getString("find").getValue();
+    List<BsonDocument> results = query(
+        databaseName,
+        collectionName,
+        command.getDocument("filter", null),
+        command.getDocument("sort", null),
+        command.getNumber("skip", new BsonInt32(0)).intValue(),
+        command.getNumber("limit", new BsonInt32(0)).intValue());
+
+    BsonDocument projection = command.getDocument("projection", null);
+    List<BsonDocument> projected = new ArrayList<>(results.size());
+    for (BsonDocument document : results) {
+      projected.add(AggregationPipeline.project(document, projection));
+    }
+
+    return cursorResponse(
+        databaseName + "." + collectionName,
+        projected,
+        command.getNumber("batchSize", new BsonInt32(DEFAULT_FIRST_BATCH_SIZE)).intValue(),
+        command.getBoolean("singleBatch", BsonBoolean.FALSE).getValue());
+  }
+
+  /**
+   * @param command 'getMore' command.
+   * @return Cursor response with the next batch of documents.
+   * @throws CommandFailure If the cursor does not exist.
+   */
+  private BsonDocument getMore(BsonDocument command) {
+
+    long cursorId = command.getNumber("getMore").longValue();
+    Cursor cursor = cursors.get(cursorId);
+    if (cursor == null) {
+      throw new CommandFailure(CommandFailure.CURSOR_NOT_FOUND, "CursorNotFound",
+          "Cursor id " + cursorId + " not found.");
+    }
+
+    int batchSize = command.getNumber("batchSize", new BsonInt32(0)).intValue();
+    BsonArray batch = cursor.nextBatch(batchSize <= 0 ? Integer.MAX_VALUE : batchSize);
+    if (cursor.isExhausted()) {
+      cursors.remove(cursorId);
+    }
+
+    return new BsonDocument("cursor", new BsonDocument("nextBatch", batch)
+        .append("id", new BsonInt64(cursor.isExhausted() ? 0 : cursorId))
+        .append("ns", new BsonString(cursor.namespace)));
+  }
+
+  /**
+   * @param command 'killCursors' command.
+   * @return Response listing the killed cursors.
+   */
+  private BsonDocument killCursors(BsonDocument command) {
+
+    BsonArray killed = new BsonArray();
+    BsonArray notFound = new BsonArray();
+    for (BsonValue cursorId : command.getArray("cursors", new BsonArray())) {
+      if (cursors.remove(cursorId.asNumber().longValue()) != null) {
+        killed.add(cursorId);
+      } else {
+        notFound.add(cursorId);
+      }
+    }
+
+    return new BsonDocument("cursorsKilled", killed)
+        .append("cursorsNotFound", notFound)
+        .append("cursorsAlive", new BsonArray())
+        .append("cursorsUnknown", new BsonArray());
+  }
+
+  /**
+   * @param databaseName Name of the database.
+   * @param command 'update' command.
+   * @return Response with the numbers of matched and modified documents and any upserted IDs.
+   */
+  private BsonDocument update(String databaseName, BsonDocument command) {
+
+    String collectionName = command.getString("update").getValue();
+    BsonArray updates = command.getArray("updates", new BsonArray());
+
+    int matchedCount = 0;
+    int modifiedCount = 0;
+    BsonArray upserted = new BsonArray();
+    BsonArray writeErrors = new BsonArray();
+
+    for (int i = 0; i < updates.size(); i++) {
+
+      BsonDocument updateStatement = updates.get(i).asDocument();
+      BsonDocument filter = updateStatement.getDocument("q", new BsonDocument());
+      BsonValue updateValue = updateStatement.get("u");
+      if (updateValue == null || !updateValue.isDocument()) {
+        throw CommandFailure.unsupported("Only update documents are supported, not pipelines.");
+      }
+      BsonDocument update = updateValue.asDocument();
+      boolean multi = updateStatement.getBoolean("multi", BsonBoolean.FALSE).getValue();
+      boolean upsert = updateStatement.getBoolean("upsert", BsonBoolean.FALSE).getValue();
+
+      try {
+
+        UpdateResult result =
+            applyUpdate(databaseName, collectionName, filter, null, update, multi, upsert);
+        matchedCount += result.matchedCount;
+        modifiedCount += result.modifiedCount;
+        if (result.upsertedId != null) {
+          matchedCount++;
+          upserted.add(new BsonDocument("index", new BsonInt32(i))
+              .append("_id", result.upsertedId));
+        }
+
+      } catch (CommandFailure commandFailure) {
+
+        writeErrors.add(new BsonDocument("index", new BsonInt32(i))
+            .append("code", new BsonInt32(commandFailure.getCode()))
+            .append("errmsg", new BsonString(commandFailure.getMessage())));
+        if (command.getBoolean("ordered", BsonBoolean.TRUE).getValue()) {
+          break;
+        }
+      }
+    }
+
+    BsonDocument response = new BsonDocument("n", new BsonInt32(matchedCount))
+        .append("nModified", new BsonInt32(modifiedCount));
+    if (!upserted.isEmpty()) {
+      response.put("upserted", upserted);
+    }
+    if (!writeErrors.isEmpty()) {
+      response.put("writeErrors", writeErrors);
+    }
+    return response;
+  }
+
+  /**
+   * @param databaseName Name of the database.
+   * @param command 'delete' command.
+   * @return Response with the number of deleted documents.
+   */
+  private BsonDocument delete(String databaseName, BsonDocument command) {
+
+    String collectionName = command.getString("delete").getValue();
+    BsonArray deletes = command.getArray("deletes", new BsonArray());
+
+    int[] deletedCount = new int[1];
+    for (BsonValue deleteValue : deletes) {
+
+      BsonDocument deleteStatement = deleteValue.asDocument();
+      BsonDocument filter = deleteStatement.getDocument("q", new BsonDocument());
+      int limit = deleteStatement.getNumber("limit", new BsonInt32(0)).intValue();
+
+      store.updateCollection(databaseName, collectionName, state -> {
+
+        if (state == null) {
+          return null;
+        }
+
+        List<BsonDocument> remaining = new ArrayList<>(state.getDocuments().size());
+        int deleted = 0;
+        for (BsonDocument document : state.getDocuments()) {
+          if ((limit == 0 || deleted < limit) && QueryMatcher.matches(document, filter)) {
+            deleted++;
+          } else {
+            remaining.add(document);
+          }
+        }
+
+        deletedCount[0] += deleted;
+        return state.withDocuments(remaining);
+      });
+    }
+
+    return new BsonDocument("n", new BsonInt32(deletedCount[0]));
+  }
+
+  /**
+   * @param databaseName Name of the database.
+   * @param command 'findAndModify' command.
+   * @return Response with the document before or after the modification.
+   */
+  private BsonDocument findAndModify(String databaseName, BsonDocument command) {
+
+    String collectionName = command.getFirstKey().equals("findAndModify")
+        ? command.getString("findAndModify").getValue()
+        : command.getString("findandmodify").getValue();
+    BsonDocument filter = command.getDocument("query", new BsonDocument());
+    BsonDocument sort = command.getDocument("sort", null);
+    BsonDocument fields = command.getDocument("fields", null);
+    boolean remove = command.getBoolean("remove", BsonBoolean.FALSE).getValue();
+    boolean returnNew = command.getBoolean("new", BsonBoolean.FALSE).getValue();
+    boolean upsert = command.getBoolean("upsert", BsonBoolean.FALSE).getValue();
+
+    BsonDocument lastErrorObject = new BsonDocument();
+    BsonValue value;
+
+    if (remove) {
+
+      BsonDocument[] removed = new BsonDocument[1];
+      store.updateCollection(databaseName, collectionName, state -> {
+
+        if (state == null) {
+          return null;
+        }
+
+        List<BsonDocument> matched = AggregationPipeline.sort(
+            matching(state.getDocuments(), filter), sort);
+        if (matched.isEmpty()) {
+          return state;
+        }
+
+        removed[0] = matched.get(0);
+        List<BsonDocument> remaining = new ArrayList<>(state.getDocuments());
+        remaining.remove(indexOfIdentity(remaining, removed[0]));
+        return state.withDocuments(remaining);
+      });
+
+      lastErrorObject.put("n", new BsonInt32(removed[0] == null ? 0 : 1));
+      value = removed[0] == null ? BsonNull.VALUE : AggregationPipeline.project(removed[0], fields);
+
+    } else {
+
+      BsonValue updateValue = command.get("update");
+      if (updateValue == null || !updateValue.isDocument()) {
+        throw CommandFailure.unsupported("Only update documents are supported, not pipelines.");
+      }
+
+      UpdateResult result = applyUpdate(databaseName, collectionName, filter, sort,
+          updateValue.asDocument(), false, upsert);
+
+      lastErrorObject
+          .append("n", new BsonInt32(result.matchedCount + (result.upsertedId == null ? 0 : 1)))
+          .append("updatedExisting", BsonBoolean.valueOf(result.matchedCount > 0));
+      if (result.upsertedId != null) {
+        lastErrorObject.put("upserted", result.upsertedId);
+      }
+
+      BsonDocument document = returnNew ? result.lastNewDocument : result.lastOldDocument;
+      value = document == null ? BsonNull.VALUE : AggregationPipeline.project(document, fields);
+    }
+
+    return new BsonDocument("lastErrorObject", lastErrorObject).append("value", value);
+  }
+
+  /**
+   * @param databaseName Name of the database.
+   * @param command 'count' command.
+   * @return Response with the number of matching documents.
+   */
+  private BsonDocument count(String databaseName, BsonDocument command) {
+
+    List<BsonDocument> results = query(
+        databaseName,
+        command.getString("count").getValue(),
+        command.getDocument("query", null),
+        null,
+        command.getNumber("skip", new BsonInt32(0)).intValue(),
+        command.getNumber("limit", new BsonInt32(0)).intValue());
+
+    return new BsonDocument("n", new BsonInt32(results.size()));
+  }
+
+  /**
+   * @param databaseName Name of the database.
+   * @param command 'distinct' command.
+   * @return Response with the distinct values of the requested field.
+   */
+  private BsonDocument distinct(String databaseName, BsonDocument command) {
+
+    List<BsonDocument> results = query(
+        databaseName,
+        command.getString("distinct").getValue(),
+        command.getDocument("query", null),
+        null,
+        0,
+        0);
+
+    String key = command.getString("key").getValue();
+    BsonArray values = new BsonArray();
+    for (BsonDocument document : results) {
+      for (BsonValue value : DocumentPaths.getValues(document, key)) {
+
+        List<BsonValue> candidates = value.isArray() ? value.asArray().getValues() : List.of(value);
+        for (BsonValue candidate : candidates) {
+          if (values.stream()
+              .noneMatch(existing -> BsonValueComparator.INSTANCE.isEqual(existing, candidate))) {
+            values.add(candidate);
+          }
+        }
+      }
+    }
+
+    return new BsonDocument("values", values);
+  }
+
+  /**
+   * @param databaseName Name of the database.
+   * @param command 'aggregate' command.
+   * @return Cursor response with the first batch of the pipeline's results.
+   */
+  private BsonDocument aggregate(String databaseName, BsonDocument command) {
+
+    BsonValue target = command.get("aggregate");
+    if (!target.isString()) {
+      throw CommandFailure.unsupported("Database-level aggregation is not supported.");
+    }
+
+    String collectionName = target.asString().getValue();
+    if (command.containsKey("explain")) {
+      throw CommandFailure.unsupported("Explaining aggregations is not supported.");
+    }
+
+    CollectionState state = store.getCollection(databaseName, collectionName);
+    List<BsonDocument> documents = state == null ? List.of() : state.getDocuments();
+    List<BsonDocument> results =
+        AggregationPipeline.execute(documents, command.getArray("pipeline", new BsonArray()));
+
+    BsonDocument cursorOptions = command.getDocument("cursor", new BsonDocument());
+    return cursorResponse(
+        databaseName + "." + collectionName,
+        results,
+        cursorOptions.getNumber("batchSize", new BsonInt32(DEFAULT_FIRST_BATCH_SIZE)).intValue(),
+        false);
+  }
+
+  /**
+   * @param databaseName Name of the database.
+   * @param command 'create' command.
+   * @return Empty response.
+   * @throws CommandFailure If the collection already exists.
+   */
+  private BsonDocument create(String databaseName, BsonDocument command) {
+
+    String collectionName = command.getString("create").getValue();
+    boolean[] existed = new boolean[1];
+    store.updateCollection(databaseName, collectionName, state -> {
+      existed[0] = state != null;
+      return state == null ? CollectionState.EMPTY : state;
+    });
+
+    if (existed[0]) {
+      throw new CommandFailure(CommandFailure.NAMESPACE_EXISTS, "NamespaceExists",
+          "Collection " + databaseName + "." + collectionName + " already exists.");
+    }
+
+    return new BsonDocument();
+  }
+
+  /**
+   * @param databaseName Name of the database.
+   * @param command 'drop' command.
+   * @return Response with the namespace of the dropped collection.
+   */
+  private BsonDocument drop(String databaseName, BsonDocument command) {
+
+    String collectionName = command.getString("drop").getValue();
+    CollectionState[] dropped = new CollectionState[1];
+    store.updateCollection(databaseName, collectionName, state -> {
+      dropped[0] = state;
+      return null;
+    });
+
+    int indexCount = dropped[0] == null ? 0 : dropped[0].getIndexes().size() + 1;
+    return new BsonDocument("ns", new BsonString(databaseName + "." + collectionName))
+        .append("nIndexesWas", new BsonInt32(indexCount));
+  }
+
+  /**
+   * @param databaseName Name of the database.
+   * @param command 'listCollections' command.
+   * @return Cursor response describing the collections of the database that match the filter.
+   */
+  private BsonDocument listCollections(String databaseName, BsonDocument command) {
+
+    BsonDocument filter = command.getDocument("filter", null);
+    boolean nameOnly = command.getBoolean("nameOnly", BsonBoolean.FALSE).getValue();
+
+    List<BsonDocument> collections = new ArrayList<>();
+    for (String collectionName : store.getCollections(databaseName).keySet()) {
+
+      BsonDocument collectionInfo = new BsonDocument("name", new BsonString(collectionName))
+          .append("type", new BsonString("collection"));
+      if (!nameOnly) {
+        collectionInfo
+            .append("options", new BsonDocument())
+            .append("info", new BsonDocument("readOnly", BsonBoolean.FALSE))
+            .append("idIndex", ID_INDEX);
+      }
+
+      if (QueryMatcher.matches(collectionInfo, filter)) {
+        collections.add(collectionInfo);
+      }
+    }
+
+    return cursorResponse(databaseName + ".$cmd.listCollections", collections, 0, true);
+  }
+
+  /**
+   * @param command 'listDatabases' command.
+   * @return Response describing all the databases of the embedded server.
+   */
+  private BsonDocument listDatabases(BsonDocument command) {
+
+    boolean nameOnly = command.getBoolean("nameOnly", BsonBoolean.FALSE).getValue();
+
+    BsonArray databases = new BsonArray();
+    for (String databaseName : store.getDatabaseNames()) {
+
+      BsonDocument databaseInfo = new BsonDocument("name", new BsonString(databaseName));
+      if (!nameOnly) {
+        databaseInfo
+            .append("sizeOnDisk", new BsonInt64(0))
+            .append("empty", BsonBoolean.FALSE);
+      }
+      databases.add(databaseInfo);
+    }
+
+    BsonDocument response = new BsonDocument("databases", databases);
+    if (!nameOnly) {
+      response.put("totalSize", new BsonInt64(0));
+    }
+    return response;
+  }
+
+  /**
+   * @param databaseName Name of the database.
+   * @param command 'createIndexes' command.
+   * @return Response with the numbers of indexes before and after the command.
+   */
+  private BsonDocument createIndexes(String databaseName, BsonDocument command) {
+
+    String collectionName = command.getString("createIndexes").getValue();
+    BsonArray indexes = command.getArray("indexes", new BsonArray());
+
+    int[] counts = new int[2];
+    boolean[] created = new boolean[1];
+    store.updateCollection(databaseName, collectionName, state -> {
+
+      created[0] = state == null;
+      CollectionState currentState = state == null ? CollectionState.EMPTY : state;
+      List<BsonDocument> newIndexes = new ArrayList<>(currentState.getIndexes());
+      counts[0] = newIndexes.size() + 1;
+
+      for (BsonValue index : indexes) {
+
+        BsonDocument indexSpecification = index.asDocument().clone();
+        String indexName = indexSpecification.getString("name").getValue();
+        boolean exists = indexName.equals("_id_") || newIndexes.stream()
+            .anyMatch(existing -> existing.getString("name").getValue().equals(indexName));
+        if (!exists) {
+          indexSpecification.putIfAbsent("v", new BsonInt32(2));
+          newIndexes.add(indexSpecification);
+        }
+      }
+
+      counts[1] = newIndexes.size() + 1;
+      return currentState.withIndexes(newIndexes);
+    });
+
+    return new BsonDocument("createdCollectionAutomatically", BsonBoolean.valueOf(created[0]))
+        .append("numIndexesBefore", new BsonInt32(counts[0]))
+        .append("numIndexesAfter", new BsonInt32(counts[1]));
+  }
+
+  /**
+   * @param databaseName Name of the database.
+   * @param command 'listIndexes' command.
+   * @return Cursor response describing the indexes of the collection.
+   * @throws CommandFailure If the collection does not exist.
+   */
+  private BsonDocument listIndexes(String databaseName, BsonDocument command) {
+
+    String collectionName = command.getString("listIndexes").getValue();
+    CollectionState state = store.getCollection(databaseName, collectionName);
+    if (state == null) {
+      throw new CommandFailure(CommandFailure.NAMESPACE_NOT_FOUND, "NamespaceNotFound",
+          "ns does not exist: " + databaseName + "." + collectionName);
+    }
+
+    List<BsonDocument> indexes = new ArrayList<>();
+    indexes.add(ID_INDEX);
+    indexes.addAll(state.getIndexes());
+
+    return cursorResponse(databaseName + "." + collectionName, indexes, 0, true);
+  }
+
+  /**
+   * @param databaseName Name of the database.
+   * @param command 'dropIndexes' command.
+   * @return Response with the number of indexes before the command.
+   */
+  private BsonDocument dropIndexes(String databaseName, BsonDocument command) {
+
+    String collectionName = command.getString(command.getFirstKey()).getValue();
+    BsonValue index = command.get("index");
+
+    int[] countBefore = new int[1];
+    store.updateCollection(databaseName, collectionName, state -> {
+
+      if (state == null) {
+        return null;
+      }
+
+      countBefore[0] = state.getIndexes().size() + 1;
+      List<BsonDocument> remaining = new ArrayList<>();
+      for (BsonDocument existing : state.getIndexes()) {
+        if (!isIndexDropped(existing, index)) {
+          remaining.add(existing);
+        }
+      }
+
+      return state.withIndexes(remaining);
+    });
+
+    return new BsonDocument("nIndexesWas", new BsonInt32(countBefore[0]));
+  }
+
+  /**
+   * @param index Index specification.
+   * @param dropped 'index' argument of the 'dropIndexes' command, i.e., '*', an index name, an
+   * array of index names, or an index key document.
+   * @return 'true' if the provided 'index' is dropped by the provided 'dropped' argument.
+   */
+  private static boolean isIndexDropped(BsonDocument index, BsonValue dropped) {
+
+    if (dropped == null) {
+      return false;
+    }
+
+    if (dropped.isString()) {
+      String name = dropped.asString().getValue();
+      return name.equals("*") || name.equals(index.getString("name").getValue());
+    }
+
+    if (dropped.isArray()) {
+      return dropped.asArray().stream().anyMatch(name -> isIndexDropped(index, name));
+    }
+
+    return dropped.equals(index.get("key"));
+  }
+
+  /**
+   * @param databaseName Name of the database.
+   * @param collectionName Name of the collection.
+   * @param filter Query filter. Can be 'null'.
+   * @param sort Sort specification. Can be 'null'.
+   * @param skip Number of matching documents to skip.
+   * @param limit Maximum number of documents to return. Non-positive values mean no limit.
+   * @return Documents of the collection that match the provided arguments.
+   */
+  private List<BsonDocument> query(
+      String databaseName,
+      String collectionName,
+      BsonDocument filter,
+      BsonDocument sort,
+      int skip,
+      int limit) {
+
+    CollectionState state = store.getCollection(databaseName, collectionName);
+    if (state == null) {
+      return new ArrayList<>();
+    }
+
+    List<BsonDocument> results =
+        AggregationPipeline.sort(matching(state.getDocuments(), filter), sort);
+
+    int fromIndex = Math.min(Math.max(skip, 0), results.size());
+    int toIndex = limit == 0
+        ? results.size()
+        : Math.min(fromIndex + Math.abs(limit), results.size());
+    return results.subList(fromIndex, toIndex);
+  }
+
+  /**
+   * @param documents Documents to filter.
+   * @param filter Query filter. Can be 'null'.
+   * @return New list of the provided 'documents' that match the provided 'filter'.
+   */
+  private static List<BsonDocument> matching(List<BsonDocument> documents, BsonDocument filter) {
+
+    List<BsonDocument> matched = new ArrayList<>();
+    for (BsonDocument document : documents) {
+      if (QueryMatcher.matches(document, filter)) {
+        matched.add(document);
+      }
+    }
+
+    return matched;
+  }
+
+  /**
+   * Applies an update to the documents of a collection that match the provided 'filter',
+   * inserting a new document if none match and 'upsert' is set.
+   *
+   * @param databaseName Name of the database.
+   * @param collectionName Name of the collection.
+   * @param filter Query filter.
+   * @param sort Sort specification that determines which document is updated if not 'multi'. Can
+   * be 'null'.
+   * @param update Update document or replacement document.
+   * @param multi Flag to indicate that all matching documents should be updated.
+   * @param upsert Flag to indicate that a document should be inserted if none match.
+   * @return Result of the update.
+   * @throws CommandFailure If the update is invalid or would duplicate an '_id'.
+   */
+  private UpdateResult applyUpdate(
+      String databaseName,
+      String collectionName,
+      BsonDocument filter,
+      BsonDocument sort,
+      BsonDocument update,
+      boolean multi,
+      boolean upsert) {
+
+    if (multi && UpdateApplier.isReplacement(update)) {
+      throw CommandFailure.badValue(
+          "Replacement documents can't be applied to multiple documents.");
+    }
+
+    UpdateResult result = new UpdateResult();
+    store.updateCollection(databaseName, collectionName, state -> {
+
+      CollectionState currentState = state == null ? CollectionState.EMPTY : state;
+      List<BsonDocument> newDocuments = new ArrayList<>(currentState.getDocuments());
+
+      // Determine documents to update, in the requested order
+      List<BsonDocument> targets = AggregationPipeline.sort(matching(newDocuments, filter), sort);
+      if (!multi && targets.size() > 1) {
+        targets = targets.subList(0, 1);
+      }
+
+      for (BsonDocument target : targets) {
+
+        BsonDocument updated = UpdateApplier.apply(target, update, false);
+        result.matchedCount++;
+        result.lastOldDocument = target;
+        result.lastNewDocument = updated;
+        if (!updated.equals(target)) {
+          result.modifiedCount++;
+          newDocuments.set(indexOfIdentity(newDocuments, target), updated);
+        }
+      }
+
+      // Insert new document if nothing matched
+      if (targets.isEmpty() && upsert) {
+
+        BsonDocument inserted = withId(UpdateApplier.apply(
+            upsertSeed(filter, update), update, true));
+        if (collectIds(newDocuments).contains(inserted.get("_id"))) {
+          throw duplicateKeyFailure(databaseName, collectionName, inserted.get("_id"));
+        }
+
+        newDocuments.add(inserted);
+        result.upsertedId = inserted.get("_id");
+        result.lastNewDocument = inserted;
+      }
+
+      if (state == null && newDocuments.isEmpty()) {
+        return null;
+      }
+      return currentState.withDocuments(newDocuments);
+    });
+
+    return result;
+  }
+
+  /**
+   * @param filter Query filter of the upsert.
+   * @param update Update document or replacement document of the upsert.
+   * @return Document to apply the update to when upserting, i.e., the equality conditions of the
+   * 'filter' for update documents, or just the '_id' equality condition for replacements.
+   */
+  private static BsonDocument upsertSeed(BsonDocument filter, BsonDocument update) {
+
+    BsonDocument seed = new BsonDocument();
+    for (Map.Entry<String, BsonValue> entry : filter.entrySet()) {
+
+      String key = entry.getKey();
+      BsonValue condition = entry.getValue();
+      if (key.startsWith("$") || (!key.equals("_id") && UpdateApplier.isReplacement(update))) {
+        continue;
+      }
+
+      if (condition.isDocument() && !condition.asDocument().isEmpty()
+          && condition.asDocument().getFirstKey().startsWith("$")) {
+        if (condition.asDocument().containsKey("$eq")) {
+          DocumentPaths.setValue(seed, key, condition.asDocument().get("$eq"));
+        }
+        continue;
+      }
+
+      DocumentPaths.setValue(seed, key, DocumentPaths.copyOf(condition));
+    }
+
+    return seed;
+  }
+
+  /**
+   * @param namespace Namespace the cursor iterates over.
+   * @param documents All documents the cursor returns.
+   * @param firstBatchSize Number of documents to return in the first batch. Non-positive values
+   * mean all documents.
+   * @param singleBatch Flag to indicate that all the documents should be returned in the first
+   * batch, up to 'firstBatchSize', and the cursor closed.
+   * @return Cursor response with the first batch. If more documents remain, the cursor is kept
+   * open for 'getMore' commands.
+   */
+  private BsonDocument cursorResponse(
+      String namespace,
+      List<BsonDocument> documents,
+      int firstBatchSize,
+      boolean singleBatch) {
+
+    Cursor cursor = new Cursor(namespace, documents);
+    BsonArray firstBatch =
+        cursor.nextBatch(firstBatchSize <= 0 ? Integer.MAX_VALUE : firstBatchSize);
+
+    long cursorId = 0;
+    if (!singleBatch && !cursor.isExhausted()) {
+      cursorId = nextCursorId.getAndIncrement();
+      cursors.put(cursorId, cursor);
+    }
+
+    return new BsonDocument("cursor", new BsonDocument("firstBatch", firstBatch)
+        .append("id", new BsonInt64(cursorId))
+        .append("ns", new BsonString(namespace)));
+  }
+
+  /**
+   * @param documents Documents to collect the '_id' values of.
+   * @return Set of the '_id' values of the provided 'documents'.
+   */
+  private static Set<BsonValue> collectIds(List<BsonDocument> documents) {
+
+    Set<BsonValue> ids = new HashSet<>();
+    for (BsonDocument document : documents) {
+      ids.add(document.get("_id"));
+    }
+
+    return ids;
+  }
+
+  /**
+   * @param document Document to insert.
+   * @return The provided 'document' with a newly generated '_id' as its first field, if it did not
+   * have one.
+   */
+  private static BsonDocument withId(BsonDocument document) {
+
+    if (document.containsKey("_id")) {
+      return document;
+    }
+
+    BsonDocument documentWithId = new BsonDocument("_id", new BsonObjectId());
+    documentWithId.putAll(document);
+    return documentWithId;
+  }
+
+  /**
+   * @param documents List of documents.
+   * @param document Document to find.
+   * @return Index of the provided 'document' instance in the provided 'documents'.
+   */
+  private static int indexOfIdentity(List<BsonDocument> documents, BsonDocument document) {
+
+    for (int i = 0; i < documents.size(); i++) {
+      if (documents.get(i) == document) {
+        return i;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * @param index Index of the failed document in the command.
+   * @param databaseName Name of the database.
+   * @param collectionName Name of the collection.
+   * @param id Duplicate '_id' value.
+   * @return Write error describing the duplicate key.
+   */
+  private static BsonDocument duplicateKeyError(
+      int index,
+      String databaseName,
+      String collectionName,
+      BsonValue id) {
+
+    CommandFailure failure = duplicateKeyFailure(databaseName, collectionName, id);
+    return new BsonDocument("index", new BsonInt32(index))
+        .append("code", new BsonInt32(failure.getCode()))
+        .append("errmsg", new BsonString(failure.getMessage()));
+  }
+
+  /**
+   * @param databaseName Name of the database.
+   * @param collectionName Name of the collection.
+   * @param id Duplicate '_id' value.
+   * @return Failure describing the duplicate key.
+   */
+  private static CommandFailure duplicateKeyFailure(
+      String databaseName,
+      String collectionName,
+      BsonValue id) {
+
+    return new CommandFailure(CommandFailure.DUPLICATE_KEY, "DuplicateKey",
+        "E11000 duplicate key error collection: " + databaseName + "." + collectionName
+            + " index: _id_ dup key: { _id: " + id + " }");
+  }
+
+  /**
+   * {@link UpdateResult} class holds the outcome of applying an update.
+   */
+  private static class UpdateResult {
+
+    /**
+     * Number of documents that matched the filter.
+     */
+    private int matchedCount;
+
+    /**
+     * Number of documents that were actually changed.
+     */
+    private int modifiedCount;
+
+    /**
+     * '_id' of the upserted document or 'null' if nothing was upserted.
+     */
+    private BsonValue upsertedId;
+
+    /**
+     * Last updated document before the update or 'null' if nothing was updated.
+     */
+    private BsonDocument lastOldDocument;
+
+    /**
+     * Last updated or upserted document after the update or 'null' if nothing was updated.
+     */
+    private BsonDocument lastNewDocument;
+  }
+
+  /**
+   * {@link Cursor} class is a server-side cursor over a fixed list of documents.
+   */
+  private static class Cursor {
+
+    /**
+     * Namespace the cursor iterates over.
+     */
+    private final String namespace;
+
+    /**
+     * All documents the cursor returns.
+     */
+    private final List<BsonDocument> documents;
+
+    /**
+     * Index of the next document to return.
+     */
+    private int position;
+
+    /**
+     * Constructor.
+     *
+     * @param namespace Namespace the cursor iterates over.
+     * @param documents All documents the cursor returns.
+     */
+    private Cursor(String namespace, List<BsonDocument> documents) {
+      this.namespace = namespace;
+      this.documents = documents;
+    }
+
+    /**
+     * @param batchSize Maximum number of documents to return.
+     * @return Next batch of documents.
+     */
+    private synchronized BsonArray nextBatch(int batchSize) {
+
+      int end = (int) Math.min((long) position + batchSize, documents.size());
+      BsonArray batch = new BsonArray(new ArrayList<>(documents.subList(position, end)));
+      position = end;
+      return batch;
+    }
+
+    /**
+     * @return 'true' if all the documents have been returned.
+     */
+    private synchronized boolean isExhausted() {
+      return position >= documents.size();
+    }
+  }
+}
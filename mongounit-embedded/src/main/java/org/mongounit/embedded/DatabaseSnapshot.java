@@ -0,0 +1,42 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.embedded;
+
+import java.util.Map;
+
+/**
+ * {@link DatabaseSnapshot} class is a point-in-time snapshot of all the collections of a database
+ * stored by the {@link EmbeddedMongoServer}. Taking and restoring a snapshot is instant regardless
+ * of the amount of data, since collection states are immutable and shared with the live database
+ * until either of them changes.
+ */
+public final class DatabaseSnapshot {
+
+  /**
+   * Collection names mapped to the states of the collections at the time of the snapshot.
+   */
+  private final Map<String, CollectionState> collections;
+
+  /**
+   * Constructor.
+   *
+   * @param collections Collection names mapped to the states of the collections at the time of
+   * the snapshot. The map must not be modified afterwards.
+   */
+  DatabaseSnapshot(Map<String, CollectionState> collections) {
+    this.collections = collections;
+  }
+
+  /**
+   * @return Collection names mapped to the states of the collections at the time of the snapshot.
+   */
+  Map<String, CollectionState> getCollections() {
+    return collections;
+  }
+}
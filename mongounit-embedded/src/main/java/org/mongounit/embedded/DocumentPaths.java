@@ -0,0 +1,261 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.embedded;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonNull;
+import org.bson.BsonValue;
+
+/**
+ * {@link DocumentPaths} class provides utility methods to read, write, and remove values in BSON
+ * documents by dotted field paths, e.g., 'address.city' or 'items.0.price'.
+ */
+class DocumentPaths {
+
+  /**
+   * @param document Document to read from.
+   * @param path Dotted path of the field to read.
+   * @return List of values the provided 'path' resolves to in the provided 'document'. Arrays
+   * along the path are traversed into, so the list may contain more than one value. Empty list if
+   * the path does not exist.
+   */
+  static List<BsonValue> getValues(BsonDocument document, String path) {
+
+    List<BsonValue> values = new ArrayList<>();
+    collectValues(document, path.split("\\."), 0, values);
+    return values;
+  }
+
+  /**
+   * @param document Document to read from.
+   * @param path Dotted path of the field to read.
+   * @return First value the provided 'path' resolves to in the provided 'document' or 'null' if
+   * the path does not exist.
+   */
+  static BsonValue getValue(BsonDocument document, String path) {
+
+    List<BsonValue> values = getValues(document, path);
+    return values.isEmpty() ? null : values.get(0);
+  }
+
+  /**
+   * Collects values the provided 'parts' of a path resolve to, starting at the provided 'value'.
+   *
+   * @param value Value to resolve the remaining parts of the path in.
+   * @param parts Parts of the dotted path.
+   * @param index Index of the part to resolve next.
+   * @param values List to add the resolved values to.
+   */
+  private static void collectValues(
+      BsonValue value,
+      String[] parts,
+      int index,
+      List<BsonValue> values) {
+
+    if (index == parts.length) {
+      values.add(value);
+      return;
+    }
+
+    String part = parts[index];
+    if (value.isDocument()) {
+
+      BsonValue child = value.asDocument().get(part);
+      if (child != null) {
+        collectValues(child, parts, index + 1, values);
+      }
+
+    } else if (value.isArray()) {
+
+      BsonArray array = value.asArray();
+
+      // Numeric part addresses an array element directly
+      Integer arrayIndex = toArrayIndex(part);
+      if (arrayIndex != null && arrayIndex < array.size()) {
+        collectValues(array.get(arrayIndex), parts, index + 1, values);
+      }
+
+      // Otherwise, the part applies to every document element of the array
+      for (BsonValue element : array) {
+        if (element.isDocument()) {
+          collectValues(element, parts, index, values);
+        }
+      }
+    }
+  }
+
+  /**
+   * Sets the provided 'value' at the provided 'path' of the 'document', creating intermediate
+   * documents as needed.
+   *
+   * @param document Document to modify.
+   * @param path Dotted path of the field to set.
+   * @param value Value to set.
+   * @throws CommandFailure If the path traverses a value that is neither a document nor an array.
+   */
+  static void setValue(BsonDocument document, String path, BsonValue value) {
+
+    String[] parts = path.split("\\.");
+    BsonValue current = document;
+    for (int i = 0; i < parts.length - 1; i++) {
+      current = getOrCreateChild(current, parts[i], path);
+    }
+
+    String lastPart = parts[parts.length - 1];
+    if (current.isDocument()) {
+      current.asDocument().put(lastPart, value);
+      return;
+    }
+
+    setArrayElement(current.asArray(), lastPart, value);
+  }
+
+  /**
+   * Sets the provided 'value' at the array index represented by the provided 'part', padding the
+   * 'array' with 'null' values up to that index.
+   *
+   * @param array Array to modify.
+   * @param part Array index.
+   * @param value Value to set.
+   * @throws CommandFailure If the provided 'part' is not an array index.
+   */
+  private static void setArrayElement(BsonArray array, String part, BsonValue value) {
+
+    Integer arrayIndex = toArrayIndex(part);
+    if (arrayIndex == null) {
+      throw CommandFailure.badValue("Cannot create field '" + part + "' in an array.");
+    }
+
+    while (array.size() <= arrayIndex) {
+      array.add(BsonNull.VALUE);
+    }
+    array.set(arrayIndex, value);
+  }
+
+  /**
+   * Removes the field at the provided 'path' of the 'document', if it exists.
+   *
+   * @param document Document to modify.
+   * @param path Dotted path of the field to remove.
+   */
+  static void removeValue(BsonDocument document, String path) {
+
+    String[] parts = path.split("\\.");
+    BsonValue current = document;
+    for (int i = 0; i < parts.length - 1 && current != null; i++) {
+      current = getChild(current, parts[i]);
+    }
+
+    if (current == null) {
+      return;
+    }
+
+    String lastPart = parts[parts.length - 1];
+    if (current.isDocument()) {
+      current.asDocument().remove(lastPart);
+    } else if (current.isArray()) {
+
+      // Removing an array element leaves 'null' in its place, like MongoDB does
+      Integer arrayIndex = toArrayIndex(lastPart);
+      if (arrayIndex != null && arrayIndex < current.asArray().size()) {
+        current.asArray().set(arrayIndex, BsonNull.VALUE);
+      }
+    }
+  }
+
+  /**
+   * @param value Document or array to read from.
+   * @param part Field name or array index.
+   * @return Child of the provided 'value' named by the provided 'part' or 'null' if there is no
+   * such child.
+   */
+  private static BsonValue getChild(BsonValue value, String part) {
+
+    if (value.isDocument()) {
+      return value.asDocument().get(part);
+    }
+
+    if (value.isArray()) {
+      Integer arrayIndex = toArrayIndex(part);
+      if (arrayIndex != null && arrayIndex < value.asArray().size()) {
+        return value.asArray().get(arrayIndex);
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * @param value Document or array to read from or add to.
+   * @param part Field name or array index.
+   * @param path Full path being set, for error reporting.
+   * @return Child of the provided 'value' named by the provided 'part', newly created as an empty
+   * document if it did not exist.
+   * @throws CommandFailure If the child exists and is neither a document nor an array.
+   */
+  private static BsonValue getOrCreateChild(BsonValue value, String part, String path) {
+
+    BsonValue child = getChild(value, part);
+    if (child == null || child.isNull()) {
+      child = new BsonDocument();
+      if (value.isDocument()) {
+        value.asDocument().put(part, child);
+      } else {
+        setArrayElement(value.asArray(), part, child);
+      }
+    }
+
+    if (!child.isDocument() && !child.isArray()) {
+      throw CommandFailure.badValue("Cannot create field in element of path '" + path + "'.");
+    }
+
+    return child;
+  }
+
+  /**
+   * @param value BSON value to copy.
+   * @return Deep copy of the provided 'value' if it's a document or an array, or the 'value' itself
+   * otherwise, since all other BSON values are immutable.
+   */
+  static BsonValue copyOf(BsonValue value) {
+
+    if (value.isDocument()) {
+      return value.asDocument().clone();
+    }
+
+    if (value.isArray()) {
+      return value.asArray().clone();
+    }
+
+    return value;
+  }
+
+  /**
+   * @param part Part of a dotted path.
+   * @return Array index the provided 'part' represents or 'null' if it's not a non-negative
+   * integer.
+   */
+  private static Integer toArrayIndex(String part) {
+
+    if (part.isEmpty() || part.length() > 9) {
+      return null;
+    }
+
+    for (int i = 0; i < part.length(); i++) {
+      if (!Character.isDigit(part.charAt(i))) {
+        return null;
+      }
+    }
+
+    return Integer.parseInt(part);
+  }
+}
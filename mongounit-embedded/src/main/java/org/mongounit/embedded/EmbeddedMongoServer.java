@@ -0,0 +1,288 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.embedded;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.bson.BsonDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link EmbeddedMongoServer} class is a pure-Java, in-memory stand-in for a MongoDB server that
+ * speaks enough of the MongoDB wire protocol for the MongoDB drivers to use it for CRUD commands,
+ * basic aggregation, index management, and collection and database management. It lets MongoUnit
+ * test suites run without an external 'mongod' process.
+ *
+ * All data is kept in an {@link InMemoryStore}, which is copy-on-write, so the state of a database
+ * can be captured with {@link #snapshotDatabase(String)} and restored with {@link
+ * #restoreDatabase(String, DatabaseSnapshot)} instantly.
+ *
+ * NOTE: The embedded server is meant for tests only. It implements a subset of MongoDB's query,
+ * update, and aggregation languages, does not enforce unique indexes other than the one on '_id',
+ * and does not support authentication, transactions, or change streams.
+ */
+public class EmbeddedMongoServer implements AutoCloseable {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(EmbeddedMongoServer.class);
+
+  /**
+   * Instance of the embedded server shared by the whole JVM. 'null' until first requested.
+   */
+  private static EmbeddedMongoServer sharedInstance;
+
+  /**
+   * Store that holds all the databases.
+   */
+  private final InMemoryStore store = new InMemoryStore();
+
+  /**
+   * Handler that executes the commands received on all connections.
+   */
+  private final CommandHandler commandHandler = new CommandHandler(store);
+
+  /**
+   * Currently open client connections.
+   */
+  private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+  /**
+   * ID to assign to the next connection.
+   */
+  private final AtomicInteger nextConnectionId = new AtomicInteger(1);
+
+  /**
+   * ID to assign to the next reply message.
+   */
+  private final AtomicInteger nextReplyId = new AtomicInteger(1);
+
+  /**
+   * Socket the server accepts connections on. 'null' until started.
+   */
+  private volatile ServerSocket serverSocket;
+
+  /**
+   * @return Embedded server shared by the whole JVM, started on an ephemeral loopback port the
+   * first time this method is called.
+   * @throws UncheckedIOException If the server can't be started.
+   */
+  public static synchronized EmbeddedMongoServer getSharedInstance() {
+
+    if (sharedInstance == null) {
+      EmbeddedMongoServer server = new EmbeddedMongoServer();
+      server.start(0);
+      sharedInstance = server;
+    }
+
+    return sharedInstance;
+  }
+
+  /**
+   * @return Embedded server shared by the whole JVM or 'null' if it has not been started.
+   */
+  public static synchronized EmbeddedMongoServer getSharedInstanceIfStarted() {
+    return sharedInstance;
+  }
+
+  /**
+   * Starts accepting connections on the loopback interface.
+   *
+   * @param port Port to listen on or '0' to pick an ephemeral port.
+   * @throws IllegalStateException If the server is already started.
+   * @throws UncheckedIOException If the port can't be bound.
+   */
+  public synchronized void start(int port) {
+
+    if (serverSocket != null) {
+      String message = "Embedded MongoDB server is already started on port " + getPort() + ".";
+      log.error(message);
+      throw new IllegalStateException(message);
+    }
+
+    try {
+      serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+    } catch (IOException ioException) {
+      String message = "Failed to start embedded MongoDB server on port " + port + ".";
+      log.error(message, ioException);
+      throw new UncheckedIOException(message, ioException);
+    }
+
+    Thread acceptThread = new Thread(this::acceptConnections, "mongounit-embedded-accept");
+    acceptThread.setDaemon(true);
+    acceptThread.start();
+
+    log.info("Started embedded MongoDB server on port " + getPort() + ".");
+  }
+
+  /**
+   * @return Port the server listens on.
+   * @throws IllegalStateException If the server is not started.
+   */
+  public int getPort() {
+
+    ServerSocket socket = serverSocket;
+    if (socket == null) {
+      throw new IllegalStateException("Embedded MongoDB server is not started.");
+    }
+
+    return socket.getLocalPort();
+  }
+
+  /**
+   * @param databaseName Name of the database to connect to.
+   * @return MongoDB URI that connects to the provided 'databaseName' on this server.
+   */
+  public String getConnectionString(String databaseName) {
+    return "mongodb://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + getPort() + "/"
+        + databaseName;
+  }
+
+  /**
+   * Removes all the collections of the database with the provided 'databaseName' in memory,
+   * without any network round trips.
+   *
+   * @param databaseName Name of the database to clear.
+   */
+  public void clearDatabase(String databaseName) {
+    store.dropDatabase(databaseName);
+  }
+
+  /**
+   * @param databaseName Name of the database to snapshot.
+   * @return Snapshot of the current state of all the collections of the database. Taking it does
+   * not copy any data.
+   */
+  public DatabaseSnapshot snapshotDatabase(String databaseName) {
+    return store.snapshot(databaseName);
+  }
+
+  /**
+   * Restores all the collections of the database with the provided 'databaseName' to the state
+   * captured in the provided 'snapshot', discarding any changes made since. Restoring does not copy
+   * any data.
+   *
+   * @param databaseName Name of the database to restore.
+   * @param snapshot Snapshot to restore the database to.
+   */
+  public void restoreDatabase(String databaseName, DatabaseSnapshot snapshot) {
+    store.restore(databaseName, snapshot);
+  }
+
+  /**
+   * Stops accepting connections and closes all the open ones. The stored data is kept.
+   */
+  @Override
+  public synchronized void close() {
+
+    ServerSocket socket = serverSocket;
+    serverSocket = null;
+    if (socket == null) {
+      return;
+    }
+
+    closeQuietly(socket);
+    for (Socket connection : connections) {
+      closeQuietly(connection);
+    }
+    connections.clear();
+
+    log.info("Stopped embedded MongoDB server.");
+  }
+
+  /**
+   * Accepts connections until the server is closed, serving each on its own daemon thread.
+   */
+  private void acceptConnections() {
+
+    ServerSocket socket = serverSocket;
+    while (socket != null && !socket.isClosed()) {
+
+      try {
+
+        Socket connection = socket.accept();
+        connection.setTcpNoDelay(true);
+        connections.add(connection);
+
+        int connectionId = nextConnectionId.getAndIncrement();
+        Thread connectionThread = new Thread(
+            () -> serveConnection(connection, connectionId),
+            "mongounit-embedded-connection-" + connectionId);
+        connectionThread.setDaemon(true);
+        connectionThread.start();
+
+      } catch (IOException ioException) {
+        if (!socket.isClosed()) {
+          log.warn("Embedded MongoDB server failed to accept a connection: "
+              + ioException.getMessage());
+        }
+      }
+    }
+  }
+
+  /**
+   * Reads requests from the provided 'connection' and replies to them until it's closed.
+   *
+   * @param connection Client connection.
+   * @param connectionId ID of the connection.
+   */
+  private void serveConnection(Socket connection, int connectionId) {
+
+    try (
+        InputStream in = new BufferedInputStream(connection.getInputStream());
+        OutputStream out = new BufferedOutputStream(connection.getOutputStream())) {
+
+      WireProtocol.Request request;
+      while ((request = WireProtocol.readRequest(in)) != null) {
+
+        BsonDocument response = commandHandler.handle(
+            request.getDatabaseName(),
+            request.getCommand(),
+            connectionId);
+
+        if (request.isReplyExpected()) {
+          WireProtocol.writeReply(out, request, nextReplyId.getAndIncrement(), response);
+        }
+      }
+
+    } catch (SocketException socketException) {
+      // Connection closed by either side
+    } catch (IOException ioException) {
+      log.warn("Embedded MongoDB server closed connection " + connectionId + ": "
+          + ioException.getMessage());
+    } finally {
+      connections.remove(connection);
+      closeQuietly(connection);
+    }
+  }
+
+  /**
+   * @param closeable Socket or server socket to close, ignoring any failure.
+   */
+  private static void closeQuietly(AutoCloseable closeable) {
+    try {
+      closeable.close();
+    } catch (Exception exception) {
+      // Nothing to do
+    }
+  }
+}
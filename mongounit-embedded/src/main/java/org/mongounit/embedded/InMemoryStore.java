@@ -0,0 +1,137 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.embedded;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link InMemoryStore} class holds all the databases of the {@link EmbeddedMongoServer} in memory.
+ *
+ * The store is copy-on-write: the map of databases, the maps of collections, and the collection
+ * states are never modified once published. Every change replaces the affected collection state
+ * and the maps on the path to it, which makes reads lock-free and snapshots free of copying.
+ */
+class InMemoryStore {
+
+  /**
+   * Database names mapped to collection names mapped to collection states. Never modified once
+   * published.
+   */
+  private volatile Map<String, Map<String, CollectionState>> databases = Collections.emptyMap();
+
+  /**
+   * @param databaseName Name of the database.
+   * @param collectionName Name of the collection.
+   * @return State of the collection or 'null' if the collection does not exist.
+   */
+  CollectionState getCollection(String databaseName, String collectionName) {
+    return getCollections(databaseName).get(collectionName);
+  }
+
+  /**
+   * @param databaseName Name of the database.
+   * @return Unmodifiable map of collection names to states of the collections of the database.
+   * Empty map if the database does not exist.
+   */
+  Map<String, CollectionState> getCollections(String databaseName) {
+
+    Map<String, CollectionState> collections = databases.get(databaseName);
+    return collections == null ? Collections.emptyMap() : collections;
+  }
+
+  /**
+   * @return List of the names of the databases that have at least one collection.
+   */
+  List<String> getDatabaseNames() {
+    return new ArrayList<>(databases.keySet());
+  }
+
+  /**
+   * Atomically replaces the state of a collection with the result of applying the provided
+   * 'updater' to it.
+   *
+   * @param databaseName Name of the database.
+   * @param collectionName Name of the collection.
+   * @param updater Function that receives the current state of the collection, or 'null' if it
+   * does not exist, and returns its new state, or 'null' to remove the collection.
+   * @return New state of the collection.
+   */
+  synchronized CollectionState updateCollection(
+      String databaseName,
+      String collectionName,
+      UnaryOperator<CollectionState> updater) {
+
+    Map<String, CollectionState> collections = new LinkedHashMap<>(getCollections(databaseName));
+    CollectionState newState = updater.apply(collections.get(collectionName));
+    if (newState == null) {
+      collections.remove(collectionName);
+    } else {
+      collections.put(collectionName, newState);
+    }
+
+    replaceDatabase(databaseName, collections);
+    return newState;
+  }
+
+  /**
+   * Removes all the collections of a database.
+   *
+   * @param databaseName Name of the database to drop.
+   * @return 'true' if the database existed, 'false' otherwise.
+   */
+  synchronized boolean dropDatabase(String databaseName) {
+
+    boolean existed = databases.containsKey(databaseName);
+    replaceDatabase(databaseName, Collections.emptyMap());
+    return existed;
+  }
+
+  /**
+   * @param databaseName Name of the database to snapshot.
+   * @return Snapshot of the current state of all the collections of the database.
+   */
+  DatabaseSnapshot snapshot(String databaseName) {
+    return new DatabaseSnapshot(getCollections(databaseName));
+  }
+
+  /**
+   * Restores all the collections of a database to the state captured in the provided 'snapshot',
+   * discarding any changes made since.
+   *
+   * @param databaseName Name of the database to restore.
+   * @param snapshot Snapshot to restore the database to.
+   */
+  synchronized void restore(String databaseName, DatabaseSnapshot snapshot) {
+    replaceDatabase(databaseName, snapshot.getCollections());
+  }
+
+  /**
+   * Publishes a new map of databases in which the database with the provided 'databaseName' has
+   * the provided 'collections'. Databases without collections are removed.
+   *
+   * @param databaseName Name of the database to replace.
+   * @param collections New collections of the database.
+   */
+  private void replaceDatabase(String databaseName, Map<String, CollectionState> collections) {
+
+    Map<String, Map<String, CollectionState>> newDatabases = new LinkedHashMap<>(databases);
+    if (collections.isEmpty()) {
+      newDatabases.remove(databaseName);
+    } else {
+      newDatabases.put(databaseName, Collections.unmodifiableMap(collections));
+    }
+
+    databases = Collections.unmodifiableMap(newDatabases);
+  }
+}
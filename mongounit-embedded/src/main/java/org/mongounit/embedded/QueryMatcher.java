@@ -0,0 +1,470 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.embedded;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonRegularExpression;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+
+/**
+ * {@link QueryMatcher} class evaluates MongoDB query filters against documents. It supports the
+ * logical operators '$and', '$or', and '$nor', and the field operators '$eq', '$ne', '$gt',
+ * '$gte', '$lt', '$lte', '$in', '$nin', '$exists', '$not', '$size', '$all', '$elemMatch',
+ * '$regex', and '$type'.
+ */
+class QueryMatcher {
+
+  /**
+   * Comparator used to compare values.
+   */
+  private static final BsonValueComparator comparator = BsonValueComparator.INSTANCE;
+
+  /**
+   * Map of the BSON type aliases accepted by '$type' to the types they stand for.
+   */
+  private static final Map<String, BsonType> TYPE_ALIASES = Map.ofEntries(
+      Map.entry("double", BsonType.DOUBLE),
+      Map.entry("string", BsonType.STRING),
+      Map.entry("object", BsonType.DOCUMENT),
+      Map.entry("array", BsonType.ARRAY),
+      Map.entry("binData", BsonType.BINARY),
+      Map.entry("undefined", BsonType.UNDEFINED),
+      Map.entry("objectId", BsonType.OBJECT_ID),
+      Map.entry("bool", BsonType.BOOLEAN),
+      Map.entry("date", BsonType.DATE_TIME),
+      Map.entry("null", BsonType.NULL),
+      Map.entry("regex", BsonType.REGULAR_EXPRESSION),
+      Map.entry("javascript", BsonType.JAVASCRIPT),
+      Map.entry("int", BsonType.INT32),
+      Map.entry("timestamp", BsonType.TIMESTAMP),
+      Map.entry("long", BsonType.INT64),
+      Map.entry("decimal", BsonType.DECIMAL128),
+      Map.entry("minKey", BsonType.MIN_KEY),
+      Map.entry("maxKey", BsonType.MAX_KEY));
+
+  /**
+   * @param document Document to match.
+   * @param filter Query filter to match against. Can be 'null', which matches every document.
+   * @return 'true' if the provided 'document' matches the provided 'filter', 'false' otherwise.
+   * @throws CommandFailure If the filter uses an unsupported operator.
+   */
+  static boolean matches(BsonDocument document, BsonDocument filter) {
+
+    if (filter == null) {
+      return true;
+    }
+
+    for (Map.Entry<String, BsonValue> entry : filter.entrySet()) {
+
+      String key = entry.getKey();
+      BsonValue condition = entry.getValue();
+
+      switch (key) {
+
+        case "$and":
+          for (BsonValue subFilter : condition.asArray()) {
+            if (!matches(document, subFilter.asDocument())) {
+              return false;
+            }
+          }
+          break;
+
+        case "$or":
+          if (!matchesAny(document, condition.asArray())) {
+            return false;
+          }
+          break;
+
+        case "$nor":
+          if (matchesAny(document, condition.asArray())) {
+            return false;
+          }
+          break;
+
+        case "$comment":
+          break;
+
+        default:
+          if (key.startsWith("$")) {
+            throw CommandFailure.unsupported("Query operator '" + key + "' is not supported.");
+          }
+          if (!matchesField(DocumentPaths.getValues(document, key), condition)) {
+            return false;
+          }
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * @param document Document to match.
+   * @param filters Array of query filters.
+   * @return 'true' if the provided 'document' matches any of the provided 'filters'.
+   */
+  private static boolean matchesAny(BsonDocument document, BsonArray filters) {
+
+    for (BsonValue subFilter : filters) {
+      if (matches(document, subFilter.asDocument())) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * @param values Values a field path resolves to.
+   * @param condition Condition on the field, either a value to compare for equality or a document
+   * of operators.
+   * @return 'true' if the provided 'values' satisfy the provided 'condition'.
+   */
+  private static boolean matchesField(List<BsonValue> values, BsonValue condition) {
+
+    if (isOperatorDocument(condition)) {
+
+      for (Map.Entry<String, BsonValue> operator : condition.asDocument().entrySet()) {
+        if (!matchesOperator(values, operator.getKey(), operator.getValue(), condition)) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    if (condition.isRegularExpression()) {
+      return matchesRegex(values, condition.asRegularExpression());
+    }
+
+    return matchesEquality(values, condition);
+  }
+
+  /**
+   * @param values Values a field path resolves to.
+   * @param operator Name of the operator.
+   * @param operand Operand of the operator.
+   * @param operators Document with all the operators applied to the field.
+   * @return 'true' if the provided 'values' satisfy the provided 'operator'.
+   * @throws CommandFailure If the provided 'operator' is not supported.
+   */
+  private static boolean matchesOperator(
+      List<BsonValue> values,
+      String operator,
+      BsonValue operand,
+      BsonValue operators) {
+
+    switch (operator) {
+
+      case "$eq":
+        return matchesEquality(values, operand);
+
+      case "$ne":
+        return !matchesEquality(values, operand);
+
+      case "$gt":
+        return matchesComparison(values, operand, 1, 1);
+
+      case "$gte":
+        return matchesComparison(values, operand, 0, 1);
+
+      case "$lt":
+        return matchesComparison(values, operand, -1, -1);
+
+      case "$lte":
+        return matchesComparison(values, operand, -1, 0);
+
+      case "$in":
+        return matchesIn(values, operand.asArray());
+
+      case "$nin":
+        return !matchesIn(values, operand.asArray());
+
+      case "$exists":
+        return values.isEmpty() != isTruthy(operand);
+
+      case "$not":
+        return !matchesField(values, operand);
+
+      case "$size":
+        for (BsonValue value : values) {
+          if (value.isArray() && value.asArray().size() == operand.asNumber().intValue()) {
+            return true;
+          }
+        }
+        return false;
+
+      case "$all":
+        for (BsonValue expected : operand.asArray()) {
+          if (!matchesEquality(values, expected)) {
+            return false;
+          }
+        }
+        return true;
+
+      case "$elemMatch":
+        return matchesElement(values, operand.asDocument());
+
+      case "$regex":
+        BsonValue options = operators.asDocument().get("$options");
+        BsonRegularExpression regex = operand.isRegularExpression()
+            ? operand.asRegularExpression()
+            : new BsonRegularExpression(operand.asString().getValue(),
+                options == null ? null : options.asString().getValue());
+        return matchesRegex(values, regex);
+
+      case "$options":
+        return true;
+
+      case "$type":
+        return matchesType(values, operand);
+
+      default:
+        throw CommandFailure.unsupported("Query operator '" + operator + "' is not supported.");
+    }
+  }
+
+  /**
+   * @param values Values a field path resolves to.
+   * @param expected Value to compare with.
+   * @return 'true' if any of the provided 'values', or any element of an array value, equals the
+   * provided 'expected' value. A missing field equals 'null'.
+   */
+  private static boolean matchesEquality(List<BsonValue> values, BsonValue expected) {
+
+    if (values.isEmpty()) {
+      return expected.isNull();
+    }
+
+    for (BsonValue value : expandArrays(values)) {
+      if (comparator.isEqual(value, expected)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * @param values Values a field path resolves to.
+   * @param operand Value to compare with.
+   * @param minimum Minimum comparison result that satisfies the operator.
+   * @param maximum Maximum comparison result that satisfies the operator.
+   * @return 'true' if any of the provided 'values' of the same canonical type as the 'operand'
+   * compares to it within the provided bounds.
+   */
+  private static boolean matchesComparison(
+      List<BsonValue> values,
+      BsonValue operand,
+      int minimum,
+      int maximum) {
+
+    for (BsonValue value : expandArrays(values)) {
+
+      if (BsonValueComparator.typeOrder(value) != BsonValueComparator.typeOrder(operand)) {
+        continue;
+      }
+
+      int comparison = Integer.signum(comparator.compare(value, operand));
+      if (comparison >= minimum && comparison <= maximum) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * @param values Values a field path resolves to.
+   * @param candidates Values to compare with.
+   * @return 'true' if the provided 'values' equal any of the provided 'candidates'.
+   */
+  private static boolean matchesIn(List<BsonValue> values, BsonArray candidates) {
+
+    for (BsonValue candidate : candidates) {
+
+      boolean matched = candidate.isRegularExpression()
+          ? matchesRegex(values, candidate.asRegularExpression())
+          : matchesEquality(values, candidate);
+      if (matched) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * @param values Values a field path resolves to.
+   * @param condition Query filter or operator document elements must match.
+   * @return 'true' if any array among the provided 'values' contains an element that matches the
+   * provided 'condition'.
+   */
+  private static boolean matchesElement(List<BsonValue> values, BsonDocument condition) {
+
+    for (BsonValue value : values) {
+
+      if (!value.isArray()) {
+        continue;
+      }
+
+      for (BsonValue element : value.asArray()) {
+
+        // Logical operators make the condition a query filter rather than an operator document
+        boolean matched = isOperatorDocument(condition) && !isLogicalOperator(condition)
+            ? matchesField(List.of(element), condition)
+            : element.isDocument() && matches(element.asDocument(), condition);
+        if (matched) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * @param values Values a field path resolves to.
+   * @param regex Regular expression to match.
+   * @return 'true' if any string among the provided 'values' matches the provided 'regex'.
+   */
+  private static boolean matchesRegex(List<BsonValue> values, BsonRegularExpression regex) {
+
+    Pattern pattern = Pattern.compile(regex.getPattern(), toPatternFlags(regex.getOptions()));
+    for (BsonValue value : expandArrays(values)) {
+      if (value.isString() && pattern.matcher(value.asString().getValue()).find()) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * @param options MongoDB regular expression options, e.g., 'i' or 'ms'.
+   * @return Java {@link Pattern} flags equivalent to the provided 'options'.
+   */
+  private static int toPatternFlags(String options) {
+
+    int flags = 0;
+    if (options != null) {
+      flags |= options.contains("i") ? Pattern.CASE_INSENSITIVE : 0;
+      flags |= options.contains("m") ? Pattern.MULTILINE : 0;
+      flags |= options.contains("s") ? Pattern.DOTALL : 0;
+      flags |= options.contains("x") ? Pattern.COMMENTS : 0;
+    }
+
+    return flags;
+  }
+
+  /**
+   * @param values Values a field path resolves to.
+   * @param operand BSON type number or alias, e.g., 'objectId' or 'number', or an array of them.
+   * @return 'true' if any of the provided 'values', or any element of an array value, is of any of
+   * the types in the provided 'operand'.
+   */
+  private static boolean matchesType(List<BsonValue> values, BsonValue operand) {
+
+    List<BsonValue> types = operand.isArray() ? operand.asArray().getValues() : List.of(operand);
+    for (BsonValue value : expandArrays(values)) {
+      for (BsonValue type : types) {
+
+        if (type.isNumber() && value.getBsonType().getValue() == type.asNumber().intValue()) {
+          return true;
+        }
+        if (type.isString() && isOfTypeAlias(value, type.asString().getValue())) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * @param value Value to check.
+   * @param alias BSON type alias, e.g., 'objectId', or 'number' for any numeric type.
+   * @return 'true' if the provided 'value' is of the type with the provided 'alias'.
+   * @throws CommandFailure If the provided 'alias' is not known.
+   */
+  private static boolean isOfTypeAlias(BsonValue value, String alias) throws CommandFailure {
+
+    if (alias.equals("number")) {
+      return value.isNumber() || value.isDecimal128();
+    }
+
+    BsonType aliasType = TYPE_ALIASES.get(alias);
+    if (aliasType == null) {
+      throw CommandFailure.badValue("Unknown type name alias: " + alias);
+    }
+
+    return value.getBsonType() == aliasType;
+  }
+
+  /**
+   * @param values Values a field path resolves to.
+   * @return List of the provided 'values' followed by the elements of those that are arrays.
+   */
+  private static List<BsonValue> expandArrays(List<BsonValue> values) {
+
+    List<BsonValue> expandedValues = new ArrayList<>(values);
+    for (BsonValue value : values) {
+      if (value.isArray()) {
+        expandedValues.addAll(value.asArray().getValues());
+      }
+    }
+
+    return expandedValues;
+  }
+
+  /**
+   * @param condition Condition on a field.
+   * @return 'true' if the provided 'condition' is a non-empty document whose first field name
+   * starts with '$'.
+   */
+  private static boolean isOperatorDocument(BsonValue condition) {
+    return condition.isDocument()
+        && !condition.asDocument().isEmpty()
+        && condition.asDocument().getFirstKey().startsWith("$");
+  }
+
+  /**
+   * @param condition Operator document.
+   * @return 'true' if the first operator of the provided 'condition' is one that combines query
+   * filters, i.e., '$and', '$or', or '$nor'.
+   */
+  private static boolean isLogicalOperator(BsonDocument condition) {
+
+    String operator = condition.getFirstKey();
+    return operator.equals("$and") || operator.equals("$or") || operator.equals("$nor");
+  }
+
+  /**
+   * @param value BSON value.
+   * @return 'true' if the provided 'value' is considered 'true' by MongoDB, i.e., it's neither
+   * 'false', 'null', nor numeric zero.
+   */
+  static boolean isTruthy(BsonValue value) {
+
+    if (value.isBoolean()) {
+      return value.asBoolean().getValue();
+    }
+
+    if (value.isNumber()) {
+      return value.asNumber().doubleValue() != 0;
+    }
+
+    return !value.isNull();
+  }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.embedded;
+
+import java.util.Map;
+import org.bson.BsonArray;
+import org.bson.BsonDateTime;
+import org.bson.BsonDocument;
+import org.bson.BsonDouble;
+import org.bson.BsonInt32;
+import org.bson.BsonInt64;
+import org.bson.BsonValue;
+
+/**
+ * {@link UpdateApplier} class applies MongoDB update documents to stored documents. It supports
+ * replacement documents and the update operators '$set', '$unset', '$inc', '$mul', '$min',
+ * '$max', '$rename', '$push', '$addToSet', '$pull', '$pop', '$currentDate', and
+ * '$setOnInsert'.
+ */
+class UpdateApplier {
+
+  /**
+   * Comparator used to compare values.
+   */
+  private static final BsonValueComparator comparator = BsonValueComparator.INSTANCE;
+
+  /**
+   * @param update Update document or replacement document.
+   * @return 'true' if the provided 'update' is a replacement document, i.e., it contains no update
+   * operators.
+   */
+  static boolean isReplacement(BsonDocument update) {
+    return update.isEmpty() || !update.getFirstKey().startsWith("$");
+  }
+
+  /**
+   * @param original Document to update. It is not modified.
+   * @param update Update document or replacement document.
+   * @param inserting Flag to indicate that the update is applied to a document being upserted.
+   * @return New document that is the result of applying the provided 'update' to the 'original'.
+   * @throws CommandFailure If the update uses an unsupported operator or changes the '_id' field.
+   */
+  static BsonDocument apply(BsonDocument original, BsonDocument update, boolean inserting) {
+
+    BsonValue originalId = original.get("_id");
+
+    // Replace the whole document, keeping its '_id'
+    if (isReplacement(update)) {
+
+      BsonDocument replacement = new BsonDocument();
+      if (originalId != null) {
+        replacement.put("_id", originalId);
+      }
+      for (Map.Entry<String, BsonValue> entry : update.entrySet()) {
+        if (!entry.getKey().equals("_id")) {
+          replacement.put(entry.getKey(), DocumentPaths.copyOf(entry.getValue()));
+        }
+      }
+
+      checkIdUnchanged(originalId, update.get("_id"));
+      return replacement;
+    }
+
+    BsonDocument document = original.clone();
+    for (Map.Entry<String, BsonValue> operatorEntry : update.entrySet()) {
+
+      String operator = operatorEntry.getKey();
+      for (Map.Entry<String, BsonValue> entry : operatorEntry.getValue().asDocument().entrySet()) {
+        applyOperator(document, operator, entry.getKey(), entry.getValue(), inserting);
+      }
+    }
+
+    checkIdUnchanged(originalId, document.get("_id"));
+    return document;
+  }
+
+  /**
+   * Applies a single update operator to a single field of the provided 'document'.
+   *
+   * @param document Document to modify.
+   * @param operator Name of the update operator.
+   * @param path Dotted path of the field to modify.
+   * @param operand Operand of the operator for this field.
+   * @param inserting Flag to indicate that the update is applied to a document being upserted.
+   * @throws CommandFailure If the operator is not supported or can't be applied to the field.
+   */
+  private static void applyOperator(
+      BsonDocument document,
+      String operator,
+      String path,
+      BsonValue operand,
+      boolean inserting) {
+
+    BsonValue current = DocumentPaths.getValue(document, path);
+
+    switch (operator) {
+
+      case "$set":
+        DocumentPaths.setValue(document, path, DocumentPaths.copyOf(operand));
+        break;
+
+      case "$setOnInsert":
+        if (inserting) {
+          DocumentPaths.setValue(document, path, DocumentPaths.copyOf(operand));
+        }
+        break;
+
+      case "$unset":
+        DocumentPaths.removeValue(document, path);
+        break;
+
+      case "$inc":
+        DocumentPaths.setValue(document, path, arithmetic(current, operand, path, false));
+        break;
+
+      case "$mul":
+        DocumentPaths.setValue(document, path, arithmetic(current, operand, path, true));
+        break;
+
+      case "$min":
+        if (current == null || comparator.compare(operand, current) < 0) {
+          DocumentPaths.setValue(document, path, DocumentPaths.copyOf(operand));
+        }
+        break;
+
+      case "$max":
+        if (current == null || comparator.compare(operand, current) > 0) {
+          DocumentPaths.setValue(document, path, DocumentPaths.copyOf(operand));
+        }
+        break;
+
+      case "$rename":
+        if (current != null) {
+          DocumentPaths.removeValue(document, path);
+          DocumentPaths.setValue(document, operand.asString().getValue(), current);
+        }
+        break;
+
+      case "$currentDate":
+        DocumentPaths.setValue(document, path, new BsonDateTime(System.currentTimeMillis()));
+        break;
+
+      case "$push":
+        getOrCreateArray(document, path, current).addAll(eachValues(operand));
+        break;
+
+      case "$addToSet":
+        BsonArray set = getOrCreateArray(document, path, current);
+        for (BsonValue value : eachValues(operand)) {
+          if (set.stream().noneMatch(element -> comparator.isEqual(element, value))) {
+            set.add(value);
+          }
+        }
+        break;
+
+      case "$pull":
+        if (current != null && current.isArray()) {
+          current.asArray().removeIf(element -> matchesPullCondition(element, operand));
+        }
+        break;
+
+      case "$pop":
+        if (current != null && current.isArray() && !current.asArray().isEmpty()) {
+          BsonArray array = current.asArray();
+          array.remove(operand.asNumber().intValue() < 0 ? 0 : array.size() - 1);
+        }
+        break;
+
+      default:
+        throw CommandFailure.unsupported("Update operator '" + operator + "' is not supported.");
+    }
+  }
+
+  /**
+   * @param current Current value of the field. Can be 'null' if the field does not exist.
+   * @param operand Number to add or multiply by.
+   * @param path Dotted path of the field, for error reporting.
+   * @param multiply Flag to indicate that the values should be multiplied instead of added.
+   * @return Result of the arithmetic operation, of the widest of the two numeric types.
+   * @throws CommandFailure If either value is not a number.
+   */
+  private static BsonValue arithmetic(
+      BsonValue current,
+      BsonValue operand,
+      String path,
+      boolean multiply) {
+
+    // Missing field is treated as zero
+    if (current == null) {
+      current = new BsonInt32(0);
+    }
+
+    if (!current.isNumber() || !operand.isNumber()) {
+      throw CommandFailure.badValue("Cannot apply arithmetic to non-numeric field '" + path + "'.");
+    }
+
+    if (current.isDouble() || operand.isDouble()) {
+      double left = current.asNumber().doubleValue();
+      double right = operand.asNumber().doubleValue();
+      return new BsonDouble(multiply ? left * right : left + right);
+    }
+
+    long left = current.asNumber().longValue();
+    long right = operand.asNumber().longValue();
+    long result = multiply ? left * right : left + right;
+
+    if (current.isInt32() && operand.isInt32()
+        && result >= Integer.MIN_VALUE && result <= Integer.MAX_VALUE) {
+      return new BsonInt32((int) result);
+    }
+
+    return new BsonInt64(result);
+  }
+
+  /**
+   * @param document Document to modify.
+   * @param path Dotted path of the array field.
+   * @param current Current value of the field. Can be 'null' if the field does not exist.
+   * @return Array at the provided 'path', newly created if the field did not exist.
+   * @throws CommandFailure If the field exists and is not an array.
+   */
+  private static BsonArray getOrCreateArray(BsonDocument document, String path, BsonValue current) {
+
+    if (current == null) {
+      BsonArray array = new BsonArray();
+      DocumentPaths.setValue(document, path, array);
+      return array;
+    }
+
+    if (!current.isArray()) {
+      throw CommandFailure.badValue("Field '" + path + "' is not an array.");
+    }
+
+    return current.asArray();
+  }
+
+  /**
+   * @param operand Operand of '$push' or '$addToSet'.
+   * @return Values to add, i.e., the elements of the '$each' array if present, or the operand
+   * itself.
+   */
+  private static BsonArray eachValues(BsonValue operand) {
+
+    if (operand.isDocument() && operand.asDocument().containsKey("$each")) {
+      return operand.asDocument().getArray("$each").clone();
+    }
+
+    BsonArray values = new BsonArray();
+    values.add(DocumentPaths.copyOf(operand));
+    return values;
+  }
+
+  /**
+   * @param element Array element.
+   * @param condition Operand of '$pull', i.e., a value, a query filter, or an operator document.
+   * @return 'true' if the provided 'element' should be removed.
+   */
+  private static boolean matchesPullCondition(BsonValue element, BsonValue condition) {
+
+    if (condition.isDocument() && !condition.asDocument().isEmpty()) {
+
+      BsonDocument conditionDocument = condition.asDocument();
+      if (conditionDocument.getFirstKey().startsWith("$")) {
+        return QueryMatcher.matches(new BsonDocument("value", element),
+            new BsonDocument("value", conditionDocument));
+      }
+
+      return element.isDocument() && QueryMatcher.matches(element.asDocument(), conditionDocument);
+    }
+
+    return comparator.isEqual(element, condition);
+  }
+
+  /**
+   * @param originalId '_id' of the document before the update. Can be 'null'.
+   * @param newId '_id' of the document after the update. Can be 'null'.
+   * @throws CommandFailure If the '_id' was changed.
+   */
+  private static void checkIdUnchanged(BsonValue originalId, BsonValue newId) {
+
+    if (originalId != null && newId != null && !comparator.isEqual(originalId, newId)) {
+      throw new CommandFailure(66, "ImmutableField",
+          "Performing an update on the path '_id' would modify the immutable field '_id'.");
+    }
+  }
+}
@@ -0,0 +1,364 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.embedded;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import org.bson.BsonArray;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+
+/**
+ * {@link WireProtocol} class reads requests from and writes replies to a connection using the
+ * MongoDB wire protocol. It understands 'OP_MSG' messages, which carry all commands of modern
+ * drivers, and legacy 'OP_QUERY' command messages, which drivers still use for the initial
+ * handshake.
+ */
+class WireProtocol {
+
+  /**
+   * Operation code of the legacy 'OP_REPLY' message.
+   */
+  private static final int OP_REPLY = 1;
+
+  /**
+   * Operation code of the legacy 'OP_QUERY' message.
+   */
+  private static final int OP_QUERY = 2004;
+
+  /**
+   * Operation code of the 'OP_MSG' message.
+   */
+  private static final int OP_MSG = 2013;
+
+  /**
+   * 'OP_MSG' flag indicating that the message ends with a checksum.
+   */
+  private static final int CHECKSUM_PRESENT_FLAG = 1;
+
+  /**
+   * 'OP_MSG' flag indicating that the sender does not expect a reply.
+   */
+  private static final int MORE_TO_COME_FLAG = 1 << 1;
+
+  /**
+   * Codec used to decode and encode command documents.
+   */
+  private static final BsonDocumentCodec codec = new BsonDocumentCodec();
+
+  /**
+   * @param in Stream to read the request from.
+   * @return Next request or 'null' if the connection was closed.
+   * @throws IOException If reading fails or the request is malformed.
+   */
+  static Request readRequest(InputStream in) throws IOException {
+
+    // Read message length, which includes the length field itself
+    byte[] lengthBytes = new byte[4];
+    try {
+      new DataInputStream(in).readFully(lengthBytes);
+    } catch (EOFException eofException) {
+      return null;
+    }
+
+    int messageLength = ByteBuffer.wrap(lengthBytes).order(ByteOrder.LITTLE_ENDIAN).getInt();
+    if (messageLength < 16) {
+      throw new IOException("Invalid message length " + messageLength + ".");
+    }
+
+    byte[] messageBytes = new byte[messageLength - 4];
+    new DataInputStream(in).readFully(messageBytes);
+    ByteBuffer message = ByteBuffer.wrap(messageBytes).order(ByteOrder.LITTLE_ENDIAN);
+
+    int requestId = message.getInt();
+    message.getInt(); // responseTo
+    int opCode = message.getInt();
+
+    if (opCode == OP_MSG) {
+      return readMessage(requestId, message);
+    }
+
+    if (opCode == OP_QUERY) {
+      return readQuery(requestId, message);
+    }
+
+    throw new IOException("Unsupported wire protocol operation code " + opCode + ".");
+  }
+
+  /**
+   * @param requestId ID of the request.
+   * @param message Remainder of the 'OP_MSG' message after its header.
+   * @return Request with the body section as the command, with document sequence sections added
+   * to it as arrays.
+   */
+  private static Request readMessage(int requestId, ByteBuffer message) {
+
+    int flagBits = message.getInt();
+    int end = message.limit() - ((flagBits & CHECKSUM_PRESENT_FLAG) != 0 ? 4 : 0);
+
+    BsonDocument command = null;
+    BsonDocument sequences = new BsonDocument();
+    while (message.position() < end) {
+
+      byte kind = message.get();
+      if (kind == 0) {
+
+        command = readDocument(message);
+
+      } else {
+
+        // Document sequence: size, identifier, then documents up to size
+        int sectionStart = message.position();
+        int sectionSize = message.getInt();
+        String identifier = readCString(message);
+
+        BsonArray documents = new BsonArray();
+        while (message.position() < sectionStart + sectionSize) {
+          documents.add(readDocument(message));
+        }
+        sequences.put(identifier, documents);
+      }
+    }
+
+    if (command == null) {
+      command = new BsonDocument();
+    }
+    command.putAll(sequences);
+
+    String databaseName = command.getString("$db").getValue();
+    return new Request(requestId, databaseName, command, false,
+        (flagBits & MORE_TO_COME_FLAG) == 0);
+  }
+
+  /**
+   * @param requestId ID of the request.
+   * @param message Remainder of the 'OP_QUERY' message after its header.
+   * @return Request with the query document as the command.
+   * @throws IOException If the query does not target a database's command collection.
+   */
+  private static Request readQuery(int requestId, ByteBuffer message) throws IOException {
+
+    message.getInt(); // flags
+    String fullCollectionName = readCString(message);
+    message.getInt(); // numberToSkip
+    message.getInt(); // numberToReturn
+    BsonDocument query = readDocument(message);
+
+    if (!fullCollectionName.endsWith(".$cmd")) {
+      throw new IOException("Only legacy command queries are supported, not queries on '"
+          + fullCollectionName + "'.");
+    }
+
+    // Unwrap query modifiers, if present
+    if (query.containsKey("$query")) {
+      query = query.getDocument("$query");
+    }
+
+    String databaseName = fullCollectionName.substring(0, fullCollectionName.indexOf('.'));
+    return new Request(requestId, databaseName, query, true, true);
+  }
+
+  /**
+   * Writes the provided 'response' to the provided 'out' stream as a reply to the provided
+   * 'request', in the format the request was sent in.
+   *
+   * @param out Stream to write the reply to.
+   * @param request Request being replied to.
+   * @param replyId ID of the reply message.
+   * @param response Response document.
+   * @throws IOException If writing fails.
+   */
+  static void writeReply(OutputStream out, Request request, int replyId, BsonDocument response)
+      throws IOException {
+
+    byte[] responseBytes = encode(response);
+
+    ByteBuffer body;
+    int opCode;
+    if (request.isLegacy()) {
+
+      opCode = OP_REPLY;
+      body = ByteBuffer.allocate(20 + responseBytes.length).order(ByteOrder.LITTLE_ENDIAN);
+      body.putInt(0); // responseFlags
+      body.putLong(0); // cursorID
+      body.putInt(0); // startingFrom
+      body.putInt(1); // numberReturned
+
+    } else {
+
+      opCode = OP_MSG;
+      body = ByteBuffer.allocate(5 + responseBytes.length).order(ByteOrder.LITTLE_ENDIAN);
+      body.putInt(0); // flagBits
+      body.put((byte) 0); // body section
+    }
+    body.put(responseBytes);
+
+    ByteBuffer header = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+    header.putInt(16 + body.capacity());
+    header.putInt(replyId);
+    header.putInt(request.getRequestId());
+    header.putInt(opCode);
+
+    ByteArrayOutputStream reply = new ByteArrayOutputStream(16 + body.capacity());
+    reply.write(header.array());
+    reply.write(body.array());
+    out.write(reply.toByteArray());
+    out.flush();
+  }
+
+  /**
+   * @param buffer Buffer positioned at the start of a BSON document. Its position is advanced
+   * past the document.
+   * @return Decoded document.
+   */
+  private static BsonDocument readDocument(ByteBuffer buffer) {
+
+    int size = buffer.getInt(buffer.position());
+    ByteBuffer documentBuffer = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+    documentBuffer.limit(size);
+    buffer.position(buffer.position() + size);
+
+    try (BsonBinaryReader reader = new BsonBinaryReader(documentBuffer)) {
+      return codec.decode(reader, DecoderContext.builder().build());
+    }
+  }
+
+  /**
+   * @param buffer Buffer positioned at the start of a null-terminated UTF-8 string. Its position
+   * is advanced past the terminator.
+   * @return Decoded string.
+   */
+  private static String readCString(ByteBuffer buffer) {
+
+    int start = buffer.position();
+    while (buffer.get() != 0) {
+      // Advance to the terminator
+    }
+
+    byte[] bytes = new byte[buffer.position() - start - 1];
+    buffer.position(start);
+    buffer.get(bytes);
+    buffer.get();
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * @param document Document to encode.
+   * @return BSON bytes of the provided 'document'.
+   */
+  private static byte[] encode(BsonDocument document) {
+
+    BasicOutputBuffer outputBuffer = new BasicOutputBuffer();
+    try (BsonBinaryWriter writer = new BsonBinaryWriter(outputBuffer)) {
+      codec.encode(writer, document, EncoderContext.builder().build());
+    }
+
+    return outputBuffer.toByteArray();
+  }
+
+  /**
+   * {@link Request} class is a command received from a client.
+   */
+  static class Request {
+
+    /**
+     * ID of the request message.
+     */
+    private final int requestId;
+
+    /**
+     * Name of the database the command targets.
+     */
+    private final String databaseName;
+
+    /**
+     * Command document.
+     */
+    private final BsonDocument command;
+
+    /**
+     * Flag to indicate that the request was sent as a legacy 'OP_QUERY' message.
+     */
+    private final boolean legacy;
+
+    /**
+     * Flag to indicate that the client expects a reply.
+     */
+    private final boolean replyExpected;
+
+    /**
+     * Constructor.
+     *
+     * @param requestId ID of the request message.
+     * @param databaseName Name of the database the command targets.
+     * @param command Command document.
+     * @param legacy Flag to indicate that the request was sent as a legacy 'OP_QUERY' message.
+     * @param replyExpected Flag to indicate that the client expects a reply.
+     */
+    Request(
+        int requestId,
+        String databaseName,
+        BsonDocument command,
+        boolean legacy,
+        boolean replyExpected) {
+      this.requestId = requestId;
+      this.databaseName = databaseName;
+      this.command = command;
+      this.legacy = legacy;
+      this.replyExpected = replyExpected;
+    }
+
+    /**
+     * @return ID of the request message.
+     */
+    int getRequestId() {
+      return requestId;
+    }
+
+    /**
+     * @return Name of the database the command targets.
+     */
+    String getDatabaseName() {
+      return databaseName;
+    }
+
+    /**
+     * @return Command document.
+     */
+    BsonDocument getCommand() {
+      return command;
+    }
+
+    /**
+     * @return 'true' if the request was sent as a legacy 'OP_QUERY' message.
+     */
+    boolean isLegacy() {
+      return legacy;
+    }
+
+    /**
+     * @return 'true' if the client expects a reply.
+     */
+    boolean isReplyExpected() {
+      return replyExpected;
+    }
+  }
+}
@@ -0,0 +1,523 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.embedded;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoWriteException;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Field;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.result.UpdateResult;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link EmbeddedMongoServerTest} is a test class for {@link EmbeddedMongoServer}, exercised
+ * through the MongoDB Java driver.
+ */
+@DisplayName("Embedded MongoDB server")
+class EmbeddedMongoServerTest {
+
+  private static EmbeddedMongoServer server;
+
+  private static MongoClient mongoClient;
+
+  @BeforeAll
+  static void startServer() {
+    server = new EmbeddedMongoServer();
+    server.start(0);
+    mongoClient = MongoClients.create(server.getConnectionString("embeddedtest"));
+  }
+
+  @AfterAll
+  static void stopServer() {
+    mongoClient.close();
+    server.close();
+  }
+
+  @Test
+  @DisplayName("CRUD, aggregation, indexes, and listCollections through the driver")
+  void testDriverOperations() {
+
+    MongoDatabase database = mongoClient.getDatabase("embeddedtest");
+    MongoCollection<Document> people = database.getCollection("people");
+
+    List<Document> documents = new ArrayList<>();
+    for (int i = 0; i < 250; i++) {
+      documents.add(new Document("name", "person" + i).append("age", i % 50).append("tags",
+          List.of(i % 2 == 0 ? "even" : "odd")));
+    }
+    people.insertMany(documents);
+
+    assertEquals(250, people.countDocuments());
+    assertEquals(125, people.countDocuments(Filters.eq("tags", "even")));
+    assertEquals(250, people.find().into(new ArrayList<>()).size());
+    assertEquals(49, people.find(Filters.gte("age", 5)).sort(Sorts.descending("age"))
+        .first().getInteger("age"));
+
+    people.updateMany(Filters.lt("age", 10), Updates.inc("age", 100));
+    assertEquals(50, people.countDocuments(Filters.gte("age", 100)));
+
+    people.deleteMany(Filters.eq("tags", "odd"));
+    assertEquals(125, people.countDocuments());
+
+    List<Document> groups = people.aggregate(List.of(
+        Aggregates.match(Filters.lt("age", 100)),
+        Aggregates.group("$age", Accumulators.sum("count", 1)),
+        Aggregates.sort(Sorts.ascending("_id")))).into(new ArrayList<>());
+    assertEquals(20, groups.size());
+    assertEquals(10, groups.get(0).getInteger("_id"));
+
+    people.createIndex(Indexes.ascending("name"));
+    assertEquals(2, people.listIndexes().into(new ArrayList<>()).size());
+
+    assertTrue(database.listCollectionNames().into(new ArrayList<>()).contains("people"));
+
+    people.drop();
+    assertTrue(database.listCollectionNames().into(new ArrayList<>()).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Snapshot and restore of a database")
+  void testSnapshotAndRestore() {
+
+    MongoCollection<Document> items =
+        mongoClient.getDatabase("snapshottest").getCollection("items");
+    items.insertOne(new Document("_id", 1).append("name", "seeded"));
+
+    DatabaseSnapshot snapshot = server.snapshotDatabase("snapshottest");
+
+    items.insertOne(new Document("_id", 2).append("name", "added"));
+    items.updateOne(Filters.eq("_id", 1), Updates.set("name", "changed"));
+    assertEquals(2, items.countDocuments());
+
+    server.restoreDatabase("snapshottest", snapshot);
+
+    assertEquals(1, items.countDocuments());
+    assertEquals("seeded", items.find().first().getString("name"));
+
+    server.clearDatabase("snapshottest");
+    assertEquals(0, items.countDocuments());
+  }
+
+  @Test
+  @DisplayName("$sample, $type, and '_id' only projections")
+  void testSampleTypeAndIdProjection() {
+
+    MongoCollection<Document> items =
+        mongoClient.getDatabase("sampletest").getCollection("items");
+    List<Document> documents = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      documents.add(new Document("_id", i).append("value", "item" + i));
+    }
+    documents.add(new Document("_id", 20L).append("value", 1.5));
+    documents.add(new Document("_id", "text").append("value", List.of("a", 1)));
+    documents.add(new Document("_id", new ObjectId()).append("value", null));
+    items.insertMany(documents);
+
+    // Sampled documents are distinct, capped at the number of documents, and can be sorted
+    List<Document> sample = items.aggregate(List.of(
+        Aggregates.sample(10),
+        Aggregates.project(new Document("_id", 1)),
+        Aggregates.sort(Sorts.ascending("_id")))).into(new ArrayList<>());
+    assertEquals(10, sample.size());
+    assertEquals(10, sample.stream().map(document -> document.get("_id")).distinct().count());
+    assertEquals(23, items.aggregate(List.of(Aggregates.sample(100))).into(new ArrayList<>())
+        .size());
+
+    // Projection of only '_id' is an inclusion, dropping every other field
+    for (Document document : sample) {
+      assertEquals(List.of("_id"), new ArrayList<>(document.keySet()));
+    }
+    assertEquals(List.of("_id"), new ArrayList<>(
+        items.find().projection(new Document("_id", 1)).first().keySet()));
+    assertEquals(List.of("value"), new ArrayList<>(
+        items.find().projection(new Document("_id", 0)).first().keySet()));
+
+    // Type numbers, aliases, 'number', arrays of types, and elements of array values
+    assertEquals(20, items.countDocuments(Filters.type("_id", BsonType.INT32)));
+    assertEquals(20, items.countDocuments(new Document("_id", new Document("$type", "int"))));
+    assertEquals(21, items.countDocuments(new Document("_id", new Document("$type", "number"))));
+    assertEquals(1, items.countDocuments(new Document("_id", new Document("$type", "objectId"))));
+    assertEquals(2, items.countDocuments(
+        new Document("_id", new Document("$type", List.of("string", "objectId")))));
+    assertEquals(2, items.countDocuments(
+        new Document("_id", new Document("$not", new Document("$type", "number")))));
+    assertEquals(1, items.countDocuments(new Document("value", new Document("$type", "double"))));
+    assertEquals(21, items.countDocuments(new Document("value", new Document("$type", "string"))));
+    assertEquals(1, items.countDocuments(new Document("value", new Document("$type", "null"))));
+    assertThrows(
+        MongoCommandException.class,
+        () -> items.countDocuments(new Document("_id", new Document("$type", "unknown"))),
+        "Unknown type alias should fail the command");
+  }
+
+  @Test
+  @DisplayName("Single document CRUD, upserts, and distinct")
+  void testCrud() {
+
+    MongoCollection<Document> items = mongoClient.getDatabase("crudtest").getCollection("items");
+
+    // Inserted documents get an ObjectId '_id' unless they have one
+    items.insertOne(new Document("name", "generated"));
+    assertTrue(items.find(Filters.eq("name", "generated")).first().get("_id") instanceof ObjectId);
+    items.insertOne(new Document("_id", 1).append("name", "first").append("color", "red"));
+    assertThrows(
+        MongoWriteException.class,
+        () -> items.insertOne(new Document("_id", 1)),
+        "Duplicate '_id' should fail the insert");
+
+    // Replacement keeps the '_id'
+    items.replaceOne(Filters.eq("_id", 1), new Document("name", "replaced"));
+    assertEquals(new Document("_id", 1).append("name", "replaced"),
+        items.find(Filters.eq("_id", 1)).first());
+
+    // Upserts insert the equality fields of the filter and apply the update
+    UpdateResult upsert = items.updateOne(
+        Filters.eq("_id", 2),
+        Updates.combine(Updates.set("name", "upserted"), Updates.setOnInsert("color", "blue")),
+        new UpdateOptions().upsert(true));
+    assertEquals(0, upsert.getMatchedCount());
+    assertEquals(2, upsert.getUpsertedId().asInt32().getValue());
+    assertEquals(new Document("_id", 2).append("name", "upserted").append("color", "blue"),
+        items.find(Filters.eq("_id", 2)).first());
+    upsert = items.updateOne(
+        Filters.eq("_id", 2),
+        Updates.setOnInsert("color", "green"),
+        new UpdateOptions().upsert(true));
+    assertEquals(1, upsert.getMatchedCount());
+    assertEquals("blue", items.find(Filters.eq("_id", 2)).first().getString("color"),
+        "$setOnInsert should not apply to existing documents");
+
+    // findOneAndUpdate returns the document before or after the update
+    Document before = items.findOneAndUpdate(Filters.eq("_id", 2), Updates.set("name", "found"));
+    assertEquals("upserted", before.getString("name"));
+    Document after = items.findOneAndUpdate(
+        Filters.eq("_id", 2),
+        Updates.set("name", "found again"),
+        new FindOneAndUpdateOptions().returnDocument(ReturnDocument.AFTER));
+    assertEquals("found again", after.getString("name"));
+    assertEquals("found again", items.findOneAndDelete(Filters.eq("_id", 2)).getString("name"));
+
+    items.insertMany(List.of(
+        new Document("_id", 3).append("color", "red"),
+        new Document("_id", 4).append("color", "blue"),
+        new Document("_id", 5).append("color", "red")));
+    assertEquals(List.of("blue", "red"), items.distinct("color", String.class)
+        .into(new ArrayList<>()).stream().sorted().collect(Collectors.toList()));
+
+    // Skip, limit, and sort on several fields
+    assertEquals(List.of(5, 3), items.find(Filters.exists("color"))
+        .sort(Sorts.orderBy(Sorts.descending("color"), Sorts.descending("_id")))
+        .limit(2)
+        .map(document -> document.getInteger("_id"))
+        .into(new ArrayList<>()));
+    assertEquals(List.of(4), items.find(Filters.exists("color"))
+        .sort(Sorts.ascending("_id"))
+        .skip(1)
+        .limit(1)
+        .map(document -> document.getInteger("_id"))
+        .into(new ArrayList<>()));
+
+    assertEquals(1, items.deleteOne(Filters.eq("color", "red")).getDeletedCount());
+    assertEquals(0, items.deleteOne(Filters.eq("_id", 99)).getDeletedCount());
+    assertEquals(4, items.countDocuments());
+  }
+
+  @Test
+  @DisplayName("Query operators")
+  void testQueryOperators() {
+
+    MongoCollection<Document> items = mongoClient.getDatabase("querytest").getCollection("items");
+    items.insertMany(List.of(
+        new Document("_id", 1).append("qty", 5).append("tags", List.of("a", "b"))
+            .append("size", new Document("h", 10).append("unit", "cm")),
+        new Document("_id", 2).append("qty", 15).append("tags", List.of("b", "c"))
+            .append("size", new Document("h", 20).append("unit", "in")),
+        new Document("_id", 3).append("qty", 25).append("tags", List.of("c"))
+            .append("name", "Widget"),
+        new Document("_id", 4).append("qty", null).append("items", List.of(
+            new Document("sku", "x").append("n", 1),
+            new Document("sku", "y").append("n", 5)))));
+
+    // Comparison, including type bracketing of 'null' and missing fields
+    assertIds(items, Filters.gt("qty", 5), 2, 3);
+    assertIds(items, Filters.gte("qty", 15), 2, 3);
+    assertIds(items, Filters.lt("qty", 15), 1);
+    assertIds(items, Filters.lte("qty", 15), 1, 2);
+    assertIds(items, Filters.ne("qty", 15), 1, 3, 4);
+    assertIds(items, Filters.in("qty", 5, 25), 1, 3);
+    assertIds(items, Filters.nin("qty", 5, 25), 2, 4);
+    assertIds(items, Filters.eq("qty", null), 4);
+    assertIds(items, Filters.eq("name", null), 1, 2, 4);
+
+    // Logical
+    assertIds(items, Filters.and(Filters.gt("qty", 1), Filters.lt("qty", 20)), 1, 2);
+    assertIds(items, Filters.or(Filters.eq("qty", 5), Filters.eq("name", "Widget")), 1, 3);
+    assertIds(items, Filters.nor(Filters.eq("qty", 5), Filters.eq("qty", 15)), 3, 4);
+    assertIds(items, Filters.not(Filters.gt("qty", 10)), 1, 4);
+
+    // Element
+    assertIds(items, Filters.exists("name"), 3);
+    assertIds(items, Filters.exists("name", false), 1, 2, 4);
+
+    // Arrays
+    assertIds(items, Filters.eq("tags", "b"), 1, 2);
+    assertIds(items, Filters.all("tags", "b", "c"), 2);
+    assertIds(items, Filters.size("tags", 1), 3);
+    assertIds(items, Filters.eq("tags", List.of("a", "b")), 1);
+    assertIds(items, Filters.elemMatch("items",
+        Filters.and(Filters.eq("sku", "x"), Filters.gt("n", 2))));
+    assertIds(items, Filters.elemMatch("items",
+        Filters.and(Filters.eq("sku", "y"), Filters.gt("n", 2))), 4);
+    assertIds(items, Filters.eq("items.sku", "y"), 4);
+
+    // Embedded documents and regular expressions
+    assertIds(items, Filters.eq("size.unit", "in"), 2);
+    assertIds(items, Filters.gte("size.h", 10), 1, 2);
+    assertIds(items, Filters.eq("size", new Document("h", 10).append("unit", "cm")), 1);
+    assertIds(items, Filters.eq("size", new Document("unit", "cm").append("h", 10)));
+    assertIds(items, Filters.regex("name", "^wid", "i"), 3);
+    assertIds(items, Filters.regex("name", "^wid"));
+
+    assertThrows(
+        MongoCommandException.class,
+        () -> items.countDocuments(new Document("qty", new Document("$unsupported", 1))),
+        "Unsupported operator should fail the command");
+  }
+
+  @Test
+  @DisplayName("Update operators")
+  void testUpdateOperators() {
+
+    MongoCollection<Document> items =
+        mongoClient.getDatabase("updatetest").getCollection("items");
+    items.insertOne(new Document("_id", 1)
+        .append("qty", 10)
+        .append("price", 2.5)
+        .append("old", "value")
+        .append("tags", new ArrayList<>(List.of("a", "b", "c")))
+        .append("size", new Document("h", 10)));
+
+    items.updateOne(Filters.eq("_id", 1), Updates.combine(
+        Updates.inc("qty", 5),
+        Updates.mul("price", 2),
+        Updates.set("size.w", 4),
+        Updates.unset("old"),
+        Updates.rename("size", "dimensions"),
+        Updates.currentDate("modified")));
+    Document document = items.find(Filters.eq("_id", 1)).first();
+    assertEquals(15, document.getInteger("qty"));
+    assertEquals(5.0, document.getDouble("price"));
+    assertFalse(document.containsKey("old"), "$unset should remove the field");
+    assertFalse(document.containsKey("size"), "$rename should remove the old field");
+    assertEquals(new Document("h", 10).append("w", 4), document.get("dimensions"));
+    assertTrue(document.get("modified") instanceof Date, "$currentDate should set a date");
+
+    items.updateOne(Filters.eq("_id", 1), Updates.combine(
+        Updates.min("qty", 12),
+        Updates.max("price", 3.0)));
+    document = items.find(Filters.eq("_id", 1)).first();
+    assertEquals(12, document.getInteger("qty"), "$min should lower a larger value");
+    assertEquals(5.0, document.getDouble("price"), "$max should keep a larger value");
+
+    // Array operators
+    items.updateOne(Filters.eq("_id", 1), Updates.push("tags", "d"));
+    items.updateOne(Filters.eq("_id", 1), Updates.pushEach("tags", List.of("e", "f")));
+    items.updateOne(Filters.eq("_id", 1), Updates.addToSet("tags", "a"));
+    items.updateOne(Filters.eq("_id", 1), Updates.addEachToSet("tags", List.of("a", "g")));
+    assertEquals(List.of("a", "b", "c", "d", "e", "f", "g"), getTags(items));
+
+    items.updateOne(Filters.eq("_id", 1), Updates.pull("tags", "d"));
+    items.updateOne(Filters.eq("_id", 1), Updates.pullByFilter(
+        new Document("tags", new Document("$in", List.of("e", "f")))));
+    assertEquals(List.of("a", "b", "c", "g"), getTags(items));
+
+    items.updateOne(Filters.eq("_id", 1), Updates.popFirst("tags"));
+    items.updateOne(Filters.eq("_id", 1), Updates.popLast("tags"));
+    assertEquals(List.of("b", "c"), getTags(items));
+
+    // Updates of several documents only touch the matched ones
+    items.insertMany(List.of(new Document("_id", 2).append("qty", 1),
+        new Document("_id", 3).append("qty", 100)));
+    UpdateResult result = items.updateMany(Filters.lt("qty", 50), Updates.inc("qty", 1));
+    assertEquals(2, result.getMatchedCount());
+    assertEquals(2, result.getModifiedCount());
+    assertEquals(List.of(13, 2, 100), items.find().sort(Sorts.ascending("_id"))
+        .map(item -> item.getInteger("qty"))
+        .into(new ArrayList<>()));
+  }
+
+  @Test
+  @DisplayName("Aggregation stages and accumulators")
+  void testAggregationStages() {
+
+    MongoCollection<Document> sales = mongoClient.getDatabase("aggtest").getCollection("sales");
+    sales.insertMany(List.of(
+        new Document("_id", 1).append("item", "a").append("qty", 2).append("price", 10)
+            .append("tags", List.of("x", "y")),
+        new Document("_id", 2).append("item", "b").append("qty", 1).append("price", 20)
+            .append("tags", List.of("y")),
+        new Document("_id", 3).append("item", "a").append("qty", 5).append("price", 10)
+            .append("tags", List.of())));
+
+    List<Document> groups = sales.aggregate(List.of(
+        Aggregates.group("$item",
+            Accumulators.sum("count", 1),
+            Accumulators.sum("qty", "$qty"),
+            Accumulators.avg("avgQty", "$qty"),
+            Accumulators.min("minQty", "$qty"),
+            Accumulators.max("maxQty", "$qty"),
+            Accumulators.first("firstId", "$_id"),
+            Accumulators.last("lastId", "$_id"),
+            Accumulators.push("ids", "$_id"),
+            Accumulators.addToSet("prices", "$price")),
+        Aggregates.sort(Sorts.ascending("_id")))).into(new ArrayList<>());
+    assertEquals(2, groups.size());
+    Document group = groups.get(0);
+    assertEquals("a", group.getString("_id"));
+    assertEquals(2, group.getInteger("count"));
+    assertEquals(7, group.getInteger("qty"));
+    assertEquals(3.5, group.getDouble("avgQty"));
+    assertEquals(2, group.getInteger("minQty"));
+    assertEquals(5, group.getInteger("maxQty"));
+    assertEquals(1, group.getInteger("firstId"));
+    assertEquals(3, group.getInteger("lastId"));
+    assertEquals(List.of(1, 3), group.get("ids"));
+    assertEquals(List.of(10), group.get("prices"));
+
+    // Unwind drops documents with empty arrays
+    List<Document> unwound = sales.aggregate(List.of(
+        Aggregates.unwind("$tags"),
+        Aggregates.project(Projections.include("tags")),
+        Aggregates.sort(Sorts.orderBy(Sorts.ascending("_id"), Sorts.ascending("tags")))))
+        .into(new ArrayList<>());
+    assertEquals(List.of(
+        new Document("_id", 1).append("tags", "x"),
+        new Document("_id", 1).append("tags", "y"),
+        new Document("_id", 2).append("tags", "y")), unwound);
+
+    // Added, removed, and replaced fields
+    Document shaped = sales.aggregate(List.of(
+        Aggregates.match(Filters.eq("_id", 2)),
+        Aggregates.addFields(new Field<>("label", "$item"), new Field<>("fixed", 1)),
+        Aggregates.unset("tags", "price"))).first();
+    assertEquals(new Document("_id", 2).append("item", "b").append("qty", 1)
+        .append("label", "b").append("fixed", 1), shaped);
+    Document replaced = sales.aggregate(List.of(
+        Aggregates.match(Filters.eq("_id", 1)),
+        Aggregates.replaceRoot(new Document("item", "$item").append("qty", "$qty")))).first();
+    assertEquals(new Document("item", "a").append("qty", 2), replaced);
+
+    // Paging and counting
+    assertEquals(List.of(2), sales.aggregate(List.of(
+        Aggregates.sort(Sorts.ascending("_id")),
+        Aggregates.skip(1),
+        Aggregates.limit(1),
+        Aggregates.project(Projections.include("_id"))))
+        .map(document -> document.getInteger("_id"))
+        .into(new ArrayList<>()));
+    assertEquals(2, sales.aggregate(List.of(
+        Aggregates.match(Filters.eq("item", "a")),
+        Aggregates.count("total"))).first().getInteger("total"));
+  }
+
+  @Test
+  @DisplayName("Snapshots are isolated from later changes and can be restored repeatedly")
+  void testSnapshotIsolation() {
+
+    MongoDatabase database = mongoClient.getDatabase("isolationtest");
+    MongoCollection<Document> items = database.getCollection("items");
+    items.insertOne(new Document("_id", 1).append("nested", new Document("value", "seeded")));
+    items.createIndex(Indexes.ascending("nested.value"));
+
+    DatabaseSnapshot snapshot = server.snapshotDatabase("isolationtest");
+
+    for (int run = 0; run < 2; run++) {
+
+      // Changes to nested documents and new collections don't leak into the snapshot
+      items.updateOne(Filters.eq("_id", 1), Updates.set("nested.value", "changed"));
+      database.getCollection("others").insertOne(new Document("_id", "other"));
+      items.dropIndexes();
+
+      server.restoreDatabase("isolationtest", snapshot);
+
+      assertEquals("seeded",
+          items.find().first().get("nested", Document.class).getString("value"));
+      assertEquals(List.of("items"), database.listCollectionNames().into(new ArrayList<>()));
+      assertEquals(2, items.listIndexes().into(new ArrayList<>()).size(),
+          "Indexes should be restored");
+    }
+
+    // Other databases are left alone
+    MongoCollection<Document> otherItems =
+        mongoClient.getDatabase("isolationothertest").getCollection("items");
+    otherItems.insertOne(new Document("_id", 1));
+    server.restoreDatabase("isolationtest", snapshot);
+    assertEquals(1, otherItems.countDocuments());
+  }
+
+  /**
+   * Asserts the documents of the provided 'collection' that match the provided 'filter' have
+   * exactly the provided 'expectedIds', in any order.
+   *
+   * @param collection Collection to query.
+   * @param filter Query filter.
+   * @param expectedIds Integer '_id's of the documents expected to match.
+   */
+  private static void assertIds(MongoCollection<Document> collection, Bson filter,
+      int... expectedIds) {
+
+    List<Integer> ids = collection.find(filter)
+        .map(document -> document.getInteger("_id"))
+        .into(new ArrayList<>());
+    Collections.sort(ids);
+    assertEquals(
+        Arrays.stream(expectedIds).boxed().collect(Collectors.toList()),
+        ids,
+        () -> "Unexpected matches of " + filter);
+  }
+
+  /**
+   * @param items Collection holding the document with '_id' of 1.
+   * @return Tags of the document with '_id' of 1.
+   */
+  private static List<String> getTags(MongoCollection<Document> items) {
+    return items.find(Filters.eq("_id", 1)).first().getList("tags", String.class);
+  }
+}
@@ -0,0 +1,408 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import static org.mongounit.MongoUnitUtil.describeLocation;
+import static org.mongounit.MongoUnitUtil.retrieveDatasetFromFile;
+import static org.mongounit.MongoUnitUtil.toBsonDocuments;
+import static org.mongounit.config.MongoUnitConfigurationUtil.loadMongoUnitProperties;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.bson.Document;
+import org.mongounit.config.MongoUnitProperties;
+import org.mongounit.model.MongoUnitCollection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link DatasetCache} class holds the parsed collections of dataset files that were prefetched
+ * for the whole test run, see {@link DatasetPrefetchListener}, keyed by the description of their
+ * location (see {@link MongoUnitUtil#describeLocation}).
+ *
+ * A file that is requested before its prefetch has started is loaded on the requesting thread
+ * instead, so a test never waits behind the prefetch of files of other test classes. A file whose
+ * prefetch failed is loaded again on the requesting thread, so the failure is reported the same
+ * way as without the cache.
+ *
+ * Seed dataset files can be prefetched along with the BSON documents they are seeded as, see
+ * {@link #prefetch(String, LocationType, Class, String, MongoUnitProperties, Executor)}, which
+ * {@link MongoUnitUtil#toDatabase} then reuses instead of converting the documents again for every
+ * test class and test.
+ *
+ * If the 'mongounit.cache.off-heap-budget' property is set, or a budget is set with {@link
+ * #setOffHeapBudget(Long)}, prefetched datasets are held in an {@link OffHeapDatasetStore} rather
+ * than on the heap. A dataset evicted from it is loaded from its file again when it's requested.
+ */
+public class DatasetCache {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(DatasetCache.class);
+
+  /**
+   * Prefetched dataset files, keyed by the description of their location.
+   */
+  private static final Map<String, CachedDataset> cachedDatasets = new ConcurrentHashMap<>();
+
+  /**
+   * Store of the prefetched datasets that are held off-heap. 'null' if they are held on the heap
+   * or if the off-heap budget isn't resolved yet.
+   */
+  private static volatile OffHeapDatasetStore offHeapStore;
+
+  /**
+   * Flag to indicate if the off-heap budget was resolved, i.e., either read from the MongoUnit
+   * properties the first time a dataset is cached or set with {@link #setOffHeapBudget(Long)}.
+   */
+  private static volatile boolean offHeapBudgetResolved;
+
+  /**
+   * BSON documents of the collections of prefetched seed dataset files, keyed by the field name
+   * indicator of the MongoUnit values they were converted with and then by the identity of their
+   * lists of documents. Guarded by the {@link DatasetCache} class.
+   */
+  private static final Map<String, Map<List<Map<String, Object>>, List<Document>>>
+      convertedDocuments = new HashMap<>();
+
+  /**
+   * Schedules the dataset file at the provided 'fileLocation' to be loaded on the provided
+   * 'executor', unless it's already cached.
+   *
+   * @param fileLocation Path to the file containing the dataset.
+   * @param locationType Type of location the provided 'fileLocation' is.
+   * @param relativePackageClass If 'locationType' is 'CLASS', this is the class type whose package
+   * should be used for package relative 'location' path. Otherwise, it's ignored and can be null.
+   * @param testClassName Name of the test class, which is either {@link MongoUnitTest} specified
+   * name or, if not specified, the simple class name of the test class.
+   * @param executor Executor to load the file on.
+   */
+  public static void prefetch(
+      String fileLocation,
+      LocationType locationType,
+      Class<?> relativePackageClass,
+      String testClassName,
+      Executor executor) {
+    prefetch(fileLocation, locationType, relativePackageClass, testClassName, null, executor);
+  }
+
+  /**
+   * Schedules the seed dataset file at the provided 'fileLocation' to be loaded on the provided
+   * 'executor', unless it's already cached, and its documents to be converted to the BSON documents
+   * they are seeded as, unless the dataset is held off-heap, see {@link
+   * #getConvertedDocuments(List, MongoUnitProperties)}.
+   *
+   * @param fileLocation Path to the file containing the dataset.
+   * @param locationType Type of location the provided 'fileLocation' is.
+   * @param relativePackageClass If 'locationType' is 'CLASS', this is the class type whose package
+   * should be used for package relative 'location' path. Otherwise, it's ignored and can be null.
+   * @param testClassName Name of the test class, which is either {@link MongoUnitTest} specified
+   * name or, if not specified, the simple class name of the test class.
+   * @param mongoUnitProperties Collection of properties framework was configured with, to convert
+   * the documents with. If 'null', the documents are not converted.
+   * @param executor Executor to load the file on.
+   */
+  public static void prefetch(
+      String fileLocation,
+      LocationType locationType,
+      Class<?> relativePackageClass,
+      String testClassName,
+      MongoUnitProperties mongoUnitProperties,
+      Executor executor) {
+
+    String key = describeLocation(fileLocation, locationType, relativePackageClass, testClassName);
+    CachedDataset cachedDataset = new CachedDataset(key);
+    if (cachedDatasets.putIfAbsent(key, cachedDataset) != null) {
+      return;
+    }
+
+    executor.execute(() -> {
+
+      // Skip the file if a test already started loading it on its own thread
+      if (!cachedDataset.claimed.compareAndSet(false, true)) {
+        return;
+      }
+
+      List<MongoUnitCollection> mongoUnitCollections;
+      try {
+        mongoUnitCollections =
+            cachedDataset.load(fileLocation, locationType, relativePackageClass, testClassName);
+      } catch (RuntimeException runtimeException) {
+
+        // Reported once a test actually requests the file
+        log.debug("Unable to prefetch dataset file '" + key + "'.", runtimeException);
+        return;
+      }
+
+      // Convert only datasets held on the heap, since the off-heap ones are decoded anew each time
+      if (mongoUnitProperties != null && cachedDataset.future.join() != null) {
+        convert(key, mongoUnitCollections, mongoUnitProperties);
+      }
+    });
+  }
+
+  /**
+   * @param documents List of documents of a collection of a dataset.
+   * @param mongoUnitProperties Collection of properties framework was configured with.
+   * @return BSON documents the provided 'documents' list, if it was retrieved from this cache, was
+   * converted to with the same field name indicator of MongoUnit values as the provided
+   * 'mongoUnitProperties' specify, or 'null' if it wasn't converted (yet). The BSON documents must
+   * not be modified.
+   */
+  public static synchronized List<Document> getConvertedDocuments(
+      List<Map<String, Object>> documents,
+      MongoUnitProperties mongoUnitProperties) {
+
+    Map<List<Map<String, Object>>, List<Document>> convertedDocumentsOfIndicator =
+        convertedDocuments.get(mongoUnitProperties.getMongoUnitValueFieldNameIndicator());
+    if (convertedDocumentsOfIndicator == null) {
+      return null;
+    }
+
+    return convertedDocumentsOfIndicator.get(documents);
+  }
+
+  /**
+   * Retrieves the collections of the dataset file at the provided 'fileLocation', waiting for its
+   * prefetch to complete if it's in progress. The time spent waiting is recorded as the
+   * {@link MongoUnitPhase#FILE_LOAD} phase.
+   *
+   * @param fileLocation Path to the file containing the dataset.
+   * @param locationType Type of location the provided 'fileLocation' is.
+   * @param relativePackageClass If 'locationType' is 'CLASS', this is the class type whose package
+   * should be used for package relative 'location' path. Otherwise, it's ignored and can be null.
+   * @param testClassName Name of the test class, which is either {@link MongoUnitTest} specified
+   * name or, if not specified, the simple class name of the test class.
+   * @return List of {@link MongoUnitCollection}s of the file, which must not be modified.
+   * @throws MongoUnitException If the file could not be loaded.
+   */
+  public static List<MongoUnitCollection> retrieveDataset(
+      String fileLocation,
+      LocationType locationType,
+      Class<?> relativePackageClass,
+      String testClassName) throws MongoUnitException {
+
+    // Load the file directly if it's not prefetched
+    String key = describeLocation(fileLocation, locationType, relativePackageClass, testClassName);
+    CachedDataset cachedDataset = cachedDatasets.get(key);
+    if (cachedDataset == null) {
+      return retrieveDatasetFromFile(
+          fileLocation,
+          locationType,
+          relativePackageClass,
+          testClassName);
+    }
+
+    // Load the file on this thread if its prefetch hasn't started yet
+    if (cachedDataset.claimed.compareAndSet(false, true)) {
+      return cachedDataset.load(fileLocation, locationType, relativePackageClass, testClassName);
+    }
+
+    // Wait for the prefetch to complete
+    long startNanos = System.nanoTime();
+    List<MongoUnitCollection> mongoUnitCollections;
+    try {
+      mongoUnitCollections = cachedDataset.future.join();
+    } catch (CompletionException completionException) {
+
+      // Load the file again, so the error is reported as if it was never prefetched
+      return retrieveDatasetFromFile(
+          fileLocation,
+          locationType,
+          relativePackageClass,
+          testClassName);
+    } finally {
+      PhaseTimer.record(MongoUnitPhase.FILE_LOAD, startNanos);
+    }
+
+    if (mongoUnitCollections != null) {
+      return mongoUnitCollections;
+    }
+
+    // Decode the dataset from the off-heap store
+    startNanos = System.nanoTime();
+    OffHeapDatasetStore store = getOffHeapStore();
+    mongoUnitCollections = store == null ? null : store.get(key);
+    PhaseTimer.record(MongoUnitPhase.FILE_LOAD, startNanos);
+    if (mongoUnitCollections != null) {
+      return mongoUnitCollections;
+    }
+
+    // Load the file again if it was evicted, making it the most recently used dataset
+    mongoUnitCollections = retrieveDatasetFromFile(
+        fileLocation,
+        locationType,
+        relativePackageClass,
+        testClassName);
+    if (store != null) {
+      store.put(key, mongoUnitCollections);
+    }
+
+    return mongoUnitCollections;
+  }
+
+  /**
+   * Stores datasets prefetched from now on off-heap, within the provided 'budgetBytes', see {@link
+   * OffHeapDatasetStore}, regardless of the 'mongounit.cache.off-heap-budget' property.
+   *
+   * @param budgetBytes Maximum number of bytes of direct memory to store datasets in. If 'null',
+   * prefetched datasets are held on the heap.
+   */
+  public static synchronized void setOffHeapBudget(Long budgetBytes) {
+    offHeapStore = budgetBytes == null ? null : new OffHeapDatasetStore(budgetBytes);
+    offHeapBudgetResolved = true;
+  }
+
+  /**
+   * Removes all prefetched dataset files from the cache, including the off-heap ones. The off-heap
+   * budget is resolved again the next time a dataset is cached.
+   */
+  public static synchronized void clear() {
+
+    cachedDatasets.clear();
+    convertedDocuments.clear();
+    OffHeapDatasetStore store = offHeapStore;
+    if (store != null) {
+      store.clear();
+    }
+    offHeapStore = null;
+    offHeapBudgetResolved = false;
+  }
+
+  /**
+   * Converts the documents of the provided 'mongoUnitCollections' to BSON and caches them, logging
+   * instead of throwing if it fails, so the failure is reported once a test seeds the dataset.
+   *
+   * @param key Description of the location of the file of the dataset.
+   * @param mongoUnitCollections Collections of the dataset, as retrieved from this cache.
+   * @param mongoUnitProperties Collection of properties framework was configured with.
+   */
+  private static void convert(
+      String key,
+      List<MongoUnitCollection> mongoUnitCollections,
+      MongoUnitProperties mongoUnitProperties) {
+
+    Map<List<Map<String, Object>>, List<Document>> datasetDocuments;
+    try {
+      datasetDocuments = toBsonDocuments(mongoUnitCollections, mongoUnitProperties);
+    } catch (RuntimeException runtimeException) {
+      log.debug("Unable to convert prefetched dataset file '" + key + "'.", runtimeException);
+      return;
+    }
+
+    synchronized (DatasetCache.class) {
+
+      // Skip datasets the cache was cleared of in the meantime
+      if (cachedDatasets.containsKey(key)) {
+        convertedDocuments
+            .computeIfAbsent(
+                mongoUnitProperties.getMongoUnitValueFieldNameIndicator(),
+                indicator -> new IdentityHashMap<>())
+            .putAll(datasetDocuments);
+      }
+    }
+  }
+
+  /**
+   * @return Store of the prefetched datasets that are held off-heap, created with the budget of the
+   * 'mongounit.cache.off-heap-budget' property the first time it's needed, unless a budget was set
+   * with {@link #setOffHeapBudget(Long)}. 'null' if prefetched datasets are held on the heap.
+   */
+  private static OffHeapDatasetStore getOffHeapStore() {
+
+    if (!offHeapBudgetResolved) {
+      synchronized (DatasetCache.class) {
+        if (!offHeapBudgetResolved) {
+          Long budgetBytes = loadMongoUnitProperties().getCacheOffHeapBudget();
+          offHeapStore = budgetBytes == null ? null : new OffHeapDatasetStore(budgetBytes);
+          offHeapBudgetResolved = true;
+        }
+      }
+    }
+
+    return offHeapStore;
+  }
+
+  /**
+   * {@link CachedDataset} class holds the collections of a single prefetched dataset file.
+   */
+  private static class CachedDataset {
+
+    /**
+     * Description of the location of the file.
+     */
+    private final String key;
+
+    /**
+     * Flag to indicate if a thread has started loading the file.
+     */
+    private final AtomicBoolean claimed = new AtomicBoolean();
+
+    /**
+     * Future of the collections of the file, completed by the thread that loaded it. Completed
+     * with 'null' if the collections are held in the off-heap store instead.
+     */
+    private final CompletableFuture<List<MongoUnitCollection>> future = new CompletableFuture<>();
+
+    /**
+     * Constructor.
+     *
+     * @param key Description of the location of the file.
+     */
+    private CachedDataset(String key) {
+      this.key = key;
+    }
+
+    /**
+     * Loads the dataset file at the provided 'fileLocation' on the current thread and completes the
+     * 'future' with its collections, unless they are stored off-heap.
+     *
+     * @param fileLocation Path to the file containing the dataset.
+     * @param locationType Type of location the provided 'fileLocation' is.
+     * @param relativePackageClass If 'locationType' is 'CLASS', this is the class type whose
+     * package should be used for package relative 'location' path. Otherwise, it's ignored and can
+     * be null.
+     * @param testClassName Name of the test class, which is either {@link MongoUnitTest} specified
+     * name or, if not specified, the simple class name of the test class.
+     * @return List of {@link MongoUnitCollection}s of the file.
+     * @throws MongoUnitException If the file could not be loaded.
+     */
+    private List<MongoUnitCollection> load(
+        String fileLocation,
+        LocationType locationType,
+        Class<?> relativePackageClass,
+        String testClassName) throws MongoUnitException {
+
+      try {
+
+        List<MongoUnitCollection> mongoUnitCollections = retrieveDatasetFromFile(
+            fileLocation,
+            locationType,
+            relativePackageClass,
+            testClassName);
+        OffHeapDatasetStore store = getOffHeapStore();
+        future.complete(
+            store != null && store.put(key, mongoUnitCollections) ? null : mongoUnitCollections);
+        return mongoUnitCollections;
+
+      } catch (RuntimeException runtimeException) {
+        future.completeExceptionally(runtimeException);
+        throw runtimeException;
+      }
+    }
+  }
+}
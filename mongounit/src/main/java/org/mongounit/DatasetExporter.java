@@ -0,0 +1,696 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import static org.mongounit.MongoUnitUtil.JSON_LINES_COLLECTION_FIELD_NAME;
+import static org.mongounit.MongoUnitUtil.forEachDocument;
+import static org.mongounit.MongoUnitUtil.isGzipped;
+import static org.mongounit.MongoUnitUtil.isJsonLines;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.DefaultIndenter;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter.Indenter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mongodb.MongoException;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.MongoIterable;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.bson.BsonString;
+import org.bson.BsonType;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.mongounit.config.MongoUnitProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link DatasetExporter} class exports collections of a database as a JSON dataset in the format
+ * the MongoUnit framework seeds and asserts with.
+ *
+ * Collections are exported concurrently and each collection is split into '_id' ranges, whose
+ * boundaries are derived from a '$sample' of its '_id' values, that are scanned concurrently. Each
+ * range is streamed into its own temporary chunk file, and the chunks are concatenated into the
+ * output in order, so memory use does not depend on the size of the collections.
+ *
+ * Filters, projections, limits, and samples of the exported documents are pushed down to the
+ * server, so only the exported documents are ever sent to the client.
+ */
+public class DatasetExporter {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(DatasetExporter.class);
+
+  /**
+   * Name of the field that holds the collection name in the output JSON.
+   */
+  private static final String COLLECTION_NAME_FIELD_NAME = "collectionName";
+
+  /**
+   * Name of the field that holds the documents of a collection in the output JSON.
+   */
+  private static final String DOCUMENTS_FIELD_NAME = "documents";
+
+  /**
+   * Size of the buffers in front of the output and chunk files, in bytes.
+   */
+  private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+  /**
+   * Maximum number of seconds to wait for running scans to stop once an export is over.
+   */
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+  /**
+   * Number of '_id' values sampled per range a collection is split into.
+   */
+  private static final int SAMPLES_PER_RANGE = 20;
+
+  /**
+   * Number of objects a document is nested in within the output JSON, i.e., the collection object.
+   * Arrays are printed inline, so they don't add to the indentation.
+   */
+  private static final int DOCUMENT_NESTING_LEVEL = 1;
+
+  /**
+   * Separator between documents within a documents array, as written by the default pretty
+   * printer.
+   */
+  private static final byte[] DOCUMENT_SEPARATOR = ", ".getBytes(StandardCharsets.UTF_8);
+
+  /**
+   * Start of a documents array up to its first document, as written by the default pretty printer.
+   */
+  private static final byte[] DOCUMENTS_ARRAY_START = "[ ".getBytes(StandardCharsets.UTF_8);
+
+  /**
+   * Separator between lines of JSON Lines output.
+   */
+  private static final String LINE_SEPARATOR = "\n";
+
+  /**
+   * Database to export collections from.
+   */
+  private final MongoDatabase mongoDatabase;
+
+  /**
+   * Collection of properties to convert the documents with.
+   */
+  private final MongoUnitProperties mongoUnitProperties;
+
+  /**
+   * Arguments that select what to export and how, e.g., filters and the number of threads.
+   */
+  private final DatasetGeneratorArguments arguments;
+
+  /**
+   * Number of threads that export collections, and ranges within each collection, concurrently.
+   */
+  private final int parallelism;
+
+  /**
+   * JSON mapper used to write the output and chunk files.
+   */
+  private final ObjectMapper jsonMapper;
+
+  /**
+   * JSON writer of a single document, indented as if nested in the output JSON.
+   */
+  private final ObjectWriter documentWriter;
+
+  /**
+   * JSON factory of the chunk files of JSON Lines output, which puts each document on its own line.
+   */
+  private final JsonFactory jsonLinesFactory;
+
+  /**
+   * Constructor.
+   *
+   * @param mongoDatabase Database to export collections from.
+   * @param mongoUnitProperties Collection of properties to convert the documents with.
+   * @param arguments Arguments that select what to export and how. A 'parallelism' less than '1'
+   * is treated as '1'.
+   */
+  public DatasetExporter(
+      MongoDatabase mongoDatabase,
+      MongoUnitProperties mongoUnitProperties,
+      DatasetGeneratorArguments arguments) {
+
+    this.mongoDatabase = mongoDatabase;
+    this.mongoUnitProperties = mongoUnitProperties;
+    this.arguments = arguments;
+    this.parallelism = Math.max(arguments.getParallelism(), 1);
+
+    jsonMapper = new ObjectMapper();
+    jsonMapper.registerModule(new JavaTimeModule());
+
+    // Ensure dates are written as ISO-8601 strings, not timestamps
+    jsonMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    // Leave flushing to the output buffer instead of flushing after every document
+    jsonMapper.disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    // Indent documents written to chunks exactly as they would be in the output JSON
+    documentWriter = jsonMapper.writer(new DefaultPrettyPrinter()
+        .withObjectIndenter(new OffsetIndenter(
+            DefaultIndenter.SYSTEM_LINEFEED_INSTANCE,
+            DOCUMENT_NESTING_LEVEL)));
+
+    // Separate documents written to JSON Lines chunks with line breaks
+    jsonLinesFactory = jsonMapper.getFactory().copy().setRootValueSeparator(LINE_SEPARATOR);
+  }
+
+  /**
+   * Exports the collections with the provided 'collectionNames', in that order, as JSON to the
+   * file at the provided 'outputPath', erasing previous version of the file. If the 'outputPath'
+   * ends with '.jsonl' or '.ndjson', the JSON Lines format is written instead, i.e., for each
+   * collection, a '$collection' header line followed by one line per document. If the
+   * 'outputPath' also ends with '.gz', e.g., 'output.json.gz', the output is gzipped as it's
+   * written.
+   *
+   * @param collectionNames Names of the collections to export.
+   * @param outputPath Path of the file to write the JSON to.
+   * @throws IOException If the output or a chunk file could not be written.
+   * @throws MongoException If reading from the database failed.
+   */
+  public void export(List<String> collectionNames, Path outputPath) throws IOException {
+
+    ExecutorService executorService = Executors.newFixedThreadPool(parallelism, runnable -> {
+      Thread thread = new Thread(runnable, "mongounit-dataset-exporter");
+      thread.setDaemon(true);
+      return thread;
+    });
+    Path chunkDirectory = outputPath.toAbsolutePath().getParent();
+    Queue<Path> chunks = new ConcurrentLinkedQueue<>();
+    boolean jsonLines = isJsonLines(outputPath.toString());
+
+    try {
+
+      // Plan the ranges of every collection and scan them, all concurrently
+      List<CompletableFuture<List<CompletableFuture<Path>>>> collectionChunks = new ArrayList<>();
+      for (String collectionName : collectionNames) {
+
+        collectionChunks.add(CompletableFuture
+            .supplyAsync(() -> planRanges(collectionName), executorService)
+            .thenApply(rangeFilters -> rangeFilters.stream()
+                .map(rangeFilter -> CompletableFuture.supplyAsync(
+                    () -> scanRange(collectionName, rangeFilter, chunkDirectory, chunks, jsonLines),
+                    executorService))
+                .collect(Collectors.toList())));
+      }
+
+      if (jsonLines) {
+        writeJsonLines(collectionNames, collectionChunks, outputPath, chunks);
+        return;
+      }
+
+      try (OutputStream outputStream =
+          openOutput(outputPath);
+          JsonGenerator jsonGenerator =
+              jsonMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+
+        jsonGenerator.useDefaultPrettyPrinter();
+
+        // Write each collection in the same shape as a serialized MongoUnitCollection
+        jsonGenerator.writeStartArray();
+        for (int i = 0; i < collectionNames.size(); i++) {
+
+          jsonGenerator.writeStartObject();
+          jsonGenerator.writeStringField(COLLECTION_NAME_FIELD_NAME, collectionNames.get(i));
+          jsonGenerator.writeFieldName(DOCUMENTS_FIELD_NAME);
+
+          // Let the generator write the field separator, then append the documents array directly
+          jsonGenerator.writeRawValue("");
+          jsonGenerator.flush();
+          outputStream.write(DOCUMENTS_ARRAY_START);
+          if (copyChunks(join(collectionChunks.get(i)), outputStream, DOCUMENT_SEPARATOR, chunks)) {
+            outputStream.write(' ');
+          }
+          outputStream.write(']');
+
+          jsonGenerator.writeEndObject();
+        }
+        jsonGenerator.writeEndArray();
+      }
+
+    } finally {
+
+      // Wait for scans still running after a failure, so none of them adds a chunk after cleanup
+      executorService.shutdownNow();
+      try {
+        executorService.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      } catch (InterruptedException exception) {
+        Thread.currentThread().interrupt();
+      }
+
+      // Remove chunks left behind by a failed export
+      for (Path chunk : chunks) {
+        Files.deleteIfExists(chunk);
+      }
+    }
+  }
+
+  /**
+   * Writes the JSON Lines output, i.e., for each collection, a header line followed by its chunks.
+   *
+   * @param collectionNames Names of the collections to export.
+   * @param collectionChunks Futures of the chunk files of each collection, in the same order as
+   * the provided 'collectionNames'.
+   * @param outputPath Path of the file to write the JSON Lines to.
+   * @param chunks Queue of chunk files created so far, which the copied chunk files are removed
+   * from.
+   * @throws IOException If the output file could not be written.
+   * @throws MongoException If reading from the database failed.
+   */
+  private void writeJsonLines(
+      List<String> collectionNames,
+      List<CompletableFuture<List<CompletableFuture<Path>>>> collectionChunks,
+      Path outputPath,
+      Queue<Path> chunks) throws IOException {
+
+    byte[] lineSeparator = LINE_SEPARATOR.getBytes(StandardCharsets.UTF_8);
+    try (OutputStream outputStream =
+        openOutput(outputPath)) {
+
+      for (int i = 0; i < collectionNames.size(); i++) {
+
+        outputStream.write(jsonMapper.writeValueAsBytes(
+            Collections.singletonMap(JSON_LINES_COLLECTION_FIELD_NAME, collectionNames.get(i))));
+        outputStream.write(lineSeparator);
+        if (copyChunks(join(collectionChunks.get(i)), outputStream, lineSeparator, chunks)) {
+          outputStream.write(lineSeparator);
+        }
+      }
+    }
+  }
+
+  /**
+   * @param collectionName Name of the collection to split into ranges.
+   * @return List of filters that together select every document of the collection with the
+   * provided 'collectionName' exactly once. A single empty filter if the collection is not split,
+   * which is also the case if the number of exported documents is limited or sampled.
+   */
+  List<BsonDocument> planRanges(String collectionName) {
+
+    List<BsonDocument> rangeFilters = new ArrayList<>();
+    if (parallelism == 1 || arguments.getLimit() != null || arguments.getSampleSize() != null) {
+      rangeFilters.add(new BsonDocument());
+      return rangeFilters;
+    }
+
+    // Sample '_id' values of matching documents, sorted by the server, so the boundaries are in the
+    // server's order and follow the distribution of the exported documents
+    List<BsonDocument> pipeline = new ArrayList<>();
+    BsonDocument filter = getFilter(collectionName);
+    if (!filter.isEmpty()) {
+      pipeline.add(new BsonDocument("$match", filter));
+    }
+    pipeline.add(new BsonDocument("$sample",
+        new BsonDocument("size", new BsonInt32(parallelism * SAMPLES_PER_RANGE))));
+    pipeline.add(new BsonDocument("$project", new BsonDocument("_id", new BsonInt32(1))));
+    pipeline.add(new BsonDocument("$sort", new BsonDocument("_id", new BsonInt32(1))));
+
+    List<BsonValue> sampledIds = new ArrayList<>();
+    try {
+      mongoDatabase.getCollection(collectionName, BsonDocument.class)
+          .aggregate(pipeline)
+          .forEach(sampledDocument -> sampledIds.add(sampledDocument.get("_id")));
+    } catch (MongoException exception) {
+      log.warn("Failed to sample collection '" + collectionName + "', scanning it as a whole: "
+          + exception.getMessage());
+    }
+
+    if (sampledIds.isEmpty()) {
+      rangeFilters.add(new BsonDocument());
+      return rangeFilters;
+    }
+
+    // Range queries only match values of the same type, so split only on the most common type
+    Map<BsonValue, Long> typeCounts = sampledIds.stream()
+        .collect(Collectors.groupingBy(DatasetExporter::toTypeSelector, Collectors.counting()));
+    BsonValue typeSelector = typeCounts.entrySet().stream()
+        .max(Map.Entry.comparingByValue())
+        .map(Map.Entry::getKey)
+        .orElse(null);
+    List<BsonValue> typedIds = sampledIds.stream()
+        .filter(id -> toTypeSelector(id).equals(typeSelector))
+        .collect(Collectors.toList());
+
+    // Pick evenly spaced distinct boundaries
+    List<BsonValue> boundaries = new ArrayList<>();
+    for (int i = 1; i < parallelism; i++) {
+
+      BsonValue boundary = typedIds.get(i * typedIds.size() / parallelism);
+      if (i * typedIds.size() / parallelism > 0
+          && (boundaries.isEmpty() || !boundaries.get(boundaries.size() - 1).equals(boundary))) {
+        boundaries.add(boundary);
+      }
+    }
+
+    if (boundaries.isEmpty()) {
+      rangeFilters.add(new BsonDocument());
+      return rangeFilters;
+    }
+
+    // Ranges below, between, and above the boundaries, plus '_id' values of any other type
+    for (int i = 0; i <= boundaries.size(); i++) {
+
+      BsonDocument range = new BsonDocument();
+      if (i == 0) {
+        range.put("$type", typeSelector);
+      } else {
+        range.put("$gte", boundaries.get(i - 1));
+      }
+      if (i < boundaries.size()) {
+        range.put("$lt", boundaries.get(i));
+      }
+      rangeFilters.add(new BsonDocument("_id", range));
+    }
+    rangeFilters.add(new BsonDocument("_id",
+        new BsonDocument("$not", new BsonDocument("$type", typeSelector))));
+
+    return rangeFilters;
+  }
+
+  /**
+   * Streams the exported documents of the collection with the provided 'collectionName' that
+   * match the provided 'rangeFilter' into a new chunk file.
+   *
+   * @param collectionName Name of the collection to scan.
+   * @param rangeFilter Filter that selects the range to scan.
+   * @param chunkDirectory Directory to create the chunk file in.
+   * @param chunks Queue of chunk files created so far, which the new chunk file is added to.
+   * @param jsonLines Flag to indicate if the chunk file is part of JSON Lines output.
+   * @return Path of the chunk file, which contains the documents of the range separated as in a
+   * documents array, or one per line for JSON Lines output.
+   * @throws UncheckedIOException If the chunk file could not be written.
+   */
+  private Path scanRange(
+      String collectionName,
+      BsonDocument rangeFilter,
+      Path chunkDirectory,
+      Queue<Path> chunks,
+      boolean jsonLines) throws UncheckedIOException {
+
+    try {
+
+      Path chunk = Files.createTempFile(chunkDirectory, ".mongounit-export-", ".chunk");
+      chunks.add(chunk);
+
+      MongoCollection<RawBsonDocument> collection =
+          mongoDatabase.getCollection(collectionName, RawBsonDocument.class);
+
+      try (OutputStream outputStream =
+          new BufferedOutputStream(Files.newOutputStream(chunk), OUTPUT_BUFFER_SIZE);
+          JsonGenerator jsonGenerator = (jsonLines ? jsonLinesFactory : jsonMapper.getFactory())
+              .createGenerator(outputStream, JsonEncoding.UTF8)) {
+
+        forEachDocument(
+            find(collection, rangeFilter),
+            mongoUnitProperties,
+            arguments.getPreserveBsonTypes(),
+            document -> writeDocument(jsonGenerator, document, jsonLines));
+      }
+
+      return chunk;
+
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
+  /**
+   * Opens a cursor over the exported documents of the provided 'collection' that match the
+   * provided 'rangeFilter', with the filter, projection, limit, and sample size of the export
+   * pushed down to the server.
+   *
+   * @param collection Collection to read the documents from.
+   * @param rangeFilter Filter that selects the range to read.
+   * @return Cursor over the matching documents.
+   */
+  private MongoIterable<RawBsonDocument> find(
+      MongoCollection<RawBsonDocument> collection,
+      BsonDocument rangeFilter) {
+
+    // Combine the range with the filter of the export
+    BsonDocument filter = getFilter(collection.getNamespace().getCollectionName());
+    if (filter.isEmpty()) {
+      filter = rangeFilter;
+    } else if (!rangeFilter.isEmpty()) {
+      filter = new BsonDocument("$and", new BsonArray(Arrays.asList(filter, rangeFilter)));
+    }
+
+    BsonDocument projection = arguments.getProjection();
+    Integer limit = arguments.getLimit();
+
+    // Let the server pick random documents; a limit just caps their number
+    Integer sampleSize = arguments.getSampleSize();
+    if (sampleSize != null) {
+
+      List<BsonDocument> pipeline = new ArrayList<>();
+      if (!filter.isEmpty()) {
+        pipeline.add(new BsonDocument("$match", filter));
+      }
+      pipeline.add(new BsonDocument("$sample", new BsonDocument("size",
+          new BsonInt32(limit == null ? sampleSize : Math.min(sampleSize, limit)))));
+      if (projection != null) {
+        pipeline.add(new BsonDocument("$project", projection));
+      }
+      return collection.aggregate(pipeline);
+    }
+
+    FindIterable<RawBsonDocument> documents = collection.find(filter);
+    if (projection != null) {
+      documents = documents.projection(projection);
+    }
+    if (limit != null) {
+      documents = documents.limit(limit);
+    }
+    return documents;
+  }
+
+  /**
+   * @param collectionName Name of the collection to get the filter of.
+   * @return Filter that selects the documents to export from the collection with the provided
+   * 'collectionName', i.e., its own filter, the filter of all collections, or an empty filter.
+   */
+  private BsonDocument getFilter(String collectionName) {
+
+    Map<String, BsonDocument> collectionFilters = arguments.getCollectionFilters();
+    if (collectionFilters != null && collectionFilters.containsKey(collectionName)) {
+      return collectionFilters.get(collectionName);
+    }
+
+    return arguments.getFilter() == null ? new BsonDocument() : arguments.getFilter();
+  }
+
+  /**
+   * Writes the provided 'document' to the provided chunk 'jsonGenerator', preceded by a separator
+   * unless it's the first document in the chunk.
+   *
+   * @param jsonGenerator Generator of the chunk file.
+   * @param document Map of field name/value pairs of the document to write.
+   * @param jsonLines Flag to indicate if the chunk file is part of JSON Lines output.
+   * @throws UncheckedIOException If the document could not be written.
+   */
+  private void writeDocument(
+      JsonGenerator jsonGenerator,
+      Map<String, Object> document,
+      boolean jsonLines) throws UncheckedIOException {
+
+    try {
+
+      // The generator separates documents with line breaks on its own
+      if (jsonLines) {
+        jsonMapper.writeValue(jsonGenerator, document);
+        return;
+      }
+
+      // The pretty printer follows the comma with a space, as between root-level values
+      if (jsonGenerator.getOutputContext().getEntryCount() > 0) {
+        jsonGenerator.writeRaw(',');
+      }
+      documentWriter.writeValue(jsonGenerator, document);
+
+    } catch (IOException exception) {
+      throw new UncheckedIOException(exception);
+    }
+  }
+
+  /**
+   * @param outputPath Path of the output file to open, erasing previous version of the file.
+   * @return Buffered stream of the output file, which gzips what is written to it if the provided
+   * 'outputPath' ends with '.gz'.
+   * @throws IOException If the output file could not be opened.
+   */
+  private static OutputStream openOutput(Path outputPath) throws IOException {
+
+    OutputStream outputStream = Files.newOutputStream(outputPath);
+    if (isGzipped(outputPath.toString())) {
+      outputStream = new GZIPOutputStream(outputStream, OUTPUT_BUFFER_SIZE);
+    }
+
+    return new BufferedOutputStream(outputStream, OUTPUT_BUFFER_SIZE);
+  }
+
+  /**
+   * Copies the non-empty chunk files among the provided 'collectionChunks' to the provided
+   * 'outputStream', separated by the provided 'separator', deleting the chunk files once they are
+   * copied.
+   *
+   * @param collectionChunks Chunk files of a collection, in order.
+   * @param outputStream Stream of the output file.
+   * @param separator Separator to write between two chunk files.
+   * @param chunks Queue of chunk files created so far, which the copied chunk files are removed
+   * from.
+   * @return 'true' if any documents were copied, 'false' if all chunk files were empty.
+   * @throws IOException If a chunk file could not be copied.
+   */
+  private static boolean copyChunks(
+      List<Path> collectionChunks,
+      OutputStream outputStream,
+      byte[] separator,
+      Queue<Path> chunks) throws IOException {
+
+    boolean copied = false;
+    for (Path chunk : collectionChunks) {
+
+      if (Files.size(chunk) > 0) {
+        if (copied) {
+          outputStream.write(separator);
+        }
+        Files.copy(chunk, outputStream);
+        copied = true;
+      }
+
+      Files.delete(chunk);
+      chunks.remove(chunk);
+    }
+
+    return copied;
+  }
+
+  /**
+   * Waits for the chunk files of a collection to be written.
+   *
+   * @param collectionChunks Future of the futures of the chunk files of a collection.
+   * @return Chunk files of the collection, in order.
+   * @throws IOException If a chunk file could not be written.
+   * @throws MongoException If reading from the database failed.
+   */
+  private static List<Path> join(CompletableFuture<List<CompletableFuture<Path>>> collectionChunks)
+      throws IOException {
+
+    try {
+
+      List<Path> chunks = new ArrayList<>();
+      for (CompletableFuture<Path> chunk : collectionChunks.join()) {
+        chunks.add(chunk.join());
+      }
+      return chunks;
+
+    } catch (CompletionException completionException) {
+
+      // Rethrow the original exception as if the work was done on this thread
+      Throwable cause = completionException.getCause();
+      if (cause instanceof UncheckedIOException) {
+        throw ((UncheckedIOException) cause).getCause();
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw completionException;
+    }
+  }
+
+  /**
+   * @param value Value to select the type of.
+   * @return '$type' operand that selects the values of the same type as the provided 'value', i.e.,
+   * 'number' for any numeric value, or the BSON type number otherwise.
+   */
+  private static BsonValue toTypeSelector(BsonValue value) {
+
+    BsonType bsonType = value.getBsonType();
+    if (value.isNumber() || bsonType == BsonType.DECIMAL128) {
+      return new BsonString("number");
+    }
+
+    return new BsonInt32(bsonType.getValue());
+  }
+
+  /**
+   * {@link OffsetIndenter} class is an {@link Indenter} that indents as if every level was nested
+   * a fixed number of levels deeper.
+   */
+  private static class OffsetIndenter implements Indenter {
+
+    /**
+     * Indenter to delegate to.
+     */
+    private final Indenter indenter;
+
+    /**
+     * Number of levels to add to every level.
+     */
+    private final int offset;
+
+    /**
+     * Constructor.
+     *
+     * @param indenter Indenter to delegate to.
+     * @param offset Number of levels to add to every level.
+     */
+    private OffsetIndenter(Indenter indenter, int offset) {
+      this.indenter = indenter;
+      this.offset = offset;
+    }
+
+    @Override
+    public void writeIndentation(JsonGenerator jsonGenerator, int level) throws IOException {
+      indenter.writeIndentation(jsonGenerator, level + offset);
+    }
+
+    @Override
+    public boolean isInline() {
+      return indenter.isInline();
+    }
+  }
+}
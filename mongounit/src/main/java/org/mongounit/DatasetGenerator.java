@@ -8,26 +8,27 @@
  */
 package org.mongounit;
 
-import static org.mongounit.MongoUnitUtil.fromDatabase;
+import static org.mongounit.MongoUnitUtil.GZIP_FILE_EXTENSION;
+import static org.mongounit.MongoUnitUtil.getCollectionNamesToUse;
+import static org.mongounit.MongoUnitUtil.isGzipped;
+import static org.mongounit.MongoUnitUtil.isJsonLines;
 import static org.mongounit.config.MongoUnitProperties.DEFAULT_MONGO_UNIT_VALUE_INDICATOR_FIELD_NAME;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.mongodb.MongoClient;
 import com.mongodb.MongoClientURI;
 import com.mongodb.client.MongoDatabase;
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import org.bson.BsonDocument;
 import org.mongounit.config.MongoUnitProperties;
-import org.mongounit.model.MongoUnitCollection;
 
 /**
  * {@link DatasetGenerator} class is a standalone runnable program that can generate JSON-based
@@ -68,6 +69,37 @@ public class DatasetGenerator {
   private static final String MONGO_UNIT_VALUE_FIELD_NAME_INDICATOR_ARG_NAME =
       "mongoUnitValueFieldNameIndicator";
 
+  /**
+   * Argument name for the number of threads that export collections concurrently.
+   */
+  private static final String PARALLELISM_ARG_NAME = "parallelism";
+
+  /**
+   * Argument name for the query filter of the documents to export from every collection.
+   */
+  private static final String FILTER_ARG_NAME = "filter";
+
+  /**
+   * Prefix of the argument names for the query filters of the documents to export from individual
+   * collections, followed by the collection name.
+   */
+  private static final String COLLECTION_FILTER_ARG_NAME_PREFIX = FILTER_ARG_NAME + ".";
+
+  /**
+   * Argument name for the projection of the exported documents.
+   */
+  private static final String PROJECTION_ARG_NAME = "projection";
+
+  /**
+   * Argument name for the maximum number of documents to export per collection.
+   */
+  private static final String LIMIT_ARG_NAME = "limit";
+
+  /**
+   * Argument name for the number of randomly selected documents to export per collection.
+   */
+  private static final String SAMPLE_ARG_NAME = "sample";
+
   /**
    * Default name of the output file.
    */
@@ -112,14 +144,12 @@ public class DatasetGenerator {
             null,
             null);
 
-    // Extract MongoUnitCollections
-    List<MongoUnitCollection> mongoUnitCollections = null;
+    // Resolve names of the collections to export
+    List<String> collectionNames = null;
     try {
 
-      mongoUnitCollections = fromDatabase(
+      collectionNames = getCollectionNamesToUse(
           mongoDatabase,
-          mongoUnitProperties,
-          arguments.getPreserveBsonTypes(),
           arguments.getCollectionNames().toArray(new String[0]));
     } catch (IllegalArgumentException exception) {
 
@@ -128,8 +158,8 @@ public class DatasetGenerator {
       System.exit(-1);
     }
 
-    // Output JSON file with data
-    outputAsJson(arguments, mongoUnitCollections);
+    // Stream JSON file with data
+    outputAsJson(arguments, mongoDatabase, mongoUnitProperties, collectionNames);
   }
 
   /**
@@ -154,58 +184,48 @@ public class DatasetGenerator {
   }
 
   /**
-   * Writes JSON representation of the provided 'mongoUnitCollections' to file (erasing previous
-   * version of the file) at location provided by 'arguments.getOutputPath'.
+   * Streams JSON representation of the collections with the provided 'collectionNames' to file
+   * (erasing previous version of the file) at location provided by 'arguments.getOutputPath'.
+   * Collections, and ranges of documents within each collection, are exported by as many threads as
+   * 'arguments.getParallelism' specifies. See {@link DatasetExporter} for details.
    *
    * @param argumentValues Values of arguments provided by the user on the command line.
-   * @param mongoUnitCollections List of {@link MongoUnitCollection}s to convert to JSON.
+   * @param mongoDatabase Database to export the collections from.
+   * @param mongoUnitProperties Collection of properties to convert the documents with.
+   * @param collectionNames Names of the collections to export.
    */
   private static void outputAsJson(
       DatasetGeneratorArguments argumentValues,
-      List<MongoUnitCollection> mongoUnitCollections) {
-
-    // Convert mongo unit collection data into JSON
-    String jsonMongoUnitCollection = null;
-    ObjectMapper jsonMapper = new ObjectMapper();
-    jsonMapper.registerModule(new JavaTimeModule());
-
-    // Ensure dates are written as ISO-8601 strings, not timestamps
-    jsonMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+      MongoDatabase mongoDatabase,
+      MongoUnitProperties mongoUnitProperties,
+      List<String> collectionNames) {
 
-    try {
-      jsonMongoUnitCollection =
-          jsonMapper.writerWithDefaultPrettyPrinter().writeValueAsString(mongoUnitCollections);
-    } catch (JsonProcessingException exception) {
-      System.out.println("**** ERROR: " + exception.getMessage());
-      System.exit(-1);
-    }
+    DatasetExporter datasetExporter =
+        new DatasetExporter(mongoDatabase, mongoUnitProperties, argumentValues);
 
     // Output JSON file to where 'output' argument specified
-    File outputFile = new File(argumentValues.getOutputPath());
-    try (BufferedWriter writer =
-        new BufferedWriter(new FileWriter(argumentValues.getOutputPath()))) {
-
-      writer.write(jsonMongoUnitCollection);
-
-      // Output completion message
-      System.out.println();
-      System.out.println("**************************");
-      System.out.println("**** JSON was written to " + outputFile.getCanonicalPath());
-      System.out.println("**************************");
-
+    Path outputPath = Paths.get(argumentValues.getOutputPath());
+    try {
+      datasetExporter.export(collectionNames, outputPath);
     } catch (IOException exception) {
       System.out
           .println("**** ERROR: Could not write to output file: " + argumentValues.getOutputPath()
               + ". Exception: " + exception.getMessage());
       System.exit(-1);
     }
+
+    // Output completion message
+    System.out.println();
+    System.out.println("**************************");
+    System.out.println("**** JSON was written to " + outputPath.toAbsolutePath().normalize());
+    System.out.println("**************************");
   }
 
   /**
    * @param args Arguments passed on the command line.
    * @return Fully resolved {@link DatasetGeneratorArguments}.
    */
-  private static DatasetGeneratorArguments extractArgumentValues(String[] args) {
+  static DatasetGeneratorArguments extractArgumentValues(String[] args) {
 
     // Init arg values
     MongoClientURI mongoClientURI = null;
@@ -213,6 +233,12 @@ public class DatasetGenerator {
     String outputPath = null;
     List<String> preserveBsonTypes = DEFAULT_PRESERVE_BSON_TYPES;
     String mongoUnitValueFieldNameIndicator = DEFAULT_MONGO_UNIT_VALUE_INDICATOR_FIELD_NAME;
+    int parallelism = 1;
+    BsonDocument filter = null;
+    Map<String, BsonDocument> collectionFilters = new HashMap<>();
+    BsonDocument projection = null;
+    Integer limit = null;
+    Integer sampleSize = null;
 
     // Loop over argument and extract values
     for (String argument : args) {
@@ -229,6 +255,15 @@ public class DatasetGenerator {
       String argName = argument.substring(1, equalsIndex);
       String argValue = argument.substring(equalsIndex + 1);
 
+      // Filters of individual collections are named after the collection, e.g., '-filter.users'
+      if (argName.startsWith(COLLECTION_FILTER_ARG_NAME_PREFIX)) {
+
+        collectionFilters.put(
+            argName.substring(COLLECTION_FILTER_ARG_NAME_PREFIX.length()),
+            extractJsonArgumentValue(argName, argValue));
+        continue;
+      }
+
       // Extract value based on argument type
       switch (argName) {
 
@@ -284,15 +319,21 @@ public class DatasetGenerator {
           outputPath =
               FileSystems.getDefault().getPath(argValue).toAbsolutePath().toString();
 
-          // If file name doesn't contain '.json', append 'output.json' to path
+          // If file name doesn't contain '.json' (or a JSON Lines extension), append 'output.json'
           File outputFile = new File(outputPath);
           String fileName = outputFile.getName();
-          if (!fileName.endsWith(".json") && !fileName.endsWith(".JSON")) {
+          if (isGzipped(fileName)) {
+            fileName = fileName.substring(0, fileName.length() - GZIP_FILE_EXTENSION.length());
+          }
+          if (!fileName.endsWith(".json")
+              && !fileName.endsWith(".JSON")
+              && !isJsonLines(fileName)) {
 
             // If doesn't end with .json, check that what was provided is an existing directory then
             if (!outputFile.isDirectory()) {
               System.out.println("**** ERROR: directory in the path must already exist. '-output'"
-                  + " value that does not end with '.json' is assumed to be a directory.");
+                  + " value that does not end with '.json', '.jsonl', or '.ndjson' (optionally"
+                  + " followed by '.gz') is assumed to be a directory.");
               printRules();
               System.exit(-1);
             }
@@ -316,6 +357,36 @@ public class DatasetGenerator {
 
           break;
 
+        case PARALLELISM_ARG_NAME:
+
+          parallelism = extractPositiveIntArgumentValue(argName, argValue);
+
+          break;
+
+        case FILTER_ARG_NAME:
+
+          filter = extractJsonArgumentValue(argName, argValue);
+
+          break;
+
+        case PROJECTION_ARG_NAME:
+
+          projection = extractJsonArgumentValue(argName, argValue);
+
+          break;
+
+        case LIMIT_ARG_NAME:
+
+          limit = extractPositiveIntArgumentValue(argName, argValue);
+
+          break;
+
+        case SAMPLE_ARG_NAME:
+
+          sampleSize = extractPositiveIntArgumentValue(argName, argValue);
+
+          break;
+
         default:
 
           // Print error, rules and exist with an error code
@@ -344,9 +415,64 @@ public class DatasetGenerator {
         .outputPath(outputPath)
         .preserveBsonTypes(preserveBsonTypes)
         .mongoUnitValueFieldNameIndicator(mongoUnitValueFieldNameIndicator)
+        .parallelism(parallelism)
+        .filter(filter)
+        .collectionFilters(collectionFilters)
+        .projection(projection)
+        .limit(limit)
+        .sampleSize(sampleSize)
         .build();
   }
 
+  /**
+   * @param argName Name of the argument, used in the error message.
+   * @param argValue Value of the argument.
+   * @return Positive integer the provided 'argValue' represents. If it doesn't represent one, an
+   * error is shown to the user and the program exits.
+   */
+  private static int extractPositiveIntArgumentValue(String argName, String argValue) {
+
+    int value = 0;
+    try {
+      value = Integer.parseInt(argValue.trim());
+    } catch (NumberFormatException exception) {
+      // Reported below along with non-positive values
+    }
+
+    if (value < 1) {
+
+      // Show error to user and exit with error code
+      System.out.println("**** ERROR: '-" + argName + "' must be a positive integer.");
+      printRules();
+      System.exit(-1);
+    }
+
+    return value;
+  }
+
+  /**
+   * @param argName Name of the argument, used in the error message.
+   * @param argValue Value of the argument, in MongoDB Extended JSON.
+   * @return Document the provided 'argValue' represents. If it isn't a valid JSON document, an
+   * error is shown to the user and the program exits.
+   */
+  private static BsonDocument extractJsonArgumentValue(String argName, String argValue) {
+
+    BsonDocument value = null;
+    try {
+      value = BsonDocument.parse(argValue);
+    } catch (RuntimeException exception) {
+
+      // Show error to user and exit with error code
+      System.out.println("**** ERROR: '-" + argName + "' must be a JSON document. "
+          + exception.getMessage());
+      printRules();
+      System.exit(-1);
+    }
+
+    return value;
+  }
+
   /**
    * Prints rules of how to call this program to the terminal.
    */
@@ -371,8 +497,10 @@ public class DatasetGenerator {
         + "DB name. Assumes base URI to be 'mongodb://localhost:27017/'.");
     System.out.println("* '-output' (optional) is an absolute or relative path to the file that"
         + " should be created with the dataset output in JSON format. An existing file with the"
-        + " same name will be erased. If '-output' is specified, it MUST end with '.json'."
-        + " Defaults to './output.json' if '-output' is omitted.");
+        + " same name will be erased. If '-output' is specified, it MUST end with '.json', or with"
+        + " '.jsonl' or '.ndjson' for the JSON Lines format (one '$collection' header line per"
+        + " collection followed by one document per line). Adding '.gz', e.g., 'output.json.gz',"
+        + " gzips the output. Defaults to './output.json' if '-output' is omitted.");
     System.out.println("* '-collectionNames' (optional) comma separated list of collection to"
         + " limit dataset generation to. No spaces allowed between collection names. Defaults to"
         + " all collections in the database.");
@@ -383,6 +511,21 @@ public class DatasetGenerator {
     System.out.println("* '-mongoUnitValueFieldNameIndicator' (optional) field name to use in"
         + " developer JSON files to signify that a document is a representation of a special"
         + " MongoUnit value. If not specified, defaults to $$.");
+    System.out.println("* '-parallelism' (optional) number of threads that export collections,"
+        + " and ranges of documents within each collection, concurrently. Documents of a"
+        + " collection may be ordered differently than with a single thread. If not specified,"
+        + " defaults to 1.");
+    System.out.println("* '-filter' (optional) query filter in MongoDB Extended JSON that selects"
+        + " the documents to export from every collection, e.g., -filter={\"status\":\"active\"}."
+        + " '-filter.<collectionName>' specifies the filter of an individual collection instead."
+        + " Defaults to all documents.");
+    System.out.println("* '-projection' (optional) projection in MongoDB Extended JSON that"
+        + " selects the fields of the exported documents. Defaults to all fields.");
+    System.out.println("* '-limit' (optional) maximum number of documents to export per"
+        + " collection. Defaults to no limit.");
+    System.out.println("* '-sample' (optional) number of documents to export per collection,"
+        + " randomly selected by the server with the '$sample' aggregation stage. Defaults to no"
+        + " sampling.");
     System.out.println("**************************");
     System.out.println();
   }
@@ -10,7 +10,9 @@ package org.mongounit;
 
 import com.mongodb.MongoClientURI;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import org.bson.BsonDocument;
 
 /**
  * {@link DatasetGeneratorArguments} class represents all arguments passed into the {@link
@@ -53,6 +55,39 @@ public class DatasetGeneratorArguments {
    */
   private String mongoUnitValueFieldNameIndicator;
 
+  /**
+   * Number of threads that export collections, and ranges of documents within each collection,
+   * concurrently.
+   */
+  private int parallelism;
+
+  /**
+   * Optional query filter that selects the documents to export from collections without a filter of
+   * their own in 'collectionFilters'.
+   */
+  private BsonDocument filter;
+
+  /**
+   * Optional query filters that select the documents to export, keyed by the name of the collection
+   * they apply to.
+   */
+  private Map<String, BsonDocument> collectionFilters;
+
+  /**
+   * Optional projection that selects the fields of the exported documents.
+   */
+  private BsonDocument projection;
+
+  /**
+   * Optional maximum number of documents to export per collection.
+   */
+  private Integer limit;
+
+  /**
+   * Optional number of documents to export per collection, randomly selected by the server.
+   */
+  private Integer sampleSize;
+
   /**
    * Default constructor.
    */
@@ -75,6 +110,16 @@ public class DatasetGeneratorArguments {
    * org.bson.BsonType}. If the JSON is meant to assert the expected result state, the format is
    * allowed to be simply:  "$$": value. In addition, a 'comparator' field is expected as a sibling
    * field name.
+   * @param parallelism Number of threads that export collections, and ranges of documents within
+   * each collection, concurrently.
+   * @param filter Optional query filter that selects the documents to export from collections
+   * without a filter of their own in 'collectionFilters'.
+   * @param collectionFilters Optional query filters that select the documents to export, keyed by
+   * the name of the collection they apply to.
+   * @param projection Optional projection that selects the fields of the exported documents.
+   * @param limit Optional maximum number of documents to export per collection.
+   * @param sampleSize Optional number of documents to export per collection, randomly selected by
+   * the server.
    */
   @SuppressWarnings("WeakerAccess")
   public DatasetGeneratorArguments(
@@ -82,13 +127,25 @@ public class DatasetGeneratorArguments {
       List<String> collectionNames,
       String outputPath,
       List<String> preserveBsonTypes,
-      String mongoUnitValueFieldNameIndicator) {
+      String mongoUnitValueFieldNameIndicator,
+      int parallelism,
+      BsonDocument filter,
+      Map<String, BsonDocument> collectionFilters,
+      BsonDocument projection,
+      Integer limit,
+      Integer sampleSize) {
 
     this.mongoClientURI = mongoClientURI;
     this.collectionNames = collectionNames;
     this.outputPath = outputPath;
     this.preserveBsonTypes = preserveBsonTypes;
     this.mongoUnitValueFieldNameIndicator = mongoUnitValueFieldNameIndicator;
+    this.parallelism = parallelism;
+    this.filter = filter;
+    this.collectionFilters = collectionFilters;
+    this.projection = projection;
+    this.limit = limit;
+    this.sampleSize = sampleSize;
   }
 
   /**
@@ -139,6 +196,51 @@ public class DatasetGeneratorArguments {
     return mongoUnitValueFieldNameIndicator;
   }
 
+  /**
+   * @return Number of threads that export collections, and ranges of documents within each
+   * collection, concurrently.
+   */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * @return Optional query filter that selects the documents to export from collections without a
+   * filter of their own in 'collectionFilters'.
+   */
+  public BsonDocument getFilter() {
+    return filter;
+  }
+
+  /**
+   * @return Optional query filters that select the documents to export, keyed by the name of the
+   * collection they apply to.
+   */
+  public Map<String, BsonDocument> getCollectionFilters() {
+    return collectionFilters;
+  }
+
+  /**
+   * @return Optional projection that selects the fields of the exported documents.
+   */
+  public BsonDocument getProjection() {
+    return projection;
+  }
+
+  /**
+   * @return Optional maximum number of documents to export per collection.
+   */
+  public Integer getLimit() {
+    return limit;
+  }
+
+  /**
+   * @return Optional number of documents to export per collection, randomly selected by the server.
+   */
+  public Integer getSampleSize() {
+    return sampleSize;
+  }
+
   /**
    * @param mongoClientURI Validated URI of the mongo DB to connect to.
    */
@@ -182,6 +284,52 @@ public class DatasetGeneratorArguments {
     this.mongoUnitValueFieldNameIndicator = mongoUnitValueFieldNameIndicator;
   }
 
+  /**
+   * @param parallelism Number of threads that export collections, and ranges of documents within
+   * each collection, concurrently.
+   */
+  public void setParallelism(int parallelism) {
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * @param filter Optional query filter that selects the documents to export from collections
+   * without a filter of their own in 'collectionFilters'.
+   */
+  public void setFilter(BsonDocument filter) {
+    this.filter = filter;
+  }
+
+  /**
+   * @param collectionFilters Optional query filters that select the documents to export, keyed by
+   * the name of the collection they apply to.
+   */
+  public void setCollectionFilters(Map<String, BsonDocument> collectionFilters) {
+    this.collectionFilters = collectionFilters;
+  }
+
+  /**
+   * @param projection Optional projection that selects the fields of the exported documents.
+   */
+  public void setProjection(BsonDocument projection) {
+    this.projection = projection;
+  }
+
+  /**
+   * @param limit Optional maximum number of documents to export per collection.
+   */
+  public void setLimit(Integer limit) {
+    this.limit = limit;
+  }
+
+  /**
+   * @param sampleSize Optional number of documents to export per collection, randomly selected by
+   * the server.
+   */
+  public void setSampleSize(Integer sampleSize) {
+    this.sampleSize = sampleSize;
+  }
+
   @Override
   public boolean equals(final Object o) {
     if (o == this) {
@@ -217,6 +365,34 @@ public class DatasetGeneratorArguments {
         other$mongoUnitValueFieldNameIndicator)) {
       return false;
     }
+    if (this.getParallelism() != other.getParallelism()) {
+      return false;
+    }
+    final Object this$filter = this.getFilter();
+    final Object other$filter = other.getFilter();
+    if (!Objects.equals(this$filter, other$filter)) {
+      return false;
+    }
+    final Object this$collectionFilters = this.getCollectionFilters();
+    final Object other$collectionFilters = other.getCollectionFilters();
+    if (!Objects.equals(this$collectionFilters, other$collectionFilters)) {
+      return false;
+    }
+    final Object this$projection = this.getProjection();
+    final Object other$projection = other.getProjection();
+    if (!Objects.equals(this$projection, other$projection)) {
+      return false;
+    }
+    final Object this$limit = this.getLimit();
+    final Object other$limit = other.getLimit();
+    if (!Objects.equals(this$limit, other$limit)) {
+      return false;
+    }
+    final Object this$sampleSize = this.getSampleSize();
+    final Object other$sampleSize = other.getSampleSize();
+    if (!Objects.equals(this$sampleSize, other$sampleSize)) {
+      return false;
+    }
     final Object this$preserveBsonTypes = this.getPreserveBsonTypes();
     final Object other$preserveBsonTypes = other.getPreserveBsonTypes();
     return Objects.equals(this$preserveBsonTypes, other$preserveBsonTypes);
@@ -245,6 +421,17 @@ public class DatasetGeneratorArguments {
     final Object $mongoUnitValueFieldNameIndicator = this.getMongoUnitValueFieldNameIndicator();
     result = result * PRIME + ($mongoUnitValueFieldNameIndicator == null ? 43
         : $mongoUnitValueFieldNameIndicator.hashCode());
+    result = result * PRIME + this.getParallelism();
+    final Object $filter = this.getFilter();
+    result = result * PRIME + ($filter == null ? 43 : $filter.hashCode());
+    final Object $collectionFilters = this.getCollectionFilters();
+    result = result * PRIME + ($collectionFilters == null ? 43 : $collectionFilters.hashCode());
+    final Object $projection = this.getProjection();
+    result = result * PRIME + ($projection == null ? 43 : $projection.hashCode());
+    final Object $limit = this.getLimit();
+    result = result * PRIME + ($limit == null ? 43 : $limit.hashCode());
+    final Object $sampleSize = this.getSampleSize();
+    result = result * PRIME + ($sampleSize == null ? 43 : $sampleSize.hashCode());
     return result;
   }
 
@@ -254,7 +441,13 @@ public class DatasetGeneratorArguments {
         + ", collectionNames=" + this.getCollectionNames() + ", outputPath=" + this.getOutputPath()
         + ", preserveBsonTypes=" + this.getPreserveBsonTypes()
         + ", mongoUnitValueFieldNameIndicator=" + this
-        .getMongoUnitValueFieldNameIndicator() + ")";
+        .getMongoUnitValueFieldNameIndicator()
+        + ", parallelism=" + this.getParallelism()
+        + ", filter=" + this.getFilter()
+        + ", collectionFilters=" + this.getCollectionFilters()
+        + ", projection=" + this.getProjection()
+        + ", limit=" + this.getLimit()
+        + ", sampleSize=" + this.getSampleSize() + ")";
   }
 
   /**
@@ -298,6 +491,39 @@ public class DatasetGeneratorArguments {
      */
     private String mongoUnitValueFieldNameIndicator;
 
+    /**
+     * Number of threads that export collections, and ranges of documents within each collection,
+     * concurrently.
+     */
+    private int parallelism;
+
+    /**
+     * Optional query filter that selects the documents to export from collections without a filter
+     * of their own in 'collectionFilters'.
+     */
+    private BsonDocument filter;
+
+    /**
+     * Optional query filters that select the documents to export, keyed by the name of the
+     * collection they apply to.
+     */
+    private Map<String, BsonDocument> collectionFilters;
+
+    /**
+     * Optional projection that selects the fields of the exported documents.
+     */
+    private BsonDocument projection;
+
+    /**
+     * Optional maximum number of documents to export per collection.
+     */
+    private Integer limit;
+
+    /**
+     * Optional number of documents to export per collection, randomly selected by the server.
+     */
+    private Integer sampleSize;
+
     /**
      * Constructor.
      */
@@ -362,6 +588,70 @@ public class DatasetGeneratorArguments {
       return this;
     }
 
+    /**
+     * @param parallelism Number of threads that export collections, and ranges of documents within
+     * each collection, concurrently.
+     * @return Instance of this builder class.
+     */
+    public DatasetGeneratorArguments.DatasetGeneratorArgumentsBuilder parallelism(
+        int parallelism) {
+      this.parallelism = parallelism;
+      return this;
+    }
+
+    /**
+     * @param filter Optional query filter that selects the documents to export from collections
+     * without a filter of their own in 'collectionFilters'.
+     * @return Instance of this builder class.
+     */
+    public DatasetGeneratorArguments.DatasetGeneratorArgumentsBuilder filter(
+        BsonDocument filter) {
+      this.filter = filter;
+      return this;
+    }
+
+    /**
+     * @param collectionFilters Optional query filters that select the documents to export, keyed by
+     * the name of the collection they apply to.
+     * @return Instance of this builder class.
+     */
+    public DatasetGeneratorArguments.DatasetGeneratorArgumentsBuilder collectionFilters(
+        Map<String, BsonDocument> collectionFilters) {
+      this.collectionFilters = collectionFilters;
+      return this;
+    }
+
+    /**
+     * @param projection Optional projection that selects the fields of the exported documents.
+     * @return Instance of this builder class.
+     */
+    public DatasetGeneratorArguments.DatasetGeneratorArgumentsBuilder projection(
+        BsonDocument projection) {
+      this.projection = projection;
+      return this;
+    }
+
+    /**
+     * @param limit Optional maximum number of documents to export per collection.
+     * @return Instance of this builder class.
+     */
+    public DatasetGeneratorArguments.DatasetGeneratorArgumentsBuilder limit(
+        Integer limit) {
+      this.limit = limit;
+      return this;
+    }
+
+    /**
+     * @param sampleSize Optional number of documents to export per collection, randomly selected by
+     * the server.
+     * @return Instance of this builder class.
+     */
+    public DatasetGeneratorArguments.DatasetGeneratorArgumentsBuilder sampleSize(
+        Integer sampleSize) {
+      this.sampleSize = sampleSize;
+      return this;
+    }
+
     /**
      * @return New instance of the {@link DatasetGeneratorArguments} class with the previously set
      * properties.
@@ -372,7 +662,13 @@ public class DatasetGeneratorArguments {
           collectionNames,
           outputPath,
           preserveBsonTypes,
-          mongoUnitValueFieldNameIndicator);
+          mongoUnitValueFieldNameIndicator,
+          parallelism,
+          filter,
+          collectionFilters,
+          projection,
+          limit,
+          sampleSize);
     }
 
     @Override
@@ -380,7 +676,13 @@ public class DatasetGeneratorArguments {
       return "DatasetGeneratorArguments.DatasetGeneratorArgumentsBuilder(mongoClientURI="
           + this.mongoClientURI + ", collectionNames=" + this.collectionNames + ", outputPath="
           + this.outputPath + ", preserveBsonTypes=" + this.preserveBsonTypes
-          + ", mongoUnitValueFieldNameIndicator=" + this.mongoUnitValueFieldNameIndicator + ")";
+          + ", mongoUnitValueFieldNameIndicator=" + this.mongoUnitValueFieldNameIndicator
+          + ", parallelism=" + this.parallelism
+          + ", filter=" + this.filter
+          + ", collectionFilters=" + this.collectionFilters
+          + ", projection=" + this.projection
+          + ", limit=" + this.limit
+          + ", sampleSize=" + this.sampleSize + ")";
     }
   }
 }
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.mongounit.model.MongoUnitCollection;
+import org.mongounit.model.PhaseTimings;
+
+/**
+ * {@link DatasetLoader} class loads and parses dataset files concurrently, so a test class whose
+ * datasets are split into many files doesn't pay for reading them one after another.
+ *
+ * Loading is started with {@link #load(String[], LocationType, Class, String)}, or with {@link
+ * #loadConcurrently(String[], LocationType, Class, String)} for the files of one of several
+ * annotations, and its result is collected with {@link #await(CompletableFuture)}, which returns
+ * the collections of the files in the order the files were declared in.
+ *
+ * Files prefetched for the whole test run are taken from the {@link DatasetCache}.
+ */
+public class DatasetLoader {
+
+  /**
+   * Minimum number of threads of the executor, so reading one file can overlap with reading or
+   * parsing another even on a single processor.
+   */
+  private static final int MIN_THREAD_COUNT = 2;
+
+  /**
+   * Executor of the file loads. It has as many threads as there are processors, since parsing is
+   * CPU bound, but at least {@link #MIN_THREAD_COUNT}, and its threads are daemons, so they never
+   * keep the JVM alive.
+   */
+  private static final ExecutorService executorService = Executors.newFixedThreadPool(
+      Math.max(Runtime.getRuntime().availableProcessors(), MIN_THREAD_COUNT),
+      runnable -> {
+        Thread thread = new Thread(runnable, "mongounit-dataset-loader");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  /**
+   * Starts loading the dataset files at the provided 'fileLocations'. A single file is loaded on
+   * the current thread before this method returns.
+   *
+   * @param fileLocations Array of paths to the files containing datasets.
+   * @param locationType Type of location the provided 'fileLocations' are.
+   * @param relativePackageClass If 'locationType' is 'CLASS', this is the class type whose package
+   * should be used for package relative 'location' path. Otherwise, it's ignored and can be null.
+   * @param testClassName Name of the test class, which is either {@link MongoUnitTest} specified
+   * name or, if not specified, the simple class name of the test class.
+   * @return Future of the collections of all the files, in the order of the provided
+   * 'fileLocations', along with the time spent loading them on other threads.
+   * @throws MongoUnitException If the single file to load could not be loaded.
+   */
+  public static CompletableFuture<LoadedDataset> load(
+      String[] fileLocations,
+      LocationType locationType,
+      Class<?> relativePackageClass,
+      String testClassName) throws MongoUnitException {
+
+    // Not worth handing off a single file to another thread; its time is recorded directly
+    if (fileLocations.length == 1) {
+
+      LoadedDataset loadedDataset = new LoadedDataset();
+      loadedDataset.mongoUnitCollections.addAll(DatasetCache.retrieveDataset(
+          fileLocations[0],
+          locationType,
+          relativePackageClass,
+          testClassName));
+      return CompletableFuture.completedFuture(loadedDataset);
+    }
+
+    return loadConcurrently(fileLocations, locationType, relativePackageClass, testClassName);
+  }
+
+  /**
+   * Starts loading the dataset files at the provided 'fileLocations', each on a thread of its own,
+   * even if there is only one of them. Used when the files of several annotations are loaded at
+   * once, so a single-file annotation isn't loaded before the files of the others are started.
+   *
+   * @param fileLocations Array of paths to the files containing datasets.
+   * @param locationType Type of location the provided 'fileLocations' are.
+   * @param relativePackageClass If 'locationType' is 'CLASS', this is the class type whose package
+   * should be used for package relative 'location' path. Otherwise, it's ignored and can be null.
+   * @param testClassName Name of the test class, which is either {@link MongoUnitTest} specified
+   * name or, if not specified, the simple class name of the test class.
+   * @return Future of the collections of all the files, in the order of the provided
+   * 'fileLocations', along with the time spent loading them on other threads.
+   */
+  public static CompletableFuture<LoadedDataset> loadConcurrently(
+      String[] fileLocations,
+      LocationType locationType,
+      Class<?> relativePackageClass,
+      String testClassName) {
+
+    List<CompletableFuture<LoadedDataset>> fileDatasets = new ArrayList<>();
+    for (String fileLocation : fileLocations) {
+      fileDatasets.add(CompletableFuture.supplyAsync(
+          () -> loadInBackground(fileLocation, locationType, relativePackageClass, testClassName),
+          executorService));
+    }
+
+    // Merge in declaration order once all files are loaded
+    return CompletableFuture.allOf(fileDatasets.toArray(new CompletableFuture<?>[0]))
+        .thenApply(ignored -> {
+
+          LoadedDataset loadedDataset = new LoadedDataset();
+          for (CompletableFuture<LoadedDataset> fileDataset : fileDatasets) {
+            loadedDataset.addAll(fileDataset.join());
+          }
+          return loadedDataset;
+        });
+  }
+
+  /**
+   * Waits for the provided 'loadedDatasetFuture' to complete and records the time spent loading
+   * the files on the current thread.
+   *
+   * @param loadedDatasetFuture Future returned by {@link #load(String[], LocationType, Class,
+   * String)}.
+   * @return List of {@link MongoUnitCollection}s of the loaded files, in the order the files were
+   * declared in. Collections may repeat.
+   * @throws MongoUnitException If loading one of the files failed.
+   */
+  public static List<MongoUnitCollection> await(
+      CompletableFuture<LoadedDataset> loadedDatasetFuture) throws MongoUnitException {
+
+    LoadedDataset loadedDataset;
+    try {
+      loadedDataset = loadedDatasetFuture.join();
+    } catch (CompletionException completionException) {
+
+      // Rethrow the original exception as if the files were loaded on this thread
+      Throwable cause = completionException.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+
+      throw new MongoUnitException(cause.getMessage(), cause);
+    }
+
+    PhaseTimer.recordAll(loadedDataset.phaseTimings);
+
+    return loadedDataset.mongoUnitCollections;
+  }
+
+  /**
+   * Loads the dataset file at the provided 'fileLocation' on the current background thread, timing
+   * the work involved.
+   *
+   * @param fileLocation Path to the file containing the dataset.
+   * @param locationType Type of location the provided 'fileLocation' is.
+   * @param relativePackageClass If 'locationType' is 'CLASS', this is the class type whose package
+   * should be used for package relative 'location' path. Otherwise, it's ignored and can be null.
+   * @param testClassName Name of the test class, which is either {@link MongoUnitTest} specified
+   * name or, if not specified, the simple class name of the test class.
+   * @return Collections of the file, along with the time spent loading them.
+   * @throws MongoUnitException If the file could not be loaded.
+   */
+  private static LoadedDataset loadInBackground(
+      String fileLocation,
+      LocationType locationType,
+      Class<?> relativePackageClass,
+      String testClassName) throws MongoUnitException {
+
+    PhaseTimer.begin();
+    LoadedDataset loadedDataset = new LoadedDataset();
+    try {
+      loadedDataset.mongoUnitCollections.addAll(
+          DatasetCache.retrieveDataset(
+              fileLocation,
+              locationType,
+              relativePackageClass,
+              testClassName));
+    } finally {
+      loadedDataset.phaseTimings.addAll(PhaseTimer.end());
+    }
+
+    return loadedDataset;
+  }
+
+  /**
+   * {@link LoadedDataset} class holds the collections of one or more loaded dataset files along
+   * with the time spent loading them.
+   */
+  public static class LoadedDataset {
+
+    /**
+     * Collections of the loaded files, in the order the files were declared in.
+     */
+    private final List<MongoUnitCollection> mongoUnitCollections = new ArrayList<>();
+
+    /**
+     * Time spent loading the files, across all threads that loaded them.
+     */
+    private final PhaseTimings phaseTimings = new PhaseTimings();
+
+    /**
+     * Adds the collections and timings of the provided 'loadedDataset' to this one.
+     *
+     * @param loadedDataset Dataset loaded from files declared after the files of this one.
+     */
+    private void addAll(LoadedDataset loadedDataset) {
+      mongoUnitCollections.addAll(loadedDataset.mongoUnitCollections);
+      phaseTimings.addAll(loadedDataset.phaseTimings);
+    }
+  }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import static org.mongounit.MongoUnitUtil.extractAnnotations;
+import static org.mongounit.MongoUnitUtil.extractTestClassName;
+import static org.mongounit.MongoUnitUtil.getFileLocations;
+import static org.mongounit.config.MongoUnitConfigurationUtil.loadMongoUnitProperties;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.mongounit.config.MongoUnitProperties;
+import org.mongounit.model.MongoUnitAnnotations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link DatasetPrefetchListener} class is a JUnit Platform {@link TestExecutionListener} that,
+ * as soon as the test run starts, scans the test plan for {@link MongoUnitTest} classes and loads,
+ * parses, and converts to BSON the dataset files of all their {@link SeedWithDataset} annotations
+ * into the {@link DatasetCache} on a background pool. By the time a test class runs, its seed
+ * datasets are usually ready to be inserted, so loading and converting them overlaps with the
+ * startup of the Spring context.
+ *
+ * Dataset files of {@link AssertMatchesDataset} annotations are not prefetched, since they are only
+ * needed once a test body succeeds, and are then loaded by the test itself.
+ *
+ * The listener is registered automatically through the 'ServiceLoader' mechanism, but only
+ * prefetches if the 'mongounit.prefetch.enabled' property is set to 'true', since the parsed files
+ * are kept in memory until the test run finishes. If the 'mongounit.cache.off-heap-budget'
+ * property is set, prefetched datasets are held off-heap, and are then converted to BSON by each
+ * test class instead.
+ */
+public class DatasetPrefetchListener implements TestExecutionListener {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(DatasetPrefetchListener.class);
+
+  /**
+   * Executor of the prefetched file loads. 'null' if prefetching is not enabled.
+   */
+  private ExecutorService executorService;
+
+  /**
+   * Collection of properties framework was configured with, which prefetched seed datasets are
+   * converted to BSON with. 'null' if prefetching is not enabled.
+   */
+  private MongoUnitProperties mongoUnitProperties;
+
+  @Override
+  public void testPlanExecutionStarted(TestPlan testPlan) {
+
+    MongoUnitProperties mongoUnitProperties = loadMongoUnitProperties();
+    if (!mongoUnitProperties.isPrefetchEnabled()) {
+      return;
+    }
+    this.mongoUnitProperties = mongoUnitProperties;
+
+    // Threads are daemons, so they never keep the JVM alive
+    executorService =
+        Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+          Thread thread = new Thread(runnable, "mongounit-dataset-prefetcher");
+          thread.setDaemon(true);
+          return thread;
+        });
+
+    // Schedule the files in the order the tests are going to be executed in
+    for (TestIdentifier root : testPlan.getRoots()) {
+      prefetchDatasets(testPlan, root);
+    }
+  }
+
+  @Override
+  public void testPlanExecutionFinished(TestPlan testPlan) {
+
+    if (executorService == null) {
+      return;
+    }
+
+    executorService.shutdownNow();
+    executorService = null;
+    mongoUnitProperties = null;
+    DatasetCache.clear();
+  }
+
+  /**
+   * Schedules the dataset files of the provided 'testIdentifier' and all of its descendants to be
+   * prefetched, depth first.
+   *
+   * @param testPlan Test plan being executed.
+   * @param testIdentifier Identifier of the test or container to prefetch the dataset files of.
+   */
+  private void prefetchDatasets(TestPlan testPlan, TestIdentifier testIdentifier) {
+
+    TestSource testSource = testIdentifier.getSource().orElse(null);
+    try {
+
+      if (testSource instanceof ClassSource) {
+
+        Class<?> testClass = ((ClassSource) testSource).getJavaClass();
+        if (testClass.isAnnotationPresent(MongoUnitTest.class)) {
+
+          String testClassName = extractTestClassName(testClass);
+          prefetchDatasets(extractAnnotations(testClass), testClass, testClassName, testClassName);
+        }
+
+      } else if (testSource instanceof MethodSource) {
+
+        Class<?> testClass = ((MethodSource) testSource).getJavaClass();
+        if (testClass.isAnnotationPresent(MongoUnitTest.class)) {
+
+          Method testMethod = ((MethodSource) testSource).getJavaMethod();
+          prefetchDatasets(
+              extractAnnotations(testMethod),
+              testClass,
+              extractTestClassName(testClass),
+              testMethod.getName());
+        }
+      }
+
+    } catch (RuntimeException runtimeException) {
+
+      // Errors are reported once the test itself processes its annotations
+      log.debug("Unable to prefetch datasets of '" + testIdentifier.getDisplayName() + "'.",
+          runtimeException);
+    }
+
+    for (TestIdentifier child : testPlan.getChildren(testIdentifier)) {
+      prefetchDatasets(testPlan, child);
+    }
+  }
+
+  /**
+   * Schedules the seed dataset files of the provided 'annotations' to be prefetched.
+   *
+   * @param annotations Annotations of a test class or test method.
+   * @param testClass Test class the 'annotations' belong to.
+   * @param testClassName Name of the test class, which is either {@link MongoUnitTest} specified
+   * name or, if not specified, the simple class name of the test class.
+   * @param defaultFileNamePrefix Name the default file names start with, i.e., the name of the test
+   * class for class level annotations or the name of the test method for method level ones.
+   */
+  private void prefetchDatasets(
+      MongoUnitAnnotations annotations,
+      Class<?> testClass,
+      String testClassName,
+      String defaultFileNamePrefix) {
+
+    for (SeedWithDataset annotation : annotations.getSeedWithDatasetAnnotations()) {
+
+      String[] fileLocations = getFileLocations(
+          annotation.value(),
+          annotation.locations(),
+          defaultFileNamePrefix,
+          "-seed.json");
+      for (String fileLocation : fileLocations) {
+        DatasetCache.prefetch(
+            fileLocation,
+            annotation.locationType(),
+            testClass,
+            testClassName,
+            mongoUnitProperties,
+            executorService);
+      }
+    }
+  }
+}
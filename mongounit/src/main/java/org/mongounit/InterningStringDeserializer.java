@@ -0,0 +1,117 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+import java.io.IOException;
+
+/**
+ * {@link InterningStringDeserializer} class is a Jackson deserializer of 'String' values that
+ * returns the same 'String' instance for repeated short values, such as status codes, types, or
+ * tenant ids, so a large dataset doesn't hold thousands of copies of them. Field names don't need
+ * it, since Jackson already interns them.
+ *
+ * Values are deduplicated through a bounded table with a single slot per hash bucket, where a
+ * value replaces the one in its slot, so unique values (e.g., names or ids) can't fill the table
+ * up, while frequently repeated values keep being found in it. Values are looked up directly in
+ * the buffer of the parser, so a repeated value doesn't allocate a new 'String' at all.
+ *
+ * An instance is meant to be used for a single load of a dataset. It's safe to use from multiple
+ * threads, since a race merely results in a value not being deduplicated.
+ */
+public class InterningStringDeserializer extends StdScalarDeserializer<String> {
+
+  /**
+   * Version of the serialized form of this class.
+   */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Maximum length of the values that are deduplicated. Longer values are rarely repeated.
+   */
+  static final int MAX_INTERNED_LENGTH = 64;
+
+  /**
+   * Number of slots in the table of values. Must be a power of 2.
+   */
+  static final int TABLE_SIZE = 1 << 12;
+
+  /**
+   * Table of deduplicated values, indexed by their hash.
+   */
+  private final String[] table = new String[TABLE_SIZE];
+
+  /**
+   * Default constructor.
+   */
+  public InterningStringDeserializer() {
+    super(String.class);
+  }
+
+  @Override
+  public String deserialize(JsonParser parser, DeserializationContext context)
+      throws IOException {
+
+    // Leave coercion of other tokens to strings to the standard deserializer
+    if (!parser.hasToken(JsonToken.VALUE_STRING)) {
+      return StringDeserializer.instance.deserialize(parser, context);
+    }
+
+    int length = parser.getTextLength();
+    if (length > MAX_INTERNED_LENGTH) {
+      return parser.getText();
+    }
+
+    char[] chars = parser.getTextCharacters();
+    int offset = parser.getTextOffset();
+
+    // Same hash as 'String.hashCode()', spread, so similar values don't collide
+    int hash = 0;
+    for (int i = offset; i < offset + length; i++) {
+      hash = 31 * hash + chars[i];
+    }
+    int slot = (hash ^ (hash >>> 16)) & (TABLE_SIZE - 1);
+
+    String value = table[slot];
+    if (value != null && matches(value, chars, offset, length)) {
+      return value;
+    }
+
+    value = new String(chars, offset, length);
+    table[slot] = value;
+    return value;
+  }
+
+  /**
+   * @param value Value to compare.
+   * @param chars Buffer holding the characters to compare the provided 'value' with.
+   * @param offset Offset of the first character in the provided 'chars'.
+   * @param length Number of characters to compare.
+   * @return 'true' if the provided 'value' consists of exactly the provided characters, 'false'
+   * otherwise.
+   */
+  private static boolean matches(String value, char[] chars, int offset, int length) {
+
+    if (value.length() != length) {
+      return false;
+    }
+
+    for (int i = 0; i < length; i++) {
+      if (value.charAt(i) != chars[offset + i]) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+}
@@ -135,7 +135,11 @@ public class MongoUnit {
     MongoDatabase mongoDatabase = CURRENT_MONGO_DATABASE;
 
     // Retrieve actual dataset from database
-    List<MongoUnitCollection> actualDataset = fromDatabase(mongoDatabase, null, null);
+    List<MongoUnitCollection> actualDataset = fromDatabase(
+        mongoDatabase,
+        null,
+        null,
+        loadMongoUnitProperties().getProfileBatchSize());
 
     // Perform assertion
     performAssertion(expectedDataset, actualDataset);
@@ -195,7 +199,11 @@ public class MongoUnit {
     MongoDatabase mongoDatabase = CURRENT_MONGO_DATABASE;
 
     // Retrieve actual dataset from database
-    List<MongoUnitCollection> actualDataset = fromDatabase(mongoDatabase, null, null);
+    List<MongoUnitCollection> actualDataset = fromDatabase(
+        mongoDatabase,
+        null,
+        null,
+        loadMongoUnitProperties().getProfileBatchSize());
 
     // Combine so there are no same-named repeated collections are present
     List<MongoUnitCollection> expectedDataset = MongoUnitUtil
@@ -0,0 +1,572 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import static org.mongounit.MongoUnitUtil.combineDatasets;
+import static org.mongounit.MongoUnitUtil.extractMongoUnitDatasets;
+import static org.mongounit.MongoUnitUtil.extractTestClassName;
+import static org.mongounit.MongoUnitUtil.fromDatabase;
+import static org.mongounit.MongoUnitUtil.toDatabase;
+import static org.mongounit.config.MongoUnitConfigurationUtil.loadMongoUnitProperties;
+
+import com.mongodb.client.MongoDatabase;
+import java.lang.reflect.Method;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.bson.Document;
+import org.junit.jupiter.api.extension.AfterAllCallback;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ExtensionContext.Namespace;
+import org.junit.jupiter.api.extension.ExtensionContext.Store;
+import org.mongounit.MongoUnitWarmUp.LoadedDatasets;
+import org.mongounit.config.EmbeddedServerHandle;
+import org.mongounit.config.MongoDatabaseFactoryBean;
+import org.mongounit.config.MongoUnitProperties;
+import org.mongounit.config.WriteCommandListener;
+import org.mongounit.jfr.MongoUnitEvent;
+import org.mongounit.jfr.MongoUnitTestEvent;
+import org.mongounit.metrics.MongoUnitMetrics;
+import org.mongounit.model.AssertionResult;
+import org.mongounit.model.MongoUnitCollection;
+import org.mongounit.model.MongoUnitDatasets;
+import org.mongounit.model.PhaseTimings;
+import org.opentest4j.AssertionFailedError;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.util.ClassUtils;
+
+/**
+ * {@link MongoUnitExtension} class is a JUnit 5 extension which enables the MongoUnit framework
+ * features in a test target.
+ */
+public class MongoUnitExtension implements
+    BeforeAllCallback,
+    BeforeEachCallback,
+    AfterEachCallback,
+    AfterAllCallback {
+
+  /**
+   * Reference to the current Mongo database. This is for sharing with the {@link MongoUnit} static
+   * methods only and not a substitute for the {@link Store}-based sharing model.
+   */
+  public static MongoDatabase CURRENT_MONGO_DATABASE;
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(MongoUnitExtension.class);
+
+  /**
+   * Top namespace for this extension.
+   */
+  private static final Namespace NAMESPACE = Namespace.create(MongoUnitExtension.class);
+
+  /**
+   * Key with which to store {@link MongoDatabase} instance in the context store.
+   */
+  private static final String MONGODB_STORE_KEY = "mongoDatabase";
+
+  /**
+   * Key with which to store {@link MongoUnitProperties} instance in the context store.
+   */
+  private static final String MONGO_UNIT_PROPERTIES_KEY = "mongoUnitProperties";
+
+  /**
+   * Key with which to store class-level {@link MongoUnitDatasets}.
+   */
+  private static final String CLASS_MONGO_UNIT_DATASETS_KEY = "classMongoUnitDatasets";
+
+  /**
+   * Key with which to store the BSON documents of the class-level seed datasets, converted while
+   * they were warmed up.
+   */
+  private static final String CLASS_BSON_SEED_DOCUMENTS_KEY = "classBsonSeedDocuments";
+
+  /**
+   * Key with which to store method-level {@link MongoUnitDatasets}.
+   */
+  private static final String METHOD_MONGO_UNIT_DATASETS_KEY = "methodMongoUnitDatasets";
+
+  /**
+   * Key with which to store test class name.
+   */
+  private static final String TEST_CLASS_NAME_KEY = "testClassName";
+
+  /**
+   * Key with which to store the method-level flag that indicates that the test is read-only, i.e.,
+   * annotated with {@link ReadOnlyDataset} and monitored for write commands.
+   */
+  private static final String READ_ONLY_KEY = "readOnly";
+
+  /**
+   * Key with which to store the seed dataset that is known to be in the database unchanged, i.e.,
+   * the dataset last seeded before a read-only test that was verified not to issue any writes.
+   */
+  private static final String UNCHANGED_SEED_DATASET_KEY = "unchangedSeedDataset";
+
+  /**
+   * Key with which to store the class-level map of the locations of the seed dataset files to the
+   * snapshots of the embedded database taken right after seeding them.
+   */
+  private static final String SEEDED_SNAPSHOTS_KEY = "seededSnapshots";
+
+  /**
+   * Key with which to store the method-level {@link MongoUnitTestEvent} that spans the test.
+   */
+  private static final String TEST_EVENT_KEY = "testEvent";
+
+  /**
+   * Key with which to store the method-level locations of the dataset files the test was seeded
+   * from.
+   */
+  private static final String SEED_DATASET_LOCATIONS_KEY = "seedDatasetLocations";
+
+  /**
+   * Flag to indicate if Micrometer is on the classpath, so that MongoUnit metrics can be bound.
+   */
+  private static final boolean MICROMETER_PRESENT = ClassUtils.isPresent(
+      "io.micrometer.core.instrument.MeterRegistry",
+      MongoUnitExtension.class.getClassLoader());
+
+  @Override
+  public void beforeAll(ExtensionContext context) {
+
+    // Load MongoUnitProperties
+    MongoUnitProperties mongoUnitProperties = loadMongoUnitProperties();
+
+    // Extract test class name based on the class and its MongoUnitTest annotation
+    String testClassName = extractTestClassName(context.getRequiredTestClass());
+
+    // Start loading class-level datasets, in the background if warm-up is enabled, so that it
+    // overlaps with the Spring context startup and the connection warm-up
+    CompletableFuture<LoadedDatasets> loadedDatasetsFuture = MongoUnitWarmUp.loadClassDatasets(
+        context,
+        testClassName,
+        mongoUnitProperties,
+        mongoUnitProperties.isWarmUpEnabled());
+
+    // Retrieve database instance through Spring context
+    ApplicationContext springContext = SpringExtension.getApplicationContext(context);
+    MongoDatabase mongoDatabase = getMongoUnitDatabase(springContext);
+
+    // Bind MongoUnit metrics if Micrometer is present and the context has a MeterRegistry bean
+    if (MICROMETER_PRESENT) {
+      MongoUnitMetrics.bindIfAvailable(springContext);
+    }
+
+    // Cache the database for this run in case manual seeding and assertion is done
+    CURRENT_MONGO_DATABASE = mongoDatabase;
+
+    // Store mongo database instance, properties, and test class name in the class namespace store
+    Store extensionStore = getExtensionStore(context);
+    extensionStore.put(MONGODB_STORE_KEY, mongoDatabase);
+    extensionStore.put(MONGO_UNIT_PROPERTIES_KEY, mongoUnitProperties);
+    extensionStore.put(TEST_CLASS_NAME_KEY, testClassName);
+
+    // Open connections to the database and wait for class-level datasets, timing the work involved
+    PhaseTimer.begin();
+    LoadedDatasets loadedDatasets = null;
+    try {
+
+      if (mongoUnitProperties.isWarmUpEnabled()) {
+        MongoUnitWarmUp.warmUpConnections(
+            mongoDatabase,
+            getWarmUpConnectionCount(mongoUnitProperties));
+      }
+
+      loadedDatasets = MongoUnitWarmUp.await(loadedDatasetsFuture);
+
+    } finally {
+
+      // Include the time spent loading the datasets on the background thread
+      PhaseTimings phaseTimings = PhaseTimer.end();
+      if (loadedDatasets != null) {
+        phaseTimings.addAll(loadedDatasets.getPhaseTimings());
+      }
+      publishPhaseTimings(context, phaseTimings, mongoUnitProperties);
+    }
+
+    // Save class level datasets in the store
+    extensionStore.put(CLASS_MONGO_UNIT_DATASETS_KEY, loadedDatasets.getMongoUnitDatasets());
+    extensionStore.put(CLASS_BSON_SEED_DOCUMENTS_KEY, loadedDatasets.getBsonSeedDocuments());
+  }
+
+  @Override
+  public void beforeEach(ExtensionContext context) {
+
+    // Start timing MongoUnit phases for this test; published in afterEach
+    PhaseTimer.begin();
+
+    // Report operations of this test only to the listeners of its Spring context, until afterEach
+    MongoUnitOperationListeners.enterScope(SpringExtension.getApplicationContext(context));
+
+    // Start the flight recorder event spanning this test; committed in afterEach
+    MongoUnitEvent.setCurrentTestId(context.getUniqueId());
+    MongoUnitTestEvent testEvent = new MongoUnitTestEvent();
+    testEvent.begin();
+    getMethodStore(context).put(TEST_EVENT_KEY, testEvent);
+
+    // Retrieve mongoDatabase and mongo unit properties from the extension namespace store
+    Store extensionStore = getExtensionStore(context);
+    MongoDatabase mongoDatabase = extensionStore.get(MONGODB_STORE_KEY, MongoDatabase.class);
+    MongoUnitProperties mongoUnitProperties =
+        extensionStore.get(MONGO_UNIT_PROPERTIES_KEY, MongoUnitProperties.class);
+
+    // Retrieve class-level datasets from store
+    MongoUnitDatasets classLevelMongoUnitDatasets =
+        extensionStore.get(CLASS_MONGO_UNIT_DATASETS_KEY, MongoUnitDatasets.class);
+
+    // Retrieve test class name (derived either from MongoUnitTest annotation or simple class name)
+    String testClassName = extensionStore.get(TEST_CLASS_NAME_KEY, String.class);
+
+    // Extract method-level datasets based on MongoUnit annotations
+    MongoUnitDatasets methodLevelMongoUnitDatasets =
+        extractMongoUnitDatasets(context, testClassName, false);
+
+    // Get method-level store and save method level dataset
+    Store methodStore = getMethodStore(context);
+    methodStore.put(METHOD_MONGO_UNIT_DATASETS_KEY, methodLevelMongoUnitDatasets);
+
+    // Remember the locations of the dataset files the test is seeded from for reporting
+    List<String> seedDatasetLocations =
+        new ArrayList<>(classLevelMongoUnitDatasets.getSeedWithDatasetLocations());
+    seedDatasetLocations.addAll(methodLevelMongoUnitDatasets.getSeedWithDatasetLocations());
+    methodStore.put(SEED_DATASET_LOCATIONS_KEY, seedDatasetLocations);
+
+    // Combine class and method seed datasets
+    List<MongoUnitCollection> combinedDataset =
+        combineDatasets(
+            classLevelMongoUnitDatasets.getSeedWithDatasets(),
+            methodLevelMongoUnitDatasets.getSeedWithDatasets());
+
+    // Retrieve dataset known to be in the database unchanged (if previous test was read-only)
+    Object unchangedSeedDataset = getClassStore(context).remove(UNCHANGED_SEED_DATASET_KEY);
+
+    // Retrieve embedded server and snapshots of the datasets seeded into it by this test class
+    EmbeddedServerHandle embeddedServer = mongoUnitProperties.isEmbeddedEnabled()
+        ? EmbeddedServerHandle.getSharedInstanceIfStarted()
+        : null;
+    // Snapshots are keyed by the locations of the seed files, which is cheaper to hash and compare
+    // than the datasets loaded from them
+    @SuppressWarnings("unchecked")
+    Map<List<String>, Object> seededSnapshots =
+        getClassStore(context).getOrComputeIfAbsent(
+            SEEDED_SNAPSHOTS_KEY,
+            key -> new HashMap<List<String>, Object>(),
+            Map.class);
+
+    // Skip clearing and reseeding if the database already contains exactly this dataset
+    if (combinedDataset.equals(unchangedSeedDataset)) {
+
+      log.debug("Database is unchanged since the last read-only test; skipping reseeding.");
+      testEvent.setReseedSkipped(true);
+
+    } else if (embeddedServer != null && seededSnapshots.containsKey(seedDatasetLocations)) {
+
+      // Restore the embedded database to the state it was in right after seeding this dataset
+      log.debug("Restoring embedded database from the snapshot of this dataset.");
+      embeddedServer.restoreDatabase(
+          mongoDatabase.getName(),
+          seededSnapshots.get(seedDatasetLocations));
+      testEvent.setReseedSkipped(true);
+
+    } else {
+
+      // Clear all collections out of the database, in memory if it's embedded
+      if (embeddedServer != null) {
+        embeddedServer.clearDatabase(mongoDatabase.getName());
+      } else {
+        MongoUnitUtil.dropAllCollectionsInDatabase(mongoDatabase);
+      }
+
+      try {
+        // Seed database with this dataset, reusing the BSON documents of the class-level datasets
+        @SuppressWarnings("unchecked")
+        Map<List<Map<String, Object>>, List<Document>> bsonSeedDocuments =
+            extensionStore.get(CLASS_BSON_SEED_DOCUMENTS_KEY, Map.class);
+        toDatabase(combinedDataset, mongoDatabase, mongoUnitProperties, bsonSeedDocuments);
+
+      } catch (MongoUnitException mongoUnitException) {
+
+        // Log error and rethrow
+        log.error(mongoUnitException.getMessage(), mongoUnitException);
+        throw mongoUnitException;
+      }
+
+      // Remember the seeded state of the embedded database, so it can be restored instantly
+      if (embeddedServer != null) {
+        seededSnapshots.put(
+            seedDatasetLocations,
+            embeddedServer.snapshotDatabase(mongoDatabase.getName()));
+      }
+    }
+
+    // If test is read-only, start monitoring the database for write commands
+    if (isReadOnly(context)) {
+
+      if (WriteCommandListener.INSTANCE.isMonitored(mongoDatabase.getName())) {
+
+        methodStore.put(READ_ONLY_KEY, true);
+        methodStore.put(UNCHANGED_SEED_DATASET_KEY, combinedDataset);
+        WriteCommandListener.INSTANCE.arm(mongoDatabase.getName());
+
+      } else {
+
+        log.warn("@ReadOnlyDataset is ignored since database '" + mongoDatabase.getName() + "' is"
+            + " not created by MongoUnit and can not be monitored for write commands.");
+      }
+    }
+  }
+
+  @Override
+  public void afterEach(ExtensionContext context) {
+
+    // Retrieve mongoDatabase and mongo unit properties from the extension namespace store
+    Store extensionStore = getExtensionStore(context);
+    MongoDatabase mongoDatabase = extensionStore.get(MONGODB_STORE_KEY, MongoDatabase.class);
+    MongoUnitProperties mongoUnitProperties =
+        extensionStore.get(MONGO_UNIT_PROPERTIES_KEY, MongoUnitProperties.class);
+
+    try {
+
+      // Retrieve class-level datasets from store
+      MongoUnitDatasets classLevelMongoUnitDatasets =
+          extensionStore.get(CLASS_MONGO_UNIT_DATASETS_KEY, MongoUnitDatasets.class);
+
+      // Get method-level store, retrieve method dataset; remove method-level dataset from store
+      Store methodStore = getMethodStore(context);
+      MongoUnitDatasets methodLevelMongoUnitDatasets =
+          methodStore.remove(METHOD_MONGO_UNIT_DATASETS_KEY, MongoUnitDatasets.class);
+
+      // If test is read-only, verify no write commands were issued
+      Object seededDataset = methodStore.remove(UNCHANGED_SEED_DATASET_KEY);
+      if (methodStore.remove(READ_ONLY_KEY) != null) {
+
+        List<String> writeCommands = WriteCommandListener.INSTANCE.disarm(mongoDatabase.getName());
+        if (!writeCommands.isEmpty()) {
+          throw new AssertionFailedError("Test annotated with @ReadOnlyDataset issued write"
+              + " commands: " + writeCommands);
+        }
+
+        // Database is known to be unchanged, so remember the dataset it contains for the next test
+        getClassStore(context).put(UNCHANGED_SEED_DATASET_KEY, seededDataset);
+      }
+
+      // If no AssertMatchesDataset annotation are placed on either class or method, no assertion
+      if (!classLevelMongoUnitDatasets.isAssertAnnotationPresent()
+          && !methodLevelMongoUnitDatasets.isAssertAnnotationPresent()) {
+
+        // No assert annotation, do nothing
+        return;
+      }
+
+      // If the test body failed, don't bother loading the assert datasets and asserting a match
+      if (context.getExecutionException().isPresent()) {
+
+        log.debug("Test threw an exception; skipping loading and matching of assert datasets.");
+        return;
+      }
+
+      // Combine class and method seed datasets
+      List<MongoUnitCollection> expectedDataset =
+          combineDatasets(
+              classLevelMongoUnitDatasets.getAssertMatchesDatasets(),
+              methodLevelMongoUnitDatasets.getAssertMatchesDatasets());
+
+      // Retrieve actual dataset from database
+      List<MongoUnitCollection> actualDataset = fromDatabase(
+          mongoDatabase,
+          null,
+          null,
+          mongoUnitProperties.getProfileBatchSize());
+
+      // Perform assertion
+      AssertionResult assertionResult;
+      try {
+        assertionResult = MongoUnitUtil
+            .assertMatches(expectedDataset, actualDataset, mongoUnitProperties);
+      } catch (Exception exception) {
+
+        // Log error and rethrow
+        log.error(exception.getMessage(), exception);
+        throw exception;
+      }
+
+      // If did not match, throw assertion error exception
+      if (!assertionResult.isMatch()) {
+        throw new AssertionFailedError(assertionResult.getMessage());
+      }
+
+    } finally {
+
+      // Commit the flight recorder event spanning this test
+      MongoUnitTestEvent testEvent =
+          getMethodStore(context).remove(TEST_EVENT_KEY, MongoUnitTestEvent.class);
+      if (testEvent != null && testEvent.shouldCommit()) {
+        testEvent.setTestClass(context.getRequiredTestClass().getName());
+        testEvent.setTestMethod(context.getRequiredTestMethod().getName());
+        testEvent.commit();
+      }
+      MongoUnitEvent.setCurrentTestId(null);
+      MongoUnitOperationListeners.exitScope();
+
+      // Publish the timings of MongoUnit phases for this test
+      PhaseTimings phaseTimings = PhaseTimer.end();
+      @SuppressWarnings("unchecked")
+      List<String> seedDatasetLocations =
+          getMethodStore(context).remove(SEED_DATASET_LOCATIONS_KEY, List.class);
+      if (seedDatasetLocations != null) {
+        phaseTimings.setSeedDatasetLocations(seedDatasetLocations);
+      }
+      publishPhaseTimings(context, phaseTimings, mongoUnitProperties);
+    }
+  }
+
+  @Override
+  public void afterAll(ExtensionContext context) {
+
+    // Remove mongo database and mongo properties reference from the class namespace store
+    Store extensionStore = getExtensionStore(context);
+    extensionStore.remove(MONGODB_STORE_KEY);
+    extensionStore.remove(MONGO_UNIT_PROPERTIES_KEY);
+    extensionStore.remove(CLASS_MONGO_UNIT_DATASETS_KEY);
+    extensionStore.remove(TEST_CLASS_NAME_KEY);
+    extensionStore.remove(UNCHANGED_SEED_DATASET_KEY);
+
+    // Release reference to cached Mongo database
+    CURRENT_MONGO_DATABASE = null;
+  }
+
+  /**
+   * Publishes the provided 'phaseTimings' as a JUnit report entry of the provided 'context' and, if
+   * configured, appends them to the timings file. Failures to write the timings file are logged
+   * rather than thrown, since this is called from 'finally' blocks.
+   *
+   * @param context Extension context in which execution occurs.
+   * @param phaseTimings Timings of MongoUnit phases to publish.
+   * @param mongoUnitProperties Collection of properties framework was configured with.
+   */
+  private void publishPhaseTimings(
+      ExtensionContext context,
+      PhaseTimings phaseTimings,
+      MongoUnitProperties mongoUnitProperties) {
+
+    context.publishReportEntry(phaseTimings.toReportEntries());
+
+    // Append to timings file if one is configured
+    String timingsFile = mongoUnitProperties.getTimingsFile();
+    if (timingsFile != null) {
+
+      Map<String, Object> line = new LinkedHashMap<>();
+      line.put("uniqueId", context.getUniqueId());
+      line.put("testClass", context.getRequiredTestClass().getName());
+      line.put("testMethod", context.getTestMethod().map(Method::getName).orElse(null));
+      line.put("timestamp", Instant.now().toString());
+      line.put("phaseNanos", phaseTimings.toNanosMap());
+      line.put("seedDocuments", phaseTimings.getSeedDocumentCount());
+      line.put("seedBytes", phaseTimings.getSeedByteCount());
+      line.put("seedDatasets", phaseTimings.getSeedDatasetLocations());
+
+      // Never let a failure to write timings replace the outcome of the test itself
+      try {
+        PhaseTimer.appendToTimingsFile(timingsFile, line);
+      } catch (MongoUnitException mongoUnitException) {
+        log.warn("Phase timings of '" + context.getDisplayName() + "' are not written to the"
+            + " timings file.", mongoUnitException);
+      }
+    }
+  }
+
+  /**
+   * @param mongoUnitProperties Collection of properties framework was configured with.
+   * @return Number of connections to open during warm-up, i.e., the configured minimum connection
+   * pool size of the client MongoUnit uses, but at least one.
+   */
+  private int getWarmUpConnectionCount(MongoUnitProperties mongoUnitProperties) {
+
+    Integer minPoolSize = mongoUnitProperties.getProfileMinPoolSize() != null
+        ? mongoUnitProperties.getProfileMinPoolSize()
+        : mongoUnitProperties.getClientMinPoolSize();
+
+    return minPoolSize == null ? 1 : Math.max(minPoolSize, 1);
+  }
+
+  /**
+   * @param springContext Spring context of the test class.
+   * @return Test database to be used by the MongoUnit framework's own operations, tuned by the
+   * test performance profile, if the context has a single {@link MongoDatabaseFactoryBean}.
+   * Otherwise, the database of the context's {@link MongoDatabaseFactory}.
+   */
+  private MongoDatabase getMongoUnitDatabase(ApplicationContext springContext) {
+
+    Map<String, MongoDatabaseFactoryBean> factoryBeans =
+        springContext.getBeansOfType(MongoDatabaseFactoryBean.class);
+    if (factoryBeans.size() == 1) {
+
+      MongoDatabase mongoDatabase = factoryBeans.values().iterator().next().getMongoUnitDatabase();
+      if (mongoDatabase != null) {
+        return mongoDatabase;
+      }
+    }
+
+    return springContext.getBean(MongoDatabaseFactory.class).getMongoDatabase();
+  }
+
+  /**
+   * @param context Extension context in which execution occurs.
+   * @return 'true' if either the test method or the test class is annotated with {@link
+   * ReadOnlyDataset}, 'false' otherwise.
+   */
+  private boolean isReadOnly(ExtensionContext context) {
+    return context.getRequiredTestMethod().isAnnotationPresent(ReadOnlyDataset.class)
+        || context.getRequiredTestClass().isAnnotationPresent(ReadOnlyDataset.class);
+  }
+
+  /**
+   * @param context Extension context in which execution occurs.
+   * @return Store slice from the namespace of this extension.
+   */
+  private Store getExtensionStore(ExtensionContext context) {
+    return context.getStore(NAMESPACE);
+  }
+
+  /**
+   * @param context Extension context in which execution occurs.
+   * @return Store slice from the namespace of this extension that belongs to the test class, even
+   * if the provided 'context' belongs to a test method.
+   */
+  private Store getClassStore(ExtensionContext context) {
+
+    ExtensionContext classContext = context;
+    while (classContext.getTestMethod().isPresent() && classContext.getParent().isPresent()) {
+      classContext = classContext.getParent().get();
+    }
+
+    return getExtensionStore(classContext);
+  }
+
+  /**
+   * @param context Extension context in which execution occurs.
+   * @return Store slice from the namespace that includes this extension plus the testing method.
+   */
+  private Store getMethodStore(ExtensionContext context) {
+    return context.getStore(Namespace.create(NAMESPACE, context.getRequiredTestMethod()));
+  }
+}
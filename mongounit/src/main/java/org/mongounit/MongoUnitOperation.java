@@ -0,0 +1,60 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+/**
+ * {@link MongoUnitOperation} enum specifies the database operations the MongoUnit framework reports
+ * to registered {@link MongoUnitOperationListener}s.
+ */
+public enum MongoUnitOperation {
+
+  /**
+   * Seeding of the database with a dataset, see {@link MongoUnitUtil#toDatabase}.
+   */
+  SEED("seed"),
+
+  /**
+   * Dropping of all collections in the database, see {@link
+   * MongoUnitUtil#dropAllCollectionsInDatabase}.
+   */
+  CLEANUP("cleanup"),
+
+  /**
+   * Extraction of a dataset from the database, see {@link MongoUnitUtil#fromDatabase}.
+   */
+  EXTRACTION("extraction"),
+
+  /**
+   * Matching of an expected dataset against an actual one, see {@link
+   * MongoUnitUtil#assertMatches(java.util.List, java.util.List,
+   * org.mongounit.config.MongoUnitProperties)}.
+   */
+  ASSERTION("assertion");
+
+  /**
+   * Name of this operation as used in metric tags.
+   */
+  private final String key;
+
+  /**
+   * Constructor.
+   *
+   * @param key Name of this operation as used in metric tags.
+   */
+  MongoUnitOperation(String key) {
+    this.key = key;
+  }
+
+  /**
+   * @return Name of this operation as used in metric tags.
+   */
+  public String getKey() {
+    return key;
+  }
+}
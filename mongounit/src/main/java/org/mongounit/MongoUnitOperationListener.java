@@ -0,0 +1,54 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+/**
+ * {@link MongoUnitOperationListener} interface is implemented by classes that want to be notified
+ * about the database operations performed by the MongoUnit framework, e.g., to record metrics.
+ * Listeners are registered with {@link MongoUnitOperationListeners}.
+ *
+ * NOTE: Listener methods are invoked synchronously on the thread performing the operation and
+ * should therefore return quickly.
+ */
+public interface MongoUnitOperationListener {
+
+  /**
+   * Invoked after documents have been inserted into a single collection while seeding.
+   *
+   * @param collectionName Name of the collection the documents were inserted into.
+   * @param documentCount Number of documents inserted.
+   * @param byteCount Total size of the inserted documents, in BSON encoded bytes.
+   */
+  void collectionInserted(String collectionName, long documentCount, long byteCount);
+
+  /**
+   * Invoked after documents have been extracted from a single collection.
+   *
+   * @param collectionName Name of the collection the documents were extracted from.
+   * @param documentCount Number of documents extracted.
+   * @param byteCount Total size of the extracted documents, in BSON encoded bytes.
+   */
+  void collectionExtracted(String collectionName, long documentCount, long byteCount);
+
+  /**
+   * Invoked after an operation has completed, whether successfully or not.
+   *
+   * @param operation Operation that has completed.
+   * @param nanos Number of nanoseconds the operation took.
+   * @param documentCount Number of documents the operation inserted or extracted. Zero for
+   * operations that neither insert nor extract documents.
+   * @param byteCount Total size of the documents the operation inserted or extracted, in BSON
+   * encoded bytes. Zero for operations that neither insert nor extract documents.
+   */
+  void operationCompleted(
+      MongoUnitOperation operation,
+      long nanos,
+      long documentCount,
+      long byteCount);
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link MongoUnitOperationListeners} class holds the {@link MongoUnitOperationListener}s
+ * registered with the MongoUnit framework and notifies them about database operations.
+ *
+ * A listener is either registered globally, in which case it's notified about every operation, or
+ * for a scope, e.g., the Spring application context of a test class, in which case it's only
+ * notified about the operations performed on a thread that is currently in that scope (see {@link
+ * #enterScope(Object)}). This way, listeners bound to different Spring contexts, such as the
+ * metrics of different meter registries, only see the operations of the tests using their context.
+ *
+ * A listener that throws an exception is logged and otherwise ignored, so that listeners can never
+ * cause a test to fail.
+ */
+public class MongoUnitOperationListeners {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(MongoUnitOperationListeners.class);
+
+  /**
+   * Currently registered global listeners.
+   */
+  private static final List<MongoUnitOperationListener> listeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * Map of scopes to the listeners registered for them. Scopes are weakly referenced, so a scope
+   * that's no longer used doesn't stay reachable through its listeners.
+   */
+  private static final Map<Object, List<MongoUnitOperationListener>> scopedListeners =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
+  /**
+   * Scope the current thread is in. 'null' if it is not in any scope.
+   */
+  private static final ThreadLocal<Object> CURRENT_SCOPE = new ThreadLocal<>();
+
+  /**
+   * Registers the provided 'listener' globally, unless it is already registered.
+   *
+   * @param listener Listener to register.
+   */
+  public static void addListener(MongoUnitOperationListener listener) {
+    if (!listeners.contains(listener)) {
+      listeners.add(listener);
+    }
+  }
+
+  /**
+   * Registers the provided 'listener' for the provided 'scope', unless it is already registered
+   * for it.
+   *
+   * @param scope Scope to register the listener for, e.g., a Spring application context.
+   * @param listener Listener to register.
+   */
+  public static void addListener(Object scope, MongoUnitOperationListener listener) {
+
+    List<MongoUnitOperationListener> listenersOfScope =
+        scopedListeners.computeIfAbsent(scope, newScope -> new CopyOnWriteArrayList<>());
+    if (!listenersOfScope.contains(listener)) {
+      listenersOfScope.add(listener);
+    }
+  }
+
+  /**
+   * Unregisters the provided 'listener', whether it is registered globally or for any scopes.
+   *
+   * @param listener Listener to unregister.
+   */
+  public static void removeListener(MongoUnitOperationListener listener) {
+
+    listeners.remove(listener);
+    synchronized (scopedListeners) {
+      for (List<MongoUnitOperationListener> listenersOfScope : scopedListeners.values()) {
+        listenersOfScope.remove(listener);
+      }
+    }
+  }
+
+  /**
+   * Puts the current thread in the provided 'scope', so that the operations it performs from now
+   * on are reported to the listeners registered for that scope, in addition to the global ones.
+   *
+   * @param scope Scope to enter, e.g., the Spring application context of the test being executed.
+   */
+  public static void enterScope(Object scope) {
+    CURRENT_SCOPE.set(scope);
+  }
+
+  /**
+   * Takes the current thread out of the scope it entered with {@link #enterScope(Object)}.
+   */
+  public static void exitScope() {
+    CURRENT_SCOPE.remove();
+  }
+
+  /**
+   * @return 'true' if at least one listener is to be notified about operations performed on the
+   * current thread, 'false' otherwise.
+   */
+  public static boolean hasListeners() {
+    return !getCurrentListeners().isEmpty();
+  }
+
+  /**
+   * @return Listeners to notify about operations performed on the current thread, i.e., the global
+   * ones followed by those registered for the scope the current thread is in.
+   */
+  private static List<MongoUnitOperationListener> getCurrentListeners() {
+
+    Object scope = CURRENT_SCOPE.get();
+    List<MongoUnitOperationListener> listenersOfScope =
+        scope == null ? null : scopedListeners.get(scope);
+    if (listenersOfScope == null || listenersOfScope.isEmpty()) {
+      return listeners;
+    }
+
+    List<MongoUnitOperationListener> currentListeners = new ArrayList<>(listeners);
+    currentListeners.addAll(listenersOfScope);
+
+    return currentListeners;
+  }
+
+  /**
+   * Notifies every listener of the current thread that documents have been inserted into a single
+   * collection.
+   *
+   * @param collectionName Name of the collection the documents were inserted into.
+   * @param documentCount Number of documents inserted.
+   * @param byteCount Total size of the inserted documents, in BSON encoded bytes.
+   */
+  static void fireCollectionInserted(String collectionName, long documentCount, long byteCount) {
+    for (MongoUnitOperationListener listener : getCurrentListeners()) {
+      try {
+        listener.collectionInserted(collectionName, documentCount, byteCount);
+      } catch (RuntimeException exception) {
+        log.warn("Operation listener '" + listener + "' failed.", exception);
+      }
+    }
+  }
+
+  /**
+   * Notifies every listener of the current thread that documents have been extracted from a single
+   * collection.
+   *
+   * @param collectionName Name of the collection the documents were extracted from.
+   * @param documentCount Number of documents extracted.
+   * @param byteCount Total size of the extracted documents, in BSON encoded bytes.
+   */
+  static void fireCollectionExtracted(String collectionName, long documentCount, long byteCount) {
+    for (MongoUnitOperationListener listener : getCurrentListeners()) {
+      try {
+        listener.collectionExtracted(collectionName, documentCount, byteCount);
+      } catch (RuntimeException exception) {
+        log.warn("Operation listener '" + listener + "' failed.", exception);
+      }
+    }
+  }
+
+  /**
+   * Notifies every listener of the current thread that an operation has completed.
+   *
+   * @param operation Operation that has completed.
+   * @param startNanos Value of {@link System#nanoTime()} taken at the start of the operation.
+   * @param documentCount Number of documents the operation inserted or extracted.
+   * @param byteCount Total size of the documents the operation inserted or extracted, in BSON
+   * encoded bytes.
+   */
+  static void fireOperationCompleted(
+      MongoUnitOperation operation,
+      long startNanos,
+      long documentCount,
+      long byteCount) {
+
+    List<MongoUnitOperationListener> currentListeners = getCurrentListeners();
+    if (currentListeners.isEmpty()) {
+      return;
+    }
+
+    long nanos = System.nanoTime() - startNanos;
+    for (MongoUnitOperationListener listener : currentListeners) {
+      try {
+        listener.operationCompleted(operation, nanos, documentCount, byteCount);
+      } catch (RuntimeException exception) {
+        log.warn("Operation listener '" + listener + "' failed.", exception);
+      }
+    }
+  }
+}
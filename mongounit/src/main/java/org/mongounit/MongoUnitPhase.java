@@ -0,0 +1,83 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+/**
+ * {@link MongoUnitPhase} enum specifies the distinct phases of work the MongoUnit framework
+ * performs around each test, each of which is timed separately.
+ */
+public enum MongoUnitPhase {
+
+  /**
+   * Opening of connections to the test database before the first test of a test class.
+   */
+  WARM_UP("warmUp"),
+
+  /**
+   * Discovery of MongoUnit annotations on the test class or method and resolution of the dataset
+   * file locations they point to.
+   */
+  ANNOTATION_EXTRACTION("annotationExtraction"),
+
+  /**
+   * Reading of dataset files from the classpath or file system.
+   */
+  FILE_LOAD("fileLoad"),
+
+  /**
+   * Parsing of dataset JSON into {@link org.mongounit.model.MongoUnitCollection}s.
+   */
+  JSON_PARSE("jsonParse"),
+
+  /**
+   * Conversion of {@link org.mongounit.model.MongoUnitCollection} documents into BSON documents.
+   */
+  BSON_CONVERSION("bsonConversion"),
+
+  /**
+   * Dropping of the collections in the test database.
+   */
+  DROP("drop"),
+
+  /**
+   * Insertion of the seed documents into the test database.
+   */
+  INSERT("insert"),
+
+  /**
+   * Extraction of the documents from the test database for assertion.
+   */
+  EXTRACTION("extraction"),
+
+  /**
+   * Matching of the expected dataset against the dataset extracted from the test database.
+   */
+  ASSERTION("assertion");
+
+  /**
+   * Name of this phase as used in published report entries and timings files.
+   */
+  private final String key;
+
+  /**
+   * Constructor.
+   *
+   * @param key Name of this phase as used in published report entries and timings files.
+   */
+  MongoUnitPhase(String key) {
+    this.key = key;
+  }
+
+  /**
+   * @return Name of this phase as used in published report entries and timings files.
+   */
+  public String getKey() {
+    return key;
+  }
+}
@@ -8,13 +8,15 @@
  */
 package org.mongounit;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.mongodb.MongoClient;
+import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import org.bson.BsonArray;
 import org.bson.BsonBinary;
 import org.bson.BsonBoolean;
@@ -36,11 +38,21 @@ import org.bson.BsonTimestamp;
 import org.bson.BsonUndefined;
 import org.bson.BsonValue;
 import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.Codec;
 import org.bson.types.Decimal128;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.extension.ExtensionContext;
+import org.mongounit.DatasetLoader.LoadedDataset;
 import org.mongounit.config.MongoUnitProperties;
+import org.mongounit.jfr.MongoUnitAssertEvent;
+import org.mongounit.jfr.MongoUnitExtractEvent;
+import org.mongounit.jfr.MongoUnitResetEvent;
+import org.mongounit.jfr.MongoUnitSeedEvent;
 import org.mongounit.model.AssertionResult;
+import org.mongounit.model.CompactDocument;
+import org.mongounit.model.ConcatenatedDocuments;
 import org.mongounit.model.MongoUnitAnnotations;
 import org.mongounit.model.MongoUnitCollection;
 import org.mongounit.model.MongoUnitDatasets;
@@ -48,20 +60,36 @@ import org.mongounit.model.MongoUnitValue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.AnnotatedElement;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
 
 public class MongoUnitUtil {
 
@@ -76,6 +104,70 @@ public class MongoUnitUtil {
    */
   public static final String COMPARATOR_FIELD_NAME = "comparator";
 
+  /**
+   * Codec used to decode raw BSON documents extracted from the database.
+   */
+  private static final BsonDocumentCodec BSON_DOCUMENT_CODEC = new BsonDocumentCodec();
+
+  /**
+   * Name of the only field of a header line of a JSON Lines dataset. Its value is the name of the
+   * collection the documents on the lines that follow the header belong to.
+   */
+  public static final String JSON_LINES_COLLECTION_FIELD_NAME = "$collection";
+
+  /**
+   * File extensions, in lower case, of datasets in the JSON Lines format.
+   */
+  private static final List<String> JSON_LINES_FILE_EXTENSIONS = Arrays.asList(".jsonl", ".ndjson");
+
+  /**
+   * Minimum number of lines a JSON Lines dataset must have for its lines to be parsed in parallel.
+   */
+  private static final int PARALLEL_PARSE_MIN_LINE_COUNT = 10_000;
+
+  /**
+   * File extension of gzipped dataset files, e.g., 'people-seed.json.gz'.
+   */
+  public static final String GZIP_FILE_EXTENSION = ".gz";
+
+  /**
+   * Size of the buffer used to decompress gzipped dataset files, in bytes.
+   */
+  private static final int DECOMPRESSION_BUFFER_SIZE = 1 << 16;
+
+  /**
+   * Returns a list of {@link MongoUnitCollection}s that represents the dataset stored in the
+   * provided 'mongoDatabase'.
+   *
+   * @param mongoDatabase Instance of the MongoDB database with collections based on which to base
+   * the returned dataset.
+   * @param mongoUnitProperties Collection of properties framework was configured with. If the
+   * provided 'preserveBsonTypes' is null, this argument may also be 'null' and is ignored.
+   * @param preserveBsonTypes List of string representation of {@link org.bson.BsonType} enum names
+   * that should be preserved when creating documents. This **must** be 'null' when this method is
+   * used for assertions instead of to output JSON through {@link DatasetGenerator}.
+   * @param collectionNames Optional list of collection names to which to restrict data extraction
+   * to.
+   * @return List of {@link MongoUnitCollection}s that represents the dataset stored in the provided
+   * 'mongoDatabase'. If 'collectionNames' are specified, the extracted dataset will be limited to
+   * those collections only.
+   * @throws IllegalArgumentException If at least one of the optionally specified 'collectionNames'
+   * does not exist in the provided 'mongoDatabase'.
+   */
+  public static List<MongoUnitCollection> fromDatabase(
+      MongoDatabase mongoDatabase,
+      MongoUnitProperties mongoUnitProperties,
+      List<String> preserveBsonTypes,
+      String... collectionNames) throws IllegalArgumentException {
+
+    return fromDatabase(
+        mongoDatabase,
+        mongoUnitProperties,
+        preserveBsonTypes,
+        null,
+        collectionNames);
+  }
+
   /**
    * Returns a list of {@link MongoUnitCollection}s that represents the dataset stored in the
    * provided 'mongoDatabase'.
@@ -87,6 +179,8 @@ public class MongoUnitUtil {
    * @param preserveBsonTypes List of string representation of {@link org.bson.BsonType} enum names
    * that should be preserved when creating documents. This **must** be 'null' when this method is
    * used for assertions instead of to output JSON through {@link DatasetGenerator}.
+   * @param batchSize Cursor batch size of the reads, or 'null' to use the driver's default, e.g.,
+   * {@link MongoUnitProperties#getProfileBatchSize()} of the test performance profile.
    * @param collectionNames Optional list of collection names to which to restrict data extraction
    * to.
    * @return List of {@link MongoUnitCollection}s that represents the dataset stored in the provided
@@ -99,31 +193,105 @@ public class MongoUnitUtil {
       MongoDatabase mongoDatabase,
       MongoUnitProperties mongoUnitProperties,
       List<String> preserveBsonTypes,
+      Integer batchSize,
       String... collectionNames) throws IllegalArgumentException {
 
+    long startNanos = System.nanoTime();
+    long totalDocumentCount = 0;
+    long totalByteCount = 0;
+
     List<MongoUnitCollection> mongoUnitCollections = new ArrayList<>();
-    List<String> collectionNamesToExtract = getCollectionNamesToUse(mongoDatabase, collectionNames);
+    try {
+
+      List<String> collectionNamesToExtract =
+          getCollectionNamesToUse(mongoDatabase, collectionNames);
 
-    // Extract documents from each collection
-    for (String collectionName : collectionNamesToExtract) {
+      // Extract documents from each collection
+      for (String collectionName : collectionNamesToExtract) {
 
-      MongoCollection<Document> collection = mongoDatabase.getCollection(collectionName);
+        MongoUnitExtractEvent extractEvent = new MongoUnitExtractEvent();
+        extractEvent.begin();
 
-      // Extract mongo unit documents (comprised of name/value maps) from single DB collection
-      List<Map<String, Object>> mongoUnitDocuments =
-          getMongoUnitDocuments(collection, mongoUnitProperties, preserveBsonTypes);
+        // Retrieve documents as raw BSON, so their encoded size is known without re-encoding
+        MongoCollection<RawBsonDocument> collection =
+            mongoDatabase.getCollection(collectionName, RawBsonDocument.class);
 
-      // Create MongoUnitCollection and add it to the list
-      MongoUnitCollection mongoUnitCollection = MongoUnitCollection.builder()
-          .collectionName(collectionName)
-          .documents(mongoUnitDocuments)
-          .build();
-      mongoUnitCollections.add(mongoUnitCollection);
+        // Extract mongo unit documents (comprised of name/value maps) from single DB collection
+        List<Map<String, Object>> mongoUnitDocuments = new ArrayList<>();
+        long byteCount = 0;
+        FindIterable<RawBsonDocument> rawDocuments = collection.find();
+        if (batchSize != null) {
+          rawDocuments = rawDocuments.batchSize(batchSize);
+        }
+        for (RawBsonDocument rawDocument : rawDocuments) {
+
+          byteCount += rawDocument.getByteBuffer().remaining();
+
+          // Decode to BSON document; extract all mongo unit fields from it as a map
+          BsonDocument bsonDocument = rawDocument.decode(BSON_DOCUMENT_CODEC);
+          mongoUnitDocuments.add(getDocument(bsonDocument, mongoUnitProperties, preserveBsonTypes));
+        }
+
+        totalDocumentCount += mongoUnitDocuments.size();
+        totalByteCount += byteCount;
+        MongoUnitOperationListeners
+            .fireCollectionExtracted(collectionName, mongoUnitDocuments.size(), byteCount);
+
+        if (extractEvent.shouldCommit()) {
+          extractEvent.setCollectionName(collectionName);
+          extractEvent.setDocumentCount(mongoUnitDocuments.size());
+          extractEvent.setByteSize(byteCount);
+          extractEvent.commit();
+        }
+
+        // Create MongoUnitCollection and add it to the list
+        MongoUnitCollection mongoUnitCollection = MongoUnitCollection.builder()
+            .collectionName(collectionName)
+            .documents(mongoUnitDocuments)
+            .build();
+        mongoUnitCollections.add(mongoUnitCollection);
+      }
+
+    } finally {
+
+      PhaseTimer.record(MongoUnitPhase.EXTRACTION, startNanos);
+      MongoUnitOperationListeners.fireOperationCompleted(
+          MongoUnitOperation.EXTRACTION,
+          startNanos,
+          totalDocumentCount,
+          totalByteCount);
     }
 
     return mongoUnitCollections;
   }
 
+  /**
+   * Streams the provided 'rawDocuments', e.g., a cursor, one at a time and in the same
+   * representation as {@link #fromDatabase(MongoDatabase, MongoUnitProperties, List, String...)}
+   * produces, to the provided 'documentConsumer'. Only one document is held in memory at a time,
+   * regardless of the number of documents.
+   *
+   * @param rawDocuments Documents to convert, e.g., the result of a 'find' on a collection.
+   * @param mongoUnitProperties Collection of properties framework was configured with.
+   * @param preserveBsonTypes List of string representation of {@link org.bson.BsonType} enum names
+   * that should be preserved when creating documents.
+   * @param documentConsumer Consumer of each document, represented as a map of field name/value
+   * pairs.
+   */
+  public static void forEachDocument(
+      Iterable<RawBsonDocument> rawDocuments,
+      MongoUnitProperties mongoUnitProperties,
+      List<String> preserveBsonTypes,
+      Consumer<Map<String, Object>> documentConsumer) {
+
+    // Decode and convert each document as it comes off the cursor
+    for (RawBsonDocument rawDocument : rawDocuments) {
+
+      BsonDocument bsonDocument = rawDocument.decode(BSON_DOCUMENT_CODEC);
+      documentConsumer.accept(getDocument(bsonDocument, mongoUnitProperties, preserveBsonTypes));
+    }
+  }
+
   /**
    * Seeds an existing database provided by 'mongoDatabase' with dataset represented in the {@link
    * MongoUnitCollection}s schema by the provided 'jsonMongoUnitCollections'.
@@ -139,28 +307,105 @@ public class MongoUnitUtil {
       List<MongoUnitCollection> mongoUnitCollections,
       MongoDatabase mongoDatabase,
       MongoUnitProperties mongoUnitProperties) throws MongoUnitException {
+    toDatabase(mongoUnitCollections, mongoDatabase, mongoUnitProperties, Collections.emptyMap());
+  }
 
-    // Bulk insert bson documents for each collection
-    for (MongoUnitCollection mongoUnitCollection : mongoUnitCollections) {
+  /**
+   * Seeds an existing database provided by 'mongoDatabase' with dataset represented in the {@link
+   * MongoUnitCollection}s schema by the provided 'jsonMongoUnitCollections', reusing the BSON
+   * documents of the lists of documents that were already converted.
+   *
+   * @param mongoUnitCollections List of {@link MongoUnitCollection}s to persist to seed the
+   * database with.
+   * @param mongoDatabase MongoDB instance to seed with the provided data.
+   * @param mongoUnitProperties Collection of properties framework was configured with.
+   * @param convertedDocuments BSON documents of lists of documents, keyed by the identity of the
+   * lists, as returned by {@link #toBsonDocuments(List, MongoUnitProperties)}. The documents of
+   * the provided 'mongoUnitCollections' that are in none of these lists are converted here.
+   * @throws MongoUnitException If anything goes wrong with interpreting the provided
+   * 'mongoUnitCollections' in order to seed the database.
+   */
+  public static void toDatabase(
+      List<MongoUnitCollection> mongoUnitCollections,
+      MongoDatabase mongoDatabase,
+      MongoUnitProperties mongoUnitProperties,
+      Map<List<Map<String, Object>>, List<Document>> convertedDocuments)
+      throws MongoUnitException {
 
-      String collectionName = mongoUnitCollection.getCollectionName();
+    long startNanos = System.nanoTime();
+    long totalDocumentCount = 0;
+    long totalByteCount = 0;
 
-      // Convert mongo unit collection to BSON documents
-      List<Document> collectionDocs;
-      try {
+    Codec<Document> documentCodec = mongoDatabase.getCodecRegistry().get(Document.class);
+    try {
 
-        collectionDocs = toBsonDocuments(mongoUnitCollection.getDocuments(), mongoUnitProperties);
+      // Bulk insert bson documents for each collection
+      for (MongoUnitCollection mongoUnitCollection : mongoUnitCollections) {
 
-      } catch (MongoUnitException mongoUnitException) {
+        String collectionName = mongoUnitCollection.getCollectionName();
 
-        // Add tracing to the exception message
-        String message = "Collection '" + collectionName + "': ";
-        throw new MongoUnitException(message + mongoUnitException.getMessage(), mongoUnitException);
+        MongoUnitSeedEvent seedEvent = new MongoUnitSeedEvent();
+        seedEvent.begin();
+
+        // Convert mongo unit collection to raw BSON documents, so their encoded size is known
+        List<RawBsonDocument> collectionDocs = new ArrayList<>();
+        long byteCount = 0;
+        long conversionStartNanos = System.nanoTime();
+        try {
+
+          List<Document> bsonDocuments = toBsonDocuments(
+              mongoUnitCollection.getDocuments(),
+              mongoUnitProperties,
+              convertedDocuments);
+          for (Document document : bsonDocuments) {
+
+            RawBsonDocument rawDocument = new RawBsonDocument(document, documentCodec);
+            byteCount += rawDocument.getByteBuffer().remaining();
+            collectionDocs.add(rawDocument);
+          }
+
+        } catch (MongoUnitException mongoUnitException) {
+
+          // Add tracing to the exception message
+          String message = "Collection '" + collectionName + "': ";
+          throw new MongoUnitException(
+              message + mongoUnitException.getMessage(),
+              mongoUnitException);
+
+        } finally {
+
+          // Time spent converting is recorded even if the conversion fails
+          PhaseTimer.record(MongoUnitPhase.BSON_CONVERSION, conversionStartNanos);
+        }
+
+        // Bulk insert collection docs into the collection
+        long insertStartNanos = System.nanoTime();
+        MongoCollection<RawBsonDocument> mongoCollection =
+            mongoDatabase.getCollection(collectionName, RawBsonDocument.class);
+        mongoCollection.insertMany(collectionDocs);
+        PhaseTimer.record(MongoUnitPhase.INSERT, insertStartNanos);
+
+        totalDocumentCount += collectionDocs.size();
+        totalByteCount += byteCount;
+        MongoUnitOperationListeners
+            .fireCollectionInserted(collectionName, collectionDocs.size(), byteCount);
+        PhaseTimer.recordSeeded(collectionDocs.size(), byteCount);
+
+        if (seedEvent.shouldCommit()) {
+          seedEvent.setCollectionName(collectionName);
+          seedEvent.setDocumentCount(collectionDocs.size());
+          seedEvent.setByteSize(byteCount);
+          seedEvent.commit();
+        }
       }
 
-      // Bulk insert collection docs into the collection
-      MongoCollection<Document> mongoCollection = mongoDatabase.getCollection(collectionName);
-      mongoCollection.insertMany(collectionDocs);
+    } finally {
+
+      MongoUnitOperationListeners.fireOperationCompleted(
+          MongoUnitOperation.SEED,
+          startNanos,
+          totalDocumentCount,
+          totalByteCount);
     }
   }
 
@@ -171,12 +416,27 @@ public class MongoUnitUtil {
    */
   public static void dropAllCollectionsInDatabase(MongoDatabase mongoDatabase) {
 
+    long startNanos = System.nanoTime();
+
     // Iterate over all collections in the db and drop them
     mongoDatabase.listCollectionNames().forEach(collectionName -> {
+
+      MongoUnitResetEvent resetEvent = new MongoUnitResetEvent();
+      resetEvent.begin();
+
       mongoDatabase.getCollection(collectionName).drop();
 
+      if (resetEvent.shouldCommit()) {
+        resetEvent.setCollectionName(collectionName);
+        resetEvent.commit();
+      }
+
       log.trace("Dropped collection " + collectionName);
     });
+
+    PhaseTimer.record(MongoUnitPhase.DROP, startNanos);
+    MongoUnitOperationListeners
+        .fireOperationCompleted(MongoUnitOperation.CLEANUP, startNanos, 0, 0);
   }
 
   /**
@@ -191,14 +451,18 @@ public class MongoUnitUtil {
   public static List<MongoUnitCollection> toMongoUnitTypedCollectionsFromJson(
       String jsonMongoUnitCollections) throws MongoUnitException {
 
+    long startNanos = System.nanoTime();
     try {
 
-      ObjectMapper jsonMapper = new ObjectMapper();
+      ObjectMapper jsonMapper = createDatasetMapper();
 
-      return jsonMapper.readValue(
+      List<MongoUnitCollection> mongoUnitCollections = compactDocuments(jsonMapper.readValue(
           jsonMongoUnitCollections,
           new TypeReference<List<MongoUnitCollection>>() {
-          });
+          }));
+      PhaseTimer.record(MongoUnitPhase.JSON_PARSE, startNanos);
+
+      return mongoUnitCollections;
     } catch (IOException exception) {
 
       String message = "Unable to interpret JSON dataset. " + exception.getMessage();
@@ -207,6 +471,272 @@ public class MongoUnitUtil {
     }
   }
 
+  /**
+   * @param jsonLinesMongoUnitCollections String JSON Lines representation of {@link
+   * MongoUnitCollection}s, i.e., for each collection, a header line with a single
+   * '$collection' field that holds the name of the collection, followed by one line per document
+   * of that collection. Blank lines are ignored.
+   * @return List of {@link MongoUnitCollection} objects represented by the provided JSON Lines
+   * string 'jsonLinesMongoUnitCollections'. Lines are parsed in parallel if there are many of them.
+   * @throws MongoUnitException If a line of the provided 'jsonLinesMongoUnitCollections' is not a
+   * JSON object or a document line is not preceded by a header line.
+   */
+  public static List<MongoUnitCollection> toMongoUnitTypedCollectionsFromJsonLines(
+      String jsonLinesMongoUnitCollections) throws MongoUnitException {
+
+    long startNanos = System.nanoTime();
+    List<MongoUnitCollection> mongoUnitCollections;
+    try {
+      mongoUnitCollections = toMongoUnitTypedCollectionsFromJsonLines(
+          new BufferedReader(new StringReader(jsonLinesMongoUnitCollections)));
+    } catch (IOException exception) {
+
+      String message = "Unable to interpret JSON Lines dataset. " + exception.getMessage();
+      log.error(message);
+      throw new MongoUnitException(message, exception);
+    }
+    PhaseTimer.record(MongoUnitPhase.JSON_PARSE, startNanos);
+
+    return mongoUnitCollections;
+  }
+
+  /**
+   * Parses the lines of the provided 'reader' as they are read, a batch at a time, so only a single
+   * batch of unparsed lines is ever held in memory. The lines of a full batch are parsed in
+   * parallel.
+   *
+   * @param reader Reader of a JSON Lines representation of {@link MongoUnitCollection}s, see
+   * {@link #toMongoUnitTypedCollectionsFromJsonLines(String)}. It is read to the end, but not
+   * closed.
+   * @return List of {@link MongoUnitCollection} objects represented by the lines of the provided
+   * 'reader'.
+   * @throws IOException If the provided 'reader' could not be read.
+   * @throws MongoUnitException If one of the lines is not a JSON object or a document line is not
+   * preceded by a header line.
+   */
+  private static List<MongoUnitCollection> toMongoUnitTypedCollectionsFromJsonLines(
+      BufferedReader reader) throws IOException, MongoUnitException {
+
+    ObjectMapper jsonMapper = createDatasetMapper();
+    List<MongoUnitCollection> mongoUnitCollections = new ArrayList<>();
+    List<Map<String, Object>> documents = null;
+    List<String> lines = new ArrayList<>(PARALLEL_PARSE_MIN_LINE_COUNT);
+    int firstLineNumber = 1;
+
+    String nextLine = reader.readLine();
+    while (nextLine != null) {
+
+      // Step 1: read the next batch of lines
+      lines.clear();
+      while (nextLine != null && lines.size() < PARALLEL_PARSE_MIN_LINE_COUNT) {
+        lines.add(nextLine);
+        nextLine = reader.readLine();
+      }
+
+      // Step 2: lines are independent of each other, so a full batch is parsed in parallel
+      IntStream lineIndexes = IntStream.range(0, lines.size());
+      if (lines.size() >= PARALLEL_PARSE_MIN_LINE_COUNT) {
+        lineIndexes = lineIndexes.parallel();
+      }
+      int batchFirstLineNumber = firstLineNumber;
+      List<Map<String, Object>> parsedLines = lineIndexes
+          .mapToObj(lineIndex ->
+              parseJsonLine(jsonMapper, lines.get(lineIndex), batchFirstLineNumber + lineIndex))
+          .collect(Collectors.toList());
+
+      // Step 3: group documents under the collection of the header that precedes them
+      for (int lineIndex = 0; lineIndex < parsedLines.size(); lineIndex++) {
+
+        Map<String, Object> parsedLine = parsedLines.get(lineIndex);
+        if (parsedLine == null) {
+          continue;
+        }
+
+        if (parsedLine.size() == 1
+            && parsedLine.get(JSON_LINES_COLLECTION_FIELD_NAME) instanceof String) {
+
+          documents = new ArrayList<>();
+          mongoUnitCollections.add(MongoUnitCollection.builder()
+              .collectionName((String) parsedLine.get(JSON_LINES_COLLECTION_FIELD_NAME))
+              .documents(documents)
+              .build());
+
+        } else if (documents == null) {
+
+          String message = "Unable to interpret JSON Lines dataset. Line "
+              + (firstLineNumber + lineIndex) + " is a document, but no '"
+              + JSON_LINES_COLLECTION_FIELD_NAME + "' header line precedes it.";
+          log.error(message);
+          throw new MongoUnitException(message);
+
+        } else {
+          documents.add(parsedLine);
+        }
+      }
+
+      firstLineNumber += lines.size();
+    }
+
+    return compactDocuments(mongoUnitCollections);
+  }
+
+  /**
+   * @return Mapper to parse a single dataset with, which deduplicates repeated short string values
+   * of the dataset, see {@link InterningStringDeserializer}.
+   */
+  private static ObjectMapper createDatasetMapper() {
+
+    ObjectMapper jsonMapper = new ObjectMapper();
+    jsonMapper.registerModule(
+        new SimpleModule().addDeserializer(String.class, new InterningStringDeserializer()));
+
+    return jsonMapper;
+  }
+
+  /**
+   * Replaces the documents of each of the provided 'mongoUnitCollections' with their compact
+   * representation, so large datasets don't hold a hash map per document, see {@link
+   * CompactDocument}.
+   *
+   * @param mongoUnitCollections List of {@link MongoUnitCollection}s parsed from a dataset.
+   * @return The provided 'mongoUnitCollections'.
+   */
+  private static List<MongoUnitCollection> compactDocuments(
+      List<MongoUnitCollection> mongoUnitCollections) {
+
+    for (MongoUnitCollection mongoUnitCollection : mongoUnitCollections) {
+      mongoUnitCollection.setDocuments(CompactDocument.compact(mongoUnitCollection.getDocuments()));
+    }
+
+    return mongoUnitCollections;
+  }
+
+  /**
+   * @param dataset Contents of a dataset file.
+   * @param fileLocation Location of the dataset file, whose extension determines its format.
+   * @return List of {@link MongoUnitCollection} objects represented by the provided 'dataset', read
+   * as JSON Lines if the provided 'fileLocation' ends with '.jsonl' or '.ndjson', and as JSON
+   * otherwise.
+   * @throws MongoUnitException If the provided 'dataset' can not be interpreted to match the list
+   * of {@link MongoUnitCollection}s.
+   */
+  public static List<MongoUnitCollection> toMongoUnitTypedCollections(
+      String dataset,
+      String fileLocation) throws MongoUnitException {
+
+    if (isJsonLines(fileLocation)) {
+      return toMongoUnitTypedCollectionsFromJsonLines(dataset);
+    }
+
+    return toMongoUnitTypedCollectionsFromJson(dataset);
+  }
+
+  /**
+   * @param datasetStream Stream of the contents of a dataset file, already decompressed if the
+   * file is gzipped. It is read to the end, but not closed.
+   * @param fileLocation Location of the dataset file, whose extension, ignoring a trailing '.gz',
+   * determines its format.
+   * @return List of {@link MongoUnitCollection} objects represented by the contents of the provided
+   * 'datasetStream', read as JSON Lines if the provided 'fileLocation' ends with '.jsonl' or
+   * '.ndjson', and as JSON otherwise. The contents are parsed as they are read.
+   * @throws MongoUnitException If the contents of the provided 'datasetStream' can not be read or
+   * interpreted to match the list of {@link MongoUnitCollection}s.
+   */
+  public static List<MongoUnitCollection> toMongoUnitTypedCollections(
+      InputStream datasetStream,
+      String fileLocation) throws MongoUnitException {
+
+    long startNanos = System.nanoTime();
+    try {
+
+      List<MongoUnitCollection> mongoUnitCollections;
+      if (isJsonLines(fileLocation)) {
+
+        // Lines are parsed as they are read, never held in memory all at once
+        mongoUnitCollections = toMongoUnitTypedCollectionsFromJsonLines(
+            new BufferedReader(new InputStreamReader(datasetStream, StandardCharsets.UTF_8)));
+
+      } else {
+
+        ObjectMapper jsonMapper = createDatasetMapper();
+        jsonMapper.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        mongoUnitCollections = compactDocuments(jsonMapper.readValue(
+            datasetStream,
+            new TypeReference<List<MongoUnitCollection>>() {
+            }));
+      }
+      PhaseTimer.record(MongoUnitPhase.JSON_PARSE, startNanos);
+
+      return mongoUnitCollections;
+
+    } catch (IOException | UncheckedIOException exception) {
+
+      String message = "Unable to interpret JSON dataset at location '" + fileLocation + "'. "
+          + exception.getMessage();
+      log.error(message);
+      throw new MongoUnitException(message, exception);
+    }
+  }
+
+  /**
+   * @param fileLocation Location of a dataset file.
+   * @return 'true' if the file at the provided 'fileLocation' is in the JSON Lines format, judging
+   * by its extension, ignoring a trailing '.gz', 'false' otherwise.
+   */
+  public static boolean isJsonLines(String fileLocation) {
+
+    String lowerCaseFileLocation = fileLocation.toLowerCase(Locale.ROOT);
+    if (isGzipped(lowerCaseFileLocation)) {
+      lowerCaseFileLocation = lowerCaseFileLocation
+          .substring(0, lowerCaseFileLocation.length() - GZIP_FILE_EXTENSION.length());
+    }
+    for (String extension : JSON_LINES_FILE_EXTENSIONS) {
+      if (lowerCaseFileLocation.endsWith(extension)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * @param fileLocation Location of a file.
+   * @return 'true' if the file at the provided 'fileLocation' is gzipped, judging by its '.gz'
+   * extension, 'false' otherwise.
+   */
+  public static boolean isGzipped(String fileLocation) {
+    return fileLocation.toLowerCase(Locale.ROOT).endsWith(GZIP_FILE_EXTENSION);
+  }
+
+  /**
+   * @param jsonMapper Mapper to parse the provided 'line' with.
+   * @param line Line of a JSON Lines dataset.
+   * @param lineNumber Number of the provided 'line', starting at '1', used in error messages.
+   * @return Field name/value pairs of the JSON object on the provided 'line', or 'null' if the line
+   * is blank.
+   * @throws MongoUnitException If the provided 'line' is not a JSON object.
+   */
+  private static Map<String, Object> parseJsonLine(
+      ObjectMapper jsonMapper,
+      String line,
+      int lineNumber) throws MongoUnitException {
+
+    if (line.isBlank()) {
+      return null;
+    }
+
+    try {
+      return jsonMapper.readValue(line, new TypeReference<Map<String, Object>>() {
+      });
+    } catch (IOException exception) {
+
+      String message = "Unable to interpret JSON Lines dataset. Line " + lineNumber + " is not"
+          + " a JSON object. " + exception.getMessage();
+      log.error(message);
+      throw new MongoUnitException(message, exception);
+    }
+  }
+
   /**
    * @param mongoDatabase Database which collection names will be extracted from.
    * @param collectionNames Possibly empty client-provided names of the collections to use instead
@@ -217,7 +747,7 @@ public class MongoUnitUtil {
    * @throws IllegalArgumentException If at least one of the collection names in the provided
    * 'collectionNames' does not exist in the provided 'mongoDatabase'.
    */
-  private static List<String> getCollectionNamesToUse(
+  public static List<String> getCollectionNamesToUse(
       MongoDatabase mongoDatabase,
       String[] collectionNames) throws IllegalArgumentException {
 
@@ -262,41 +792,6 @@ public class MongoUnitUtil {
     return collectionNames;
   }
 
-  /**
-   * @param mongoCollection Mongo collection to extract all documents as a list of maps of field
-   * name/value pairs.
-   * @param mongoUnitProperties Collection of properties framework was configured with. If the
-   * provided 'preserveBsonTypes' is null, this argument may also be 'null' and is ignored.
-   * @param preserveBsonTypes List of string representation of {@link org.bson.BsonType} enum names
-   * that should be preserved when creating documents. This **must** be 'null' when this method is
-   * used for assertions instead of to output JSON through {@link DatasetGenerator}.
-   * @return List of maps of field name/value pairs of all the documents in the provided
-   * 'mongoCollection', where each map represents a single document.
-   */
-  private static List<Map<String, Object>> getMongoUnitDocuments(
-      MongoCollection<Document> mongoCollection,
-      MongoUnitProperties mongoUnitProperties,
-      List<String> preserveBsonTypes) {
-
-    List<Map<String, Object>> mongoUnitDocuments = new ArrayList<>();
-
-    // Loop over each document in 'mongoCollection'
-    FindIterable<Document> mongoDocuments = mongoCollection.find();
-    for (Document document : mongoDocuments) {
-
-      // Convert document to BSON document
-      BsonDocument bsonDocument = document
-          .toBsonDocument(BsonDocument.class, MongoClient.getDefaultCodecRegistry());
-
-      // Extract all mongo unit fields from this document and add them to document list as a map
-      Map<String, Object> mongoUnitFields =
-          getDocument(bsonDocument, mongoUnitProperties, preserveBsonTypes);
-      mongoUnitDocuments.add(mongoUnitFields);
-    }
-
-    return mongoUnitDocuments;
-  }
-
   /**
    * @param bsonDocument {@link BsonDocument} to extract all fields from.
    * @param mongoUnitProperties Collection of properties framework was configured with. If the
@@ -642,19 +1137,136 @@ public class MongoUnitUtil {
     return arrayValues;
   }
 
+  /**
+   * Converts the documents of the provided 'mongoUnitCollections' to BSON ahead of seeding, e.g.,
+   * while the class-level datasets are warmed up, so tests seeded with them only convert their own
+   * documents. The time spent is recorded as the {@link MongoUnitPhase#BSON_CONVERSION} phase.
+   *
+   * @param mongoUnitCollections List of {@link MongoUnitCollection}s to convert.
+   * @param mongoUnitProperties Collection of properties framework was configured with.
+   * @return Read-only map of the BSON documents of each list of documents of the provided
+   * 'mongoUnitCollections', keyed by the identity of the list. Lists of a {@link
+   * ConcatenatedDocuments} are converted one by one, so they are found no matter what they are
+   * concatenated with later. Lists that were already converted when their dataset file was
+   * prefetched, see {@link DatasetCache}, are not converted again. The BSON documents must not be
+   * modified.
+   * @throws MongoUnitException If anything goes wrong with translating the documents.
+   */
+  public static Map<List<Map<String, Object>>, List<Document>> toBsonDocuments(
+      List<MongoUnitCollection> mongoUnitCollections,
+      MongoUnitProperties mongoUnitProperties) throws MongoUnitException {
+
+    long startNanos = System.nanoTime();
+    Map<List<Map<String, Object>>, List<Document>> convertedDocuments = new IdentityHashMap<>();
+    try {
+
+      for (MongoUnitCollection mongoUnitCollection : mongoUnitCollections) {
+
+        String collectionName = mongoUnitCollection.getCollectionName();
+        try {
+
+          List<Map<String, Object>> documents = mongoUnitCollection.getDocuments();
+          int firstIndex = 0;
+          for (List<Map<String, Object>> segment : ConcatenatedDocuments.segmentsOf(documents)) {
+            convertedDocuments.put(
+                segment,
+                toBsonDocuments(segment, mongoUnitProperties, firstIndex, Collections.emptyMap()));
+            firstIndex += segment.size();
+          }
+
+        } catch (MongoUnitException mongoUnitException) {
+
+          // Add tracing to the exception message
+          String message = "Collection '" + collectionName + "': ";
+          throw new MongoUnitException(
+              message + mongoUnitException.getMessage(),
+              mongoUnitException);
+        }
+      }
+
+    } finally {
+      PhaseTimer.record(MongoUnitPhase.BSON_CONVERSION, startNanos);
+    }
+
+    return Collections.unmodifiableMap(convertedDocuments);
+  }
+
   /**
    * @param mongoUnitDocuments List of maps of field name/value pairs of all the documents in this
    * collection, where each map represents a single document.
    * @param mongoUnitProperties Collection of properties framework was configured with.
+   * @param convertedDocuments BSON documents of lists of documents that were already converted,
+   * keyed by the identity of the lists.
    * @return List of MongoDB BSON {@link Document} objects ready to insert into database
    * @throws MongoUnitException If anything goes wrong with translating the provided
    * 'mongoUnitDocuments'.
    */
   private static List<Document> toBsonDocuments(
       List<Map<String, Object>> mongoUnitDocuments,
-      MongoUnitProperties mongoUnitProperties) throws MongoUnitException {
+      MongoUnitProperties mongoUnitProperties,
+      Map<List<Map<String, Object>>, List<Document>> convertedDocuments)
+      throws MongoUnitException {
+
+    List<Document> bsonDocuments = new ArrayList<>(mongoUnitDocuments.size());
+
+    // Reuse the BSON documents of the concatenated lists that were already converted
+    for (List<Map<String, Object>> segment : ConcatenatedDocuments.segmentsOf(mongoUnitDocuments)) {
+      bsonDocuments.addAll(toBsonDocuments(
+          segment,
+          mongoUnitProperties,
+          bsonDocuments.size(),
+          convertedDocuments));
+    }
+
+    return bsonDocuments;
+  }
+
+  /**
+   * @param segment List of maps of field name/value pairs of documents, which is not concatenated.
+   * @param mongoUnitProperties Collection of properties framework was configured with.
+   * @param firstIndex Index of the first of the provided 'segment' documents in their collection,
+   * used to trace errors.
+   * @param convertedDocuments BSON documents of lists of documents that were already converted,
+   * keyed by the identity of the lists.
+   * @return List of MongoDB BSON {@link Document} objects ready to insert into database, which are
+   * either found in the provided 'convertedDocuments', converted ahead of time by the {@link
+   * DatasetCache} when the 'segment' was prefetched, or converted here.
+   * @throws MongoUnitException If anything goes wrong with translating the provided 'segment'.
+   */
+  private static List<Document> toBsonDocuments(
+      List<Map<String, Object>> segment,
+      MongoUnitProperties mongoUnitProperties,
+      int firstIndex,
+      Map<List<Map<String, Object>>, List<Document>> convertedDocuments)
+      throws MongoUnitException {
+
+    List<Document> convertedSegment = convertedDocuments.get(segment);
+    if (convertedSegment == null) {
+      convertedSegment = DatasetCache.getConvertedDocuments(segment, mongoUnitProperties);
+    }
+    if (convertedSegment == null) {
+      convertedSegment = toBsonDocuments(segment, mongoUnitProperties, firstIndex);
+    }
+
+    return convertedSegment;
+  }
+
+  /**
+   * @param mongoUnitDocuments List of maps of field name/value pairs of all the documents in this
+   * collection, where each map represents a single document.
+   * @param mongoUnitProperties Collection of properties framework was configured with.
+   * @param firstIndex Index of the first of the provided 'mongoUnitDocuments' in their collection,
+   * used to trace errors.
+   * @return List of MongoDB BSON {@link Document} objects ready to insert into database
+   * @throws MongoUnitException If anything goes wrong with translating the provided
+   * 'mongoUnitDocuments'.
+   */
+  private static List<Document> toBsonDocuments(
+      List<Map<String, Object>> mongoUnitDocuments,
+      MongoUnitProperties mongoUnitProperties,
+      int firstIndex) throws MongoUnitException {
 
-    List<Document> bsonDocuments = new ArrayList<>();
+    List<Document> bsonDocuments = new ArrayList<>(mongoUnitDocuments.size());
 
     // Loop over all mongo unit documents
     for (int i = 0; i < mongoUnitDocuments.size(); i++) {
@@ -670,7 +1282,8 @@ public class MongoUnitUtil {
       } catch (MongoUnitException mongoUnitException) {
 
         // Add tracing to the exception message
-        String message = "Document array index of '" + i + "', document of " + document + " : ";
+        String message = "Document array index of '" + (firstIndex + i) + "', document of "
+            + document + " : ";
         throw new MongoUnitException(message + mongoUnitException, mongoUnitException);
       }
 
@@ -995,6 +1608,48 @@ public class MongoUnitUtil {
       List<MongoUnitCollection> actual,
       MongoUnitProperties mongoUnitProperties) {
 
+    long startNanos = System.nanoTime();
+    MongoUnitAssertEvent assertEvent = new MongoUnitAssertEvent();
+    assertEvent.begin();
+    try {
+
+      AssertionResult assertionResult =
+          assertMatchesCollections(expected, actual, mongoUnitProperties);
+
+      if (assertEvent.shouldCommit()) {
+        assertEvent.setCollectionCount(expected.size());
+        assertEvent.setDocumentCount(expected.stream()
+            .mapToLong(collection ->
+                collection.getDocuments() == null ? 0 : collection.getDocuments().size())
+            .sum());
+        assertEvent.setMatch(assertionResult.isMatch());
+        assertEvent.commit();
+      }
+
+      return assertionResult;
+    } finally {
+      PhaseTimer.record(MongoUnitPhase.ASSERTION, startNanos);
+      MongoUnitOperationListeners
+          .fireOperationCompleted(MongoUnitOperation.ASSERTION, startNanos, 0, 0);
+    }
+  }
+
+  /**
+   * @param expected List of {@link MongoUnitCollection}s that the provided 'actual' dataset is to
+   * be compared against.
+   * @param actual List of {@link MongoUnitCollection}s retrieved from the database after the target
+   * test call.
+   * @param mongoUnitProperties Collection of properties framework was configured with.
+   * @return An {@link AssertionResult} with a 'match' of 'true' if the provided 'expected' and
+   * 'actual' lists of {@link MongoUnitCollection}s match according to the MongoUnit framework
+   * rules, or with 'false' otherwise.
+   * @see #assertMatches(List, List, MongoUnitProperties)
+   */
+  private static AssertionResult assertMatchesCollections(
+      List<MongoUnitCollection> expected,
+      List<MongoUnitCollection> actual,
+      MongoUnitProperties mongoUnitProperties) {
+
     // Assert the same number of collections
     if (expected.size() != actual.size()) {
 
@@ -1642,17 +2297,31 @@ public class MongoUnitUtil {
       ExtensionContext context,
       boolean classLevel) throws MongoUnitException {
 
+    return classLevel ?
+        extractAnnotations(context.getRequiredTestClass()) :
+        extractAnnotations(context.getRequiredTestMethod());
+  }
+
+  /**
+   * Extracts {@link SeedWithDataset} and {@link AssertMatchesDataset} annotations explicitly
+   * declared on the provided 'annotatedElement'.
+   *
+   * @param annotatedElement Test class or test method to extract the annotations of.
+   * @return Instance of the {@link MongoUnitAnnotations} which contains lists of {@link
+   * SeedWithDataset} and {@link AssertMatchesDataset} annotations in the order in which they
+   * appeared on the annotated target.
+   * @throws MongoUnitException If at least one {@link AssertMatchesDataset} annotation appears
+   * before any of the {@link SeedWithDataset} annotations.
+   */
+  static MongoUnitAnnotations extractAnnotations(AnnotatedElement annotatedElement)
+      throws MongoUnitException {
+
     MongoUnitAnnotations mongoUnitAnnotations = new MongoUnitAnnotations();
     String errorMessage = "Error: No @AssertMatchesDataset(s) annotations can appear above any of"
         + " the @SeedWithDataset(s) annotations on a single element.";
 
     // Retrieve all explicitly declared annotations
-    Annotation[] allAnnotations;
-    if (classLevel) {
-      allAnnotations = context.getRequiredTestClass().getDeclaredAnnotations();
-    } else {
-      allAnnotations = context.getRequiredTestMethod().getDeclaredAnnotations();
-    }
+    Annotation[] allAnnotations = annotatedElement.getDeclaredAnnotations();
 
     // Loop through all the annotations
     boolean assertMatchesDatasetAnnotationListStarted = false;
@@ -1731,7 +2400,9 @@ public class MongoUnitUtil {
    * 'false', on a method level.
    * @return Instance of {@link MongoUnitDatasets} which potentially contains datasets to use for
    * seeding the database as well as asserting a match against. The seed and assert datasets
-   * returned do not have same-named collections in the list of collections.
+   * returned do not have same-named collections in the list of collections. The files of the
+   * {@link AssertMatchesDataset} annotations are only loaded when the assert datasets are first
+   * requested, see {@link MongoUnitDatasets#getAssertMatchesDatasets()}.
    * @throws MongoUnitException If at least one {@link AssertMatchesDataset} annotation appears
    * before any of the {@link SeedWithDataset} annotations or one of the annotations contains values
    * for mutually exclusive properties.
@@ -1742,7 +2413,9 @@ public class MongoUnitUtil {
       boolean classLevel) throws MongoUnitException {
 
     // Extract ordered class annotations
+    long startNanos = System.nanoTime();
     MongoUnitAnnotations annotations = extractAnnotations(context, classLevel);
+    PhaseTimer.record(MongoUnitPhase.ANNOTATION_EXTRACTION, startNanos);
 
     MongoUnitDatasets mongoUnitDatasets = new MongoUnitDatasets();
 
@@ -1754,60 +2427,184 @@ public class MongoUnitUtil {
     List<MongoUnitCollection> totalUncombinedSeedDataset = new ArrayList<>();
     List<MongoUnitCollection> totalUncombinedAssertDataset = new ArrayList<>();
 
-    // Process seed annotations
-    for (SeedWithDataset seedWithDatasetAnnotation : annotations.getSeedWithDatasetAnnotations()) {
+    // Collect the files of all annotations first, so they are all loaded concurrently
+    List<SeedWithDataset> seedWithDatasetAnnotations = annotations.getSeedWithDatasetAnnotations();
+    List<String[]> seedWithDatasetFileLocations = new ArrayList<>();
+    List<List<String>> seedWithDatasetLocations = new ArrayList<>();
+    int seedFileCount = 0;
+    for (SeedWithDataset seedWithDatasetAnnotation : seedWithDatasetAnnotations) {
+
+      List<String> datasetLocations = new ArrayList<>();
+      String[] fileLocations = processSeedWithDatasetAnnotation(
+          seedWithDatasetAnnotation,
+          context,
+          testClassName,
+          classLevel,
+          datasetLocations);
+      seedWithDatasetFileLocations.add(fileLocations);
+      seedWithDatasetLocations.add(datasetLocations);
+      seedFileCount += fileLocations.length;
+    }
 
-      List<MongoUnitCollection> seedWithDataset =
-          processSeedWithDatasetAnnotation(
-              seedWithDatasetAnnotation,
-              context,
+    // Start loading the files of every annotation before waiting for any of them
+    Class<?> relativePackageClass = context.getRequiredTestClass();
+    List<CompletableFuture<LoadedDataset>> seedWithDatasetFutures = new ArrayList<>();
+    for (int i = 0; i < seedWithDatasetAnnotations.size(); i++) {
+      seedWithDatasetFutures.add(
+          loadDatasetFiles(
+              seedWithDatasetFileLocations.get(i),
+              seedWithDatasetAnnotations.get(i).locationType(),
+              relativePackageClass,
+              testClassName,
+              seedFileCount));
+    }
+
+    // Only validate assert annotations now; their files are parsed lazily after the test body
+    List<AssertMatchesDataset> assertMatchesDatasetAnnotations =
+        annotations.getAssertMatchesDatasetAnnotations();
+    List<String[]> assertMatchesDatasetFileLocations = new ArrayList<>();
+    List<String> assertMatchesDatasetLocations = new ArrayList<>();
+    int assertFileCount = 0;
+    for (AssertMatchesDataset assertMatchesDatasetAnnotation : assertMatchesDatasetAnnotations) {
+
+      String[] fileLocations = processAssertMatchesDatasetAnnotation(
+          assertMatchesDatasetAnnotation,
+          context,
+          testClassName,
+          classLevel,
+          assertMatchesDatasetLocations);
+      assertMatchesDatasetFileLocations.add(fileLocations);
+      assertFileCount += fileLocations.length;
+    }
+
+    List<Supplier<CompletableFuture<LoadedDataset>>> assertMatchesDatasetLoaders =
+        new ArrayList<>();
+    int totalAssertFileCount = assertFileCount;
+    for (int i = 0; i < assertMatchesDatasetAnnotations.size(); i++) {
+
+      String[] fileLocations = assertMatchesDatasetFileLocations.get(i);
+      LocationType locationType = assertMatchesDatasetAnnotations.get(i).locationType();
+      assertMatchesDatasetLoaders.add(
+          () -> loadDatasetFiles(
+              fileLocations,
+              locationType,
+              relativePackageClass,
               testClassName,
-              classLevel);
+              totalAssertFileCount));
+    }
+
+    // Process seed annotations in declaration order
+    for (int i = 0; i < seedWithDatasetAnnotations.size(); i++) {
+
+      List<MongoUnitCollection> seedWithDataset =
+          DatasetLoader.await(seedWithDatasetFutures.get(i));
       totalUncombinedSeedDataset.addAll(seedWithDataset);
+      mongoUnitDatasets.getSeedWithDatasetLocations().addAll(seedWithDatasetLocations.get(i));
 
       // If this is to be reused as assertion dataset, add to assertion list
-      if (seedWithDatasetAnnotation.reuseForAssertion()) {
+      if (seedWithDatasetAnnotations.get(i).reuseForAssertion()) {
         totalUncombinedAssertDataset.addAll(seedWithDataset);
+        mongoUnitDatasets.getAssertMatchesDatasetLocations()
+            .addAll(seedWithDatasetLocations.get(i));
       }
     }
-
-    // Process assert annotations
-    for (AssertMatchesDataset assertMatchesDatasetAnnotation :
-        annotations.getAssertMatchesDatasetAnnotations()) {
-
-      List<MongoUnitCollection> assertMatchesDataset =
-          processAssertMatchesDatasetAnnotation(
-              assertMatchesDatasetAnnotation,
-              context,
-              testClassName,
-              classLevel);
-      totalUncombinedAssertDataset.addAll(assertMatchesDataset);
-    }
+    mongoUnitDatasets.getAssertMatchesDatasetLocations().addAll(assertMatchesDatasetLocations);
 
     // Combine collections for optimization
     List<MongoUnitCollection> combinedSeedDataset = combineNoRepeatingCollections(
         totalUncombinedSeedDataset);
-    List<MongoUnitCollection> combinedAssertDataset = combineNoRepeatingCollections(
-        totalUncombinedAssertDataset);
     mongoUnitDatasets.setSeedWithDatasets(combinedSeedDataset);
-    mongoUnitDatasets.setAssertMatchesDatasets(combinedAssertDataset);
+
+    // Defer loading the assert datasets until they are first requested
+    if (assertMatchesDatasetLoaders.isEmpty()) {
+      mongoUnitDatasets.setAssertMatchesDatasets(
+          combineNoRepeatingCollections(totalUncombinedAssertDataset));
+    } else {
+      mongoUnitDatasets.setAssertMatchesDatasetsSupplier(
+          () -> loadAssertMatchesDatasets(
+              totalUncombinedAssertDataset,
+              assertMatchesDatasetLoaders));
+    }
 
     return mongoUnitDatasets;
   }
 
+  /**
+   * Starts loading the dataset files of one of several annotations whose files are loaded at once.
+   *
+   * @param fileLocations Array of paths to the files of the annotation.
+   * @param locationType Type of location the provided 'fileLocations' are.
+   * @param relativePackageClass If 'locationType' is 'CLASS', this is the class type whose package
+   * should be used for package relative 'location' path. Otherwise, it's ignored and can be null.
+   * @param testClassName Name of the test class, which is either {@link MongoUnitTest} specified
+   * name or, if not specified, the simple class name of the test class.
+   * @param totalFileCount Number of files of all the annotations together.
+   * @return Future of the collections of the provided 'fileLocations', see {@link
+   * DatasetLoader#await}. If the provided 'fileLocations' are the only file of all the
+   * annotations, it's loaded on the current thread, otherwise each file is loaded on a thread of
+   * its own.
+   * @throws MongoUnitException If the only file of all the annotations could not be loaded.
+   */
+  private static CompletableFuture<LoadedDataset> loadDatasetFiles(
+      String[] fileLocations,
+      LocationType locationType,
+      Class<?> relativePackageClass,
+      String testClassName,
+      int totalFileCount) throws MongoUnitException {
+
+    if (totalFileCount == 1) {
+      return DatasetLoader.load(fileLocations, locationType, relativePackageClass, testClassName);
+    }
+
+    return DatasetLoader
+        .loadConcurrently(fileLocations, locationType, relativePackageClass, testClassName);
+  }
+
+  /**
+   * Loads the files of all provided 'assertMatchesDatasetLoaders' concurrently and combines them,
+   * in declaration order, with the provided seed datasets reused for assertion.
+   *
+   * @param reusedSeedDatasets Seed datasets that are reused for assertion, which precede the loaded
+   * assert datasets.
+   * @param assertMatchesDatasetLoaders List of suppliers that each start loading the files of a
+   * single {@link AssertMatchesDataset} annotation.
+   * @return List of {@link MongoUnitCollection}s to verify matching with, which does not have
+   * same-named collections in it.
+   * @throws MongoUnitException If one of the files could not be loaded or parsed.
+   */
+  private static List<MongoUnitCollection> loadAssertMatchesDatasets(
+      List<MongoUnitCollection> reusedSeedDatasets,
+      List<Supplier<CompletableFuture<LoadedDataset>>> assertMatchesDatasetLoaders)
+      throws MongoUnitException {
+
+    // Start loading the files of all annotations, so they are all loaded concurrently
+    List<CompletableFuture<LoadedDataset>> assertMatchesDatasetFutures = new ArrayList<>();
+    for (Supplier<CompletableFuture<LoadedDataset>> loader : assertMatchesDatasetLoaders) {
+      assertMatchesDatasetFutures.add(loader.get());
+    }
+
+    List<MongoUnitCollection> totalUncombinedAssertDataset = new ArrayList<>(reusedSeedDatasets);
+    for (CompletableFuture<LoadedDataset> assertMatchesDatasetFuture :
+        assertMatchesDatasetFutures) {
+      totalUncombinedAssertDataset.addAll(DatasetLoader.await(assertMatchesDatasetFuture));
+    }
+
+    return combineNoRepeatingCollections(totalUncombinedAssertDataset);
+  }
+
   /**
    * @param datasetWithRepeatingCollections List of {@link MongoUnitCollection}s that may have the
    * same collection repeated. Allowed to be 'null'.
    * @return List of {@link MongoUnitCollection}s where each collection does not repeat in the list
    * while preserving the original order of documents. If the provided
-   * 'datasetWithRepeatingCollections' is 'null', an empty list is returned.
+   * 'datasetWithRepeatingCollections' is 'null', an empty list is returned. None of the provided
+   * {@link MongoUnitCollection}s are modified; same-named collections are combined into a new
+   * {@link MongoUnitCollection} whose documents are a read-only {@link ConcatenatedDocuments} view
+   * of their documents, so no documents are copied.
    */
   public static List<MongoUnitCollection> combineNoRepeatingCollections(
       List<MongoUnitCollection> datasetWithRepeatingCollections) {
 
-    // Create a map of existing combined data by collection name
-    Map<String, MongoUnitCollection> combinedDatasetMap = new HashMap<>();
-
     List<MongoUnitCollection> combinedDataset = new ArrayList<>();
 
     // If datasetWithRepeatingCollections is null, return empty list
@@ -1815,24 +2612,32 @@ public class MongoUnitUtil {
       return combinedDataset;
     }
 
-    // Loop over uncombined dataset
+    // Group the collections by name, in the order their names first appear
+    Map<String, List<MongoUnitCollection>> collectionsByName = new LinkedHashMap<>();
     for (MongoUnitCollection collection : datasetWithRepeatingCollections) {
+      collectionsByName
+          .computeIfAbsent(collection.getCollectionName(), collectionName -> new ArrayList<>())
+          .add(collection);
+    }
 
-      // Attempt to retrieve same-named collection from map
-      MongoUnitCollection existingCollection =
-          combinedDatasetMap.get(collection.getCollectionName());
-
-      // If collection doesn't exist in map yet, add it to the map keyed by its name
-      if (existingCollection == null) {
-
-        combinedDataset.add(collection);
-        combinedDatasetMap.put(collection.getCollectionName(), collection);
-
-      } else {
+    for (List<MongoUnitCollection> sameNamedCollections : collectionsByName.values()) {
 
-        existingCollection.getDocuments().addAll(collection.getDocuments());
+      // Collections that don't repeat are used as is
+      if (sameNamedCollections.size() == 1) {
+        combinedDataset.add(sameNamedCollections.get(0));
+        continue;
+      }
 
+      // Concatenate the documents lazily rather than copying them into the first collection
+      List<List<Map<String, Object>>> documentLists = new ArrayList<>();
+      for (MongoUnitCollection collection : sameNamedCollections) {
+        documentLists.add(collection.getDocuments());
       }
+
+      combinedDataset.add(MongoUnitCollection.builder()
+          .collectionName(sameNamedCollections.get(0).getCollectionName())
+          .documents(ConcatenatedDocuments.concat(documentLists))
+          .build());
     }
 
     return combinedDataset;
@@ -1869,17 +2674,98 @@ public class MongoUnitUtil {
    * @param testClassName Name of the test class, which is either {@link MongoUnitTest} specified
    * name or, if not specified, the simple class name of the test class.
    * @return Contents of the file pointed to by the provided 'location', given the provided
-   * 'locationType'.
+   * 'locationType', decoded as UTF-8.
    * @throws MongoUnitException If anything goes wrong loading the dataset from the provided
    * 'location'.
+   * @deprecated This method buffers the whole file, decompressed if it's gzipped, first as a byte
+   * array and then as a 'String'. To load a dataset file, use {@link
+   * #retrieveDatasetFromFile(String, LocationType, Class, String)} instead, which streams the file
+   * straight into the parser.
    */
+  @Deprecated
   public static String retrieveResourceFromFile(
       String location,
       LocationType locationType,
       Class<?> relativePackageClass,
       String testClassName) throws MongoUnitException {
 
-    String resourceContents = null;
+    long startNanos = System.nanoTime();
+    String resourceContents;
+
+    try (InputStream resourceStream =
+        openResource(location, locationType, relativePackageClass, testClassName)) {
+
+      resourceContents = new String(resourceStream.readAllBytes(), StandardCharsets.UTF_8);
+    } catch (IOException exception) {
+
+      String message = "Failed to read file resource at location '" + location + "', "
+          + "with locationType of '" + locationType + "'. " + exception.getMessage();
+      throw new MongoUnitException(message, exception);
+    }
+
+    PhaseTimer.record(MongoUnitPhase.FILE_LOAD, startNanos);
+
+    return resourceContents;
+  }
+
+  /**
+   * Loads the dataset in the file pointed to by the provided 'location', streaming the file
+   * straight into the parser, through a decompressor if the file is gzipped, so the contents of the
+   * file are never held in memory as a whole.
+   *
+   * @param location Path to the dataset file. Its extension determines its format, see {@link
+   * #toMongoUnitTypedCollections(InputStream, String)}, and a trailing '.gz' marks it as gzipped.
+   * @param locationType Type of location the provided 'location' is.
+   * @param relativePackageClass If 'locationType' is 'CLASS', this is the class type whose package
+   * and class name (or name of {@link MongoUnitTest}) should be used for relativity of the provided
+   * 'location' path. Otherwise, it's ignored and can be null.
+   * @param testClassName Name of the test class, which is either {@link MongoUnitTest} specified
+   * name or, if not specified, the simple class name of the test class.
+   * @return List of {@link MongoUnitCollection}s in the dataset file.
+   * @throws MongoUnitException If anything goes wrong loading or interpreting the dataset from the
+   * provided 'location'.
+   */
+  public static List<MongoUnitCollection> retrieveDatasetFromFile(
+      String location,
+      LocationType locationType,
+      Class<?> relativePackageClass,
+      String testClassName) throws MongoUnitException {
+
+    long startNanos = System.nanoTime();
+    InputStream resourceStream =
+        openResource(location, locationType, relativePackageClass, testClassName);
+    PhaseTimer.record(MongoUnitPhase.FILE_LOAD, startNanos);
+
+    try (resourceStream) {
+      return toMongoUnitTypedCollections(resourceStream, location);
+    } catch (IOException exception) {
+
+      String message = "Failed to close file resource at location '" + location + "'. "
+          + exception.getMessage();
+      log.error(message);
+      throw new MongoUnitException(message, exception);
+    }
+  }
+
+  /**
+   * @param location Path to the file.
+   * @param locationType Type of location the provided 'location' is.
+   * @param relativePackageClass If 'locationType' is 'CLASS', this is the class type whose package
+   * and class name (or name of {@link MongoUnitTest}) should be used for relativity of the provided
+   * 'location' path. Otherwise, it's ignored and can be null.
+   * @param testClassName Name of the test class, which is either {@link MongoUnitTest} specified
+   * name or, if not specified, the simple class name of the test class.
+   * @return Open stream of the contents of the file pointed to by the provided 'location', given
+   * the provided 'locationType', decompressed if the 'location' ends with '.gz'.
+   * @throws MongoUnitException If the file can not be found or opened.
+   */
+  private static InputStream openResource(
+      String location,
+      LocationType locationType,
+      Class<?> relativePackageClass,
+      String testClassName) throws MongoUnitException {
+
+    InputStream resourceStream = null;
 
     // Check if location starts with "/" and, if not, add it
     if (location.charAt(0) != '/') {
@@ -1892,8 +2778,7 @@ public class MongoUnitUtil {
 
         case CLASSPATH_ROOT:
 
-          Path path = Paths.get(MongoUnitUtil.class.getResource(location).toURI());
-          resourceContents = new String(Files.readAllBytes(path));
+          resourceStream = MongoUnitUtil.class.getResource(location).openStream();
 
           break;
 
@@ -1910,20 +2795,27 @@ public class MongoUnitUtil {
           // Add test class name to the location
           location = testClassName + location;
 
-          path = Paths.get(relativePackageClass.getResource(location).toURI());
-          resourceContents = new String(Files.readAllBytes(path));
+          resourceStream = relativePackageClass.getResource(location).openStream();
 
           break;
 
         case ABSOLUTE:
 
-          resourceContents = new String(Files.readAllBytes(Paths.get(location)));
+          resourceStream = Files.newInputStream(Paths.get(location));
 
           break;
 
       }
+
+      // Decompress gzipped files as they are read
+      if (isGzipped(location)) {
+        resourceStream = new GZIPInputStream(resourceStream, DECOMPRESSION_BUFFER_SIZE);
+      }
+
     } catch (Exception exception) {
 
+      closeQuietly(resourceStream);
+
       String testClassNamePath = getTestClassNamePath(relativePackageClass);
 
       String testClassRelativeMessage = locationType == LocationType.CLASS ?
@@ -1935,7 +2827,25 @@ public class MongoUnitUtil {
       throw new MongoUnitException(message, exception);
     }
 
-    return resourceContents;
+    return resourceStream;
+  }
+
+  /**
+   * Closes the provided 'closeable', ignoring any failure to do so.
+   *
+   * @param closeable Resource to close. Can be 'null'.
+   */
+  private static void closeQuietly(Closeable closeable) {
+
+    if (closeable == null) {
+      return;
+    }
+
+    try {
+      closeable.close();
+    } catch (IOException exception) {
+      log.trace("Failed to close resource: " + exception.getMessage());
+    }
   }
 
   /**
@@ -1956,11 +2866,44 @@ public class MongoUnitUtil {
   }
 
   /**
-   * Returns List of {@link MongoUnitCollection}s based on the data pointed to by the 'value' or
-   * 'locations' (or standard location).
-   *
-   * NOTE: The return does not combine documents from same-named collections into a single list of
-   * documents under the same collection.
+   * @param location Location of the dataset file as specified in a MongoUnit annotation.
+   * @param locationType Type of location the provided 'location' is.
+   * @param relativePackageClass If 'locationType' is 'CLASS', this is the class type whose package
+   * the provided 'location' path is relative to. Otherwise, it's ignored and can be null.
+   * @param testClassName Name of the test class, which is either {@link MongoUnitTest} specified
+   * name or, if not specified, the simple class name of the test class.
+   * @return Description of the provided 'location' that uniquely identifies the dataset file, i.e.,
+   * its absolute classpath location (e.g., '/com/mytest/MyIT/test1-seed.json') or, if
+   * 'locationType' is 'ABSOLUTE', its file system path prefixed with 'file:'.
+   */
+  public static String describeLocation(
+      String location,
+      LocationType locationType,
+      Class<?> relativePackageClass,
+      String testClassName) {
+
+    // Check if location starts with "/" and, if not, add it
+    if (location.charAt(0) != '/') {
+      location = "/" + location;
+    }
+
+    switch (locationType) {
+
+      case CLASS:
+        return getTestClassNamePath(relativePackageClass) + "/" + testClassName + location;
+
+      case ABSOLUTE:
+        return "file:" + location;
+
+      default:
+        return location;
+    }
+  }
+
+  /**
+   * Resolves the dataset files pointed to by the 'value' or 'locations' (or standard location) of
+   * the provided 'annotation', without loading them, so the files of all annotations can be loaded
+   * concurrently.
    *
    * @param annotation Instance of the {@link SeedWithDataset} annotation.
    * @param context Test execution context within which the test is being executed.
@@ -1968,17 +2911,17 @@ public class MongoUnitUtil {
    * name or, if not specified, the simple class name of the test class.
    * @param classLevel Flag which if set to 'true', indicates that this annotation was placed on a
    * class as opposed to method.
-   * @return List of {@link MongoUnitCollection}s based on the data pointed to by the 'value' or
-   * 'locations' (or standard location).
-   * @throws MongoUnitException If 'value' or 'locations' point to a file that does not exist or
-   * neither 'value' nor 'locations' specify any locations at all and standard locations were
-   * likewise unsuccessful (see JavaDoc of {@link SeedWithDataset}).
+   * @param datasetLocations List to which descriptions of the locations of the loaded dataset files
+   * are added.
+   * @return Array of paths to the dataset files pointed to by the 'value' or 'locations' (or
+   * standard location) of the provided 'annotation'.
    */
-  private static List<MongoUnitCollection> processSeedWithDatasetAnnotation(
+  private static String[] processSeedWithDatasetAnnotation(
       SeedWithDataset annotation,
       ExtensionContext context,
       String testClassName,
-      boolean classLevel) throws MongoUnitException {
+      boolean classLevel,
+      List<String> datasetLocations) {
 
     String[] value = annotation.value();
     String[] locations = annotation.locations();
@@ -1987,12 +2930,12 @@ public class MongoUnitUtil {
 
     String[] fileLocations =
         getFileLocations(context, value, locations, classLevel, testClassName, "-seed.json");
+    for (String fileLocation : fileLocations) {
+      datasetLocations.add(
+          describeLocation(fileLocation, locationType, relativePackageClass, testClassName));
+    }
 
-    return retrieveDatasetFromLocations(
-        fileLocations,
-        locationType,
-        relativePackageClass,
-        testClassName);
+    return fileLocations;
   }
 
   /**
@@ -2017,6 +2960,35 @@ public class MongoUnitUtil {
       String testClassName,
       String fileEndingAndExtension) {
 
+    // Only ask for the test method if its name is actually needed for the default file name
+    if (value.length == 0 && locations.length == 0 && !classLevel) {
+      return getFileLocations(
+          value,
+          locations,
+          context.getRequiredTestMethod().getName(),
+          fileEndingAndExtension);
+    }
+
+    return getFileLocations(value, locations, testClassName, fileEndingAndExtension);
+  }
+
+  /**
+   * @param value Value of the 'value' part of xxxDataset annotation.
+   * @param locations Value of the 'locations' part of the xxxDataset annotation.
+   * @param defaultFileNamePrefix Name the default file name starts with, i.e., the name of the test
+   * class for class level annotations or the name of the test method for method level ones.
+   * @param fileEndingAndExtension String that contains some ending with an extension. (Usually
+   * '-seed.json' or '-expected.json' for seeding and assertions accordingly.
+   * @return Array of locations. Check if 'value' or 'locations' is a non-empty array. If both are
+   * empty, uses 'defaultFileNamePrefix' and 'fileEndingAndExtension' to generate a default file
+   * name location.
+   */
+  static String[] getFileLocations(
+      String[] value,
+      String[] locations,
+      String defaultFileNamePrefix,
+      String fileEndingAndExtension) {
+
     String[] fileLocations;
 
     // Choose locations between 'value', 'locations', or standard locations
@@ -2030,13 +3002,8 @@ public class MongoUnitUtil {
 
     } else {
 
-      // Choose between a class and method based default file name
-      String fileName = classLevel ?
-          testClassName + fileEndingAndExtension :
-          context.getRequiredTestMethod().getName() + fileEndingAndExtension;
-
       fileLocations = new String[1];
-      fileLocations[0] = fileName;
+      fileLocations[0] = defaultFileNamePrefix + fileEndingAndExtension;
     }
 
     return fileLocations;
@@ -2048,6 +3015,8 @@ public class MongoUnitUtil {
    *
    * NOTE: returns datasets that may repeat the same collection.
    *
+   * The files are loaded and parsed concurrently, see {@link DatasetLoader}.
+   *
    * @param fileLocations Array paths to the files containing datasets.
    * @param locationType Type of location the provided 'fileLocations' are.
    * @param relativePackageClass If 'locationType' is 'CLASS', this is the class type whose package
@@ -2055,7 +3024,7 @@ public class MongoUnitUtil {
    * @param testClassName Name of the test class, which is either {@link MongoUnitTest} specified
    * name or, if not specified, the simple class name of the test class.
    * @return List of {@link MongoUnitCollection}s based on the data pointed to by provided
-   * 'fileLocations'.
+   * 'fileLocations', in the order of the 'fileLocations'.
    * @throws MongoUnitException If 'value' or 'locations' point to a file that does not exist or
    * neither 'value' nor 'locations' specify any locations at all and standard locations were
    * likewise unsuccessful.
@@ -2066,25 +3035,14 @@ public class MongoUnitUtil {
       Class<?> relativePackageClass,
       String testClassName) throws MongoUnitException {
 
-    // Loop over locations, retrieve dataset content and convert/collect to MongoUnitCollection
-    List<MongoUnitCollection> finalMongoUnitCollectionDataset = new ArrayList<>();
-    for (String fileLocation : fileLocations) {
-
-      String dataset =
-          retrieveResourceFromFile(fileLocation, locationType, relativePackageClass, testClassName);
-      List<MongoUnitCollection> mongoUnitCollections = toMongoUnitTypedCollectionsFromJson(dataset);
-
-      finalMongoUnitCollectionDataset.addAll(mongoUnitCollections);
-    }
-    return finalMongoUnitCollectionDataset;
+    return DatasetLoader.await(
+        DatasetLoader.load(fileLocations, locationType, relativePackageClass, testClassName));
   }
 
   /**
-   * Returns List of {@link MongoUnitCollection}s based on the data pointed to by the 'value' or
-   * 'locations' (or standard location).
-   *
-   * NOTE: The return does not combine documents from same-named collections into a single list of
-   * documents under the same collection.
+   * Resolves the dataset files pointed to by the 'value' or 'locations' (or standard location) of
+   * the provided 'annotation', without loading them, so the files of all annotations can be loaded
+   * concurrently.
    *
    * @param annotation Instance of the {@link AssertMatchesDataset} annotation.
    * @param context Test execution context within which the test is being executed.
@@ -2092,19 +3050,21 @@ public class MongoUnitUtil {
    * name or, if not specified, the simple class name of the test class.
    * @param classLevel Flag which if set to 'true', indicates that this annotation was placed on a
    * class as opposed to method.
-   * @return List of {@link MongoUnitCollection}s based on the data pointed to by the 'value' or
-   * 'locations' (or standard location).
-   * @throws MongoUnitException If 'value' or 'locations' point to a file that does not exist or
-   * neither 'value' nor 'locations' specify any locations at all and standard locations were
-   * likewise unsuccessful (see JavaDoc of {@link AssertMatchesDataset}) or the annotation contains
-   * mutually exclusive properties ('value'/'locations' is not empty but 'additionalDataset' is set
-   * to 'false'.
+   * @param datasetLocations List to which descriptions of the locations of the loaded dataset files
+   * are added.
+   * @return Array of paths to the dataset files pointed to by the 'value' or 'locations' (or
+   * standard location) of the provided 'annotation', or an empty array if 'additionalDataset' is
+   * set to 'false'.
+   * @throws MongoUnitException If the annotation contains mutually exclusive properties
+   * ('value'/'locations' is not empty but 'additionalDataset' is set to 'false'. Files that do not
+   * exist are only reported once they are loaded.
    */
-  private static List<MongoUnitCollection> processAssertMatchesDatasetAnnotation(
+  private static String[] processAssertMatchesDatasetAnnotation(
       AssertMatchesDataset annotation,
       ExtensionContext context,
       String testClassName,
-      boolean classLevel) throws MongoUnitException {
+      boolean classLevel,
+      List<String> datasetLocations) throws MongoUnitException {
 
     String[] locations = annotation.locations();
     String[] value = annotation.value();
@@ -2121,26 +3081,19 @@ public class MongoUnitUtil {
       throw new MongoUnitException(message);
     }
 
-    // Return empty list if 'additionalDataset' is false
+    // Return empty dataset if 'additionalDataset' is false
     if (!additionalDataset) {
-      return new ArrayList<>();
+      return new String[0];
     }
 
-    List<MongoUnitCollection> finalMongoUnitCollectionDataset = new ArrayList<>();
-
     String[] fileLocations =
         getFileLocations(context, value, locations, classLevel, testClassName, "-expected.json");
-
-    // Loop over locations, retrieve dataset content and convert/collect to MongoUnitCollection
     for (String fileLocation : fileLocations) {
-      String dataset =
-          retrieveResourceFromFile(fileLocation, locationType, relativePackageClass, testClassName);
-      List<MongoUnitCollection> mongoUnitCollections = toMongoUnitTypedCollectionsFromJson(dataset);
-
-      finalMongoUnitCollectionDataset.addAll(mongoUnitCollections);
+      datasetLocations.add(
+          describeLocation(fileLocation, locationType, relativePackageClass, testClassName));
     }
 
-    return finalMongoUnitCollectionDataset;
+    return fileLocations;
   }
 }
 
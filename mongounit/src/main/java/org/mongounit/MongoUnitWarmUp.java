@@ -0,0 +1,235 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import static org.mongounit.MongoUnitUtil.extractMongoUnitDatasets;
+import static org.mongounit.MongoUnitUtil.toBsonDocuments;
+
+import com.mongodb.client.MongoDatabase;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.bson.Document;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.mongounit.config.MongoUnitProperties;
+import org.mongounit.jfr.MongoUnitEvent;
+import org.mongounit.model.MongoUnitDatasets;
+import org.mongounit.model.PhaseTimings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link MongoUnitWarmUp} class takes the one-time costs of the first test of a test class out of
+ * that test: it loads the class-level datasets and converts their seed documents to BSON in the
+ * background while the Spring context starts and connections to the test database are opened and
+ * exercised.
+ */
+public class MongoUnitWarmUp {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(MongoUnitWarmUp.class);
+
+  /**
+   * Executor of the background warm-up work. Its threads are daemons, so they never keep the JVM
+   * alive.
+   */
+  private static final ExecutorService executorService =
+      Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "mongounit-warm-up");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  /**
+   * Starts loading the class-level datasets of the test class of the provided 'context' and
+   * converting their seed documents to BSON.
+   *
+   * @param context Extension context of the test class.
+   * @param testClassName Name of the test class, as used to find its dataset files.
+   * @param mongoUnitProperties Collection of properties framework was configured with.
+   * @param inBackground Flag to indicate if the datasets should be loaded on a background thread.
+   * If 'false', they are loaded on the current thread before this method returns.
+   * @return Future of the loaded datasets, along with the time spent loading them.
+   */
+  public static CompletableFuture<LoadedDatasets> loadClassDatasets(
+      ExtensionContext context,
+      String testClassName,
+      MongoUnitProperties mongoUnitProperties,
+      boolean inBackground) {
+
+    if (!inBackground) {
+      return CompletableFuture.completedFuture(
+          loadClassDatasets(context, testClassName, mongoUnitProperties));
+    }
+
+    return CompletableFuture.supplyAsync(
+        () -> loadClassDatasets(context, testClassName, mongoUnitProperties),
+        executorService);
+  }
+
+  /**
+   * Waits for the provided 'loadedDatasetsFuture' to complete.
+   *
+   * @param loadedDatasetsFuture Future returned by {@link #loadClassDatasets(ExtensionContext,
+   * String, MongoUnitProperties, boolean)}.
+   * @return Loaded datasets, along with the time spent loading them.
+   * @throws MongoUnitException If loading the datasets failed.
+   */
+  public static LoadedDatasets await(CompletableFuture<LoadedDatasets> loadedDatasetsFuture)
+      throws MongoUnitException {
+
+    try {
+      return loadedDatasetsFuture.join();
+    } catch (CompletionException completionException) {
+
+      // Rethrow the original exception as if the datasets were loaded on this thread
+      Throwable cause = completionException.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+
+      throw new MongoUnitException(cause.getMessage(), cause);
+    }
+  }
+
+  /**
+   * Opens the provided 'connectionCount' connections to the provided 'mongoDatabase' by pinging it
+   * concurrently, so server selection and connection handshakes are done before the first test.
+   * Failures are logged, not thrown, leaving it to the first test to report connection problems.
+   *
+   * @param mongoDatabase Test database to warm up connections to.
+   * @param connectionCount Number of connections to open. At least one is opened.
+   */
+  public static void warmUpConnections(MongoDatabase mongoDatabase, int connectionCount) {
+
+    long startNanos = System.nanoTime();
+    Document pingCommand = new Document("ping", 1);
+
+    try {
+
+      // Ping on this thread first, so server selection happens only once
+      mongoDatabase.runCommand(pingCommand);
+
+      // Ping concurrently to make the pool open the remaining connections
+      List<CompletableFuture<Void>> pings = new ArrayList<>();
+      for (int i = 1; i < connectionCount; i++) {
+        pings.add(CompletableFuture.runAsync(
+            () -> mongoDatabase.runCommand(pingCommand),
+            executorService));
+      }
+      CompletableFuture.allOf(pings.toArray(new CompletableFuture<?>[0])).join();
+
+    } catch (RuntimeException exception) {
+      log.warn("Failed to warm up connections to test database '" + mongoDatabase.getName()
+          + "': " + exception.getMessage());
+    } finally {
+      PhaseTimer.record(MongoUnitPhase.WARM_UP, startNanos);
+    }
+  }
+
+  /**
+   * Loads the class-level datasets of the test class of the provided 'context' and converts their
+   * seed documents to BSON on the current thread, timing the work involved.
+   *
+   * @param context Extension context of the test class.
+   * @param testClassName Name of the test class, as used to find its dataset files.
+   * @param mongoUnitProperties Collection of properties framework was configured with.
+   * @return Loaded datasets, along with their BSON seed documents and the time spent loading them.
+   */
+  private static LoadedDatasets loadClassDatasets(
+      ExtensionContext context,
+      String testClassName,
+      MongoUnitProperties mongoUnitProperties) {
+
+    PhaseTimer.begin();
+    MongoUnitEvent.setCurrentTestId(context.getUniqueId());
+    MongoUnitDatasets mongoUnitDatasets;
+    Map<List<Map<String, Object>>, List<Document>> bsonSeedDocuments;
+    PhaseTimings phaseTimings;
+    try {
+      mongoUnitDatasets = extractMongoUnitDatasets(context, testClassName, true);
+      bsonSeedDocuments =
+          toBsonDocuments(mongoUnitDatasets.getSeedWithDatasets(), mongoUnitProperties);
+    } finally {
+      MongoUnitEvent.setCurrentTestId(null);
+      phaseTimings = PhaseTimer.end();
+    }
+
+    return new LoadedDatasets(mongoUnitDatasets, bsonSeedDocuments, phaseTimings);
+  }
+
+  /**
+   * {@link LoadedDatasets} class holds the class-level datasets of a test class along with the
+   * time spent loading them.
+   */
+  public static class LoadedDatasets {
+
+    /**
+     * Class-level datasets of the test class.
+     */
+    private final MongoUnitDatasets mongoUnitDatasets;
+
+    /**
+     * BSON documents of the seed datasets, keyed by the identity of the lists of documents they
+     * were converted from.
+     */
+    private final Map<List<Map<String, Object>>, List<Document>> bsonSeedDocuments;
+
+    /**
+     * Time spent loading the datasets, recorded on the thread that loaded them.
+     */
+    private final PhaseTimings phaseTimings;
+
+    /**
+     * Constructor.
+     *
+     * @param mongoUnitDatasets Class-level datasets of the test class.
+     * @param bsonSeedDocuments BSON documents of the seed datasets, keyed by the identity of the
+     * lists of documents they were converted from.
+     * @param phaseTimings Time spent loading the datasets.
+     */
+    private LoadedDatasets(
+        MongoUnitDatasets mongoUnitDatasets,
+        Map<List<Map<String, Object>>, List<Document>> bsonSeedDocuments,
+        PhaseTimings phaseTimings) {
+      this.mongoUnitDatasets = mongoUnitDatasets;
+      this.bsonSeedDocuments = bsonSeedDocuments;
+      this.phaseTimings = phaseTimings;
+    }
+
+    /**
+     * @return Class-level datasets of the test class.
+     */
+    public MongoUnitDatasets getMongoUnitDatasets() {
+      return mongoUnitDatasets;
+    }
+
+    /**
+     * @return BSON documents of the seed datasets, keyed by the identity of the lists of documents
+     * they were converted from, see {@link MongoUnitUtil#toBsonDocuments(List,
+     * MongoUnitProperties)}.
+     */
+    public Map<List<Map<String, Object>>, List<Document>> getBsonSeedDocuments() {
+      return bsonSeedDocuments;
+    }
+
+    /**
+     * @return Time spent loading the datasets, recorded on the thread that loaded them.
+     */
+    public PhaseTimings getPhaseTimings() {
+      return phaseTimings;
+    }
+  }
+}
@@ -0,0 +1,333 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.io.BasicOutputBuffer;
+import org.mongounit.model.CompactDocument;
+import org.mongounit.model.MongoUnitCollection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link OffHeapDatasetStore} class stores parsed datasets outside of the heap, encoded as BSON in
+ * direct {@link ByteBuffer}s, so a large number of cached datasets neither inflates the heap nor
+ * lengthens garbage collection pauses of the application under test. A stored dataset is decoded
+ * again every time it's retrieved, which is still much faster than parsing its JSON.
+ *
+ * The store holds at most its byte budget of datasets, evicting the least recently retrieved ones
+ * to make room for new ones.
+ */
+public class OffHeapDatasetStore {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(OffHeapDatasetStore.class);
+
+  /**
+   * Name of the field of the encoded dataset that holds its collections.
+   */
+  private static final String COLLECTIONS_FIELD_NAME = "collections";
+
+  /**
+   * Name of the field of an encoded collection that holds its name.
+   */
+  private static final String COLLECTION_NAME_FIELD_NAME = "collectionName";
+
+  /**
+   * Name of the field of an encoded collection that holds its documents.
+   */
+  private static final String DOCUMENTS_FIELD_NAME = "documents";
+
+  /**
+   * Maximum number of bytes of the stored datasets.
+   */
+  private final long budgetBytes;
+
+  /**
+   * Encoded datasets, keyed by the description of the location of their file, in the order of
+   * least to most recently used.
+   */
+  private final LinkedHashMap<String, ByteBuffer> encodedDatasets =
+      new LinkedHashMap<>(16, 0.75f, true);
+
+  /**
+   * Number of bytes of the stored datasets.
+   */
+  private long usedBytes;
+
+  /**
+   * Constructor.
+   *
+   * @param budgetBytes Maximum number of bytes of the stored datasets.
+   */
+  public OffHeapDatasetStore(long budgetBytes) {
+    this.budgetBytes = budgetBytes;
+  }
+
+  /**
+   * Stores the provided 'mongoUnitCollections' under the provided 'key', evicting the least
+   * recently used datasets if needed.
+   *
+   * @param key Description of the location of the file of the dataset.
+   * @param mongoUnitCollections Collections of the dataset.
+   * @return 'true' if the dataset was stored, 'false' if it's larger than the whole budget, holds
+   * values that BSON can't represent exactly, or there's not enough direct memory available.
+   */
+  public boolean put(String key, List<MongoUnitCollection> mongoUnitCollections) {
+
+    // Encode on the current thread, outside the lock
+    ByteBuffer encodedDataset;
+    try {
+
+      byte[] bytes = encode(mongoUnitCollections);
+      if (bytes.length > budgetBytes) {
+        log.debug("Dataset '" + key + "' of " + bytes.length + " bytes exceeds the off-heap"
+            + " budget; keeping it on the heap.");
+        return false;
+      }
+
+      encodedDataset = ByteBuffer.allocateDirect(bytes.length).put(bytes);
+      encodedDataset.flip();
+
+    } catch (IllegalArgumentException | OutOfMemoryError error) {
+
+      log.debug("Unable to store dataset '" + key + "' off-heap; keeping it on the heap.", error);
+      return false;
+    }
+
+    synchronized (this) {
+
+      ByteBuffer replacedDataset = encodedDatasets.put(key, encodedDataset);
+      if (replacedDataset != null) {
+        usedBytes -= replacedDataset.capacity();
+      }
+      usedBytes += encodedDataset.capacity();
+
+      // Evict least recently used datasets, never the one just stored
+      Iterator<Map.Entry<String, ByteBuffer>> iterator = encodedDatasets.entrySet().iterator();
+      while (usedBytes > budgetBytes) {
+
+        Map.Entry<String, ByteBuffer> evictedDataset = iterator.next();
+        usedBytes -= evictedDataset.getValue().capacity();
+        iterator.remove();
+        log.debug("Evicted dataset '" + evictedDataset.getKey() + "' from the off-heap store.");
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * @param key Description of the location of the file of the dataset.
+   * @return Collections of the dataset stored under the provided 'key' or 'null' if there is no
+   * such dataset, e.g., because it was evicted.
+   */
+  public List<MongoUnitCollection> get(String key) {
+
+    ByteBuffer encodedDataset;
+    synchronized (this) {
+      encodedDataset = encodedDatasets.get(key);
+    }
+
+    // Decode outside the lock, from a view of the buffer, so datasets can be decoded concurrently
+    return encodedDataset == null ? null : decode(encodedDataset.duplicate());
+  }
+
+  /**
+   * Removes all datasets from this store. Their memory is released once their buffers are garbage
+   * collected.
+   */
+  public synchronized void clear() {
+    encodedDatasets.clear();
+    usedBytes = 0;
+  }
+
+  /**
+   * @return Number of bytes of the stored datasets.
+   */
+  public synchronized long getUsedBytes() {
+    return usedBytes;
+  }
+
+  /**
+   * @param mongoUnitCollections Collections of the dataset.
+   * @return BSON encoding of the provided 'mongoUnitCollections'.
+   * @throws IllegalArgumentException If the provided 'mongoUnitCollections' hold a value that BSON
+   * can't represent exactly.
+   */
+  private static byte[] encode(List<MongoUnitCollection> mongoUnitCollections) {
+
+    BasicOutputBuffer outputBuffer = new BasicOutputBuffer();
+    try (BsonBinaryWriter writer = new BsonBinaryWriter(outputBuffer)) {
+
+      writer.writeStartDocument();
+      writer.writeStartArray(COLLECTIONS_FIELD_NAME);
+      for (MongoUnitCollection mongoUnitCollection : mongoUnitCollections) {
+
+        writer.writeStartDocument();
+        writer.writeName(COLLECTION_NAME_FIELD_NAME);
+        writeValue(writer, mongoUnitCollection.getCollectionName());
+        writer.writeName(DOCUMENTS_FIELD_NAME);
+        writeValue(writer, mongoUnitCollection.getDocuments());
+        writer.writeEndDocument();
+      }
+      writer.writeEndArray();
+      writer.writeEndDocument();
+
+    } catch (RuntimeException runtimeException) {
+      throw new IllegalArgumentException(runtimeException.getMessage(), runtimeException);
+    }
+
+    return outputBuffer.toByteArray();
+  }
+
+  /**
+   * @param writer Writer to write the provided 'value' with.
+   * @param value Value of a field or an element of an array of a document.
+   * @throws IllegalArgumentException If the provided 'value' can't be represented exactly in
+   * BSON.
+   */
+  private static void writeValue(BsonWriter writer, Object value) {
+
+    if (value == null) {
+      writer.writeNull();
+    } else if (value instanceof String) {
+      writer.writeString((String) value);
+    } else if (value instanceof Integer) {
+      writer.writeInt32((Integer) value);
+    } else if (value instanceof Long) {
+      writer.writeInt64((Long) value);
+    } else if (value instanceof Double) {
+      writer.writeDouble((Double) value);
+    } else if (value instanceof Boolean) {
+      writer.writeBoolean((Boolean) value);
+    } else if (value instanceof Map) {
+
+      writer.writeStartDocument();
+      for (Map.Entry<?, ?> field : ((Map<?, ?>) value).entrySet()) {
+        writer.writeName((String) field.getKey());
+        writeValue(writer, field.getValue());
+      }
+      writer.writeEndDocument();
+
+    } else if (value instanceof List) {
+
+      writer.writeStartArray();
+      for (Object element : (List<?>) value) {
+        writeValue(writer, element);
+      }
+      writer.writeEndArray();
+
+    } else {
+      throw new IllegalArgumentException(
+          "Value of type '" + value.getClass().getName() + "' can't be stored off-heap.");
+    }
+  }
+
+  /**
+   * @param encodedDataset BSON encoding of a dataset, see {@link #encode(List)}.
+   * @return Collections of the provided 'encodedDataset', with their documents compacted.
+   */
+  @SuppressWarnings("unchecked")
+  private static List<MongoUnitCollection> decode(ByteBuffer encodedDataset) {
+
+    List<MongoUnitCollection> mongoUnitCollections = new ArrayList<>();
+    try (BsonBinaryReader reader = new BsonBinaryReader(encodedDataset)) {
+
+      reader.readStartDocument();
+      reader.readName(COLLECTIONS_FIELD_NAME);
+      reader.readStartArray();
+      while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+
+        reader.readStartDocument();
+        reader.readName(COLLECTION_NAME_FIELD_NAME);
+        String collectionName = (String) readValue(reader);
+        reader.readName(DOCUMENTS_FIELD_NAME);
+        List<Map<String, Object>> documents = (List<Map<String, Object>>) readValue(reader);
+        reader.readEndDocument();
+
+        mongoUnitCollections.add(MongoUnitCollection.builder()
+            .collectionName(collectionName)
+            .documents(CompactDocument.compact(documents))
+            .build());
+      }
+      reader.readEndArray();
+      reader.readEndDocument();
+    }
+
+    return mongoUnitCollections;
+  }
+
+  /**
+   * @param reader Reader positioned at a value, i.e., after its type (and name) have been read.
+   * @return Value the provided 'reader' is positioned at, with documents read as maps and arrays
+   * as lists.
+   */
+  private static Object readValue(BsonReader reader) {
+
+    switch (reader.getCurrentBsonType()) {
+
+      case NULL:
+        reader.readNull();
+        return null;
+
+      case STRING:
+        return reader.readString();
+
+      case INT32:
+        return reader.readInt32();
+
+      case INT64:
+        return reader.readInt64();
+
+      case DOUBLE:
+        return reader.readDouble();
+
+      case BOOLEAN:
+        return reader.readBoolean();
+
+      case DOCUMENT:
+
+        Map<String, Object> document = new LinkedHashMap<>();
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+          String fieldName = reader.readName();
+          document.put(fieldName, readValue(reader));
+        }
+        reader.readEndDocument();
+        return document;
+
+      case ARRAY:
+
+        List<Object> array = new ArrayList<>();
+        reader.readStartArray();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+          array.add(readValue(reader));
+        }
+        reader.readEndArray();
+        return array;
+
+      default:
+        throw new IllegalStateException(
+            "Unexpected BSON type '" + reader.getCurrentBsonType() + "' in off-heap dataset.");
+    }
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import org.mongounit.model.PhaseTimings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link PhaseTimer} class records the time the MongoUnit framework spends in each {@link
+ * MongoUnitPhase} on the current thread.
+ *
+ * Recording only takes place between calls to {@link #begin()} and {@link #end()}. Outside of
+ * that window (e.g., when {@link MongoUnitUtil} is used by the {@link DatasetGenerator}), calls to
+ * {@link #record(MongoUnitPhase, long)} are ignored.
+ */
+public class PhaseTimer {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(PhaseTimer.class);
+
+  /**
+   * Timings being recorded on the current thread. 'null' if recording is not in progress.
+   */
+  private static final ThreadLocal<PhaseTimings> CURRENT_TIMINGS = new ThreadLocal<>();
+
+  /**
+   * JSON mapper used to write timings file lines.
+   */
+  private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+
+  /**
+   * Starts recording phase timings on the current thread, discarding any timings recorded so far.
+   */
+  public static void begin() {
+    CURRENT_TIMINGS.set(new PhaseTimings());
+  }
+
+  /**
+   * Stops recording phase timings on the current thread.
+   *
+   * @return Timings recorded since the last call to {@link #begin()}. Empty timings if recording
+   * was not in progress.
+   */
+  public static PhaseTimings end() {
+
+    PhaseTimings phaseTimings = CURRENT_TIMINGS.get();
+    CURRENT_TIMINGS.remove();
+
+    return phaseTimings == null ? new PhaseTimings() : phaseTimings;
+  }
+
+  /**
+   * Records the time elapsed since the provided 'startNanos' as spent in the provided 'phase'.
+   *
+   * @param phase Phase in which the time was spent.
+   * @param startNanos Value of {@link System#nanoTime()} taken at the start of the phase.
+   */
+  public static void record(MongoUnitPhase phase, long startNanos) {
+
+    PhaseTimings phaseTimings = CURRENT_TIMINGS.get();
+    if (phaseTimings != null) {
+      phaseTimings.add(phase, System.nanoTime() - startNanos);
+    }
+  }
+
+  /**
+   * Records the provided 'phaseTimings', e.g., recorded on another thread, as if they were recorded
+   * on the current thread.
+   *
+   * @param phaseTimings Timings to record.
+   */
+  public static void recordAll(PhaseTimings phaseTimings) {
+
+    PhaseTimings currentTimings = CURRENT_TIMINGS.get();
+    if (currentTimings != null) {
+      currentTimings.addAll(phaseTimings);
+    }
+  }
+
+  /**
+   * Records the provided counts as the number and size of documents seeded.
+   *
+   * @param documentCount Number of documents seeded.
+   * @param byteCount BSON encoded size of the documents seeded, in bytes.
+   */
+  public static void recordSeeded(long documentCount, long byteCount) {
+
+    PhaseTimings phaseTimings = CURRENT_TIMINGS.get();
+    if (phaseTimings != null) {
+      phaseTimings.addSeeded(documentCount, byteCount);
+    }
+  }
+
+  /**
+   * Appends the provided 'line' as a single JSON line to the file at the provided
+   * 'timingsFilePath', creating the file if it does not yet exist.
+   *
+   * @param timingsFilePath Path of the JSON lines file to append to.
+   * @param line Map to write as a JSON object on a single line.
+   * @throws MongoUnitException If the provided 'line' can not be serialized or the file can not be
+   * written to.
+   */
+  public static synchronized void appendToTimingsFile(
+      String timingsFilePath,
+      Map<String, Object> line) throws MongoUnitException {
+
+    try {
+
+      Path path = Paths.get(timingsFilePath);
+
+      // Create parent directories if needed
+      Path parentPath = path.toAbsolutePath().getParent();
+      if (parentPath != null) {
+        Files.createDirectories(parentPath);
+      }
+
+      String jsonLine = JSON_MAPPER.writeValueAsString(line) + System.lineSeparator();
+      Files.write(
+          path,
+          jsonLine.getBytes(StandardCharsets.UTF_8),
+          StandardOpenOption.CREATE,
+          StandardOpenOption.APPEND);
+
+    } catch (JsonProcessingException jsonProcessingException) {
+
+      String message = "Unable to serialize phase timings. " + jsonProcessingException.getMessage();
+      log.error(message);
+      throw new MongoUnitException(message, jsonProcessingException);
+
+    } catch (IOException ioException) {
+
+      String message = "Unable to write phase timings to '" + timingsFilePath + "'. "
+          + ioException.getMessage();
+      log.error(message);
+      throw new MongoUnitException(message, ioException);
+    }
+  }
+}
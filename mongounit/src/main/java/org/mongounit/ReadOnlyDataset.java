@@ -0,0 +1,37 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@link ReadOnlyDataset} annotation declares that the target test does not change the state of the
+ * database in any way. It can be placed on a class, in which case it applies to every test method
+ * of that class, or on an individual method.
+ *
+ * The MongoUnit framework enforces this declaration by monitoring every command sent to the test
+ * database while the test is executing. If any write command (e.g., insert, update, delete, drop,
+ * or an aggregation with an '$out' or '$merge' stage) is detected, the test fails.
+ *
+ * Because the guarantee is enforced, the database state left behind by a read-only test is known to
+ * be identical to the state it was seeded with. If the next test in the same class is to be seeded
+ * with the exact same dataset, the MongoUnit framework skips clearing and reseeding the database
+ * for that test.
+ *
+ * NOTE: Write monitoring is only possible when the MongoDB database factory is the one substituted
+ * by the MongoUnit framework. If it's not, this annotation is ignored and a warning is logged.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface ReadOnlyDataset {
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.config;
+
+import static org.mongounit.config.MongoUnitProperties.DEFAULT_DROP_DATABASE_TIMEOUT_SECONDS;
+import static org.mongounit.config.MongoUnitProperties.DROP_DATABASE_MODE_END_OF_RUN;
+import static org.mongounit.config.MongoUnitProperties.DROP_DATABASE_MODE_SYNC;
+
+import com.mongodb.MongoClientURI;
+import com.mongodb.client.MongoClient;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link DatabaseDropper} class drops test databases once their Spring contexts shut down, either
+ * synchronously, in the background, or all at once when the JVM exits, depending on the configured
+ * drop mode.
+ *
+ * Background drops are executed by a small pool of daemon threads. A JVM shutdown hook waits for
+ * them to complete for at most the configured timeout, so the test run neither leaves databases
+ * behind in the common case nor hangs on exit if the MongoDB server is slow or unreachable.
+ *
+ * Spring's test context cache closes cached contexts from its own JVM shutdown hook, which may run
+ * before, during, or after the one of this class. Once this class's hook has started waiting for
+ * the background drops, any further drop is therefore executed synchronously, regardless of the
+ * configured drop mode, since nothing would execute it later.
+ */
+public class DatabaseDropper {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(DatabaseDropper.class);
+
+  /**
+   * Maximum number of databases that are dropped concurrently.
+   */
+  private static final int MAX_DROP_THREADS = 4;
+
+  /**
+   * Executor that drops databases in the background. Its threads are only started by the first
+   * background drop.
+   */
+  private static final ExecutorService executorService =
+      Executors.newFixedThreadPool(MAX_DROP_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "mongounit-database-dropper");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+  /**
+   * Test databases to drop when the JVM exits, each with a reference to the client to drop it with.
+   */
+  private static final List<PendingDrop> endOfRunDrops = new ArrayList<>();
+
+  /**
+   * Maximum number of seconds the shutdown hook waits for background drops to complete, as
+   * configured for the latest drop.
+   */
+  private static volatile int dropTimeoutSeconds = DEFAULT_DROP_DATABASE_TIMEOUT_SECONDS;
+
+  /**
+   * Flag to indicate if the shutdown hook has started waiting for background drops, i.e., no more
+   * drops can be executed in the background.
+   */
+  private static boolean shutdownStarted;
+
+  static {
+
+    // Register the hook right away, since it can't be registered once the JVM is shutting down
+    Runtime.getRuntime().addShutdownHook(new Thread(
+        () -> awaitDrops(dropTimeoutSeconds),
+        "mongounit-database-dropper-shutdown"));
+  }
+
+  /**
+   * Drops the test database pointed to by the provided 'uri', according to the configured drop
+   * mode.
+   *
+   * @param uri MongoDB URI of the test database to drop.
+   * @param mongoUnitProperties Collection of properties framework was configured with.
+   */
+  public static void drop(String uri, MongoUnitProperties mongoUnitProperties) {
+
+    String databaseName = new MongoClientURI(uri).getDatabase();
+
+    // Hold a reference to the shared client, so it stays open after the context shuts down
+    MongoClient mongoClient = MongoClientRegistry.acquire(uri, mongoUnitProperties);
+    PendingDrop pendingDrop = new PendingDrop(mongoClient, databaseName);
+
+    String dropDatabaseMode = mongoUnitProperties.getDropDatabaseMode();
+    if (!DROP_DATABASE_MODE_SYNC.equals(dropDatabaseMode)) {
+
+      synchronized (DatabaseDropper.class) {
+
+        dropTimeoutSeconds = mongoUnitProperties.getDropDatabaseTimeoutSeconds();
+
+        // Defer the drop to the end of the run, if configured and the run isn't over yet
+        if (!shutdownStarted && DROP_DATABASE_MODE_END_OF_RUN.equals(dropDatabaseMode)) {
+
+          log.info("Test database '" + databaseName + "' will be dropped at the end of the run.");
+          endOfRunDrops.add(pendingDrop);
+          return;
+        }
+
+        // Drop in the background, unless the shutdown hook is no longer waiting for new drops
+        if (!shutdownStarted) {
+          executorService.submit(pendingDrop);
+          return;
+        }
+      }
+    }
+
+    // Drop synchronously, if configured or if the JVM is already past waiting for drops
+    pendingDrop.run();
+  }
+
+  /**
+   * Submits all the drops deferred to the end of the run for execution in the background.
+   */
+  static synchronized void submitEndOfRunDrops() {
+
+    // Submit end-of-run drops to execute in parallel
+    for (PendingDrop pendingDrop : endOfRunDrops) {
+      executorService.submit(pendingDrop);
+    }
+    endOfRunDrops.clear();
+  }
+
+  /**
+   * Submits all the drops deferred to the end of the run and waits for all background drops to
+   * complete for at most the provided 'timeoutSeconds'. Any drop requested afterwards is executed
+   * synchronously.
+   *
+   * @param timeoutSeconds Maximum number of seconds to wait for background drops to complete.
+   */
+  static void awaitDrops(int timeoutSeconds) {
+
+    synchronized (DatabaseDropper.class) {
+
+      submitEndOfRunDrops();
+
+      shutdownStarted = true;
+      executorService.shutdown();
+    }
+
+    try {
+      if (!executorService.awaitTermination(timeoutSeconds, TimeUnit.SECONDS)) {
+        log.warn("Not all test databases were dropped within " + timeoutSeconds + " seconds."
+            + " Manual cleanup may be necessary to remove them.");
+      }
+    } catch (InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Drops the database with the provided 'databaseName', logging instead of throwing if it fails.
+   *
+   * @param mongoClient MongoDB client to drop the database with.
+   * @param databaseName Name of the database to drop.
+   */
+  private static void dropDatabase(MongoClient mongoClient, String databaseName) {
+
+    try {
+      log.info("Dropping test database '" + databaseName + "'.");
+      mongoClient.getDatabase(databaseName).drop();
+    } catch (Exception exception) {
+      log.warn("Failed to drop test database '" + databaseName + "': " + exception.getMessage());
+    }
+  }
+
+  /**
+   * {@link PendingDrop} class is a drop of a test database that releases its reference to the
+   * shared MongoDB client once done.
+   */
+  private static class PendingDrop implements Runnable {
+
+    /**
+     * MongoDB client to drop the database with.
+     */
+    private final MongoClient mongoClient;
+
+    /**
+     * Name of the database to drop.
+     */
+    private final String databaseName;
+
+    /**
+     * Constructor.
+     *
+     * @param mongoClient MongoDB client to drop the database with.
+     * @param databaseName Name of the database to drop.
+     */
+    private PendingDrop(MongoClient mongoClient, String databaseName) {
+      this.mongoClient = mongoClient;
+      this.databaseName = databaseName;
+    }
+
+    @Override
+    public void run() {
+      try {
+        dropDatabase(mongoClient, databaseName);
+      } finally {
+        MongoClientRegistry.release(mongoClient);
+      }
+    }
+  }
+}
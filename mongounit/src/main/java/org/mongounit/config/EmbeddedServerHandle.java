@@ -0,0 +1,206 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import org.mongounit.MongoUnitException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link EmbeddedServerHandle} class is a handle to the in-process embedded MongoDB server shared
+ * by the whole JVM. The server lives in the separate 'mongounit-embedded' artifact, which is looked
+ * up reflectively, so MongoUnit does not depend on it unless 'mongounit.embedded.enabled' is set.
+ *
+ * Snapshots of the embedded databases are opaque to MongoUnit and are passed around as {@link
+ * Object}s.
+ */
+public class EmbeddedServerHandle {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(EmbeddedServerHandle.class);
+
+  /**
+   * Fully qualified name of the embedded server class in the 'mongounit-embedded' artifact.
+   */
+  private static final String SERVER_CLASS_NAME = "org.mongounit.embedded.EmbeddedMongoServer";
+
+  /**
+   * Fully qualified name of the class of the embedded database snapshots.
+   */
+  private static final String SNAPSHOT_CLASS_NAME = "org.mongounit.embedded.DatabaseSnapshot";
+
+  /**
+   * Handle to the embedded server shared by the whole JVM. 'null' until first requested.
+   */
+  private static EmbeddedServerHandle sharedInstance;
+
+  /**
+   * Embedded server this handle delegates to.
+   */
+  private final Object server;
+
+  /**
+   * Method that returns the connection string of a database on the server.
+   */
+  private final Method getConnectionStringMethod;
+
+  /**
+   * Method that clears a database on the server.
+   */
+  private final Method clearDatabaseMethod;
+
+  /**
+   * Method that snapshots a database on the server.
+   */
+  private final Method snapshotDatabaseMethod;
+
+  /**
+   * Method that restores a database on the server from a snapshot.
+   */
+  private final Method restoreDatabaseMethod;
+
+  /**
+   * Constructor.
+   *
+   * @param server Embedded server this handle delegates to.
+   * @param getConnectionStringMethod Method that returns the connection string of a database.
+   * @param clearDatabaseMethod Method that clears a database.
+   * @param snapshotDatabaseMethod Method that snapshots a database.
+   * @param restoreDatabaseMethod Method that restores a database from a snapshot.
+   */
+  private EmbeddedServerHandle(
+      Object server,
+      Method getConnectionStringMethod,
+      Method clearDatabaseMethod,
+      Method snapshotDatabaseMethod,
+      Method restoreDatabaseMethod) {
+
+    this.server = server;
+    this.getConnectionStringMethod = getConnectionStringMethod;
+    this.clearDatabaseMethod = clearDatabaseMethod;
+    this.snapshotDatabaseMethod = snapshotDatabaseMethod;
+    this.restoreDatabaseMethod = restoreDatabaseMethod;
+  }
+
+  /**
+   * @return Handle to the embedded server shared by the whole JVM, which is started the first time
+   * this method is called.
+   * @throws MongoUnitException If the 'mongounit-embedded' artifact is not on the classpath or the
+   * server can't be started.
+   */
+  public static synchronized EmbeddedServerHandle getSharedInstance() throws MongoUnitException {
+
+    if (sharedInstance == null) {
+
+      // Look up embedded server class and the methods used by MongoUnit
+      Class<?> serverClass;
+      try {
+        serverClass = Class.forName(SERVER_CLASS_NAME);
+      } catch (ClassNotFoundException classNotFoundException) {
+        String message = "Property 'mongounit.embedded.enabled' is set to 'true', but the"
+            + " 'org.mongounit:mongounit-embedded' artifact is not on the classpath.";
+        log.error(message);
+        throw new MongoUnitException(message, classNotFoundException);
+      }
+
+      try {
+        Class<?> snapshotClass = Class.forName(SNAPSHOT_CLASS_NAME);
+        sharedInstance = new EmbeddedServerHandle(
+            invoke(serverClass.getMethod("getSharedInstance"), null),
+            serverClass.getMethod("getConnectionString", String.class),
+            serverClass.getMethod("clearDatabase", String.class),
+            serverClass.getMethod("snapshotDatabase", String.class),
+            serverClass.getMethod("restoreDatabase", String.class, snapshotClass));
+      } catch (ReflectiveOperationException reflectiveOperationException) {
+        String message = "Artifact 'org.mongounit:mongounit-embedded' on the classpath is not"
+            + " compatible with this version of MongoUnit.";
+        log.error(message);
+        throw new MongoUnitException(message, reflectiveOperationException);
+      }
+    }
+
+    return sharedInstance;
+  }
+
+  /**
+   * @return Handle to the embedded server shared by the whole JVM or 'null' if it has not been
+   * started.
+   */
+  public static synchronized EmbeddedServerHandle getSharedInstanceIfStarted() {
+    return sharedInstance;
+  }
+
+  /**
+   * @param databaseName Name of the database to connect to.
+   * @return MongoDB URI that connects to the provided 'databaseName' on the embedded server.
+   * @throws MongoUnitException If the embedded server fails.
+   */
+  public String getConnectionString(String databaseName) throws MongoUnitException {
+    return (String) invoke(getConnectionStringMethod, server, databaseName);
+  }
+
+  /**
+   * Removes all the collections of the database with the provided 'databaseName' in memory,
+   * without any network round trips.
+   *
+   * @param databaseName Name of the database to clear.
+   * @throws MongoUnitException If the embedded server fails.
+   */
+  public void clearDatabase(String databaseName) throws MongoUnitException {
+    invoke(clearDatabaseMethod, server, databaseName);
+  }
+
+  /**
+   * @param databaseName Name of the database to snapshot.
+   * @return Opaque snapshot of the current state of all the collections of the database.
+   * @throws MongoUnitException If the embedded server fails.
+   */
+  public Object snapshotDatabase(String databaseName) throws MongoUnitException {
+    return invoke(snapshotDatabaseMethod, server, databaseName);
+  }
+
+  /**
+   * Restores all the collections of the database with the provided 'databaseName' to the state
+   * captured in the provided 'snapshot', discarding any changes made since.
+   *
+   * @param databaseName Name of the database to restore.
+   * @param snapshot Snapshot previously returned by {@link #snapshotDatabase(String)}.
+   * @throws MongoUnitException If the embedded server fails.
+   */
+  public void restoreDatabase(String databaseName, Object snapshot) throws MongoUnitException {
+    invoke(restoreDatabaseMethod, server, databaseName, snapshot);
+  }
+
+  /**
+   * @param method Method of the embedded server to invoke.
+   * @param target Object to invoke the provided 'method' on or 'null' if the method is static.
+   * @param args Arguments to invoke the provided 'method' with.
+   * @return Value returned by the provided 'method'.
+   * @throws MongoUnitException If the provided 'method' can't be invoked or throws.
+   */
+  private static Object invoke(Method method, Object target, Object... args)
+      throws MongoUnitException {
+
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException invocationTargetException) {
+      String message = "Embedded MongoDB server failed to " + method.getName() + ".";
+      log.error(message, invocationTargetException.getCause());
+      throw new MongoUnitException(message, invocationTargetException.getCause());
+    } catch (IllegalAccessException illegalAccessException) {
+      String message = "Failed to access embedded MongoDB server method " + method.getName() + ".";
+      log.error(message);
+      throw new MongoUnitException(message, illegalAccessException);
+    }
+  }
+}
@@ -0,0 +1,426 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.config;
+
+import static org.mongounit.config.MongoUnitProperties.BASE_URI_PROP_NAME;
+
+import com.mongodb.MongoClientURI;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import org.mongounit.MongoUnitException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link LocalMongodLauncher} class starts a locally installed 'mongod' binary on a random port,
+ * with its data directory on a memory-backed file system and with low-durability settings, so
+ * that disk syncs are not on the path of every seed and drop.
+ *
+ * One 'mongod' process is shared by every group of 'mongounit.local-mongod.workers-per-process'
+ * parallel JVM forks. The forks of a group coordinate through a lock file in the group's directory:
+ * the first fork launches the process and records its port and PID, the following forks reuse it,
+ * and the last fork to exit stops it and removes its data.
+ */
+public class LocalMongodLauncher {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(LocalMongodLauncher.class);
+
+  /**
+   * Arguments that every 'mongod' process is launched with to trade durability for speed: data is
+   * never flushed on a timer, the journal is committed as rarely as allowed, and diagnostic data
+   * is not collected.
+   */
+  private static final String[] LOW_DURABILITY_ARGS = {
+      "--syncdelay", "0",
+      "--setParameter", "journalCommitInterval=500",
+      "--setParameter", "diagnosticDataCollectionEnabled=false"
+  };
+
+  /**
+   * Maximum number of milliseconds to wait for a launched 'mongod' process to accept connections.
+   */
+  private static final long STARTUP_TIMEOUT_MILLIS = 30_000;
+
+  /**
+   * Maximum number of seconds to wait for a 'mongod' process to exit after being asked to stop.
+   */
+  private static final long SHUTDOWN_TIMEOUT_SECONDS = 10;
+
+  /**
+   * Base URI pointing at the 'mongod' process used by this JVM. 'null' if not launched yet.
+   */
+  private static String resolvedBaseUri;
+
+  /**
+   * Resolves the base URI to use for the tests. If the managed local 'mongod' process is enabled,
+   * the process for the group of this JVM fork is launched unless already running, and the
+   * returned URI, which is also written into the 'mongounit.base-uri' system property, points at
+   * it.
+   *
+   * @param baseUri Base URI configured in 'mongounit.properties'.
+   * @param mongoUnitProperties Collection of properties framework was configured with.
+   * @return The provided 'baseUri' if the managed local 'mongod' process is not enabled, otherwise
+   * the URI of the local 'mongod' process with the database name of the provided 'baseUri'.
+   * @throws MongoUnitException If the 'mongod' process could not be launched.
+   */
+  public static synchronized String resolveBaseUri(
+      String baseUri,
+      MongoUnitProperties mongoUnitProperties) throws MongoUnitException {
+
+    if (!mongoUnitProperties.isLocalMongodEnabled()) {
+      return baseUri;
+    }
+
+    if (resolvedBaseUri != null) {
+      return resolvedBaseUri;
+    }
+
+    // Determine the group of parallel forks this fork belongs to
+    String forkId = MongoUnitConfigurationUtil.resolveForkId(mongoUnitProperties.getWorkerId());
+    String groupId = toGroupId(forkId, mongoUnitProperties.getLocalMongodWorkersPerProcess());
+    Path groupDirectory = resolveRootDirectory(mongoUnitProperties.getLocalMongodDbPathRoot())
+        .resolve("mongounit_" + System.getProperty("user.name") + "_mongod_" + groupId);
+
+    int port = acquireProcess(groupDirectory, mongoUnitProperties);
+
+    // Keep the database name, but drop the credentials and options meant for the original server
+    String databaseName = new MongoClientURI(baseUri).getDatabase();
+    resolvedBaseUri =
+        "mongodb://127.0.0.1:" + port + "/" + (databaseName == null ? "" : databaseName);
+    System.setProperty(BASE_URI_PROP_NAME, resolvedBaseUri);
+
+    log.info("Using local 'mongod' process in '{}' with base URI: '{}'.",
+        groupDirectory,
+        resolvedBaseUri);
+
+    return resolvedBaseUri;
+  }
+
+  /**
+   * @param forkId ID of the JVM fork.
+   * @param workersPerProcess Number of parallel JVM forks that share one 'mongod' process.
+   * @return ID of the group of JVM forks that share one 'mongod' process. Fork numbers are
+   * expected to start with '1', as Surefire's do. Non-numeric fork IDs are never grouped.
+   */
+  static String toGroupId(String forkId, int workersPerProcess) {
+
+    try {
+      int forkNumber = Integer.parseInt(forkId);
+      return String.valueOf(Math.max(forkNumber - 1, 0) / Math.max(workersPerProcess, 1));
+    } catch (NumberFormatException numberFormatException) {
+      return forkId;
+    }
+  }
+
+  /**
+   * @param dbPathRoot Configured directory under which the data directories are created.
+   * @return The configured directory if it exists, otherwise the temporary directory of the JVM,
+   * e.g., on systems without '/dev/shm'.
+   */
+  private static Path resolveRootDirectory(String dbPathRoot) {
+
+    Path rootDirectory = Paths.get(dbPathRoot);
+    if (Files.isDirectory(rootDirectory)) {
+      return rootDirectory;
+    }
+
+    log.warn("Directory '" + dbPathRoot + "' does not exist. Using the temporary directory"
+        + " for the data of the local 'mongod' process instead.");
+
+    return Paths.get(System.getProperty("java.io.tmpdir"));
+  }
+
+  /**
+   * Registers this JVM as a user of the 'mongod' process of the group with the provided
+   * 'groupDirectory', launching the process if it's not already running.
+   *
+   * @param groupDirectory Directory of the group of JVM forks that share one 'mongod' process.
+   * @param mongoUnitProperties Collection of properties framework was configured with.
+   * @return Port the 'mongod' process listens on.
+   * @throws MongoUnitException If the 'mongod' process could not be launched.
+   */
+  private static int acquireProcess(Path groupDirectory, MongoUnitProperties mongoUnitProperties)
+      throws MongoUnitException {
+
+    try {
+      Files.createDirectories(groupDirectory.resolve("leases"));
+
+      try (RandomAccessFile lockFile =
+          new RandomAccessFile(groupDirectory.resolve("launch.lock").toFile(), "rw");
+          FileChannel lockChannel = lockFile.getChannel()) {
+
+        FileLock lock = lockChannel.lock();
+        try {
+
+          // Register this JVM as a user of the process, stopping it on exit if it's the last one
+          long pid = ProcessHandle.current().pid();
+          Files.write(groupDirectory.resolve("leases").resolve(String.valueOf(pid)), new byte[0]);
+          Runtime.getRuntime().addShutdownHook(new Thread(
+              () -> releaseProcess(groupDirectory, pid),
+              "mongounit-local-mongod-shutdown"));
+
+          // Reuse the process launched by another fork of the group, if it's still running
+          Optional<Integer> runningPort = readRunningPort(groupDirectory);
+          if (runningPort.isPresent()) {
+            return runningPort.get();
+          }
+
+          return launchProcess(groupDirectory, mongoUnitProperties);
+        } finally {
+          lock.release();
+        }
+      }
+
+    } catch (IOException ioException) {
+      String message = "Failed to launch local 'mongod' process in '" + groupDirectory + "': "
+          + ioException.getMessage();
+      log.error(message);
+      throw new MongoUnitException(message, ioException);
+    }
+  }
+
+  /**
+   * @param groupDirectory Directory of the group of JVM forks that share one 'mongod' process.
+   * @return Port of the 'mongod' process of the group, if it's running.
+   * @throws IOException If the port or PID files could not be read.
+   */
+  private static Optional<Integer> readRunningPort(Path groupDirectory) throws IOException {
+
+    Path portFile = groupDirectory.resolve("port");
+    Path pidFile = groupDirectory.resolve("pid");
+    if (!Files.exists(portFile) || !Files.exists(pidFile)) {
+      return Optional.empty();
+    }
+
+    long mongodPid = Long.parseLong(readString(pidFile));
+    if (!ProcessHandle.of(mongodPid).map(ProcessHandle::isAlive).orElse(false)) {
+      return Optional.empty();
+    }
+
+    return Optional.of(Integer.parseInt(readString(portFile)));
+  }
+
+  /**
+   * Launches a new 'mongod' process with a fresh data directory and waits for it to accept
+   * connections.
+   *
+   * @param groupDirectory Directory of the group of JVM forks that share one 'mongod' process.
+   * @param mongoUnitProperties Collection of properties framework was configured with.
+   * @return Port the launched 'mongod' process listens on.
+   * @throws IOException If the process could not be launched.
+   * @throws MongoUnitException If the process exited or did not accept connections in time.
+   */
+  private static int launchProcess(Path groupDirectory, MongoUnitProperties mongoUnitProperties)
+      throws IOException, MongoUnitException {
+
+    // Start with an empty data directory
+    Path dataDirectory = groupDirectory.resolve("data");
+    deleteRecursively(dataDirectory);
+    Files.createDirectories(dataDirectory);
+
+    int port = findFreePort();
+
+    List<String> command = new ArrayList<>();
+    command.add(resolveBinary(mongoUnitProperties.getLocalMongodPath()));
+    command.add("--port");
+    command.add(String.valueOf(port));
+    command.add("--bind_ip");
+    command.add("127.0.0.1");
+    command.add("--dbpath");
+    command.add(dataDirectory.toString());
+    command.addAll(List.of(LOW_DURABILITY_ARGS));
+    String extraArgs = mongoUnitProperties.getLocalMongodArgs();
+    if (extraArgs != null) {
+      command.addAll(List.of(extraArgs.trim().split("\\s+")));
+    }
+
+    log.info("Launching local 'mongod' process: {}", String.join(" ", command));
+
+    File logFile = groupDirectory.resolve("mongod.log").toFile();
+    Process process = new ProcessBuilder(command)
+        .redirectErrorStream(true)
+        .redirectOutput(logFile)
+        .start();
+
+    waitForConnections(process, port, logFile);
+
+    Files.write(
+        groupDirectory.resolve("pid"),
+        String.valueOf(process.pid()).getBytes(StandardCharsets.UTF_8));
+    Files.write(
+        groupDirectory.resolve("port"),
+        String.valueOf(port).getBytes(StandardCharsets.UTF_8));
+
+    return port;
+  }
+
+  /**
+   * Waits for the provided 'process' to accept connections on the provided 'port'.
+   *
+   * @param process Launched 'mongod' process.
+   * @param port Port the process was launched to listen on.
+   * @param logFile File the output of the process is written to.
+   * @throws MongoUnitException If the process exited or did not accept connections in time.
+   */
+  private static void waitForConnections(Process process, int port, File logFile)
+      throws MongoUnitException {
+
+    long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MILLIS;
+    while (System.currentTimeMillis() < deadline) {
+
+      if (!process.isAlive()) {
+        String message = "Local 'mongod' process exited with code " + process.exitValue()
+            + " on startup. See '" + logFile + "' for details.";
+        log.error(message);
+        throw new MongoUnitException(message);
+      }
+
+      try (Socket socket = new Socket()) {
+        socket.connect(new InetSocketAddress("127.0.0.1", port), 100);
+        return;
+      } catch (IOException ioException) {
+        // Not accepting connections yet
+      }
+
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException interruptedException) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+    }
+
+    process.destroyForcibly();
+    String message = "Local 'mongod' process did not accept connections on port " + port
+        + " within " + STARTUP_TIMEOUT_MILLIS + " ms. See '" + logFile + "' for details.";
+    log.error(message);
+    throw new MongoUnitException(message);
+  }
+
+  /**
+   * Unregisters the JVM with the provided 'pid' as a user of the 'mongod' process of the group
+   * with the provided 'groupDirectory', stopping the process and removing its data if no other
+   * running JVM uses it.
+   *
+   * @param groupDirectory Directory of the group of JVM forks that share one 'mongod' process.
+   * @param pid PID of the JVM to unregister.
+   */
+  private static void releaseProcess(Path groupDirectory, long pid) {
+
+    try (RandomAccessFile lockFile =
+        new RandomAccessFile(groupDirectory.resolve("launch.lock").toFile(), "rw");
+        FileChannel lockChannel = lockFile.getChannel()) {
+
+      FileLock lock = lockChannel.lock();
+      try {
+
+        Path leasesDirectory = groupDirectory.resolve("leases");
+        Files.deleteIfExists(leasesDirectory.resolve(String.valueOf(pid)));
+
+        // Keep the process running if any other JVM that registered is still alive
+        try (Stream<Path> leases = Files.list(leasesDirectory)) {
+          boolean inUse = leases
+              .map(lease -> ProcessHandle.of(Long.parseLong(lease.getFileName().toString())))
+              .anyMatch(handle -> handle.map(ProcessHandle::isAlive).orElse(false));
+          if (inUse) {
+            return;
+          }
+        }
+
+        // Stop the process and remove its data
+        Path pidFile = groupDirectory.resolve("pid");
+        if (Files.exists(pidFile)) {
+          Optional<ProcessHandle> mongod = ProcessHandle.of(Long.parseLong(readString(pidFile)));
+          if (mongod.isPresent()) {
+            mongod.get().destroy();
+            mongod.get().onExit().get(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+          }
+        }
+
+        Files.deleteIfExists(pidFile);
+        Files.deleteIfExists(groupDirectory.resolve("port"));
+        deleteRecursively(groupDirectory.resolve("data"));
+      } finally {
+        lock.release();
+      }
+
+    } catch (Exception exception) {
+      log.warn("Failed to stop local 'mongod' process in '" + groupDirectory + "': "
+          + exception.getMessage());
+    }
+  }
+
+  /**
+   * @param mongodPath Configured path of the 'mongod' binary or of the directory that contains it.
+   * @return Path of the 'mongod' binary to execute.
+   */
+  private static String resolveBinary(String mongodPath) {
+
+    File mongodFile = new File(mongodPath);
+    return mongodFile.isDirectory() ? new File(mongodFile, "mongod").getPath() : mongodPath;
+  }
+
+  /**
+   * @return Port that is currently not in use on the loopback interface.
+   * @throws IOException If no port could be allocated.
+   */
+  private static int findFreePort() throws IOException {
+
+    try (ServerSocket serverSocket = new ServerSocket(0)) {
+      return serverSocket.getLocalPort();
+    }
+  }
+
+  /**
+   * @param file File to read.
+   * @return Trimmed contents of the provided 'file'.
+   * @throws IOException If the file could not be read.
+   */
+  private static String readString(Path file) throws IOException {
+    return new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+  }
+
+  /**
+   * Deletes the provided 'path' and, if it's a directory, everything under it.
+   *
+   * @param path Path to delete. Nothing is done if it does not exist.
+   * @throws IOException If any file could not be deleted.
+   */
+  private static void deleteRecursively(Path path) throws IOException {
+
+    if (!Files.exists(path)) {
+      return;
+    }
+
+    try (Stream<Path> paths = Files.walk(path)) {
+      for (Path toDelete : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+        Files.delete(toDelete);
+      }
+    }
+  }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.config;
+
+import static org.mongounit.config.MongoUnitProperties.PROFILE_COMPRESSORS_PROP_NAME;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.MongoCompressor;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.mongounit.MongoUnitException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link MongoClientRegistry} class is a JVM-wide, reference-counted registry of MongoDB clients.
+ * Every Spring context that uses the MongoUnit framework acquires its client from this registry, so
+ * that all contexts connecting to the same cluster share a single client, along with its connection
+ * pool and monitoring threads, regardless of which database each context uses. A client is closed
+ * only when the last context that acquired it releases it.
+ */
+public class MongoClientRegistry {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(MongoClientRegistry.class);
+
+  /**
+   * Pattern that splits a MongoDB URI into the part before the database name, the database name,
+   * and the options.
+   */
+  private static final Pattern URI_PATTERN =
+      Pattern.compile("^(mongodb(?:\\+srv)?://[^/?]+)/?([^?]*)(\\?.*)?$");
+
+  /**
+   * Map of client keys to the shared clients registered under them.
+   */
+  private static final Map<String, SharedClient> sharedClients = new HashMap<>();
+
+  /**
+   * Returns the MongoDB client shared by all users of the cluster pointed to by the provided
+   * 'uri', creating it if needed. Every call must be balanced by a call to {@link
+   * #release(MongoClient)} once the client is no longer needed.
+   *
+   * @param uri MongoDB URI to connect to. Its database name is only used for authentication, if
+   * the URI contains credentials but does not specify the 'authSource' option.
+   * @param mongoUnitProperties Collection of properties framework was configured with.
+   * @return MongoDB client connected to the cluster pointed to by the provided 'uri'.
+   */
+  public static synchronized MongoClient acquire(
+      String uri,
+      MongoUnitProperties mongoUnitProperties) {
+
+    return acquire(toClientKey(uri), () -> {
+
+      MongoClientSettings.Builder settingsBuilder = MongoClientSettings.builder()
+          .applyConnectionString(new ConnectionString(uri))
+          .addCommandListener(WriteCommandListener.INSTANCE);
+
+      // Apply pool sizing, if configured
+      applyPoolSizes(
+          settingsBuilder,
+          mongoUnitProperties.getClientMaxPoolSize(),
+          mongoUnitProperties.getClientMinPoolSize());
+
+      return settingsBuilder.build();
+    });
+  }
+
+  /**
+   * Returns the MongoDB client the MongoUnit framework uses for its own operations on the cluster
+   * pointed to by the provided 'uri', creating it if needed. If no network compressors or
+   * connection pool bounds are configured for the MongoUnit framework's own operations, this is
+   * the same client as the one returned by {@link #acquire(String, MongoUnitProperties)}.
+   * Otherwise, it is a separate client, so that the application under test is not affected by
+   * these settings. Every call must be balanced by a call to {@link #release(MongoClient)} once
+   * the client is no longer needed.
+   *
+   * @param uri MongoDB URI to connect to. Its database name is only used for authentication, if
+   * the URI contains credentials but does not specify the 'authSource' option.
+   * @param mongoUnitProperties Collection of properties framework was configured with.
+   * @return MongoDB client for the MongoUnit framework's own operations on the cluster pointed to
+   * by the provided 'uri'.
+   * @throws MongoUnitException If any of the configured network compressors is not supported.
+   */
+  public static synchronized MongoClient acquireForMongoUnit(
+      String uri,
+      MongoUnitProperties mongoUnitProperties) throws MongoUnitException {
+
+    String compressors = mongoUnitProperties.getProfileCompressors();
+    Integer maxPoolSize = mongoUnitProperties.getProfileMaxPoolSize();
+    Integer minPoolSize = mongoUnitProperties.getProfileMinPoolSize();
+
+    // Share the application's client if no client settings are specific to MongoUnit
+    if (compressors == null && maxPoolSize == null && minPoolSize == null) {
+      return acquire(uri, mongoUnitProperties);
+    }
+
+    String clientKey = "mongounit-profile[compressors=" + compressors + ", maxPoolSize="
+        + maxPoolSize + ", minPoolSize=" + minPoolSize + "]:" + toClientKey(uri);
+    List<MongoCompressor> compressorList = toCompressors(compressors);
+
+    return acquire(clientKey, () -> {
+
+      // Monitor writes like the application's client does, since seeding can use either one
+      MongoClientSettings.Builder settingsBuilder = MongoClientSettings.builder()
+          .applyConnectionString(new ConnectionString(uri))
+          .addCommandListener(WriteCommandListener.INSTANCE)
+          .compressorList(compressorList);
+      applyPoolSizes(settingsBuilder, maxPoolSize, minPoolSize);
+
+      return settingsBuilder.build();
+    });
+  }
+
+  /**
+   * Returns the client registered under the provided 'clientKey', creating and registering it if
+   * needed, and adds a reference to it.
+   *
+   * @param clientKey Key that identifies the client.
+   * @param settingsSupplier Supplier of the settings to create the client with, if needed.
+   * @return MongoDB client registered under the provided 'clientKey'.
+   */
+  private static MongoClient acquire(
+      String clientKey,
+      Supplier<MongoClientSettings> settingsSupplier) {
+
+    SharedClient sharedClient = sharedClients.get(clientKey);
+
+    // Create client if none is registered under this key yet
+    if (sharedClient == null) {
+
+      sharedClient = new SharedClient(MongoClients.create(settingsSupplier.get()));
+      sharedClients.put(clientKey, sharedClient);
+
+      log.debug("Created shared MongoDB client for '" + clientKey + "'.");
+    }
+
+    sharedClient.referenceCount++;
+
+    return sharedClient.mongoClient;
+  }
+
+  /**
+   * Applies the provided connection pool bounds to the provided 'settingsBuilder'.
+   *
+   * @param settingsBuilder Builder of the settings of the client to be created.
+   * @param maxPoolSize Maximum connection pool size. If 'null', the driver's default is used.
+   * @param minPoolSize Minimum connection pool size. If 'null', the driver's default is used.
+   */
+  private static void applyPoolSizes(
+      MongoClientSettings.Builder settingsBuilder,
+      Integer maxPoolSize,
+      Integer minPoolSize) {
+
+    settingsBuilder.applyToConnectionPoolSettings(poolSettings -> {
+      if (maxPoolSize != null) {
+        poolSettings.maxSize(maxPoolSize);
+      }
+      if (minPoolSize != null) {
+        poolSettings.minSize(minPoolSize);
+      }
+    });
+  }
+
+  /**
+   * @param compressors Comma-separated names of network compressors. Can be 'null'.
+   * @return List of network compressors with the provided 'compressors' names, in the same order.
+   * Empty list if 'compressors' is 'null'.
+   * @throws MongoUnitException If any of the provided 'compressors' is not supported.
+   */
+  static List<MongoCompressor> toCompressors(String compressors) throws MongoUnitException {
+
+    List<MongoCompressor> compressorList = new ArrayList<>();
+    if (compressors == null) {
+      return compressorList;
+    }
+
+    for (String compressor : compressors.split(",")) {
+
+      switch (compressor.trim().toLowerCase()) {
+        case "zlib":
+          compressorList.add(MongoCompressor.createZlibCompressor());
+          break;
+        case "snappy":
+          compressorList.add(MongoCompressor.createSnappyCompressor());
+          break;
+        case "zstd":
+          compressorList.add(MongoCompressor.createZstdCompressor());
+          break;
+        case "":
+          break;
+        default:
+          String message = "Network compressor '" + compressor.trim() + "' in property '"
+              + PROFILE_COMPRESSORS_PROP_NAME + "' is not supported. Supported compressors are"
+              + " 'zlib', 'snappy', and 'zstd'.";
+          log.error(message);
+          throw new MongoUnitException(message);
+      }
+    }
+
+    return compressorList;
+  }
+
+  /**
+   * Releases a reference to the provided 'mongoClient' previously returned by {@link
+   * #acquire(String, MongoUnitProperties)}, closing it if this was the last reference.
+   *
+   * @param mongoClient MongoDB client to release.
+   */
+  public static synchronized void release(MongoClient mongoClient) {
+
+    Iterator<Map.Entry<String, SharedClient>> iterator = sharedClients.entrySet().iterator();
+    while (iterator.hasNext()) {
+
+      Map.Entry<String, SharedClient> entry = iterator.next();
+      SharedClient sharedClient = entry.getValue();
+      if (sharedClient.mongoClient != mongoClient) {
+        continue;
+      }
+
+      // Close the client once no one is using it anymore
+      sharedClient.referenceCount--;
+      if (sharedClient.referenceCount <= 0) {
+
+        iterator.remove();
+        sharedClient.mongoClient.close();
+
+        log.debug("Closed shared MongoDB client for '" + entry.getKey() + "'.");
+      }
+
+      return;
+    }
+  }
+
+  /**
+   * @param mongoClient MongoDB client previously returned by this registry.
+   * @return Number of unreleased references to the provided 'mongoClient'. Zero if it is not
+   * registered, i.e., it was never acquired or has been closed.
+   */
+  static synchronized int getReferenceCount(MongoClient mongoClient) {
+
+    for (SharedClient sharedClient : sharedClients.values()) {
+      if (sharedClient.mongoClient == mongoClient) {
+        return sharedClient.referenceCount;
+      }
+    }
+
+    return 0;
+  }
+
+  /**
+   * @param uri MongoDB URI to base the key on.
+   * @return Key that identifies the client to use for the provided 'uri', i.e., the 'uri' without
+   * its database name. The database name is kept if the 'uri' contains credentials that are
+   * authenticated against it.
+   */
+  static String toClientKey(String uri) {
+
+    Matcher matcher = URI_PATTERN.matcher(uri);
+    if (!matcher.matches()) {
+      return uri;
+    }
+
+    String prefix = matcher.group(1);
+    String databaseName = matcher.group(2);
+    String options = matcher.group(3) == null ? "" : matcher.group(3);
+
+    // Credentials without an explicit 'authSource' authenticate against the database in the URI
+    boolean hasCredentials = prefix.contains("@");
+    if (hasCredentials && !options.contains("authSource=") && !databaseName.isEmpty()) {
+      return prefix + "/" + databaseName + options;
+    }
+
+    return prefix + "/" + options;
+  }
+
+  /**
+   * {@link SharedClient} class holds a shared MongoDB client along with the number of references
+   * to it.
+   */
+  private static class SharedClient {
+
+    /**
+     * Shared MongoDB client.
+     */
+    private final MongoClient mongoClient;
+
+    /**
+     * Number of unreleased references to the 'mongoClient'.
+     */
+    private int referenceCount;
+
+    /**
+     * Constructor.
+     *
+     * @param mongoClient Shared MongoDB client.
+     */
+    private SharedClient(MongoClient mongoClient) {
+      this.mongoClient = mongoClient;
+    }
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.config;
+
+import static org.mongounit.config.MongoUnitProperties.PROFILE_WRITE_CONCERN_MAJORITY;
+import static org.mongounit.config.MongoUnitProperties.PROFILE_WRITE_CONCERN_W1;
+
+import com.mongodb.MongoClientURI;
+import com.mongodb.WriteConcern;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoDatabase;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+
+/**
+ * {@link MongoDatabaseFactoryBean} class is a definition of the MongoUnit specific {@link MongoDatabaseFactory}
+ * bean to be substituted for originally configured one in the Spring context.
+ */
+public class MongoDatabaseFactoryBean
+    implements FactoryBean<MongoDatabaseFactory>, EnvironmentAware, InitializingBean,
+    DisposableBean {
+
+  /**
+   * Spring environment.
+   */
+  private Environment environment;
+
+  /**
+   * Mongo client URI to use for the new MongoDatabaseFactoryBean bean.
+   */
+  private MongoClientURI mongoClientURI;
+
+  /**
+   * Mongo client acquired from the {@link MongoClientRegistry} for the calculated URI. It is shared
+   * with every other Spring context connecting to the same cluster and has the {@link
+   * WriteCommandListener} registered, so write commands can be monitored.
+   */
+  private MongoClient mongoClient;
+
+  /**
+   * Mongo client acquired from the {@link MongoClientRegistry} for the MongoUnit framework's own
+   * operations, e.g., seeding. It is the same as 'mongoClient', unless the test performance
+   * profile configures client settings that should not affect the application under test.
+   */
+  private MongoClient mongoUnitClient;
+
+  @Override
+  public MongoDatabaseFactory getObject() {
+
+    // Create new factory based on the client connected to the calculated URI
+    return new SimpleMongoClientDatabaseFactory(mongoClient, mongoClientURI.getDatabase());
+  }
+
+  @Override
+  public Class<?> getObjectType() {
+    return MongoDatabaseFactory.class;
+  }
+
+  @Override
+  public boolean isSingleton() {
+    return true;
+  }
+
+  @Override
+  public void afterPropertiesSet() {
+    // Set mongo client URI based on the mongounit properties and spring data mongo properties
+    mongoClientURI = MongoUnitConfigurationUtil.generateNewMongoClientURI(environment);
+
+    // Acquire shared mongo client that reports every command to the write command listener
+    MongoUnitProperties mongoUnitProperties = MongoUnitConfigurationUtil.loadMongoUnitProperties();
+    mongoClient = MongoClientRegistry.acquire(mongoClientURI.getURI(), mongoUnitProperties);
+    WriteCommandListener.INSTANCE.addMonitoredDatabase(mongoClientURI.getDatabase());
+
+    // Acquire mongo client for MongoUnit's own operations, tuned by the test performance profile
+    mongoUnitClient =
+        MongoClientRegistry.acquireForMongoUnit(mongoClientURI.getURI(), mongoUnitProperties);
+
+    // Drop test databases orphaned by crashed test runs without delaying startup
+    OrphanDatabaseSweeper.sweepInBackground(
+        mongoClientURI.getURI(),
+        mongoClientURI.getDatabase(),
+        mongoUnitProperties);
+  }
+
+  @Override
+  public void destroy() {
+
+    // Release shared mongo client, closing it if no other context is using it
+    if (mongoClient != null) {
+      MongoClientRegistry.release(mongoClient);
+      mongoClient = null;
+    }
+    if (mongoUnitClient != null) {
+      MongoClientRegistry.release(mongoUnitClient);
+      mongoUnitClient = null;
+    }
+  }
+
+  /**
+   * @return Test database to be used by the MongoUnit framework's own operations, e.g., seeding,
+   * with the write concern of the test performance profile applied. 'null' until this bean's
+   * properties are set.
+   */
+  public MongoDatabase getMongoUnitDatabase() {
+
+    if (mongoUnitClient == null) {
+      return null;
+    }
+
+    MongoDatabase mongoDatabase = mongoUnitClient.getDatabase(mongoClientURI.getDatabase());
+
+    // Apply write concern of the profile, unless the one of the URI should be inherited
+    String writeConcern = MongoUnitConfigurationUtil.loadMongoUnitProperties()
+        .getProfileWriteConcern();
+    if (PROFILE_WRITE_CONCERN_W1.equals(writeConcern)) {
+      return mongoDatabase.withWriteConcern(WriteConcern.W1.withJournal(false));
+    }
+    if (PROFILE_WRITE_CONCERN_MAJORITY.equals(writeConcern)) {
+      return mongoDatabase.withWriteConcern(WriteConcern.MAJORITY);
+    }
+
+    return mongoDatabase;
+  }
+
+  /**
+   * @return Mongo client URI of the test database this factory connects to. 'null' until this
+   * bean's properties are set.
+   */
+  public MongoClientURI getMongoClientURI() {
+    return mongoClientURI;
+  }
+
+  @Override
+  public void setEnvironment(Environment environment) {
+    this.environment = environment;
+  }
+}
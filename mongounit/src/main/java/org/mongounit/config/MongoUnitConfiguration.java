@@ -8,6 +8,7 @@
  */
 package org.mongounit.config;
 
+import java.util.Map;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -67,11 +68,29 @@ public class MongoUnitConfiguration {
 
       MongoDatabaseFactory mongoDatabaseFactory = applicationContext.getBean(MongoDatabaseFactory.class);
 
-      // Drop database if not disabled
-      if (mongoProperties.isDropDatabase()) {
+      // Keep per-fork database for reuse by later contexts and runs of the same fork
+      if (MongoUnitProperties.DATABASE_NAMING_FORK.equals(mongoProperties.getDatabaseNaming())
+          && !mongoProperties.isBaseUriKeepAsIs()) {
 
-        log.info("Dropping test database '" + mongoDatabaseFactory.getMongoDatabase().getName() + "'.");
-        mongoDatabaseFactory.getMongoDatabase().drop();
+        log.info("Per-fork test database '" + mongoDatabaseFactory.getMongoDatabase().getName()
+            + "' is NOT dropped so it can be reused; it is cleared before each test instead.");
+
+      } else if (mongoProperties.isDropDatabase()) {
+
+        // Drop database if not disabled, letting the dropper decide when, if the factory is ours
+        Map<String, MongoDatabaseFactoryBean> factoryBeans =
+            applicationContext.getBeansOfType(MongoDatabaseFactoryBean.class);
+        if (factoryBeans.size() == 1) {
+
+          MongoDatabaseFactoryBean factoryBean = factoryBeans.values().iterator().next();
+          DatabaseDropper.drop(factoryBean.getMongoClientURI().getURI(), mongoProperties);
+
+        } else {
+
+          log.info("Dropping test database '" + mongoDatabaseFactory.getMongoDatabase().getName()
+              + "'.");
+          mongoDatabaseFactory.getMongoDatabase().drop();
+        }
       } else {
 
         log.info("Test database '" + mongoDatabaseFactory.getMongoDatabase().getName() + "' is NOT dropped. Manual"
@@ -0,0 +1,678 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.config;
+
+import static java.time.ZoneId.SHORT_IDS;
+import static org.mongounit.config.MongoUnitProperties.BASE_URI_KEEP_AS_IS_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.BASE_URI_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.DATABASE_NAMING_FORK;
+import static org.mongounit.config.MongoUnitProperties.DATABASE_NAMING_UNIQUE;
+import static org.mongounit.config.MongoUnitProperties.DROP_DATABASE_MODE_ASYNC;
+import static org.mongounit.config.MongoUnitProperties.DROP_DATABASE_MODE_END_OF_RUN;
+import static org.mongounit.config.MongoUnitProperties.DROP_DATABASE_MODE_SYNC;
+import static org.mongounit.config.MongoUnitProperties.DROP_DATABASE_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.MONGO_UNIT_FIELD_NAME_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.MONGO_UNIT_PROPERTIES_FILE_URI;
+import static org.mongounit.config.MongoUnitProperties.REPORT_ENABLED_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.REPORT_FILE_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.REPORT_TOP_COUNT_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.CLIENT_MAX_POOL_SIZE_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.CLIENT_MIN_POOL_SIZE_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.DATABASE_NAMING_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.WORKER_ID_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.ORPHAN_SWEEP_ENABLED_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.ORPHAN_SWEEP_MAX_AGE_MINUTES_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.DROP_DATABASE_MODE_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.DROP_DATABASE_TIMEOUT_SECONDS_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.EMBEDDED_ENABLED_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.LOCAL_MONGOD_ENABLED_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.LOCAL_MONGOD_PATH_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.LOCAL_MONGOD_DB_PATH_ROOT_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.LOCAL_MONGOD_WORKERS_PER_PROCESS_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.LOCAL_MONGOD_ARGS_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.PROFILE_WRITE_CONCERN_INHERIT;
+import static org.mongounit.config.MongoUnitProperties.PROFILE_WRITE_CONCERN_MAJORITY;
+import static org.mongounit.config.MongoUnitProperties.PROFILE_WRITE_CONCERN_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.PROFILE_WRITE_CONCERN_W1;
+import static org.mongounit.config.MongoUnitProperties.PROFILE_COMPRESSORS_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.PROFILE_BATCH_SIZE_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.PROFILE_MAX_POOL_SIZE_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.PROFILE_MIN_POOL_SIZE_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.WARM_UP_ENABLED_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.PREFETCH_ENABLED_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.CACHE_OFF_HEAP_BUDGET_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.TIMINGS_FILE_PROP_NAME;
+import static org.mongounit.config.MongoUnitProperties.TIME_ZONE_ID_PROP_NAME;
+
+import com.mongodb.MongoClientURI;
+import java.io.InputStream;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.UUID;
+import org.mongounit.MongoUnitException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+
+/**
+ * {@link MongoUnitConfigurationUtil} class provides utility methods to make accessing
+ * 'mongounit.properties' file and its property values easier.
+ */
+public class MongoUnitConfigurationUtil {
+
+  /**
+   * Logger for this configuration class.
+   */
+  private static Logger log = LoggerFactory.getLogger(MongoUnitConfigurationUtil.class);
+
+  /**
+   * Cached instance of {@link MongoUnitProperties}.
+   */
+  private static MongoUnitProperties cachedMongoUnitProperties;
+
+  /**
+   * Name of the system property Maven Surefire sets to the number of the JVM fork.
+   */
+  private static final String SUREFIRE_FORK_NUMBER_PROP_NAME = "surefire.forkNumber";
+
+  /**
+   * Name of the system property Gradle sets to the ID of the test worker.
+   */
+  private static final String GRADLE_TEST_WORKER_PROP_NAME = "org.gradle.test.worker";
+
+  /**
+   * Fork ID to use if no other one is configured or available.
+   */
+  private static final String DEFAULT_FORK_ID = "1";
+
+  /**
+   * Returns new {@link MongoClientURI} instance that contains newly generated URI, based on
+   * 'mongounit.properties'.
+   *
+   * @param environment Spring environment to look up existing properties already set, if needed.
+   * @return New {@link MongoClientURI} instance that contains newly generated URI, based on
+   * mongounit.properties.
+   */
+  public static MongoClientURI generateNewMongoClientURI(Environment environment) {
+
+    // Retrieve mongounit properties
+    MongoUnitProperties mongoUnitProperties = loadMongoUnitProperties();
+
+    boolean keepAsIs = mongoUnitProperties.isBaseUriKeepAsIs();
+    String baseUri = mongoUnitProperties.isEmbeddedEnabled()
+        ? mongoUnitProperties.getBaseUri()
+        : LocalMongodLauncher.resolveBaseUri(mongoUnitProperties.getBaseUri(), mongoUnitProperties);
+    String timeZoneId = mongoUnitProperties.getTimeZoneId();
+
+    // Reuse one database per JVM fork, if configured, or use default MongoUnit URI
+    MongoClientURI mongoClientURI =
+        !keepAsIs && DATABASE_NAMING_FORK.equals(mongoUnitProperties.getDatabaseNaming())
+            ? generateForkMongoClientURI(baseUri, mongoUnitProperties.getWorkerId())
+            : generateNewMongoClientURI(baseUri, keepAsIs, timeZoneId);
+
+    // Point the same database name at the in-process embedded server, if configured
+    if (mongoUnitProperties.isEmbeddedEnabled()) {
+
+      String embeddedUri = EmbeddedServerHandle.getSharedInstance()
+          .getConnectionString(mongoClientURI.getDatabase());
+      log.info("Using embedded test database with URI: '{}'.", embeddedUri);
+
+      return new MongoClientURI(embeddedUri);
+    }
+
+    return mongoClientURI;
+  }
+
+  /**
+   * @param baseUri URI whose database name is appended to with the username of the user executing
+   * the program and the ID of the JVM fork. Can not be 'null'.
+   * @param workerId Stable ID of the JVM fork. If 'null', the Surefire fork number or the Gradle
+   * test worker ID is used, falling back on '1' if neither is available.
+   * @return {@link MongoClientURI} which is based on the provided 'baseUri' and whose database name
+   * is the same for every Spring context and every run of the same JVM fork.
+   * @throws MongoUnitException If the provided 'baseUri' is not properly formatted such that its
+   * database name is not properly configured or the generated database name is too long.
+   */
+  public static MongoClientURI generateForkMongoClientURI(String baseUri, String workerId)
+      throws MongoUnitException {
+
+    // Create mongo client uri based on the  baseUri
+    MongoClientURI baseMongoClientUri = new MongoClientURI(baseUri);
+
+    // Extract database name from original
+    String baseUriDbName = baseMongoClientUri.getDatabase();
+
+    // Check it's not null
+    if (baseUriDbName == null) {
+      String message = "Database name is not properly configured in the URI.";
+      log.error(message);
+      throw new MongoUnitException(message);
+    }
+
+    // Determine fork ID
+    String forkId = resolveForkId(workerId);
+
+    // Append username and fork ID to base DB name
+    String newDbName = baseUriDbName + "_" + System.getProperty("user.name") + "_fork_" + forkId;
+
+    // If the new db name is too long, throw exception (per mongodb docs > 64)
+    if (newDbName.length() > 64) {
+      String message = "MongoUnit generated a per-fork database name, based on the one configured"
+          + " in 'mongounit.properties' which is too long (>64 chars). Please shorten the database"
+          + " name or the worker ID.";
+      log.error(message);
+      throw new MongoUnitException(message);
+    }
+
+    // Create client URI to extract db name only
+    String newClientUri = baseUri.replaceFirst(baseUriDbName, newDbName);
+
+    log.info("Using per-fork test database with URI: '{}'.", newClientUri);
+
+    return new MongoClientURI(newClientUri);
+  }
+
+  /**
+   * @param workerId Stable ID of the JVM fork. If 'null', the Surefire fork number or the Gradle
+   * test worker ID is used, falling back on '1' if neither is available.
+   * @return ID of the JVM fork, with only the characters allowed in a database name kept.
+   */
+  static String resolveForkId(String workerId) {
+
+    String forkId = workerId;
+    if (forkId == null) {
+      forkId = System.getProperty(
+          SUREFIRE_FORK_NUMBER_PROP_NAME,
+          System.getProperty(GRADLE_TEST_WORKER_PROP_NAME, DEFAULT_FORK_ID));
+    }
+
+    return forkId.replaceAll("[^A-Za-z0-9_-]", "_");
+  }
+
+  /**
+   * @param baseUri URI that works as is, but its database name is potentially added to, depending
+   * on the 'baseUriKeepAsIs' argument. Can not be 'null'.
+   * @param baseUriKeepAsIs Flag to indicate if additional things should be appended to the database
+   * name, i.e., the username of the user executing the program and a one-time hash.
+   * @param timeZoneId Time zone ID to use in the database name pad.
+   * @return {@link MongoClientURI} which is based on the provided 'baseUri'. If 'baseUriKeepAsIs'
+   * is false, the username of the user executing the program and a one-time hash is appended to the
+   * end of the database name.
+   * @throws MongoUnitException If the provided 'baseUri' is not properly formatted such that its
+   * database name is not properly configured or the provided 'timeZoneId' can't be parsed.
+   */
+  public static MongoClientURI generateNewMongoClientURI(
+      String baseUri,
+      boolean baseUriKeepAsIs,
+      String timeZoneId) throws MongoUnitException {
+
+    // Create mongo client uri based on the  baseUri
+    MongoClientURI baseMongoClientUri = new MongoClientURI(baseUri);
+
+    // If keeping it as is, return the new mongo client URI
+    if (baseUriKeepAsIs) {
+      return baseMongoClientUri;
+    }
+
+    // Extract database name from original
+    String baseUriDbName = baseMongoClientUri.getDatabase();
+
+    // Check it's not null
+    if (baseUriDbName == null) {
+      String message = "Database name is not properly configured in the URI.";
+      log.error(message);
+      throw new MongoUnitException(message);
+    }
+
+    // Create valid time zone based on provided 'timeZoneId'
+    ZoneId timeZone;
+    try {
+      timeZone = ZoneId.of(timeZoneId, SHORT_IDS);
+    } catch (Exception exception) {
+      throw new MongoUnitException(
+          "Configured Time Zone ID of '" + timeZoneId + "' is not valid.",
+          exception);
+    }
+
+    // Create date/time portion of db name pad
+    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy_MM_dd_HH_mm_ss");
+    String dateTimePad =
+        new Date().toInstant().atZone(timeZone).toLocalDateTime().format(formatter);
+
+    // Create UUID portion of the db name pad
+    String uuidHash = UUID.randomUUID().hashCode() + "";
+
+    // Append username and one-time uuid to base DB name
+    String newDbName = baseUriDbName + "_" + System.getProperty("user.name") + "_" + dateTimePad
+        + "_" + uuidHash;
+
+    // If the new db name is too long, throw exception (per mongodb docs > 64)
+    if (newDbName.length() > 64) {
+      String message = "MongoUnit generated a unique database name, based on the one configured in"
+          + " 'mongounit.properties' which is too long (>64 chars). Please shorten the database"
+          + " name.";
+      log.error(message);
+      throw new MongoUnitException(message);
+    }
+
+    // Create client URI to extract db name only
+    String newClientUri = baseUri.replaceFirst(baseUriDbName, newDbName);
+
+    log.info("Using test database with URI: '{}'.", newClientUri);
+
+    return new MongoClientURI(newClientUri);
+  }
+
+  /**
+   * @return Loaded {@link MongoUnitProperties}.
+   */
+  @SuppressWarnings("DuplicatedCode") // IntelliJ warning makes no sense
+  public static MongoUnitProperties loadMongoUnitProperties() {
+
+    // If cached already, just return the cached version
+    if (cachedMongoUnitProperties != null) {
+      return cachedMongoUnitProperties;
+    }
+
+    Properties mongoUnitProps = new Properties();
+    try (
+        InputStream in =
+            MongoUnitConfigurationUtil.class.getResourceAsStream(MONGO_UNIT_PROPERTIES_FILE_URI)) {
+
+      // Load properties into regular Properties object.
+      mongoUnitProps.load(in);
+    } catch (Exception e) {
+      // Do nothing since we'll fall back on defaults
+    }
+
+    // Extract mongounit properties (override with system property if specified)
+    String baseUri = mongoUnitProps.getProperty(BASE_URI_PROP_NAME);
+    baseUri = useSystemPropertyIfSpecified(BASE_URI_PROP_NAME, baseUri);
+
+    String baseUriKeepAsIsString = mongoUnitProps.getProperty(BASE_URI_KEEP_AS_IS_PROP_NAME);
+    baseUriKeepAsIsString =
+        useSystemPropertyIfSpecified(BASE_URI_KEEP_AS_IS_PROP_NAME, baseUriKeepAsIsString);
+    Boolean baseUriKeepAsIs = null;
+    if (baseUriKeepAsIsString != null && !baseUriKeepAsIsString.trim().equals("")) {
+      baseUriKeepAsIs = Boolean.parseBoolean(baseUriKeepAsIsString);
+    }
+
+    String mongoUnitFieldNameIndicator =
+        mongoUnitProps.getProperty(MONGO_UNIT_FIELD_NAME_PROP_NAME);
+    mongoUnitFieldNameIndicator =
+        useSystemPropertyIfSpecified(MONGO_UNIT_FIELD_NAME_PROP_NAME, mongoUnitFieldNameIndicator);
+
+    String dropDatabaseString = mongoUnitProps.getProperty(DROP_DATABASE_PROP_NAME);
+    dropDatabaseString = useSystemPropertyIfSpecified(DROP_DATABASE_PROP_NAME, dropDatabaseString);
+    Boolean dropDatabase = null;
+    if (dropDatabaseString != null && !dropDatabaseString.trim().equals("")) {
+      dropDatabase = Boolean.parseBoolean(dropDatabaseString);
+    }
+
+    String timeZoneId = mongoUnitProps.getProperty(TIME_ZONE_ID_PROP_NAME);
+    timeZoneId = useSystemPropertyIfSpecified(TIME_ZONE_ID_PROP_NAME, timeZoneId);
+
+    String timingsFile = mongoUnitProps.getProperty(TIMINGS_FILE_PROP_NAME);
+    timingsFile = useSystemPropertyIfSpecified(TIMINGS_FILE_PROP_NAME, timingsFile);
+    if (timingsFile != null && timingsFile.trim().equals("")) {
+      timingsFile = null;
+    }
+
+    String reportEnabledString = mongoUnitProps.getProperty(REPORT_ENABLED_PROP_NAME);
+    reportEnabledString =
+        useSystemPropertyIfSpecified(REPORT_ENABLED_PROP_NAME, reportEnabledString);
+    Boolean reportEnabled = null;
+    if (reportEnabledString != null && !reportEnabledString.trim().equals("")) {
+      reportEnabled = Boolean.parseBoolean(reportEnabledString.trim());
+    }
+
+    String reportFile = mongoUnitProps.getProperty(REPORT_FILE_PROP_NAME);
+    reportFile = useSystemPropertyIfSpecified(REPORT_FILE_PROP_NAME, reportFile);
+    if (reportFile != null && reportFile.trim().equals("")) {
+      reportFile = null;
+    }
+
+    String reportTopCountString = mongoUnitProps.getProperty(REPORT_TOP_COUNT_PROP_NAME);
+    reportTopCountString =
+        useSystemPropertyIfSpecified(REPORT_TOP_COUNT_PROP_NAME, reportTopCountString);
+    Integer reportTopCount = parseIntegerProperty(REPORT_TOP_COUNT_PROP_NAME, reportTopCountString);
+
+    String clientMaxPoolSizeString = mongoUnitProps.getProperty(CLIENT_MAX_POOL_SIZE_PROP_NAME);
+    clientMaxPoolSizeString =
+        useSystemPropertyIfSpecified(CLIENT_MAX_POOL_SIZE_PROP_NAME, clientMaxPoolSizeString);
+    Integer clientMaxPoolSize =
+        parseIntegerProperty(CLIENT_MAX_POOL_SIZE_PROP_NAME, clientMaxPoolSizeString);
+
+    String clientMinPoolSizeString = mongoUnitProps.getProperty(CLIENT_MIN_POOL_SIZE_PROP_NAME);
+    clientMinPoolSizeString =
+        useSystemPropertyIfSpecified(CLIENT_MIN_POOL_SIZE_PROP_NAME, clientMinPoolSizeString);
+    Integer clientMinPoolSize =
+        parseIntegerProperty(CLIENT_MIN_POOL_SIZE_PROP_NAME, clientMinPoolSizeString);
+
+    String databaseNaming = mongoUnitProps.getProperty(DATABASE_NAMING_PROP_NAME);
+    databaseNaming = useSystemPropertyIfSpecified(DATABASE_NAMING_PROP_NAME, databaseNaming);
+    if (databaseNaming != null && databaseNaming.trim().equals("")) {
+      databaseNaming = null;
+    }
+    if (databaseNaming != null) {
+
+      databaseNaming = databaseNaming.trim().toLowerCase();
+      if (!databaseNaming.equals(DATABASE_NAMING_UNIQUE)
+          && !databaseNaming.equals(DATABASE_NAMING_FORK)) {
+
+        String message = "Property '" + DATABASE_NAMING_PROP_NAME + "' must either be '"
+            + DATABASE_NAMING_UNIQUE + "' or '" + DATABASE_NAMING_FORK + "', but was '"
+            + databaseNaming + "'.";
+        log.error(message);
+        throw new MongoUnitException(message);
+      }
+    }
+
+    String workerId = mongoUnitProps.getProperty(WORKER_ID_PROP_NAME);
+    workerId = useSystemPropertyIfSpecified(WORKER_ID_PROP_NAME, workerId);
+    if (workerId != null && workerId.trim().equals("")) {
+      workerId = null;
+    }
+
+    String orphanSweepEnabledString = mongoUnitProps.getProperty(ORPHAN_SWEEP_ENABLED_PROP_NAME);
+    orphanSweepEnabledString =
+        useSystemPropertyIfSpecified(ORPHAN_SWEEP_ENABLED_PROP_NAME, orphanSweepEnabledString);
+    Boolean orphanSweepEnabled = null;
+    if (orphanSweepEnabledString != null && !orphanSweepEnabledString.trim().equals("")) {
+      orphanSweepEnabled = Boolean.parseBoolean(orphanSweepEnabledString.trim());
+    }
+
+    String orphanSweepMaxAgeMinutesString =
+        mongoUnitProps.getProperty(ORPHAN_SWEEP_MAX_AGE_MINUTES_PROP_NAME);
+    orphanSweepMaxAgeMinutesString = useSystemPropertyIfSpecified(
+        ORPHAN_SWEEP_MAX_AGE_MINUTES_PROP_NAME,
+        orphanSweepMaxAgeMinutesString);
+    Integer orphanSweepMaxAgeMinutes = parseIntegerProperty(
+        ORPHAN_SWEEP_MAX_AGE_MINUTES_PROP_NAME,
+        orphanSweepMaxAgeMinutesString);
+
+    String dropDatabaseMode = mongoUnitProps.getProperty(DROP_DATABASE_MODE_PROP_NAME);
+    dropDatabaseMode = useSystemPropertyIfSpecified(DROP_DATABASE_MODE_PROP_NAME, dropDatabaseMode);
+    if (dropDatabaseMode != null && dropDatabaseMode.trim().equals("")) {
+      dropDatabaseMode = null;
+    }
+    if (dropDatabaseMode != null) {
+
+      dropDatabaseMode = dropDatabaseMode.trim().toLowerCase();
+      if (!dropDatabaseMode.equals(DROP_DATABASE_MODE_SYNC)
+          && !dropDatabaseMode.equals(DROP_DATABASE_MODE_ASYNC)
+          && !dropDatabaseMode.equals(DROP_DATABASE_MODE_END_OF_RUN)) {
+
+        String message = "Property '" + DROP_DATABASE_MODE_PROP_NAME + "' must either be '"
+            + DROP_DATABASE_MODE_SYNC + "', '" + DROP_DATABASE_MODE_ASYNC + "', or '"
+            + DROP_DATABASE_MODE_END_OF_RUN + "', but was '" + dropDatabaseMode + "'.";
+        log.error(message);
+        throw new MongoUnitException(message);
+      }
+    }
+
+    String dropDatabaseTimeoutSecondsString =
+        mongoUnitProps.getProperty(DROP_DATABASE_TIMEOUT_SECONDS_PROP_NAME);
+    dropDatabaseTimeoutSecondsString = useSystemPropertyIfSpecified(
+        DROP_DATABASE_TIMEOUT_SECONDS_PROP_NAME,
+        dropDatabaseTimeoutSecondsString);
+    Integer dropDatabaseTimeoutSeconds = parseIntegerProperty(
+        DROP_DATABASE_TIMEOUT_SECONDS_PROP_NAME,
+        dropDatabaseTimeoutSecondsString);
+
+    String embeddedEnabledString = mongoUnitProps.getProperty(EMBEDDED_ENABLED_PROP_NAME);
+    embeddedEnabledString =
+        useSystemPropertyIfSpecified(EMBEDDED_ENABLED_PROP_NAME, embeddedEnabledString);
+    Boolean embeddedEnabled = null;
+    if (embeddedEnabledString != null && !embeddedEnabledString.trim().equals("")) {
+      embeddedEnabled = Boolean.parseBoolean(embeddedEnabledString.trim());
+    }
+
+    String localMongodEnabledString = mongoUnitProps.getProperty(LOCAL_MONGOD_ENABLED_PROP_NAME);
+    localMongodEnabledString =
+        useSystemPropertyIfSpecified(LOCAL_MONGOD_ENABLED_PROP_NAME, localMongodEnabledString);
+    Boolean localMongodEnabled = null;
+    if (localMongodEnabledString != null && !localMongodEnabledString.trim().equals("")) {
+      localMongodEnabled = Boolean.parseBoolean(localMongodEnabledString.trim());
+    }
+
+    String localMongodPath = mongoUnitProps.getProperty(LOCAL_MONGOD_PATH_PROP_NAME);
+    localMongodPath = useSystemPropertyIfSpecified(LOCAL_MONGOD_PATH_PROP_NAME, localMongodPath);
+    if (localMongodPath != null && localMongodPath.trim().equals("")) {
+      localMongodPath = null;
+    }
+
+    String localMongodDbPathRoot = mongoUnitProps.getProperty(LOCAL_MONGOD_DB_PATH_ROOT_PROP_NAME);
+    localMongodDbPathRoot =
+        useSystemPropertyIfSpecified(LOCAL_MONGOD_DB_PATH_ROOT_PROP_NAME, localMongodDbPathRoot);
+    if (localMongodDbPathRoot != null && localMongodDbPathRoot.trim().equals("")) {
+      localMongodDbPathRoot = null;
+    }
+
+    String localMongodWorkersPerProcessString =
+        mongoUnitProps.getProperty(LOCAL_MONGOD_WORKERS_PER_PROCESS_PROP_NAME);
+    localMongodWorkersPerProcessString = useSystemPropertyIfSpecified(
+        LOCAL_MONGOD_WORKERS_PER_PROCESS_PROP_NAME,
+        localMongodWorkersPerProcessString);
+    Integer localMongodWorkersPerProcess = parseIntegerProperty(
+        LOCAL_MONGOD_WORKERS_PER_PROCESS_PROP_NAME,
+        localMongodWorkersPerProcessString);
+
+    String localMongodArgs = mongoUnitProps.getProperty(LOCAL_MONGOD_ARGS_PROP_NAME);
+    localMongodArgs = useSystemPropertyIfSpecified(LOCAL_MONGOD_ARGS_PROP_NAME, localMongodArgs);
+    if (localMongodArgs != null && localMongodArgs.trim().equals("")) {
+      localMongodArgs = null;
+    }
+
+    String profileWriteConcern = mongoUnitProps.getProperty(PROFILE_WRITE_CONCERN_PROP_NAME);
+    profileWriteConcern =
+        useSystemPropertyIfSpecified(PROFILE_WRITE_CONCERN_PROP_NAME, profileWriteConcern);
+    if (profileWriteConcern != null && profileWriteConcern.trim().equals("")) {
+      profileWriteConcern = null;
+    }
+    if (profileWriteConcern != null) {
+
+      profileWriteConcern = profileWriteConcern.trim().toLowerCase();
+      if (!profileWriteConcern.equals(PROFILE_WRITE_CONCERN_W1)
+          && !profileWriteConcern.equals(PROFILE_WRITE_CONCERN_MAJORITY)
+          && !profileWriteConcern.equals(PROFILE_WRITE_CONCERN_INHERIT)) {
+
+        String message = "Property '" + PROFILE_WRITE_CONCERN_PROP_NAME + "' must either be '"
+            + PROFILE_WRITE_CONCERN_W1 + "', '" + PROFILE_WRITE_CONCERN_MAJORITY + "', or '"
+            + PROFILE_WRITE_CONCERN_INHERIT + "', but was '" + profileWriteConcern + "'.";
+        log.error(message);
+        throw new MongoUnitException(message);
+      }
+    }
+
+    String profileCompressors = mongoUnitProps.getProperty(PROFILE_COMPRESSORS_PROP_NAME);
+    profileCompressors =
+        useSystemPropertyIfSpecified(PROFILE_COMPRESSORS_PROP_NAME, profileCompressors);
+    if (profileCompressors != null && profileCompressors.trim().equals("")) {
+      profileCompressors = null;
+    }
+
+    String profileBatchSizeString = mongoUnitProps.getProperty(PROFILE_BATCH_SIZE_PROP_NAME);
+    profileBatchSizeString =
+        useSystemPropertyIfSpecified(PROFILE_BATCH_SIZE_PROP_NAME, profileBatchSizeString);
+    Integer profileBatchSize =
+        parseIntegerProperty(PROFILE_BATCH_SIZE_PROP_NAME, profileBatchSizeString);
+
+    String profileMaxPoolSizeString = mongoUnitProps.getProperty(PROFILE_MAX_POOL_SIZE_PROP_NAME);
+    profileMaxPoolSizeString =
+        useSystemPropertyIfSpecified(PROFILE_MAX_POOL_SIZE_PROP_NAME, profileMaxPoolSizeString);
+    Integer profileMaxPoolSize =
+        parseIntegerProperty(PROFILE_MAX_POOL_SIZE_PROP_NAME, profileMaxPoolSizeString);
+
+    String profileMinPoolSizeString = mongoUnitProps.getProperty(PROFILE_MIN_POOL_SIZE_PROP_NAME);
+    profileMinPoolSizeString =
+        useSystemPropertyIfSpecified(PROFILE_MIN_POOL_SIZE_PROP_NAME, profileMinPoolSizeString);
+    Integer profileMinPoolSize =
+        parseIntegerProperty(PROFILE_MIN_POOL_SIZE_PROP_NAME, profileMinPoolSizeString);
+
+    String warmUpEnabledString = mongoUnitProps.getProperty(WARM_UP_ENABLED_PROP_NAME);
+    warmUpEnabledString =
+        useSystemPropertyIfSpecified(WARM_UP_ENABLED_PROP_NAME, warmUpEnabledString);
+    Boolean warmUpEnabled = null;
+    if (warmUpEnabledString != null && !warmUpEnabledString.trim().equals("")) {
+      warmUpEnabled = Boolean.parseBoolean(warmUpEnabledString.trim());
+    }
+
+    String prefetchEnabledString = mongoUnitProps.getProperty(PREFETCH_ENABLED_PROP_NAME);
+    prefetchEnabledString =
+        useSystemPropertyIfSpecified(PREFETCH_ENABLED_PROP_NAME, prefetchEnabledString);
+    Boolean prefetchEnabled = null;
+    if (prefetchEnabledString != null && !prefetchEnabledString.trim().equals("")) {
+      prefetchEnabled = Boolean.parseBoolean(prefetchEnabledString.trim());
+    }
+
+    String cacheOffHeapBudgetString = mongoUnitProps.getProperty(CACHE_OFF_HEAP_BUDGET_PROP_NAME);
+    cacheOffHeapBudgetString =
+        useSystemPropertyIfSpecified(CACHE_OFF_HEAP_BUDGET_PROP_NAME, cacheOffHeapBudgetString);
+    Long cacheOffHeapBudget =
+        parseByteSizeProperty(CACHE_OFF_HEAP_BUDGET_PROP_NAME, cacheOffHeapBudgetString);
+
+    // Build MongoUnitProperties and cache it
+    MongoUnitProperties mongoUnitProperties = MongoUnitProperties.builder()
+        .baseUri(baseUri)
+        .baseUriKeepAsIs(baseUriKeepAsIs)
+        .mongoUnitValueFieldNameIndicator(mongoUnitFieldNameIndicator)
+        .dropDatabase(dropDatabase)
+        .timeZoneId(timeZoneId)
+        .timingsFile(timingsFile)
+        .reportEnabled(reportEnabled)
+        .reportFile(reportFile)
+        .reportTopCount(reportTopCount)
+        .clientMaxPoolSize(clientMaxPoolSize)
+        .clientMinPoolSize(clientMinPoolSize)
+        .databaseNaming(databaseNaming)
+        .workerId(workerId)
+        .orphanSweepEnabled(orphanSweepEnabled)
+        .orphanSweepMaxAgeMinutes(orphanSweepMaxAgeMinutes)
+        .dropDatabaseMode(dropDatabaseMode)
+        .dropDatabaseTimeoutSeconds(dropDatabaseTimeoutSeconds)
+        .embeddedEnabled(embeddedEnabled)
+        .localMongodEnabled(localMongodEnabled)
+        .localMongodPath(localMongodPath)
+        .localMongodDbPathRoot(localMongodDbPathRoot)
+        .localMongodWorkersPerProcess(localMongodWorkersPerProcess)
+        .localMongodArgs(localMongodArgs)
+        .profileWriteConcern(profileWriteConcern)
+        .profileCompressors(profileCompressors)
+        .profileBatchSize(profileBatchSize)
+        .profileMaxPoolSize(profileMaxPoolSize)
+        .profileMinPoolSize(profileMinPoolSize)
+        .warmUpEnabled(warmUpEnabled)
+        .prefetchEnabled(prefetchEnabled)
+        .cacheOffHeapBudget(cacheOffHeapBudget)
+        .build();
+    cachedMongoUnitProperties = mongoUnitProperties;
+
+    return mongoUnitProperties;
+  }
+
+  /**
+   * @param key Name of the property being parsed.
+   * @param value String value of the property. Can be 'null'.
+   * @return Integer value of the provided 'value' or 'null' if the provided 'value' is 'null' or
+   * blank.
+   * @throws MongoUnitException If the provided 'value' is not a valid integer.
+   */
+  private static Integer parseIntegerProperty(String key, String value) throws MongoUnitException {
+
+    if (value == null || value.trim().equals("")) {
+      return null;
+    }
+
+    try {
+      return Integer.parseInt(value.trim());
+    } catch (NumberFormatException numberFormatException) {
+
+      String message = "Property '" + key + "' must be an integer, but was '" + value + "'.";
+      log.error(message);
+      throw new MongoUnitException(message, numberFormatException);
+    }
+  }
+
+  /**
+   * @param key Name of the property being parsed.
+   * @param value String value of the property, i.e., a number of bytes, optionally followed by a
+   * 'k', 'm', or 'g' (case insensitive) for kibibytes, mebibytes, or gibibytes. Can be 'null'.
+   * @return Number of bytes represented by the provided 'value' or 'null' if the provided 'value'
+   * is 'null' or blank.
+   * @throws MongoUnitException If the provided 'value' is not a valid positive size.
+   */
+  private static Long parseByteSizeProperty(String key, String value) throws MongoUnitException {
+
+    if (value == null || value.trim().equals("")) {
+      return null;
+    }
+
+    String size = value.trim().toLowerCase(Locale.ROOT);
+    int shift = 0;
+    switch (size.charAt(size.length() - 1)) {
+
+      case 'k':
+        shift = 10;
+        break;
+
+      case 'm':
+        shift = 20;
+        break;
+
+      case 'g':
+        shift = 30;
+        break;
+
+      default:
+        break;
+    }
+    if (shift != 0) {
+      size = size.substring(0, size.length() - 1).trim();
+    }
+
+    try {
+
+      long bytes = Long.parseLong(size);
+      if (bytes > 0 && bytes <= (Long.MAX_VALUE >> shift)) {
+        return bytes << shift;
+      }
+
+    } catch (NumberFormatException numberFormatException) {
+      // Reported below
+    }
+
+    String message = "Property '" + key + "' must be a positive number of bytes, optionally"
+        + " followed by 'k', 'm', or 'g', but was '" + value + "'.";
+    log.error(message);
+    throw new MongoUnitException(message);
+  }
+
+  /**
+   * @param key Key with which to check system (command-line) property
+   * @param defaultValue Value to return if a system property with the specified 'key' does not
+   * exist.
+   * @return Value of a system property specified with the provided 'key' or the provided
+   * 'defaultValue' if no such property is specified.
+   */
+  private static String useSystemPropertyIfSpecified(String key, String defaultValue) {
+
+    String systemPropertyValue = System.getProperty(key);
+
+    // Return value if not null, otherwise return default
+    if (systemPropertyValue != null) {
+      return systemPropertyValue;
+    } else {
+      return defaultValue;
+    }
+  }
+}
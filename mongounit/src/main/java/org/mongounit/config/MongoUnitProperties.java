@@ -0,0 +1,1475 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.config;
+
+/**
+ * {@link MongoUnitProperties} class is a holder for mongounit.properties property values.
+ */
+public class MongoUnitProperties {
+
+  /**
+   * Classpath-based mongounit.properties URI.
+   */
+  public static final String MONGO_UNIT_PROPERTIES_FILE_URI = "/mongounit.properties";
+
+  /**
+   * Base URI property name that is looked for in mongounit.properties file.
+   */
+  public static final String BASE_URI_PROP_NAME = "mongounit.base-uri";
+
+  /**
+   * 'Base URI keep as is' property name that is looked for in mongounit.properties file.
+   */
+  public static final String BASE_URI_KEEP_AS_IS_PROP_NAME = "mongounit.base-uri.keep-as-is";
+
+  /**
+   * Name of the property that specifies the field name to indicate that a document represents a
+   * special MongoUnit field instead of a regular document.
+   */
+  public static final String MONGO_UNIT_FIELD_NAME_PROP_NAME = "mongounit.indicator-field-name";
+
+  /**
+   * Name of the property that specifies if the test database should be dropped so there is no need
+   * for manual cleanup.
+   */
+  public static final String DROP_DATABASE_PROP_NAME = "mongounit.drop-database";
+
+  /**
+   * Name of the property that specifies the time zone ID to use for the database name pad.
+   */
+  public static final String TIME_ZONE_ID_PROP_NAME = "mongounit.local-time-zone-id";
+
+  /**
+   * Name of the property that specifies the path of the JSON lines file to which per-test MongoUnit
+   * phase timings are appended.
+   */
+  public static final String TIMINGS_FILE_PROP_NAME = "mongounit.timings-file";
+
+  /**
+   * Name of the property that specifies whether the MongoUnit performance report is produced at the
+   * end of the test run.
+   */
+  public static final String REPORT_ENABLED_PROP_NAME = "mongounit.report.enabled";
+
+  /**
+   * Name of the property that specifies the path of the file to write the MongoUnit performance
+   * report to.
+   */
+  public static final String REPORT_FILE_PROP_NAME = "mongounit.report.file";
+
+  /**
+   * Name of the property that specifies the number of entries listed in each section of the
+   * MongoUnit performance report.
+   */
+  public static final String REPORT_TOP_COUNT_PROP_NAME = "mongounit.report.top-count";
+
+  /**
+   * Name of the property that specifies the maximum number of connections in the pool of the shared
+   * MongoDB client.
+   */
+  public static final String CLIENT_MAX_POOL_SIZE_PROP_NAME = "mongounit.client.max-pool-size";
+
+  /**
+   * Name of the property that specifies the minimum number of connections in the pool of the shared
+   * MongoDB client.
+   */
+  public static final String CLIENT_MIN_POOL_SIZE_PROP_NAME = "mongounit.client.min-pool-size";
+
+  /**
+   * Name of the property that specifies how the name of the test database is generated, i.e.,
+   * 'unique' or 'fork'.
+   */
+  public static final String DATABASE_NAMING_PROP_NAME = "mongounit.database-naming";
+
+  /**
+   * Name of the property that specifies the stable ID of the JVM fork used in the 'fork' database
+   * naming mode.
+   */
+  public static final String WORKER_ID_PROP_NAME = "mongounit.worker-id";
+
+  /**
+   * Name of the property that specifies if test databases orphaned by crashed test runs should be
+   * dropped in the background at startup.
+   */
+  public static final String ORPHAN_SWEEP_ENABLED_PROP_NAME = "mongounit.orphan-sweep.enabled";
+
+  /**
+   * Name of the property that specifies how the test database is dropped, i.e., 'sync', 'async', or
+   * 'end-of-run'.
+   */
+  public static final String DROP_DATABASE_MODE_PROP_NAME = "mongounit.drop-database.mode";
+
+  /**
+   * Name of the property that specifies if the tests should run against the in-process embedded
+   * MongoDB server instead of the one in the base URI.
+   */
+  public static final String EMBEDDED_ENABLED_PROP_NAME = "mongounit.embedded.enabled";
+
+  /**
+   * Name of the property that specifies if the tests should run against a locally installed
+   * 'mongod' process launched by the MongoUnit framework instead of the server in the base URI.
+   */
+  public static final String LOCAL_MONGOD_ENABLED_PROP_NAME = "mongounit.local-mongod.enabled";
+
+  /**
+   * Name of the property that specifies the path of the 'mongod' binary, or of the directory that
+   * contains it, to launch.
+   */
+  public static final String LOCAL_MONGOD_PATH_PROP_NAME = "mongounit.local-mongod.path";
+
+  /**
+   * Name of the property that specifies additional space-separated command line arguments to launch
+   * 'mongod' with, e.g., '--nojournal' for server versions that still support it.
+   */
+  public static final String LOCAL_MONGOD_ARGS_PROP_NAME = "mongounit.local-mongod.args";
+
+  /**
+   * Name of the property that specifies the write concern of the writes the MongoUnit framework
+   * itself does, e.g., seeding. Either 'w1', 'majority', or 'inherit'.
+   */
+  public static final String PROFILE_WRITE_CONCERN_PROP_NAME = "mongounit.profile.write-concern";
+
+  /**
+   * Name of the property that specifies the comma-separated network compressors the MongoDB client
+   * used by the MongoUnit framework itself offers to the server, e.g., 'zlib'.
+   */
+  public static final String PROFILE_COMPRESSORS_PROP_NAME = "mongounit.profile.compressors";
+
+  /**
+   * Name of the property that specifies the cursor batch size of the reads the MongoUnit framework
+   * itself does, e.g., extracting the database state for assertions.
+   */
+  public static final String PROFILE_BATCH_SIZE_PROP_NAME = "mongounit.profile.batch-size";
+
+  /**
+   * Name of the property that specifies the maximum connection pool size of the MongoDB client used
+   * by the MongoUnit framework itself.
+   */
+  public static final String PROFILE_MAX_POOL_SIZE_PROP_NAME = "mongounit.profile.max-pool-size";
+
+  /**
+   * Name of the property that specifies the minimum connection pool size of the MongoDB client used
+   * by the MongoUnit framework itself.
+   */
+  public static final String PROFILE_MIN_POOL_SIZE_PROP_NAME = "mongounit.profile.min-pool-size";
+
+  /**
+   * Name of the property that specifies if connections to the test database should be warmed up and
+   * class-level datasets loaded in the background before the first test of each test class.
+   */
+  public static final String WARM_UP_ENABLED_PROP_NAME = "mongounit.warm-up.enabled";
+
+  /**
+   * Name of the property that specifies if the dataset files of all discovered MongoUnit test
+   * classes should be loaded and parsed in the background as soon as the test run starts.
+   */
+  public static final String PREFETCH_ENABLED_PROP_NAME = "mongounit.prefetch.enabled";
+
+  /**
+   * Name of the property that specifies the maximum number of bytes of direct memory that
+   * prefetched datasets are stored in, encoded as BSON.
+   */
+  public static final String CACHE_OFF_HEAP_BUDGET_PROP_NAME = "mongounit.cache.off-heap-budget";
+
+  /**
+   * Name of the property that specifies the number of parallel JVM forks that share one launched
+   * 'mongod' process.
+   */
+  public static final String LOCAL_MONGOD_WORKERS_PER_PROCESS_PROP_NAME =
+      "mongounit.local-mongod.workers-per-process";
+
+  /**
+   * Name of the property that specifies the directory under which the data directories of the
+   * launched 'mongod' processes are created.
+   */
+  public static final String LOCAL_MONGOD_DB_PATH_ROOT_PROP_NAME =
+      "mongounit.local-mongod.dbpath-root";
+
+  /**
+   * Name of the property that specifies the maximum number of seconds the JVM waits at exit for
+   * background database drops to complete.
+   */
+  public static final String DROP_DATABASE_TIMEOUT_SECONDS_PROP_NAME =
+      "mongounit.drop-database.timeout-seconds";
+
+  /**
+   * Name of the property that specifies the minimum age, in minutes, of a test database for it to
+   * be considered orphaned.
+   */
+  public static final String ORPHAN_SWEEP_MAX_AGE_MINUTES_PROP_NAME =
+      "mongounit.orphan-sweep.max-age-minutes";
+
+  /**
+   * Default baseUri if nothing else is provided.
+   */
+  private static final String DEFAULT_BASE_URI = "mongodb://localhost:27017/mongounit-testdb";
+
+  /**
+   * By default, the URI should change based on the running user and a random hash.
+   */
+  private static final boolean DEFAULT_BASE_KEEP_URI_AS_IS = false;
+
+  /**
+   * Default field name to use in developer JSON files to signify that a document is a
+   * representation of a special MongoUnit value.
+   *
+   * If the JSON is meant to seed the database, the special field will be in the format of
+   * "indicatorBsonType": value, e.g., "$$DATE_TIME": value. The value of the 'BsonType' portion of
+   * the field name is to specify a BSON type value based on the naming in {@link
+   * org.bson.BsonType}.
+   *
+   * If the JSON is meant as an expected assertion match, 'comparator' field is expected as a
+   * sibling field name.
+   */
+  public static final String DEFAULT_MONGO_UNIT_VALUE_INDICATOR_FIELD_NAME = "$$";
+
+  /**
+   * Default value of the flag that indicates whether the MongoUnit performance report is produced.
+   */
+  public static final boolean DEFAULT_REPORT_ENABLED = false;
+
+  /**
+   * Default value of the number of entries listed in each section of the MongoUnit performance
+   * report.
+   */
+  public static final int DEFAULT_REPORT_TOP_COUNT = 10;
+
+  /**
+   * Database naming mode in which a new, unique database name is generated for every Spring
+   * context.
+   */
+  public static final String DATABASE_NAMING_UNIQUE = "unique";
+
+  /**
+   * Database naming mode in which one stable database name is generated per JVM fork.
+   */
+  public static final String DATABASE_NAMING_FORK = "fork";
+
+  /**
+   * Default value of the database naming mode.
+   */
+  public static final String DEFAULT_DATABASE_NAMING = DATABASE_NAMING_UNIQUE;
+
+  /**
+   * Default value of the flag that enables the orphan database sweeper.
+   */
+  public static final boolean DEFAULT_ORPHAN_SWEEP_ENABLED = false;
+
+  /**
+   * Default value of the minimum age, in minutes, of an orphaned test database.
+   */
+  public static final int DEFAULT_ORPHAN_SWEEP_MAX_AGE_MINUTES = 1440;
+
+  /**
+   * Drop mode in which the test database is dropped while the Spring context shuts down.
+   */
+  public static final String DROP_DATABASE_MODE_SYNC = "sync";
+
+  /**
+   * Drop mode in which the test database is dropped in the background once the Spring context shuts
+   * down.
+   */
+  public static final String DROP_DATABASE_MODE_ASYNC = "async";
+
+  /**
+   * Drop mode in which all test databases are dropped at once when the JVM exits.
+   */
+  public static final String DROP_DATABASE_MODE_END_OF_RUN = "end-of-run";
+
+  /**
+   * Write concern of the MongoUnit framework's own writes that is acknowledged by the primary
+   * without waiting for the journal, i.e., 'w:1, j:false'.
+   */
+  public static final String PROFILE_WRITE_CONCERN_W1 = "w1";
+
+  /**
+   * Write concern of the MongoUnit framework's own writes that is acknowledged by the majority of
+   * the replica set members.
+   */
+  public static final String PROFILE_WRITE_CONCERN_MAJORITY = "majority";
+
+  /**
+   * Write concern of the MongoUnit framework's own writes that is the same as the one in the URI
+   * the application under test connects with.
+   */
+  public static final String PROFILE_WRITE_CONCERN_INHERIT = "inherit";
+
+  /**
+   * Default value of the mode in which the test database is dropped.
+   */
+  public static final String DEFAULT_DROP_DATABASE_MODE = DROP_DATABASE_MODE_ASYNC;
+
+  /**
+   * Default value of the maximum number of seconds the JVM waits at exit for background database
+   * drops.
+   */
+  public static final int DEFAULT_DROP_DATABASE_TIMEOUT_SECONDS = 60;
+
+  /**
+   * Default value of the flag that enables the embedded MongoDB server.
+   */
+  public static final boolean DEFAULT_EMBEDDED_ENABLED = false;
+
+  /**
+   * Default value of the flag that enables the managed local 'mongod' process.
+   */
+  public static final boolean DEFAULT_LOCAL_MONGOD_ENABLED = false;
+
+  /**
+   * Default value of the path of the 'mongod' binary, which relies on it being on the 'PATH'.
+   */
+  public static final String DEFAULT_LOCAL_MONGOD_PATH = "mongod";
+
+  /**
+   * Default value of the directory under which the data directories of the launched 'mongod'
+   * processes are created, which is memory-backed on Linux.
+   */
+  public static final String DEFAULT_LOCAL_MONGOD_DB_PATH_ROOT = "/dev/shm";
+
+  /**
+   * Default value of the number of parallel JVM forks that share one launched 'mongod' process.
+   */
+  public static final int DEFAULT_LOCAL_MONGOD_WORKERS_PER_PROCESS = 1;
+
+  /**
+   * Default value of the write concern of the writes the MongoUnit framework itself does, i.e.,
+   * acknowledged by the primary without waiting for the journal.
+   */
+  public static final String DEFAULT_PROFILE_WRITE_CONCERN = PROFILE_WRITE_CONCERN_W1;
+
+  /**
+   * Default value of the flag that enables the warm-up before the first test of each test class.
+   */
+  public static final boolean DEFAULT_WARM_UP_ENABLED = true;
+
+  /**
+   * Default value of the flag that enables prefetching of the dataset files of all discovered test
+   * classes. Off, since the parsed files of the whole test run are kept in memory until it ends.
+   */
+  public static final boolean DEFAULT_PREFETCH_ENABLED = false;
+
+  /**
+   * By default, the test database should be dropped so there is no need for manual cleanup.
+   */
+  private static final boolean DEFAULT_DROP_DATABASE = true;
+
+  /**
+   * Default time zone ID to use for the database name pad.
+   */
+  private static final String DEFAULT_TIME_ZONE_ID = "UTC";
+
+  /**
+   * Base URI to base the dynamic database name on.
+   */
+  private String baseUri;
+
+  /**
+   * Flag to indicate that the base URI should be used for testing as is, without appending anything
+   * to it.
+   */
+  private boolean baseUriKeepAsIs;
+
+  /**
+   * Field name to use as an indicator in developer JSON files to signify that a document is a
+   * representation of a special MongoUnit value.
+   *
+   * If the JSON is meant to seed the database, 'bsonType' and 'value' field names are expected as
+   * sibling field names. The value of the 'bsonType' field is to specify a BSON type value based on
+   * the naming in {@link org.bson.BsonType}.
+   *
+   * If the JSON is meant as an expected assertion match, 'comparator' field is expected as a
+   * singling fiend name.
+   */
+  private String mongoUnitValueFieldNameIndicator;
+
+  /**
+   * Flag to indicate if the test database should be dropped after all the tests have run.
+   */
+  private boolean dropDatabase;
+
+  /**
+   * Time zone ID to use in the database name pad.
+   */
+  private String timeZoneId;
+
+  /**
+   * Path of the JSON lines file to which per-test MongoUnit phase timings are appended. 'null' if
+   * timings should only be published as JUnit report entries.
+   */
+  private String timingsFile;
+
+  /**
+   * Flag to indicate if the MongoUnit performance report is produced at the end of the test run.
+   */
+  private boolean reportEnabled;
+
+  /**
+   * Path of the file to write the MongoUnit performance report to. 'null' if the report should be
+   * printed to standard output.
+   */
+  private String reportFile;
+
+  /**
+   * Number of entries listed in each section of the MongoUnit performance report.
+   */
+  private int reportTopCount;
+
+  /**
+   * Maximum number of connections in the pool of the shared MongoDB client. 'null' to use the value
+   * from the URI or the driver default.
+   */
+  private Integer clientMaxPoolSize;
+
+  /**
+   * Minimum number of connections in the pool of the shared MongoDB client. 'null' to use the value
+   * from the URI or the driver default.
+   */
+  private Integer clientMinPoolSize;
+
+  /**
+   * Database naming mode. 'unique' generates a new database name for every Spring context, while
+   * 'fork' generates one stable database name per JVM fork, which is reused by all its Spring
+   * contexts and runs.
+   */
+  private String databaseNaming;
+
+  /**
+   * Stable ID of the JVM fork used in the 'fork' database naming mode. 'null' to use the Surefire
+   * fork number or the Gradle test worker ID.
+   */
+  private String workerId;
+
+  /**
+   * Flag to indicate if test databases orphaned by crashed test runs should be dropped in the
+   * background at startup.
+   */
+  private boolean orphanSweepEnabled;
+
+  /**
+   * Minimum age, in minutes, of a test database for it to be considered orphaned by the orphan
+   * database sweeper.
+   */
+  private int orphanSweepMaxAgeMinutes;
+
+  /**
+   * Mode in which the test database is dropped. 'sync' drops it while the Spring context shuts
+   * down, 'async' drops it in the background, and 'end-of-run' drops all test databases at once
+   * when the JVM exits.
+   */
+  private String dropDatabaseMode;
+
+  /**
+   * Maximum number of seconds the JVM waits at exit for background database drops to complete.
+   */
+  private int dropDatabaseTimeoutSeconds;
+
+  /**
+   * Flag to indicate if the tests should run against the in-process embedded MongoDB server instead
+   * of the one in the base URI.
+   */
+  private boolean embeddedEnabled;
+
+  /**
+   * Flag to indicate if the tests should run against a locally installed 'mongod' process launched
+   * by the MongoUnit framework instead of the server in the base URI.
+   */
+  private boolean localMongodEnabled;
+
+  /**
+   * Path of the 'mongod' binary, or of the directory that contains it, to launch.
+   */
+  private String localMongodPath;
+
+  /**
+   * Directory under which the data directories of the launched 'mongod' processes are created.
+   */
+  private String localMongodDbPathRoot;
+
+  /**
+   * Number of parallel JVM forks that share one launched 'mongod' process.
+   */
+  private int localMongodWorkersPerProcess;
+
+  /**
+   * Additional space-separated command line arguments to launch 'mongod' with. Can be 'null'.
+   */
+  private String localMongodArgs;
+
+  /**
+   * Write concern of the writes the MongoUnit framework itself does, e.g., seeding. Either 'w1',
+   * 'majority', or 'inherit'.
+   */
+  private String profileWriteConcern;
+
+  /**
+   * Comma-separated network compressors the MongoDB client used by the MongoUnit framework itself
+   * offers to the server. Can be 'null'.
+   */
+  private String profileCompressors;
+
+  /**
+   * Cursor batch size of the reads the MongoUnit framework itself does. Can be 'null'.
+   */
+  private Integer profileBatchSize;
+
+  /**
+   * Maximum connection pool size of the MongoDB client used by the MongoUnit framework itself. Can
+   * be 'null'.
+   */
+  private Integer profileMaxPoolSize;
+
+  /**
+   * Minimum connection pool size of the MongoDB client used by the MongoUnit framework itself. Can
+   * be 'null'.
+   */
+  private Integer profileMinPoolSize;
+
+  /**
+   * Flag to indicate if connections to the test database should be warmed up and class-level
+   * datasets loaded in the background before the first test of each test class.
+   */
+  private boolean warmUpEnabled;
+
+  /**
+   * Flag to indicate if the dataset files of all discovered MongoUnit test classes should be loaded
+   * and parsed in the background as soon as the test run starts.
+   */
+  private boolean prefetchEnabled;
+
+  /**
+   * Maximum number of bytes of direct memory that prefetched datasets are stored in, encoded as
+   * BSON, evicting the least recently used ones once exceeded. 'null' if prefetched datasets are
+   * held on the heap.
+   */
+  private Long cacheOffHeapBudget;
+
+  /**
+   * Default constructor.
+   */
+  public MongoUnitProperties() {
+    this(builder());
+  }
+
+  /**
+   * Constructor.
+   *
+   * NOTE: Passing 'null' to any of the arguments sets those arguments to their default value.
+   *
+   * @param baseUri Base URI to base the dynamic database name on.
+   * @param baseUriKeepAsIs Flag to indicate that the base URI should be used for testing as is,
+   * without appending anything to it.
+   * @param mongoUnitValueFieldNameIndicator Field name to use as an indicator in developer JSON
+   * files to signify that a document is a representation of a special MongoUnit BSON value that
+   * specifies BSON value type based on the naming in {@link org.bson.BsonType} enum.
+   * @param dropDatabase Flag to indicate if the test database should be dropped after all the tests
+   * have run.
+   * @param timeZoneId Time zone ID to use in the database name pad.
+   */
+  public MongoUnitProperties(
+      String baseUri,
+      Boolean baseUriKeepAsIs,
+      String mongoUnitValueFieldNameIndicator,
+      Boolean dropDatabase,
+      String timeZoneId) {
+
+    this(builder()
+        .baseUri(baseUri)
+        .baseUriKeepAsIs(baseUriKeepAsIs)
+        .mongoUnitValueFieldNameIndicator(mongoUnitValueFieldNameIndicator)
+        .dropDatabase(dropDatabase)
+        .timeZoneId(timeZoneId));
+  }
+
+  /**
+   * Constructor.
+   *
+   * NOTE: Properties left as 'null' in the provided 'builder' are set to their default value.
+   *
+   * @param builder Builder with the property values to use.
+   */
+  private MongoUnitProperties(MongoUnitPropertiesBuilder builder) {
+
+    this.baseUri = builder.baseUri == null ? DEFAULT_BASE_URI : builder.baseUri;
+    this.baseUriKeepAsIs =
+        builder.baseUriKeepAsIs == null ? DEFAULT_BASE_KEEP_URI_AS_IS : builder.baseUriKeepAsIs;
+    this.mongoUnitValueFieldNameIndicator =
+        builder.mongoUnitValueFieldNameIndicator == null ?
+            DEFAULT_MONGO_UNIT_VALUE_INDICATOR_FIELD_NAME :
+            builder.mongoUnitValueFieldNameIndicator;
+    this.dropDatabase = builder.dropDatabase == null ? DEFAULT_DROP_DATABASE : builder.dropDatabase;
+    this.timeZoneId = builder.timeZoneId == null ? DEFAULT_TIME_ZONE_ID : builder.timeZoneId;
+    this.timingsFile = builder.timingsFile;
+    this.reportEnabled =
+        builder.reportEnabled == null ? DEFAULT_REPORT_ENABLED : builder.reportEnabled;
+    this.reportFile = builder.reportFile;
+    this.reportTopCount =
+        builder.reportTopCount == null ? DEFAULT_REPORT_TOP_COUNT : builder.reportTopCount;
+    this.clientMaxPoolSize = builder.clientMaxPoolSize;
+    this.clientMinPoolSize = builder.clientMinPoolSize;
+    this.databaseNaming =
+        builder.databaseNaming == null ? DEFAULT_DATABASE_NAMING : builder.databaseNaming;
+    this.workerId = builder.workerId;
+    this.orphanSweepEnabled =
+        builder.orphanSweepEnabled == null
+            ? DEFAULT_ORPHAN_SWEEP_ENABLED
+            : builder.orphanSweepEnabled;
+    this.orphanSweepMaxAgeMinutes =
+        builder.orphanSweepMaxAgeMinutes == null
+            ? DEFAULT_ORPHAN_SWEEP_MAX_AGE_MINUTES
+            : builder.orphanSweepMaxAgeMinutes;
+    this.dropDatabaseMode =
+        builder.dropDatabaseMode == null ? DEFAULT_DROP_DATABASE_MODE : builder.dropDatabaseMode;
+    this.dropDatabaseTimeoutSeconds =
+        builder.dropDatabaseTimeoutSeconds == null
+            ? DEFAULT_DROP_DATABASE_TIMEOUT_SECONDS
+            : builder.dropDatabaseTimeoutSeconds;
+    this.embeddedEnabled =
+        builder.embeddedEnabled == null ? DEFAULT_EMBEDDED_ENABLED : builder.embeddedEnabled;
+    this.localMongodEnabled =
+        builder.localMongodEnabled == null
+            ? DEFAULT_LOCAL_MONGOD_ENABLED
+            : builder.localMongodEnabled;
+    this.localMongodPath =
+        builder.localMongodPath == null ? DEFAULT_LOCAL_MONGOD_PATH : builder.localMongodPath;
+    this.localMongodDbPathRoot =
+        builder.localMongodDbPathRoot == null
+            ? DEFAULT_LOCAL_MONGOD_DB_PATH_ROOT
+            : builder.localMongodDbPathRoot;
+    this.localMongodWorkersPerProcess =
+        builder.localMongodWorkersPerProcess == null
+            ? DEFAULT_LOCAL_MONGOD_WORKERS_PER_PROCESS
+            : builder.localMongodWorkersPerProcess;
+    this.localMongodArgs = builder.localMongodArgs;
+    this.profileWriteConcern =
+        builder.profileWriteConcern == null
+            ? DEFAULT_PROFILE_WRITE_CONCERN
+            : builder.profileWriteConcern;
+    this.profileCompressors = builder.profileCompressors;
+    this.profileBatchSize = builder.profileBatchSize;
+    this.profileMaxPoolSize = builder.profileMaxPoolSize;
+    this.profileMinPoolSize = builder.profileMinPoolSize;
+    this.warmUpEnabled =
+        builder.warmUpEnabled == null ? DEFAULT_WARM_UP_ENABLED : builder.warmUpEnabled;
+    this.prefetchEnabled =
+        builder.prefetchEnabled == null ? DEFAULT_PREFETCH_ENABLED : builder.prefetchEnabled;
+    this.cacheOffHeapBudget = builder.cacheOffHeapBudget;
+  }
+
+  /**
+   * @return Instance of the builder pattern version of the {@link MongoUnitProperties} class.
+   */
+  public static MongoUnitPropertiesBuilder builder() {
+    return new MongoUnitPropertiesBuilder();
+  }
+
+  /**
+   * @return Base URI to base the dynamic database name on.
+   */
+  public String getBaseUri() {
+    return baseUri;
+  }
+
+  /**
+   * @return Flag to indicate that the base URI should be used for testing as is, without appending
+   * anything to it.
+   */
+  public boolean isBaseUriKeepAsIs() {
+    return baseUriKeepAsIs;
+  }
+
+  /**
+   * Returns ield name to use as an indicator in developer JSON files to signify that a document is
+   * a representation of a special MongoUnit value.
+   *
+   * If the JSON is meant to seed the database, 'bsonType' and 'value' field names are expected as
+   * sibling field names. The value of the 'bsonType' field is to specify a BSON type value based on
+   * the naming in {@link org.bson.BsonType}.
+   *
+   * If the JSON is meant as an expected assertion match, 'comparator' field is expected as a
+   * singling fiend name.
+   *
+   * @return Field name to use as an indicator in developer JSON files to signify that a document is
+   * a representation of a special MongoUnit value.
+   */
+  public String getMongoUnitValueFieldNameIndicator() {
+    return mongoUnitValueFieldNameIndicator;
+  }
+
+  /**
+   * @return Flag to indicate if the test database should be dropped after all the tests have run.
+   */
+  public boolean isDropDatabase() {
+    return dropDatabase;
+  }
+
+  /**
+   * @return Time zone ID to use in the database name pad.
+   */
+  public String getTimeZoneId() {
+    return timeZoneId;
+  }
+
+  /**
+   * @return Path of the JSON lines file to which per-test MongoUnit phase timings are appended.
+   * 'null' if timings should only be published as JUnit report entries.
+   */
+  public String getTimingsFile() {
+    return timingsFile;
+  }
+
+  /**
+   * @return Flag to indicate if the MongoUnit performance report is produced at the end of the test
+   * run.
+   */
+  public boolean isReportEnabled() {
+    return reportEnabled;
+  }
+
+  /**
+   * @return Path of the file to write the MongoUnit performance report to. 'null' if the report
+   * should be printed to standard output.
+   */
+  public String getReportFile() {
+    return reportFile;
+  }
+
+  /**
+   * @return Number of entries listed in each section of the MongoUnit performance report.
+   */
+  public int getReportTopCount() {
+    return reportTopCount;
+  }
+
+  /**
+   * @return Maximum number of connections in the pool of the shared MongoDB client. 'null' to use
+   * the value from the URI or the driver default.
+   */
+  public Integer getClientMaxPoolSize() {
+    return clientMaxPoolSize;
+  }
+
+  /**
+   * @return Minimum number of connections in the pool of the shared MongoDB client. 'null' to use
+   * the value from the URI or the driver default.
+   */
+  public Integer getClientMinPoolSize() {
+    return clientMinPoolSize;
+  }
+
+  /**
+   * @return Database naming mode. 'unique' generates a new database name for every Spring context,
+   * while 'fork' generates one stable database name per JVM fork, which is reused by all its Spring
+   * contexts and runs.
+   */
+  public String getDatabaseNaming() {
+    return databaseNaming;
+  }
+
+  /**
+   * @return Stable ID of the JVM fork used in the 'fork' database naming mode. 'null' to use the
+   * Surefire fork number or the Gradle test worker ID.
+   */
+  public String getWorkerId() {
+    return workerId;
+  }
+
+  /**
+   * @return Flag to indicate if test databases orphaned by crashed test runs should be dropped in
+   * the background at startup.
+   */
+  public boolean isOrphanSweepEnabled() {
+    return orphanSweepEnabled;
+  }
+
+  /**
+   * @return Minimum age, in minutes, of a test database for it to be considered orphaned by the
+   * orphan database sweeper.
+   */
+  public int getOrphanSweepMaxAgeMinutes() {
+    return orphanSweepMaxAgeMinutes;
+  }
+
+  /**
+   * @return Mode in which the test database is dropped. 'sync' drops it while the Spring context
+   * shuts down, 'async' drops it in the background, and 'end-of-run' drops all test databases at
+   * once when the JVM exits.
+   */
+  public String getDropDatabaseMode() {
+    return dropDatabaseMode;
+  }
+
+  /**
+   * @return Maximum number of seconds the JVM waits at exit for background database drops to
+   * complete.
+   */
+  public int getDropDatabaseTimeoutSeconds() {
+    return dropDatabaseTimeoutSeconds;
+  }
+
+  /**
+   * @return Flag to indicate if the tests should run against the in-process embedded MongoDB server
+   * instead of the one in the base URI.
+   */
+  public boolean isEmbeddedEnabled() {
+    return embeddedEnabled;
+  }
+
+  /**
+   * @return Flag to indicate if the tests should run against a locally installed 'mongod' process
+   * launched by the MongoUnit framework instead of the server in the base URI.
+   */
+  public boolean isLocalMongodEnabled() {
+    return localMongodEnabled;
+  }
+
+  /**
+   * @return Path of the 'mongod' binary, or of the directory that contains it, to launch.
+   */
+  public String getLocalMongodPath() {
+    return localMongodPath;
+  }
+
+  /**
+   * @return Directory under which the data directories of the launched 'mongod' processes are
+   * created.
+   */
+  public String getLocalMongodDbPathRoot() {
+    return localMongodDbPathRoot;
+  }
+
+  /**
+   * @return Number of parallel JVM forks that share one launched 'mongod' process.
+   */
+  public int getLocalMongodWorkersPerProcess() {
+    return localMongodWorkersPerProcess;
+  }
+
+  /**
+   * @return Additional space-separated command line arguments to launch 'mongod' with. Can be
+   * 'null'.
+   */
+  public String getLocalMongodArgs() {
+    return localMongodArgs;
+  }
+
+  /**
+   * @return Write concern of the writes the MongoUnit framework itself does, e.g., seeding. Either
+   * 'w1', 'majority', or 'inherit'.
+   */
+  public String getProfileWriteConcern() {
+    return profileWriteConcern;
+  }
+
+  /**
+   * @return Comma-separated network compressors the MongoDB client used by the MongoUnit framework
+   * itself offers to the server. Can be 'null'.
+   */
+  public String getProfileCompressors() {
+    return profileCompressors;
+  }
+
+  /**
+   * @return Cursor batch size of the reads the MongoUnit framework itself does. Can be 'null'.
+   */
+  public Integer getProfileBatchSize() {
+    return profileBatchSize;
+  }
+
+  /**
+   * @return Maximum connection pool size of the MongoDB client used by the MongoUnit framework
+   * itself. Can be 'null'.
+   */
+  public Integer getProfileMaxPoolSize() {
+    return profileMaxPoolSize;
+  }
+
+  /**
+   * @return Minimum connection pool size of the MongoDB client used by the MongoUnit framework
+   * itself. Can be 'null'.
+   */
+  public Integer getProfileMinPoolSize() {
+    return profileMinPoolSize;
+  }
+
+  /**
+   * @return Flag to indicate if connections to the test database should be warmed up and
+   * class-level datasets loaded in the background before the first test of each test class.
+   */
+  public boolean isWarmUpEnabled() {
+    return warmUpEnabled;
+  }
+
+  /**
+   * @return Flag to indicate if the dataset files of all discovered MongoUnit test classes should
+   * be loaded and parsed in the background as soon as the test run starts.
+   */
+  public boolean isPrefetchEnabled() {
+    return prefetchEnabled;
+  }
+
+  /**
+   * @return Maximum number of bytes of direct memory that prefetched datasets are stored in,
+   * encoded as BSON, evicting the least recently used ones once exceeded. 'null' if prefetched
+   * datasets are held on the heap.
+   */
+  public Long getCacheOffHeapBudget() {
+    return cacheOffHeapBudget;
+  }
+
+  @Override
+  public String toString() {
+    return "MongoUnitProperties{" +
+        "baseUri='" + baseUri + '\'' +
+        ", baseUriKeepAsIs=" + baseUriKeepAsIs +
+        ", mongoUnitValueFieldNameIndicator='" + mongoUnitValueFieldNameIndicator + '\'' +
+        ", dropDatabase=" + dropDatabase +
+        ", timeZoneId='" + timeZoneId + '\'' +
+        ", timingsFile='" + timingsFile + '\'' +
+        ", reportEnabled=" + reportEnabled +
+        ", reportFile='" + reportFile + '\'' +
+        ", reportTopCount=" + reportTopCount +
+        ", clientMaxPoolSize=" + clientMaxPoolSize +
+        ", clientMinPoolSize=" + clientMinPoolSize +
+        ", databaseNaming='" + databaseNaming + '\'' +
+        ", workerId='" + workerId + '\'' +
+        ", orphanSweepEnabled=" + orphanSweepEnabled +
+        ", orphanSweepMaxAgeMinutes=" + orphanSweepMaxAgeMinutes +
+        ", dropDatabaseMode='" + dropDatabaseMode + '\'' +
+        ", dropDatabaseTimeoutSeconds=" + dropDatabaseTimeoutSeconds +
+        ", embeddedEnabled=" + embeddedEnabled +
+        ", localMongodEnabled=" + localMongodEnabled +
+        ", localMongodPath='" + localMongodPath + '\'' +
+        ", localMongodDbPathRoot='" + localMongodDbPathRoot + '\'' +
+        ", localMongodWorkersPerProcess=" + localMongodWorkersPerProcess +
+        ", localMongodArgs='" + localMongodArgs + '\'' +
+        ", profileWriteConcern='" + profileWriteConcern + '\'' +
+        ", profileCompressors='" + profileCompressors + '\'' +
+        ", profileBatchSize=" + profileBatchSize +
+        ", profileMaxPoolSize=" + profileMaxPoolSize +
+        ", profileMinPoolSize=" + profileMinPoolSize +
+        ", warmUpEnabled=" + warmUpEnabled +
+        ", prefetchEnabled=" + prefetchEnabled +
+        ", cacheOffHeapBudget=" + cacheOffHeapBudget +
+        '}';
+  }
+
+  /**
+   * {@link MongoUnitPropertiesBuilder} class is a builder pattern class for the {@link
+   * MongoUnitProperties} class. Properties that are not set (or set to 'null') are set to their
+   * default value.
+   */
+  public static class MongoUnitPropertiesBuilder {
+
+    /**
+     * Base URI to base the dynamic database name on.
+     */
+    private String baseUri;
+
+    /**
+     * Flag to indicate that the base URI should be used for testing as is, without appending
+     * anything to it.
+     */
+    private Boolean baseUriKeepAsIs;
+
+    /**
+     * Field name to use as an indicator in developer JSON files to signify that a document is a
+     * representation of a special MongoUnit value.
+     */
+    private String mongoUnitValueFieldNameIndicator;
+
+    /**
+     * Flag to indicate if the test database should be dropped after all the tests have run.
+     */
+    private Boolean dropDatabase;
+
+    /**
+     * Time zone ID to use in the database name pad.
+     */
+    private String timeZoneId;
+
+    /**
+     * Path of the JSON lines file to which per-test MongoUnit phase timings are appended.
+     */
+    private String timingsFile;
+
+    /**
+     * Flag to indicate if the MongoUnit performance report is produced at the end of the test run.
+     */
+    private Boolean reportEnabled;
+
+    /**
+     * Path of the file to write the MongoUnit performance report to. 'null' if the report should be
+     * printed to standard output.
+     */
+    private String reportFile;
+
+    /**
+     * Number of entries listed in each section of the MongoUnit performance report.
+     */
+    private Integer reportTopCount;
+
+    /**
+     * Maximum number of connections in the pool of the shared MongoDB client. 'null' to use the
+     * value from the URI or the driver default.
+     */
+    private Integer clientMaxPoolSize;
+
+    /**
+     * Minimum number of connections in the pool of the shared MongoDB client. 'null' to use the
+     * value from the URI or the driver default.
+     */
+    private Integer clientMinPoolSize;
+
+    /**
+     * Database naming mode. 'unique' generates a new database name for every Spring context, while
+     * 'fork' generates one stable database name per JVM fork, which is reused by all its Spring
+     * contexts and runs.
+     */
+    private String databaseNaming;
+
+    /**
+     * Stable ID of the JVM fork used in the 'fork' database naming mode. 'null' to use the Surefire
+     * fork number or the Gradle test worker ID.
+     */
+    private String workerId;
+
+    /**
+     * Flag to indicate if test databases orphaned by crashed test runs should be dropped in the
+     * background at startup.
+     */
+    private Boolean orphanSweepEnabled;
+
+    /**
+     * Minimum age, in minutes, of a test database for it to be considered orphaned by the orphan
+     * database sweeper.
+     */
+    private Integer orphanSweepMaxAgeMinutes;
+
+    /**
+     * Mode in which the test database is dropped. 'sync' drops it while the Spring context shuts
+     * down, 'async' drops it in the background, and 'end-of-run' drops all test databases at once
+     * when the JVM exits.
+     */
+    private String dropDatabaseMode;
+
+    /**
+     * Maximum number of seconds the JVM waits at exit for background database drops to complete.
+     */
+    private Integer dropDatabaseTimeoutSeconds;
+
+    /**
+     * Flag to indicate if the tests should run against the in-process embedded MongoDB server
+     * instead of the one in the base URI.
+     */
+    private Boolean embeddedEnabled;
+
+    /**
+     * Flag to indicate if the tests should run against a locally installed 'mongod' process
+     * launched by the MongoUnit framework instead of the server in the base URI.
+     */
+    private Boolean localMongodEnabled;
+
+    /**
+     * Path of the 'mongod' binary, or of the directory that contains it, to launch.
+     */
+    private String localMongodPath;
+
+    /**
+     * Directory under which the data directories of the launched 'mongod' processes are created.
+     */
+    private String localMongodDbPathRoot;
+
+    /**
+     * Number of parallel JVM forks that share one launched 'mongod' process.
+     */
+    private Integer localMongodWorkersPerProcess;
+
+    /**
+     * Additional space-separated command line arguments to launch 'mongod' with. Can be 'null'.
+     */
+    private String localMongodArgs;
+
+    /**
+     * Write concern of the writes the MongoUnit framework itself does, e.g., seeding. Either 'w1',
+     * 'majority', or 'inherit'.
+     */
+    private String profileWriteConcern;
+
+    /**
+     * Comma-separated network compressors the MongoDB client used by the MongoUnit framework itself
+     * offers to the server. Can be 'null'.
+     */
+    private String profileCompressors;
+
+    /**
+     * Cursor batch size of the reads the MongoUnit framework itself does. Can be 'null'.
+     */
+    private Integer profileBatchSize;
+
+    /**
+     * Maximum connection pool size of the MongoDB client used by the MongoUnit framework itself.
+     * Can be 'null'.
+     */
+    private Integer profileMaxPoolSize;
+
+    /**
+     * Minimum connection pool size of the MongoDB client used by the MongoUnit framework itself.
+     * Can be 'null'.
+     */
+    private Integer profileMinPoolSize;
+
+    /**
+     * Flag to indicate if connections to the test database should be warmed up and class-level
+     * datasets loaded in the background before the first test of each test class.
+     */
+    private Boolean warmUpEnabled;
+
+    /**
+     * Flag to indicate if the dataset files of all discovered MongoUnit test classes should be
+     * loaded and parsed in the background as soon as the test run starts.
+     */
+    private Boolean prefetchEnabled;
+
+    /**
+     * Maximum number of bytes of direct memory that prefetched datasets are stored in, encoded as
+     * BSON, evicting the least recently used ones once exceeded. 'null' if prefetched datasets are
+     * held on the heap.
+     */
+    private Long cacheOffHeapBudget;
+
+    /**
+     * Default constructor.
+     */
+    MongoUnitPropertiesBuilder() {
+    }
+
+    /**
+     * @param baseUri Base URI to base the dynamic database name on.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder baseUri(String baseUri) {
+      this.baseUri = baseUri;
+      return this;
+    }
+
+    /**
+     * @param baseUriKeepAsIs Flag to indicate that the base URI should be used for testing as is,
+     * without appending anything to it.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder baseUriKeepAsIs(Boolean baseUriKeepAsIs) {
+      this.baseUriKeepAsIs = baseUriKeepAsIs;
+      return this;
+    }
+
+    /**
+     * @param mongoUnitValueFieldNameIndicator Field name to use as an indicator in developer JSON
+     * files to signify that a document is a representation of a special MongoUnit value.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder mongoUnitValueFieldNameIndicator(
+        String mongoUnitValueFieldNameIndicator) {
+      this.mongoUnitValueFieldNameIndicator = mongoUnitValueFieldNameIndicator;
+      return this;
+    }
+
+    /**
+     * @param dropDatabase Flag to indicate if the test database should be dropped after all the
+     * tests have run.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder dropDatabase(Boolean dropDatabase) {
+      this.dropDatabase = dropDatabase;
+      return this;
+    }
+
+    /**
+     * @param timeZoneId Time zone ID to use in the database name pad.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder timeZoneId(String timeZoneId) {
+      this.timeZoneId = timeZoneId;
+      return this;
+    }
+
+    /**
+     * @param timingsFile Path of the JSON lines file to which per-test MongoUnit phase timings are
+     * appended.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder timingsFile(String timingsFile) {
+      this.timingsFile = timingsFile;
+      return this;
+    }
+
+    /**
+     * @param reportEnabled Flag to indicate if the MongoUnit performance report is produced at the
+     * end of the test run.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder reportEnabled(Boolean reportEnabled) {
+      this.reportEnabled = reportEnabled;
+      return this;
+    }
+
+    /**
+     * @param reportFile Path of the file to write the MongoUnit performance report to. 'null' if
+     * the report should be printed to standard output.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder reportFile(String reportFile) {
+      this.reportFile = reportFile;
+      return this;
+    }
+
+    /**
+     * @param reportTopCount Number of entries listed in each section of the MongoUnit performance
+     * report.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder reportTopCount(Integer reportTopCount) {
+      this.reportTopCount = reportTopCount;
+      return this;
+    }
+
+    /**
+     * @param clientMaxPoolSize Maximum number of connections in the pool of the shared MongoDB
+     * client. 'null' to use the value from the URI or the driver default.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder clientMaxPoolSize(Integer clientMaxPoolSize) {
+      this.clientMaxPoolSize = clientMaxPoolSize;
+      return this;
+    }
+
+    /**
+     * @param clientMinPoolSize Minimum number of connections in the pool of the shared MongoDB
+     * client. 'null' to use the value from the URI or the driver default.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder clientMinPoolSize(Integer clientMinPoolSize) {
+      this.clientMinPoolSize = clientMinPoolSize;
+      return this;
+    }
+
+    /**
+     * @param databaseNaming Database naming mode. 'unique' generates a new database name for every
+     * Spring context, while 'fork' generates one stable database name per JVM fork, which is reused
+     * by all its Spring contexts and runs.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder databaseNaming(String databaseNaming) {
+      this.databaseNaming = databaseNaming;
+      return this;
+    }
+
+    /**
+     * @param workerId Stable ID of the JVM fork used in the 'fork' database naming mode. 'null' to
+     * use the Surefire fork number or the Gradle test worker ID.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder workerId(String workerId) {
+      this.workerId = workerId;
+      return this;
+    }
+
+    /**
+     * @param orphanSweepEnabled Flag to indicate if test databases orphaned by crashed test runs
+     * should be dropped in the background at startup.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder orphanSweepEnabled(Boolean orphanSweepEnabled) {
+      this.orphanSweepEnabled = orphanSweepEnabled;
+      return this;
+    }
+
+    /**
+     * @param orphanSweepMaxAgeMinutes Minimum age, in minutes, of a test database for it to be
+     * considered orphaned by the orphan database sweeper.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder orphanSweepMaxAgeMinutes(Integer orphanSweepMaxAgeMinutes) {
+      this.orphanSweepMaxAgeMinutes = orphanSweepMaxAgeMinutes;
+      return this;
+    }
+
+    /**
+     * @param dropDatabaseMode Mode in which the test database is dropped. 'sync' drops it while the
+     * Spring context shuts down, 'async' drops it in the background, and 'end-of-run' drops all
+     * test databases at once when the JVM exits.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder dropDatabaseMode(String dropDatabaseMode) {
+      this.dropDatabaseMode = dropDatabaseMode;
+      return this;
+    }
+
+    /**
+     * @param dropDatabaseTimeoutSeconds Maximum number of seconds the JVM waits at exit for
+     * background database drops to complete.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder dropDatabaseTimeoutSeconds(
+        Integer dropDatabaseTimeoutSeconds) {
+      this.dropDatabaseTimeoutSeconds = dropDatabaseTimeoutSeconds;
+      return this;
+    }
+
+    /**
+     * @param embeddedEnabled Flag to indicate if the tests should run against the in-process
+     * embedded MongoDB server instead of the one in the base URI.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder embeddedEnabled(Boolean embeddedEnabled) {
+      this.embeddedEnabled = embeddedEnabled;
+      return this;
+    }
+
+    /**
+     * @param localMongodEnabled Flag to indicate if the tests should run against a locally
+     * installed 'mongod' process launched by the MongoUnit framework instead of the server in the
+     * base URI.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder localMongodEnabled(Boolean localMongodEnabled) {
+      this.localMongodEnabled = localMongodEnabled;
+      return this;
+    }
+
+    /**
+     * @param localMongodPath Path of the 'mongod' binary, or of the directory that contains it, to
+     * launch.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder localMongodPath(String localMongodPath) {
+      this.localMongodPath = localMongodPath;
+      return this;
+    }
+
+    /**
+     * @param localMongodDbPathRoot Directory under which the data directories of the launched
+     * 'mongod' processes are created.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder localMongodDbPathRoot(String localMongodDbPathRoot) {
+      this.localMongodDbPathRoot = localMongodDbPathRoot;
+      return this;
+    }
+
+    /**
+     * @param localMongodWorkersPerProcess Number of parallel JVM forks that share one launched
+     * 'mongod' process.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder localMongodWorkersPerProcess(
+        Integer localMongodWorkersPerProcess) {
+      this.localMongodWorkersPerProcess = localMongodWorkersPerProcess;
+      return this;
+    }
+
+    /**
+     * @param localMongodArgs Additional space-separated command line arguments to launch 'mongod'
+     * with. Can be 'null'.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder localMongodArgs(String localMongodArgs) {
+      this.localMongodArgs = localMongodArgs;
+      return this;
+    }
+
+    /**
+     * @param profileWriteConcern Write concern of the writes the MongoUnit framework itself does,
+     * e.g., seeding. Either 'w1', 'majority', or 'inherit'.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder profileWriteConcern(String profileWriteConcern) {
+      this.profileWriteConcern = profileWriteConcern;
+      return this;
+    }
+
+    /**
+     * @param profileCompressors Comma-separated network compressors the MongoDB client used by the
+     * MongoUnit framework itself offers to the server. Can be 'null'.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder profileCompressors(String profileCompressors) {
+      this.profileCompressors = profileCompressors;
+      return this;
+    }
+
+    /**
+     * @param profileBatchSize Cursor batch size of the reads the MongoUnit framework itself does.
+     * Can be 'null'.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder profileBatchSize(Integer profileBatchSize) {
+      this.profileBatchSize = profileBatchSize;
+      return this;
+    }
+
+    /**
+     * @param profileMaxPoolSize Maximum connection pool size of the MongoDB client used by the
+     * MongoUnit framework itself. Can be 'null'.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder profileMaxPoolSize(Integer profileMaxPoolSize) {
+      this.profileMaxPoolSize = profileMaxPoolSize;
+      return this;
+    }
+
+    /**
+     * @param profileMinPoolSize Minimum connection pool size of the MongoDB client used by the
+     * MongoUnit framework itself. Can be 'null'.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder profileMinPoolSize(Integer profileMinPoolSize) {
+      this.profileMinPoolSize = profileMinPoolSize;
+      return this;
+    }
+
+    /**
+     * @param warmUpEnabled Flag to indicate if connections to the test database should be warmed up
+     * and class-level datasets loaded in the background before the first test of each test class.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder warmUpEnabled(Boolean warmUpEnabled) {
+      this.warmUpEnabled = warmUpEnabled;
+      return this;
+    }
+
+    /**
+     * @param prefetchEnabled Flag to indicate if the dataset files of all discovered MongoUnit test
+     * classes should be loaded and parsed in the background as soon as the test run starts.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder prefetchEnabled(Boolean prefetchEnabled) {
+      this.prefetchEnabled = prefetchEnabled;
+      return this;
+    }
+
+    /**
+     * @param cacheOffHeapBudget Maximum number of bytes of direct memory that prefetched datasets
+     * are stored in, encoded as BSON, evicting the least recently used ones once exceeded. 'null'
+     * if prefetched datasets are held on the heap.
+     * @return Instance of this builder class.
+     */
+    public MongoUnitPropertiesBuilder cacheOffHeapBudget(Long cacheOffHeapBudget) {
+      this.cacheOffHeapBudget = cacheOffHeapBudget;
+      return this;
+    }
+
+    /**
+     * @return New instance of the {@link MongoUnitProperties} class with the previously set
+     * properties.
+     */
+    public MongoUnitProperties build() {
+      return new MongoUnitProperties(this);
+    }
+  }
+}
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.config;
+
+import static java.time.ZoneId.SHORT_IDS;
+
+import com.mongodb.MongoClientURI;
+import com.mongodb.client.MongoClient;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link OrphanDatabaseSweeper} class drops test databases left behind by test runs that never
+ * got to drop them, e.g., because their JVM was killed. Only the databases whose names were
+ * generated by the MongoUnit framework for the same base database name and user, and whose
+ * date/time stamp is older than the configured maximum age, are dropped.
+ *
+ * The sweep runs at most once per JVM, in the background, so it never delays test startup.
+ */
+public class OrphanDatabaseSweeper {
+
+  /**
+   * Logger shared with {@link MongoUnitConfigurationUtil}, so the results of the sweep are reported
+   * alongside the test database URI it logs.
+   */
+  private static final Logger log = LoggerFactory.getLogger(MongoUnitConfigurationUtil.class);
+
+  /**
+   * Format of the date/time stamp in the generated database names.
+   */
+  private static final DateTimeFormatter DATE_TIME_PAD_FORMATTER =
+      DateTimeFormatter.ofPattern("yyyy_MM_dd_HH_mm_ss");
+
+  /**
+   * Pattern of the pad that follows the user name in the generated database names, i.e., the
+   * date/time stamp followed by the one-time hash.
+   */
+  private static final Pattern NAME_PAD_PATTERN =
+      Pattern.compile("^(\\d{4}(?:_\\d{2}){5})_-?\\d+$");
+
+  /**
+   * Maximum number of databases that are dropped concurrently.
+   */
+  private static final int MAX_DROP_THREADS = 4;
+
+  /**
+   * Flag to indicate that the sweep has already been started in this JVM.
+   */
+  private static final AtomicBoolean started = new AtomicBoolean(false);
+
+  /**
+   * Starts the sweep of orphaned test databases in the background, unless it is disabled or has
+   * already been started in this JVM.
+   *
+   * @param uri MongoDB URI of the test database of the current context.
+   * @param currentDatabaseName Name of the test database of the current context, which is never
+   * dropped.
+   * @param mongoUnitProperties Collection of properties framework was configured with.
+   */
+  public static void sweepInBackground(
+      String uri,
+      String currentDatabaseName,
+      MongoUnitProperties mongoUnitProperties) {
+
+    // Only sweep if enabled and the database names are generated
+    if (!mongoUnitProperties.isOrphanSweepEnabled() || mongoUnitProperties.isBaseUriKeepAsIs()) {
+      return;
+    }
+
+    // Only sweep once per JVM
+    if (!started.compareAndSet(false, true)) {
+      return;
+    }
+
+    // Determine prefix of the generated database names and the time they're considered orphaned
+    String baseDatabaseName = new MongoClientURI(mongoUnitProperties.getBaseUri()).getDatabase();
+    if (baseDatabaseName == null) {
+      return;
+    }
+    String namePrefix = baseDatabaseName + "_" + System.getProperty("user.name") + "_";
+    ZoneId timeZone = ZoneId.of(mongoUnitProperties.getTimeZoneId(), SHORT_IDS);
+    Instant cutoff =
+        Instant.now().minus(mongoUnitProperties.getOrphanSweepMaxAgeMinutes(), ChronoUnit.MINUTES);
+
+    // Hold a reference to the shared client for the duration of the sweep
+    MongoClient mongoClient = MongoClientRegistry.acquire(uri, mongoUnitProperties);
+
+    Thread sweeperThread = new Thread(() -> {
+      try {
+        sweep(mongoClient, currentDatabaseName, namePrefix, timeZone, cutoff);
+      } catch (Exception exception) {
+        log.warn("Sweeping orphaned test databases failed: " + exception.getMessage());
+      } finally {
+        MongoClientRegistry.release(mongoClient);
+      }
+    }, "mongounit-orphan-sweeper");
+    sweeperThread.setDaemon(true);
+    sweeperThread.start();
+  }
+
+  /**
+   * Drops all orphaned test databases in parallel and logs the results.
+   *
+   * @param mongoClient MongoDB client to use.
+   * @param currentDatabaseName Name of the test database of the current context.
+   * @param namePrefix Prefix of the names of the databases generated for the same base database
+   * name and user.
+   * @param timeZone Time zone the date/time stamp in the database names is in.
+   * @param cutoff Instant before which a database must have been created to be considered orphaned.
+   * @throws Exception If listing the databases fails or the sweep is interrupted.
+   */
+  private static void sweep(
+      MongoClient mongoClient,
+      String currentDatabaseName,
+      String namePrefix,
+      ZoneId timeZone,
+      Instant cutoff) throws Exception {
+
+    // Find orphaned databases
+    List<String> orphanedDatabaseNames = new ArrayList<>();
+    for (String databaseName : mongoClient.listDatabaseNames()) {
+      if (!databaseName.equals(currentDatabaseName)
+          && isOrphaned(databaseName, namePrefix, timeZone, cutoff)) {
+        orphanedDatabaseNames.add(databaseName);
+      }
+    }
+
+    if (orphanedDatabaseNames.isEmpty()) {
+      log.debug("No orphaned test databases found.");
+      return;
+    }
+
+    // Drop orphaned databases in parallel
+    AtomicInteger droppedCount = new AtomicInteger();
+    ExecutorService executorService = Executors.newFixedThreadPool(
+        Math.min(MAX_DROP_THREADS, orphanedDatabaseNames.size()),
+        runnable -> {
+          Thread thread = new Thread(runnable, "mongounit-orphan-sweeper-drop");
+          thread.setDaemon(true);
+          return thread;
+        });
+    try {
+
+      List<Future<?>> futures = new ArrayList<>();
+      for (String databaseName : orphanedDatabaseNames) {
+        futures.add(executorService.submit(() -> {
+          try {
+            mongoClient.getDatabase(databaseName).drop();
+            droppedCount.incrementAndGet();
+            log.info("Dropped orphaned test database '" + databaseName + "'.");
+          } catch (Exception exception) {
+            log.warn("Failed to drop orphaned test database '" + databaseName + "': "
+                + exception.getMessage());
+          }
+        }));
+      }
+
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executorService.shutdown();
+    }
+
+    log.info("Dropped " + droppedCount.get() + " of " + orphanedDatabaseNames.size()
+        + " orphaned test database(s).");
+  }
+
+  /**
+   * @param databaseName Name of the database to check.
+   * @param namePrefix Prefix of the names of the databases generated for the same base database
+   * name and user.
+   * @param timeZone Time zone the date/time stamp in the database names is in.
+   * @param cutoff Instant before which a database must have been created to be considered orphaned.
+   * @return 'true' if the provided 'databaseName' was generated by the MongoUnit framework with the
+   * provided 'namePrefix' and its date/time stamp is before the provided 'cutoff', 'false'
+   * otherwise.
+   */
+  static boolean isOrphaned(
+      String databaseName,
+      String namePrefix,
+      ZoneId timeZone,
+      Instant cutoff) {
+
+    if (!databaseName.startsWith(namePrefix)) {
+      return false;
+    }
+
+    // Rest of the name must be the date/time stamp followed by the one-time hash
+    Matcher matcher = NAME_PAD_PATTERN.matcher(databaseName.substring(namePrefix.length()));
+    if (!matcher.matches()) {
+      return false;
+    }
+
+    try {
+      Instant createdAt = LocalDateTime.parse(matcher.group(1), DATE_TIME_PAD_FORMATTER)
+          .atZone(timeZone)
+          .toInstant();
+      return createdAt.isBefore(cutoff);
+    } catch (DateTimeParseException dateTimeParseException) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.config;
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+
+/**
+ * {@link WriteCommandListener} class is a MongoDB driver {@link CommandListener} that, while armed
+ * for a particular database, records every write command sent to that database. Any number of
+ * databases can be armed at the same time, e.g., by tests running in parallel. It is used to
+ * enforce the {@link org.mongounit.ReadOnlyDataset} guarantee.
+ */
+public class WriteCommandListener implements CommandListener {
+
+  /**
+   * Single instance of this listener that is registered with every MongoDB client created by the
+   * MongoUnit framework.
+   */
+  public static final WriteCommandListener INSTANCE = new WriteCommandListener();
+
+  /**
+   * Names of the commands that change the state of a database, including the legacy lowercase
+   * aliases the server still accepts.
+   */
+  private static final Set<String> WRITE_COMMAND_NAMES = new HashSet<>(Arrays.asList(
+      "insert",
+      "update",
+      "delete",
+      "findAndModify",
+      "findandmodify",
+      "create",
+      "createIndexes",
+      "collMod",
+      "convertToCapped",
+      "cloneCollectionAsCapped",
+      "drop",
+      "dropDatabase",
+      "dropIndexes",
+      "deleteIndexes",
+      "renameCollection",
+      "mapReduce",
+      "mapreduce"));
+
+  /**
+   * Name of the cluster-wide bulk write command, which is sent to the 'admin' database and names
+   * the namespaces it writes to in its 'nsInfo' array.
+   */
+  private static final String BULK_WRITE_COMMAND_NAME = "bulkWrite";
+
+  /**
+   * Names of the databases that are served by MongoDB clients with this listener registered.
+   */
+  private final Set<String> monitoredDatabaseNames = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Descriptions of the write commands recorded since each database was armed, keyed by the name of
+   * the armed database. Databases that are not armed have no entry, so tests running in parallel
+   * against different databases are monitored independently.
+   */
+  private final Map<String, List<String>> recordedWriteCommands = new ConcurrentHashMap<>();
+
+  /**
+   * Constructor.
+   */
+  private WriteCommandListener() {
+  }
+
+  /**
+   * Marks the provided 'databaseName' as being served by a MongoDB client with this listener
+   * registered.
+   *
+   * @param databaseName Name of the database to mark as monitored.
+   */
+  public void addMonitoredDatabase(String databaseName) {
+    monitoredDatabaseNames.add(databaseName);
+  }
+
+  /**
+   * @param databaseName Name of the database to check.
+   * @return 'true' if the database with the provided 'databaseName' is served by a MongoDB client
+   * with this listener registered, 'false' otherwise.
+   */
+  public boolean isMonitored(String databaseName) {
+    return monitoredDatabaseNames.contains(databaseName);
+  }
+
+  /**
+   * Starts recording write commands sent to the database with the provided 'databaseName',
+   * discarding any previously recorded write commands for that database.
+   *
+   * @param databaseName Name of the database to record write commands for.
+   */
+  public void arm(String databaseName) {
+    recordedWriteCommands.put(databaseName, Collections.synchronizedList(new ArrayList<>()));
+  }
+
+  /**
+   * Stops recording write commands sent to the database with the provided 'databaseName'.
+   *
+   * @param databaseName Name of the database to stop recording write commands for.
+   * @return List of descriptions of the write commands recorded since the database with the
+   * provided 'databaseName' was last armed. Empty list if no write commands were recorded or the
+   * database was not armed.
+   */
+  public List<String> disarm(String databaseName) {
+
+    List<String> writeCommands = recordedWriteCommands.remove(databaseName);
+    if (writeCommands == null) {
+      return new ArrayList<>();
+    }
+
+    synchronized (writeCommands) {
+      return new ArrayList<>(writeCommands);
+    }
+  }
+
+  @Override
+  public void commandStarted(CommandStartedEvent event) {
+
+    // Nothing to do if no database is armed
+    if (recordedWriteCommands.isEmpty()) {
+      return;
+    }
+
+    String commandName = event.getCommandName();
+    BsonDocument command = event.getCommand();
+
+    // Bulk write is sent to 'admin', so record it for every armed database it writes to
+    if (BULK_WRITE_COMMAND_NAME.equals(commandName)) {
+
+      if (command.isArray("nsInfo")) {
+        for (BsonValue nsInfo : command.getArray("nsInfo")) {
+
+          if (nsInfo.isDocument() && nsInfo.asDocument().isString("ns")) {
+
+            String namespace = nsInfo.asDocument().getString("ns").getValue();
+            int separatorIndex = namespace.indexOf('.');
+            if (separatorIndex > 0) {
+              record(
+                  namespace.substring(0, separatorIndex),
+                  commandName + " on '" + namespace.substring(separatorIndex + 1) + "'");
+            }
+          }
+        }
+      }
+
+      return;
+    }
+
+    // Record the command if it's a write command
+    if (isWriteCommand(commandName, command)) {
+
+      BsonValue target = command.get(commandName);
+      String description = commandName + (target != null && target.isString() ?
+          " on '" + target.asString().getValue() + "'" :
+          "");
+      record(event.getDatabaseName(), description);
+    }
+  }
+
+  /**
+   * Records the provided write command 'description' if the database with the provided
+   * 'databaseName' is armed.
+   *
+   * @param databaseName Name of the database the write command targets.
+   * @param description Description of the write command.
+   */
+  private void record(String databaseName, String description) {
+
+    List<String> writeCommands = recordedWriteCommands.get(databaseName);
+    if (writeCommands != null) {
+      writeCommands.add(description);
+    }
+  }
+
+  /**
+   * @param commandName Name of the command.
+   * @param command Command document.
+   * @return 'true' if the command with the provided 'commandName' and contents of 'command' changes
+   * the state of the database, 'false' otherwise.
+   */
+  private static boolean isWriteCommand(String commandName, BsonDocument command) {
+
+    if (WRITE_COMMAND_NAMES.contains(commandName)) {
+      return true;
+    }
+
+    // Aggregation only writes if its pipeline ends with an '$out' or '$merge' stage
+    if ("aggregate".equals(commandName) && command.isArray("pipeline")) {
+
+      BsonArray pipeline = command.getArray("pipeline");
+      if (!pipeline.isEmpty() && pipeline.get(pipeline.size() - 1).isDocument()) {
+
+        BsonDocument lastStage = pipeline.get(pipeline.size() - 1).asDocument();
+        return lastStage.containsKey("$out") || lastStage.containsKey("$merge");
+      }
+    }
+
+    return false;
+  }
+}
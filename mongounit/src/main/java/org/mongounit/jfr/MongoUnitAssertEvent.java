@@ -0,0 +1,62 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * {@link MongoUnitAssertEvent} class is a JDK Flight Recorder event that covers the matching of an
+ * expected dataset against the actual dataset extracted from the database.
+ */
+@Name("org.mongounit.Assert")
+@Label("MongoUnit Assert")
+@Description("Matching of an expected dataset against the actual database state")
+public class MongoUnitAssertEvent extends MongoUnitEvent {
+
+  /**
+   * Number of collections in the expected dataset.
+   */
+  @Label("Collection Count")
+  private long collectionCount;
+
+  /**
+   * Number of documents in the expected dataset.
+   */
+  @Label("Document Count")
+  private long documentCount;
+
+  /**
+   * Flag to indicate if the expected dataset matched the actual one.
+   */
+  @Label("Match")
+  private boolean match;
+
+  /**
+   * @param collectionCount Number of collections in the expected dataset.
+   */
+  public void setCollectionCount(long collectionCount) {
+    this.collectionCount = collectionCount;
+  }
+
+  /**
+   * @param documentCount Number of documents in the expected dataset.
+   */
+  public void setDocumentCount(long documentCount) {
+    this.documentCount = documentCount;
+  }
+
+  /**
+   * @param match Flag to indicate if the expected dataset matched the actual one.
+   */
+  public void setMatch(boolean match) {
+    this.match = match;
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * {@link MongoUnitEvent} class is the base of all JDK Flight Recorder events emitted by the
+ * MongoUnit framework. Every event carries the unique ID of the test (or test class, for
+ * class-level work) on whose behalf it was emitted.
+ *
+ * NOTE: When no recording is in progress, events are never committed and their overhead is
+ * negligible.
+ */
+@Category("MongoUnit")
+@StackTrace(false)
+public abstract class MongoUnitEvent extends Event {
+
+  /**
+   * Unique ID of the test being executed on the current thread. 'null' if none.
+   */
+  private static final ThreadLocal<String> CURRENT_TEST_ID = new ThreadLocal<>();
+
+  /**
+   * Unique ID of the test on whose behalf this event was emitted.
+   *
+   * NOTE: Flight recorder only includes non-private fields of event superclasses.
+   */
+  @Label("Test ID")
+  protected String testId = CURRENT_TEST_ID.get();
+
+  /**
+   * Sets the unique ID of the test being executed on the current thread, to be carried by every
+   * event subsequently created on this thread.
+   *
+   * @param testId Unique ID of the test being executed. 'null' to clear it.
+   */
+  public static void setCurrentTestId(String testId) {
+    if (testId == null) {
+      CURRENT_TEST_ID.remove();
+    } else {
+      CURRENT_TEST_ID.set(testId);
+    }
+  }
+
+  /**
+   * @return Unique ID of the test on whose behalf this event was emitted.
+   */
+  public String getTestId() {
+    return testId;
+  }
+}
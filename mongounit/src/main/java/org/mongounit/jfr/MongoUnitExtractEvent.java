@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * {@link MongoUnitExtractEvent} class is a JDK Flight Recorder event that covers the extraction
+ * of the documents of a single collection from the database.
+ */
+@Name("org.mongounit.Extract")
+@Label("MongoUnit Extract")
+@Description("Extraction of the documents of a single collection")
+public class MongoUnitExtractEvent extends MongoUnitEvent {
+
+  /**
+   * Name of the collection the documents were extracted from.
+   */
+  @Label("Collection Name")
+  private String collectionName;
+
+  /**
+   * Number of documents extracted.
+   */
+  @Label("Document Count")
+  private long documentCount;
+
+  /**
+   * Total size of the documents extracted, in BSON encoded bytes.
+   */
+  @Label("Byte Size")
+  @DataAmount
+  private long byteSize;
+
+  /**
+   * @param collectionName Name of the collection the documents were extracted from.
+   */
+  public void setCollectionName(String collectionName) {
+    this.collectionName = collectionName;
+  }
+
+  /**
+   * @param documentCount Number of documents extracted.
+   */
+  public void setDocumentCount(long documentCount) {
+    this.documentCount = documentCount;
+  }
+
+  /**
+   * @param byteSize Total size of the documents extracted, in BSON encoded bytes.
+   */
+  public void setByteSize(long byteSize) {
+    this.byteSize = byteSize;
+  }
+}
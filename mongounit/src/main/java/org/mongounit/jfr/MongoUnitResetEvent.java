@@ -0,0 +1,36 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * {@link MongoUnitResetEvent} class is a JDK Flight Recorder event that covers the dropping of a
+ * single collection while the database is reset between tests.
+ */
+@Name("org.mongounit.Reset")
+@Label("MongoUnit Reset")
+@Description("Dropping of a single collection between tests")
+public class MongoUnitResetEvent extends MongoUnitEvent {
+
+  /**
+   * Name of the collection that was dropped.
+   */
+  @Label("Collection Name")
+  private String collectionName;
+
+  /**
+   * @param collectionName Name of the collection that was dropped.
+   */
+  public void setCollectionName(String collectionName) {
+    this.collectionName = collectionName;
+  }
+}
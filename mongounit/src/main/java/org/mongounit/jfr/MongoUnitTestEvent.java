@@ -0,0 +1,64 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * {@link MongoUnitTestEvent} class is a JDK Flight Recorder event that spans a single test executed
+ * with the MongoUnit extension, from the start of its seeding to the end of its assertion. Other
+ * MongoUnit events of the same test are nested within it.
+ */
+@Name("org.mongounit.Test")
+@Label("MongoUnit Test")
+@Description("Execution of a single test, including MongoUnit seeding and assertion")
+public class MongoUnitTestEvent extends MongoUnitEvent {
+
+  /**
+   * Fully qualified name of the test class.
+   */
+  @Label("Test Class")
+  private String testClass;
+
+  /**
+   * Name of the test method.
+   */
+  @Label("Test Method")
+  private String testMethod;
+
+  /**
+   * Flag to indicate if clearing and reseeding the database was skipped for this test.
+   */
+  @Label("Reseed Skipped")
+  private boolean reseedSkipped;
+
+  /**
+   * @param testClass Fully qualified name of the test class.
+   */
+  public void setTestClass(String testClass) {
+    this.testClass = testClass;
+  }
+
+  /**
+   * @param testMethod Name of the test method.
+   */
+  public void setTestMethod(String testMethod) {
+    this.testMethod = testMethod;
+  }
+
+  /**
+   * @param reseedSkipped Flag to indicate if clearing and reseeding the database was skipped for
+   * this test.
+   */
+  public void setReseedSkipped(boolean reseedSkipped) {
+    this.reseedSkipped = reseedSkipped;
+  }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.TimeUnit;
+import org.mongounit.MongoUnitOperation;
+import org.mongounit.MongoUnitOperationListener;
+import org.mongounit.MongoUnitOperationListeners;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * {@link MongoUnitMetrics} class is a Micrometer {@link MeterBinder} that records the database
+ * operations performed by the MongoUnit framework:
+ *
+ * 'mongounit.operation' timer, tagged with 'operation' ('seed', 'cleanup', 'extraction', or
+ * 'assertion'), records how long each operation took.
+ *
+ * 'mongounit.operation.documents' and 'mongounit.operation.bytes' distribution summaries, tagged
+ * with 'operation' ('seed' or 'extraction'), record the number and BSON encoded size of documents
+ * each operation inserted or extracted.
+ *
+ * 'mongounit.documents' and 'mongounit.bytes' counters, tagged with 'operation' ('seed' or
+ * 'extraction') and 'collection', count the documents and BSON encoded bytes inserted into or
+ * extracted from each collection.
+ *
+ * The MongoUnit framework binds an instance of this class automatically when the Spring context of
+ * the test contains a {@link MeterRegistry} bean, see {@link #bindIfAvailable(ApplicationContext)}.
+ * It then only records the operations of the tests that use that Spring context.
+ */
+public class MongoUnitMetrics implements MeterBinder, MongoUnitOperationListener {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(MongoUnitMetrics.class);
+
+  /**
+   * Name of the timer that records operation durations.
+   */
+  public static final String OPERATION_TIMER_NAME = "mongounit.operation";
+
+  /**
+   * Name of the distribution summary that records the number of documents per operation.
+   */
+  public static final String OPERATION_DOCUMENTS_SUMMARY_NAME = "mongounit.operation.documents";
+
+  /**
+   * Name of the distribution summary that records the number of bytes per operation.
+   */
+  public static final String OPERATION_BYTES_SUMMARY_NAME = "mongounit.operation.bytes";
+
+  /**
+   * Name of the counter that counts documents per collection.
+   */
+  public static final String DOCUMENTS_COUNTER_NAME = "mongounit.documents";
+
+  /**
+   * Name of the counter that counts bytes per collection.
+   */
+  public static final String BYTES_COUNTER_NAME = "mongounit.bytes";
+
+  /**
+   * Name of the tag that holds the operation name.
+   */
+  public static final String OPERATION_TAG = "operation";
+
+  /**
+   * Name of the tag that holds the collection name.
+   */
+  public static final String COLLECTION_TAG = "collection";
+
+  /**
+   * Map of registries already bound by {@link #bindIfAvailable(ApplicationContext)} to the
+   * instances of this class bound to them.
+   */
+  private static final Map<MeterRegistry, MongoUnitMetrics> boundMetrics =
+      Collections.synchronizedMap(new WeakHashMap<>());
+
+  /**
+   * Registry the meters are registered with. 'null' until {@link #bindTo(MeterRegistry)} is
+   * called.
+   */
+  private volatile MeterRegistry registry;
+
+  /**
+   * Binds an instance of this class to the {@link MeterRegistry} bean of the provided
+   * 'applicationContext', unless already bound, and registers it as a {@link
+   * MongoUnitOperationListener} for the 'applicationContext', so it only records the operations of
+   * the tests that use it. Does nothing if there is no single such bean.
+   *
+   * @param applicationContext Spring application context to look up the {@link MeterRegistry} bean
+   * in.
+   */
+  public static void bindIfAvailable(ApplicationContext applicationContext) {
+
+    MeterRegistry meterRegistry =
+        applicationContext.getBeanProvider(MeterRegistry.class).getIfUnique();
+    if (meterRegistry == null) {
+      return;
+    }
+
+    MongoUnitMetrics mongoUnitMetrics =
+        boundMetrics.computeIfAbsent(meterRegistry, registryToBind -> {
+
+          MongoUnitMetrics newMongoUnitMetrics = new MongoUnitMetrics();
+          newMongoUnitMetrics.bindTo(registryToBind);
+
+          log.debug("Bound MongoUnit metrics to meter registry '" + registryToBind + "'.");
+
+          return newMongoUnitMetrics;
+        });
+
+    // Only record the operations performed within this context, even if others are cached too
+    MongoUnitOperationListeners.addListener(applicationContext, mongoUnitMetrics);
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+
+    // Register operation timers upfront, so they show up even before they are first used
+    for (MongoUnitOperation operation : MongoUnitOperation.values()) {
+      operationTimer(registry, operation);
+    }
+
+    this.registry = registry;
+  }
+
+  @Override
+  public void collectionInserted(String collectionName, long documentCount, long byteCount) {
+    countCollection(MongoUnitOperation.SEED, collectionName, documentCount, byteCount);
+  }
+
+  @Override
+  public void collectionExtracted(String collectionName, long documentCount, long byteCount) {
+    countCollection(MongoUnitOperation.EXTRACTION, collectionName, documentCount, byteCount);
+  }
+
+  @Override
+  public void operationCompleted(
+      MongoUnitOperation operation,
+      long nanos,
+      long documentCount,
+      long byteCount) {
+
+    MeterRegistry meterRegistry = getOpenRegistry();
+    if (meterRegistry == null) {
+      return;
+    }
+
+    operationTimer(meterRegistry, operation).record(nanos, TimeUnit.NANOSECONDS);
+
+    // Only seeding and extraction move documents
+    if (operation == MongoUnitOperation.SEED || operation == MongoUnitOperation.EXTRACTION) {
+
+      DistributionSummary.builder(OPERATION_DOCUMENTS_SUMMARY_NAME)
+          .description("Number of documents moved per MongoUnit operation")
+          .baseUnit("documents")
+          .tag(OPERATION_TAG, operation.getKey())
+          .register(meterRegistry)
+          .record(documentCount);
+
+      DistributionSummary.builder(OPERATION_BYTES_SUMMARY_NAME)
+          .description("BSON encoded bytes moved per MongoUnit operation")
+          .baseUnit("bytes")
+          .tag(OPERATION_TAG, operation.getKey())
+          .register(meterRegistry)
+          .record(byteCount);
+    }
+  }
+
+  /**
+   * Increments the per-collection document and byte counters.
+   *
+   * @param operation Operation that inserted or extracted the documents.
+   * @param collectionName Name of the collection the documents were inserted into or extracted
+   * from.
+   * @param documentCount Number of documents.
+   * @param byteCount Total size of the documents, in BSON encoded bytes.
+   */
+  private void countCollection(
+      MongoUnitOperation operation,
+      String collectionName,
+      long documentCount,
+      long byteCount) {
+
+    MeterRegistry meterRegistry = getOpenRegistry();
+    if (meterRegistry == null) {
+      return;
+    }
+
+    Counter.builder(DOCUMENTS_COUNTER_NAME)
+        .description("Number of documents moved per collection by MongoUnit")
+        .baseUnit("documents")
+        .tag(OPERATION_TAG, operation.getKey())
+        .tag(COLLECTION_TAG, collectionName)
+        .register(meterRegistry)
+        .increment(documentCount);
+
+    Counter.builder(BYTES_COUNTER_NAME)
+        .description("BSON encoded bytes moved per collection by MongoUnit")
+        .baseUnit("bytes")
+        .tag(OPERATION_TAG, operation.getKey())
+        .tag(COLLECTION_TAG, collectionName)
+        .register(meterRegistry)
+        .increment(byteCount);
+  }
+
+  /**
+   * @return Registry this instance is bound to or 'null' if it's not bound or the registry is
+   * closed. If the registry is closed, this instance is unregistered as a listener.
+   */
+  private MeterRegistry getOpenRegistry() {
+
+    MeterRegistry meterRegistry = registry;
+    if (meterRegistry != null && meterRegistry.isClosed()) {
+
+      MongoUnitOperationListeners.removeListener(this);
+      boundMetrics.remove(meterRegistry);
+      return null;
+    }
+
+    return meterRegistry;
+  }
+
+  /**
+   * @param meterRegistry Registry to register the timer with.
+   * @param operation Operation to retrieve the timer for.
+   * @return Timer that records the durations of the provided 'operation'.
+   */
+  private static Timer operationTimer(MeterRegistry meterRegistry, MongoUnitOperation operation) {
+    return Timer.builder(OPERATION_TIMER_NAME)
+        .description("Duration of MongoUnit database operations")
+        .tag(OPERATION_TAG, operation.getKey())
+        .register(meterRegistry);
+  }
+}
@@ -0,0 +1,455 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.model;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * {@link CompactDocument} class is a read-only {@link Map} view of a single document that takes a
+ * fraction of the heap of a {@link HashMap}. The field names and value types of a document are
+ * held in a {@link Schema} that is shared by all the same-shaped documents of a collection, while
+ * the document itself only holds its values: integers, longs, doubles, and booleans unboxed in a
+ * 'long[]', and all other values in an 'Object[]'.
+ *
+ * Documents are compacted with {@link #compact(List)}, which also compacts nested documents and
+ * arrays. Compacted documents are read-only all the way down: any attempt to modify a document, a
+ * nested document, or an array throws an {@link UnsupportedOperationException}. Values that are
+ * mutable objects themselves, e.g., a {@link java.util.Date}, are shared with the original
+ * document and must not be modified either, since the hash code of a document is cached. Callers
+ * that need to modify a document must copy it first, e.g., into a {@link java.util.LinkedHashMap}.
+ *
+ * Equality and hash codes follow the {@link Map} contract, so a compacted document equals any map
+ * with the same fields and values, regardless of its implementation. Fields are iterated in the
+ * order of the original document.
+ */
+public final class CompactDocument extends AbstractMap<String, Object> {
+
+  /**
+   * Type of a field whose value is held in the 'references' array.
+   */
+  private static final byte REFERENCE = 0;
+
+  /**
+   * Type of a field whose value is an {@link Integer} held in the 'primitives' array.
+   */
+  private static final byte INT = 1;
+
+  /**
+   * Type of a field whose value is a {@link Long} held in the 'primitives' array.
+   */
+  private static final byte LONG = 2;
+
+  /**
+   * Type of a field whose value is a {@link Double} held in the 'primitives' array as its raw bits.
+   */
+  private static final byte DOUBLE = 3;
+
+  /**
+   * Type of a field whose value is a {@link Boolean} held in the 'primitives' array as 0 or 1.
+   */
+  private static final byte BOOLEAN = 4;
+
+  /**
+   * Number of fields up to which a field is looked up by scanning the field names of the schema
+   * rather than with a hash map, which would take more heap than it saves time.
+   */
+  private static final int MAX_SCANNED_FIELD_COUNT = 8;
+
+  /**
+   * Empty array of values, shared by all documents that have no values of a kind.
+   */
+  private static final Object[] NO_REFERENCES = new Object[0];
+
+  /**
+   * Empty array of primitive values, shared by all documents that have no values of a kind.
+   */
+  private static final long[] NO_PRIMITIVES = new long[0];
+
+  /**
+   * Field names and value types of this document, shared with the same-shaped documents.
+   */
+  private final Schema schema;
+
+  /**
+   * Values of the fields of type 'REFERENCE', in the order of the fields.
+   */
+  private final Object[] references;
+
+  /**
+   * Values of the fields of all other types, in the order of the fields.
+   */
+  private final long[] primitives;
+
+  /**
+   * Cached hash code of this document. '0' if not yet computed.
+   *
+   * It's neither volatile nor guarded by a lock, in the same way as the hash code of a {@link
+   * String}: writes of an 'int' are atomic, and the hash code is only computed from state that is
+   * safely published through final fields, so a thread that sees '0' just computes the same value
+   * again.
+   */
+  private int hashCode;
+
+  /**
+   * Constructor.
+   *
+   * @param schema Field names and value types of this document.
+   * @param references Values of the fields of type 'REFERENCE'.
+   * @param primitives Values of the fields of all other types.
+   */
+  private CompactDocument(Schema schema, Object[] references, long[] primitives) {
+    this.schema = schema;
+    this.references = references;
+    this.primitives = primitives;
+  }
+
+  /**
+   * Compacts the provided 'documents', sharing a single schema between all same-shaped documents,
+   * including nested ones.
+   *
+   * @param documents List of maps of field name/value pairs, where each map represents a single
+   * document. Allowed to be 'null'.
+   * @return List of {@link CompactDocument}s with the same fields and values as the provided
+   * 'documents', in the same order, or 'null' if the provided 'documents' is 'null'.
+   */
+  public static List<Map<String, Object>> compact(List<Map<String, Object>> documents) {
+
+    if (documents == null) {
+      return null;
+    }
+
+    Compactor compactor = new Compactor();
+    List<Map<String, Object>> compactDocuments = new ArrayList<>(documents.size());
+    for (Map<String, Object> document : documents) {
+      compactDocuments.add(compactor.compactDocument(document));
+    }
+
+    return compactDocuments;
+  }
+
+  @Override
+  public Object get(Object key) {
+
+    int fieldIndex = schema.indexOf(key);
+    return fieldIndex < 0 ? null : getValue(fieldIndex);
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return schema.indexOf(key) >= 0;
+  }
+
+  @Override
+  public int size() {
+    return schema.fieldNames.length;
+  }
+
+  @Override
+  public Set<Entry<String, Object>> entrySet() {
+
+    return new AbstractSet<>() {
+
+      @Override
+      public Iterator<Entry<String, Object>> iterator() {
+
+        return new Iterator<>() {
+
+          /**
+           * Index of the next field to return.
+           */
+          private int fieldIndex = 0;
+
+          @Override
+          public boolean hasNext() {
+            return fieldIndex < schema.fieldNames.length;
+          }
+
+          @Override
+          public Entry<String, Object> next() {
+
+            if (!hasNext()) {
+              throw new NoSuchElementException();
+            }
+
+            Entry<String, Object> entry =
+                new SimpleImmutableEntry<>(schema.fieldNames[fieldIndex], getValue(fieldIndex));
+            fieldIndex++;
+            return entry;
+          }
+        };
+      }
+
+      @Override
+      public int size() {
+        return schema.fieldNames.length;
+      }
+    };
+  }
+
+  @Override
+  public int hashCode() {
+
+    // Documents are read-only, so the hash code only needs to be computed once. Read the field
+    // once, so a racing write can't make this return '0' after computing the hash code
+    int hash = hashCode;
+    if (hash == 0) {
+      hash = super.hashCode();
+      hashCode = hash;
+    }
+
+    return hash;
+  }
+
+  /**
+   * @param fieldIndex Index of the field in the schema of this document.
+   * @return Value of the field at the provided 'fieldIndex', boxed if it's held unboxed.
+   */
+  private Object getValue(int fieldIndex) {
+
+    int slot = schema.slots[fieldIndex];
+    switch (schema.types[fieldIndex]) {
+
+      case INT:
+        return (int) primitives[slot];
+
+      case LONG:
+        return primitives[slot];
+
+      case DOUBLE:
+        return Double.longBitsToDouble(primitives[slot]);
+
+      case BOOLEAN:
+        return primitives[slot] != 0;
+
+      default:
+        return references[slot];
+    }
+  }
+
+  /**
+   * {@link Schema} class holds the field names and value types shared by same-shaped documents.
+   */
+  private static final class Schema {
+
+    /**
+     * Names of the fields, in the order of the fields.
+     */
+    private final String[] fieldNames;
+
+    /**
+     * Types of the values of the fields, in the order of the fields.
+     */
+    private final byte[] types;
+
+    /**
+     * Index of the value of each field in either the 'references' or the 'primitives' array of a
+     * document, depending on its type.
+     */
+    private final int[] slots;
+
+    /**
+     * Number of fields of type 'REFERENCE'.
+     */
+    private final int referenceCount;
+
+    /**
+     * Number of fields of all other types.
+     */
+    private final int primitiveCount;
+
+    /**
+     * Indexes of the fields by their names. 'null' if there are few enough fields to scan them.
+     */
+    private final Map<String, Integer> fieldIndexes;
+
+    /**
+     * Constructor.
+     *
+     * @param fieldNames Names of the fields, in the order of the fields.
+     * @param types Types of the values of the fields, in the order of the fields.
+     */
+    private Schema(String[] fieldNames, byte[] types) {
+
+      this.fieldNames = fieldNames;
+      this.types = types;
+      this.slots = new int[fieldNames.length];
+
+      int referenceCount = 0;
+      int primitiveCount = 0;
+      for (int fieldIndex = 0; fieldIndex < fieldNames.length; fieldIndex++) {
+        slots[fieldIndex] = types[fieldIndex] == REFERENCE ? referenceCount++ : primitiveCount++;
+      }
+      this.referenceCount = referenceCount;
+      this.primitiveCount = primitiveCount;
+
+      if (fieldNames.length > MAX_SCANNED_FIELD_COUNT) {
+        fieldIndexes = new HashMap<>();
+        for (int fieldIndex = 0; fieldIndex < fieldNames.length; fieldIndex++) {
+          fieldIndexes.put(fieldNames[fieldIndex], fieldIndex);
+        }
+      } else {
+        fieldIndexes = null;
+      }
+    }
+
+    /**
+     * @param fieldName Name of the field to look up.
+     * @return Index of the field with the provided 'fieldName' or '-1' if there is no such field.
+     */
+    private int indexOf(Object fieldName) {
+
+      if (fieldIndexes != null) {
+        Integer fieldIndex = fieldIndexes.get(fieldName);
+        return fieldIndex == null ? -1 : fieldIndex;
+      }
+
+      for (int fieldIndex = 0; fieldIndex < fieldNames.length; fieldIndex++) {
+        if (fieldNames[fieldIndex].equals(fieldName)) {
+          return fieldIndex;
+        }
+      }
+
+      return -1;
+    }
+  }
+
+  /**
+   * {@link Compactor} class compacts the documents of a single collection, interning their field
+   * names and schemas, so same-shaped documents share a single schema.
+   */
+  private static final class Compactor {
+
+    /**
+     * Interned field names.
+     */
+    private final Map<String, String> fieldNames = new HashMap<>();
+
+    /**
+     * Interned schemas, keyed by the field names and types they hold.
+     */
+    private final Map<List<Object>, Schema> schemas = new HashMap<>();
+
+    /**
+     * @param document Map of field name/value pairs of a single document.
+     * @return {@link CompactDocument} with the same fields and values as the provided 'document'.
+     */
+    private CompactDocument compactDocument(Map<String, Object> document) {
+
+      if (document instanceof CompactDocument) {
+        return (CompactDocument) document;
+      }
+
+      // Determine the shape of the document
+      String[] documentFieldNames = new String[document.size()];
+      byte[] types = new byte[document.size()];
+      Object[] values = new Object[document.size()];
+      int fieldIndex = 0;
+      for (Entry<String, Object> field : document.entrySet()) {
+        documentFieldNames[fieldIndex] =
+            fieldNames.computeIfAbsent(field.getKey(), fieldName -> fieldName);
+        types[fieldIndex] = getType(field.getValue());
+        values[fieldIndex] = field.getValue();
+        fieldIndex++;
+      }
+
+      List<Object> schemaKey = new ArrayList<>(Arrays.asList(documentFieldNames));
+      for (byte type : types) {
+        schemaKey.add(type);
+      }
+      Schema schema = schemas.computeIfAbsent(
+          schemaKey,
+          key -> new Schema(documentFieldNames, types));
+
+      // Place each value in its slot
+      Object[] references =
+          schema.referenceCount == 0 ? NO_REFERENCES : new Object[schema.referenceCount];
+      long[] primitives =
+          schema.primitiveCount == 0 ? NO_PRIMITIVES : new long[schema.primitiveCount];
+      for (fieldIndex = 0; fieldIndex < values.length; fieldIndex++) {
+
+        Object value = values[fieldIndex];
+        int slot = schema.slots[fieldIndex];
+        switch (schema.types[fieldIndex]) {
+
+          case INT:
+          case LONG:
+            primitives[slot] = ((Number) value).longValue();
+            break;
+
+          case DOUBLE:
+            primitives[slot] = Double.doubleToRawLongBits((Double) value);
+            break;
+
+          case BOOLEAN:
+            primitives[slot] = (Boolean) value ? 1 : 0;
+            break;
+
+          default:
+            references[slot] = compactValue(value);
+        }
+      }
+
+      return new CompactDocument(schema, references, primitives);
+    }
+
+    /**
+     * @param value Value of a field or an element of an array.
+     * @return Compacted nested document or read-only array if the provided 'value' is one,
+     * otherwise the provided 'value' itself.
+     */
+    @SuppressWarnings("unchecked")
+    private Object compactValue(Object value) {
+
+      if (value instanceof Map) {
+        return compactDocument((Map<String, Object>) value);
+      }
+
+      if (value instanceof List) {
+
+        List<Object> list = (List<Object>) value;
+        Object[] elements = new Object[list.size()];
+        for (int elementIndex = 0; elementIndex < elements.length; elementIndex++) {
+          elements[elementIndex] = compactValue(list.get(elementIndex));
+        }
+        return Collections.unmodifiableList(Arrays.asList(elements));
+      }
+
+      return value;
+    }
+
+    /**
+     * @param value Value of a field.
+     * @return Type the provided 'value' is held as.
+     */
+    private static byte getType(Object value) {
+
+      if (value instanceof Integer) {
+        return INT;
+      } else if (value instanceof Long) {
+        return LONG;
+      } else if (value instanceof Double) {
+        return DOUBLE;
+      } else if (value instanceof Boolean) {
+        return BOOLEAN;
+      }
+
+      return REFERENCE;
+    }
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.model;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * {@link ConcatenatedDocuments} class is a read-only {@link List} view of the documents of several
+ * same-named collections, one after another, e.g., of a class level dataset followed by a method
+ * level one. The documents are neither copied nor is any of the underlying lists modified, so a
+ * class level dataset can be shared by all the tests of its class without growing with each of
+ * them.
+ *
+ * The underlying lists are expected not to change once they are concatenated.
+ */
+public final class ConcatenatedDocuments extends AbstractList<Map<String, Object>>
+    implements RandomAccess {
+
+  /**
+   * Read-only list of the lists of documents, in the order they are concatenated in.
+   */
+  private final List<List<Map<String, Object>>> segments;
+
+  /**
+   * Index just past the last document of each of the 'segments' in this list, i.e., the number of
+   * documents of that segment and all the segments before it.
+   */
+  private final int[] segmentEnds;
+
+  /**
+   * Constructor.
+   *
+   * @param segments Non-empty lists of documents, in the order they are concatenated in.
+   */
+  private ConcatenatedDocuments(List<List<Map<String, Object>>> segments) {
+
+    this.segments = Collections.unmodifiableList(segments);
+    this.segmentEnds = new int[segments.size()];
+
+    int size = 0;
+    for (int segmentIndex = 0; segmentIndex < segments.size(); segmentIndex++) {
+      size += segments.get(segmentIndex).size();
+      segmentEnds[segmentIndex] = size;
+    }
+  }
+
+  /**
+   * @param documentLists Lists of documents to concatenate, in order. Lists that are 'null' are
+   * treated as empty.
+   * @return Read-only list of all the documents of the provided 'documentLists', one list after
+   * another, i.e., an empty list if none of them has documents, otherwise a
+   * {@link ConcatenatedDocuments}, even if only one of them has documents.
+   */
+  public static List<Map<String, Object>> concat(List<List<Map<String, Object>>> documentLists) {
+
+    // Flatten concatenated lists, so lookups stay a single level deep
+    List<List<Map<String, Object>>> segments = new ArrayList<>(documentLists.size());
+    for (List<Map<String, Object>> documents : documentLists) {
+
+      if (documents instanceof ConcatenatedDocuments) {
+        segments.addAll(((ConcatenatedDocuments) documents).segments);
+      } else if (documents != null && !documents.isEmpty()) {
+        segments.add(documents);
+      }
+    }
+
+    if (segments.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    return new ConcatenatedDocuments(segments);
+  }
+
+  /**
+   * @param documents List of documents. Allowed to be 'null'.
+   * @return Lists of documents the provided 'documents' are a concatenation of, in order, if it's a
+   * {@link ConcatenatedDocuments}, otherwise a list of just the provided 'documents', unless it's
+   * 'null' or empty, in which case an empty list is returned.
+   */
+  public static List<List<Map<String, Object>>> segmentsOf(List<Map<String, Object>> documents) {
+
+    if (documents instanceof ConcatenatedDocuments) {
+      return ((ConcatenatedDocuments) documents).segments;
+    }
+
+    if (documents == null || documents.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    return Collections.singletonList(documents);
+  }
+
+  @Override
+  public Map<String, Object> get(int index) {
+
+    if (index < 0 || index >= size()) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+    }
+
+    // Find the segment that ends past the index; segments are never empty, so ends are distinct
+    int segmentIndex = Arrays.binarySearch(segmentEnds, index + 1);
+    if (segmentIndex < 0) {
+      segmentIndex = -segmentIndex - 1;
+    }
+
+    int segmentStart = segmentIndex == 0 ? 0 : segmentEnds[segmentIndex - 1];
+    return segments.get(segmentIndex).get(index - segmentStart);
+  }
+
+  @Override
+  public int size() {
+    return segmentEnds[segmentEnds.length - 1];
+  }
+}
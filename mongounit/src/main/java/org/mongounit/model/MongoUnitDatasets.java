@@ -0,0 +1,211 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import org.mongounit.AssertMatchesDataset;
+import org.mongounit.SeedWithDataset;
+
+/**
+ * {@link MongoUnitDatasets} class contains seed and assert datasets.
+ */
+public class MongoUnitDatasets {
+
+  /**
+   * Datasets to seed the database with.
+   */
+  private List<MongoUnitCollection> seedWithDatasets;
+
+  /**
+   * Supplier of the datasets to verify matching with, which is resolved at most once and only when
+   * the datasets are first requested, i.e., after the test body has completed successfully.
+   */
+  private Supplier<List<MongoUnitCollection>> assertMatchesDatasets;
+
+  /**
+   * Flag to indicate if the 'assertMatchesDatasets' supplier has already been resolved.
+   */
+  private boolean assertMatchesDatasetsResolved;
+
+  /**
+   * Flag to indicate if {@link AssertMatchesDataset} annotation has been encountered, i.e., the
+   * 'assertMatchesDatasets' should actually be used to assert matches, as opposed to having
+   * 'assertMatchesDatasets' only there from {@link SeedWithDataset} with 'reuseForAssertion =
+   * true'.
+   */
+  private boolean assertAnnotationPresent;
+
+  /**
+   * Descriptions of the locations of the dataset files the 'seedWithDatasets' were loaded from, in
+   * the order they were loaded in.
+   */
+  private List<String> seedWithDatasetLocations;
+
+  /**
+   * Descriptions of the locations of the dataset files the 'assertMatchesDatasets' were loaded
+   * from, in the order they were loaded in.
+   */
+  private List<String> assertMatchesDatasetLocations;
+
+  /**
+   * Default constructor.
+   */
+  public MongoUnitDatasets() {
+    seedWithDatasets = new ArrayList<>();
+    setAssertMatchesDatasets(new ArrayList<>());
+    assertAnnotationPresent = false;
+    seedWithDatasetLocations = new ArrayList<>();
+    assertMatchesDatasetLocations = new ArrayList<>();
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param seedWithDatasets Datasets to seed the database with.
+   * @param assertMatchesDatasets Datasets to verify matching with.
+   * @param assertAnnotationPresent Flag to indicate if {@link AssertMatchesDataset} annotation has
+   * been encountered, i.e., the 'assertMatchesDatasets' should actually be used to assert matches,
+   * as opposed to having 'assertMatchesDatasets' only there from {@link SeedWithDataset} with
+   * 'reuseForAssertion = true'.
+   */
+  public MongoUnitDatasets(
+      List<MongoUnitCollection> seedWithDatasets,
+      List<MongoUnitCollection> assertMatchesDatasets, boolean assertAnnotationPresent) {
+    this.seedWithDatasets = seedWithDatasets;
+    setAssertMatchesDatasets(assertMatchesDatasets);
+    this.assertAnnotationPresent = assertAnnotationPresent;
+    this.seedWithDatasetLocations = new ArrayList<>();
+    this.assertMatchesDatasetLocations = new ArrayList<>();
+  }
+
+  /**
+   * @return Datasets to seed the database with.
+   */
+  public List<MongoUnitCollection> getSeedWithDatasets() {
+    return seedWithDatasets;
+  }
+
+  /**
+   * @param seedWithDatasets Datasets to seed the database with.
+   */
+  public void setSeedWithDatasets(
+      List<MongoUnitCollection> seedWithDatasets) {
+    this.seedWithDatasets = seedWithDatasets;
+  }
+
+  /**
+   * Resolves the datasets to verify matching with. The first call invokes the supplier set with
+   * {@link #setAssertMatchesDatasetsSupplier(Supplier)}; subsequent calls return the same list.
+   *
+   * @return Datasets to verify matching with.
+   */
+  public synchronized List<MongoUnitCollection> getAssertMatchesDatasets() {
+
+    if (!assertMatchesDatasetsResolved) {
+      List<MongoUnitCollection> resolvedDatasets = assertMatchesDatasets.get();
+      assertMatchesDatasets = () -> resolvedDatasets;
+      assertMatchesDatasetsResolved = true;
+    }
+
+    return assertMatchesDatasets.get();
+  }
+
+  /**
+   * @param assertMatchesDatasets Datasets to verify matching with.
+   */
+  public synchronized void setAssertMatchesDatasets(
+      List<MongoUnitCollection> assertMatchesDatasets) {
+    this.assertMatchesDatasets = () -> assertMatchesDatasets;
+    this.assertMatchesDatasetsResolved = true;
+  }
+
+  /**
+   * @param assertMatchesDatasets Supplier of the datasets to verify matching with, which is only
+   * invoked once the datasets are first requested with {@link #getAssertMatchesDatasets()}.
+   */
+  public synchronized void setAssertMatchesDatasetsSupplier(
+      Supplier<List<MongoUnitCollection>> assertMatchesDatasets) {
+    this.assertMatchesDatasets = assertMatchesDatasets;
+    this.assertMatchesDatasetsResolved = false;
+  }
+
+  /**
+   * @return Flag to indicate if the datasets to verify matching with have already been resolved,
+   * i.e., either set directly or loaded by the supplier on the first request.
+   */
+  public synchronized boolean isAssertMatchesDatasetsResolved() {
+    return assertMatchesDatasetsResolved;
+  }
+
+  /**
+   * @return Flag to indicate if {@link AssertMatchesDataset} annotation has been encountered, i.e.,
+   * the 'assertMatchesDatasets' should actually be used to assert matches, as opposed to having
+   * 'assertMatchesDatasets' only there from {@link SeedWithDataset} with 'reuseForAssertion =
+   * true'.
+   */
+  public boolean isAssertAnnotationPresent() {
+    return assertAnnotationPresent;
+  }
+
+  /**
+   * @param assertAnnotationPresent Flag to indicate if {@link AssertMatchesDataset} annotation has
+   * been encountered, i.e., the 'assertMatchesDatasets' should actually be used to assert matches,
+   * as opposed to having 'assertMatchesDatasets' only there from {@link SeedWithDataset} with
+   * 'reuseForAssertion = true'.
+   */
+  public void setAssertAnnotationPresent(boolean assertAnnotationPresent) {
+    this.assertAnnotationPresent = assertAnnotationPresent;
+  }
+
+  /**
+   * @return Descriptions of the locations of the dataset files the seed datasets were loaded from,
+   * in the order they were loaded in.
+   */
+  public List<String> getSeedWithDatasetLocations() {
+    return seedWithDatasetLocations;
+  }
+
+  /**
+   * @param seedWithDatasetLocations Descriptions of the locations of the dataset files the seed
+   * datasets were loaded from, in the order they were loaded in.
+   */
+  public void setSeedWithDatasetLocations(List<String> seedWithDatasetLocations) {
+    this.seedWithDatasetLocations = seedWithDatasetLocations;
+  }
+
+  /**
+   * @return Descriptions of the locations of the dataset files the assert datasets were loaded
+   * from, in the order they were loaded in.
+   */
+  public List<String> getAssertMatchesDatasetLocations() {
+    return assertMatchesDatasetLocations;
+  }
+
+  /**
+   * @param assertMatchesDatasetLocations Descriptions of the locations of the dataset files the
+   * assert datasets were loaded from, in the order they were loaded in.
+   */
+  public void setAssertMatchesDatasetLocations(List<String> assertMatchesDatasetLocations) {
+    this.assertMatchesDatasetLocations = assertMatchesDatasetLocations;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "MongoUnitDatasets{" +
+        "seedWithDatasets=" + seedWithDatasets +
+        ", assertMatchesDatasets=" + (assertMatchesDatasetsResolved
+        ? assertMatchesDatasets.get() : "<unresolved>") +
+        ", assertAnnotationPresent=" + assertAnnotationPresent +
+        ", seedWithDatasetLocations=" + seedWithDatasetLocations +
+        ", assertMatchesDatasetLocations=" + assertMatchesDatasetLocations +
+        '}';
+  }
+}
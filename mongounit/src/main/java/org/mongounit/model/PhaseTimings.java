@@ -0,0 +1,221 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.model;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import org.mongounit.MongoUnitPhase;
+
+/**
+ * {@link PhaseTimings} class accumulates the time spent in each {@link MongoUnitPhase} while the
+ * MongoUnit framework processes a single test (or a single test class, for class-level work).
+ */
+public class PhaseTimings {
+
+  /**
+   * Prefix of every report entry key published for phase timings.
+   */
+  public static final String REPORT_ENTRY_KEY_PREFIX = "mongounit.";
+
+  /**
+   * Suffix of every report entry key published for phase timings, denoting the value unit.
+   */
+  public static final String REPORT_ENTRY_KEY_SUFFIX = ".ms";
+
+  /**
+   * Name used in report entries and timings files for the sum of all phase timings.
+   */
+  public static final String TOTAL_KEY = "total";
+
+  /**
+   * Report entry key of the number of documents seeded.
+   */
+  public static final String SEED_DOCUMENTS_KEY = REPORT_ENTRY_KEY_PREFIX + "seed.documents";
+
+  /**
+   * Report entry key of the BSON encoded size of the documents seeded, in bytes.
+   */
+  public static final String SEED_BYTES_KEY = REPORT_ENTRY_KEY_PREFIX + "seed.bytes";
+
+  /**
+   * Report entry key of the locations of the dataset files the seed dataset was loaded from.
+   */
+  public static final String SEED_DATASETS_KEY = REPORT_ENTRY_KEY_PREFIX + "seed.datasets";
+
+  /**
+   * Separator of the dataset file locations in the value of the 'SEED_DATASETS_KEY' report entry.
+   */
+  public static final String DATASET_LOCATION_SEPARATOR = ";";
+
+  /**
+   * Map of phases to the accumulated number of nanoseconds spent in them.
+   */
+  private final Map<MongoUnitPhase, Long> nanosByPhase = new EnumMap<>(MongoUnitPhase.class);
+
+  /**
+   * Number of documents seeded.
+   */
+  private long seedDocumentCount;
+
+  /**
+   * BSON encoded size of the documents seeded, in bytes.
+   */
+  private long seedByteCount;
+
+  /**
+   * Locations of the dataset files the seed dataset was loaded from. Empty if not known.
+   */
+  private List<String> seedDatasetLocations = new ArrayList<>();
+
+  /**
+   * Adds the provided 'nanos' to the time spent in the provided 'phase'.
+   *
+   * @param phase Phase in which the time was spent.
+   * @param nanos Number of nanoseconds spent.
+   */
+  public void add(MongoUnitPhase phase, long nanos) {
+    nanosByPhase.merge(phase, nanos, Long::sum);
+  }
+
+  /**
+   * Adds the provided counts to the number and size of documents seeded.
+   *
+   * @param documentCount Number of documents seeded.
+   * @param byteCount BSON encoded size of the documents seeded, in bytes.
+   */
+  public void addSeeded(long documentCount, long byteCount) {
+    seedDocumentCount += documentCount;
+    seedByteCount += byteCount;
+  }
+
+  /**
+   * Adds the times and counts of the provided 'phaseTimings', e.g., recorded on another thread,
+   * to these timings.
+   *
+   * @param phaseTimings Timings to add.
+   */
+  public void addAll(PhaseTimings phaseTimings) {
+    phaseTimings.nanosByPhase.forEach(this::add);
+    addSeeded(phaseTimings.seedDocumentCount, phaseTimings.seedByteCount);
+  }
+
+  /**
+   * @return Number of documents seeded.
+   */
+  public long getSeedDocumentCount() {
+    return seedDocumentCount;
+  }
+
+  /**
+   * @return BSON encoded size of the documents seeded, in bytes.
+   */
+  public long getSeedByteCount() {
+    return seedByteCount;
+  }
+
+  /**
+   * @return Locations of the dataset files the seed dataset was loaded from. Empty if not known.
+   */
+  public List<String> getSeedDatasetLocations() {
+    return seedDatasetLocations;
+  }
+
+  /**
+   * @param seedDatasetLocations Locations of the dataset files the seed dataset was loaded from.
+   */
+  public void setSeedDatasetLocations(List<String> seedDatasetLocations) {
+    this.seedDatasetLocations = seedDatasetLocations;
+  }
+
+  /**
+   * @param phase Phase to retrieve the time spent in.
+   * @return Accumulated number of nanoseconds spent in the provided 'phase'. Zero if no time was
+   * recorded for it.
+   */
+  public long getNanos(MongoUnitPhase phase) {
+    return nanosByPhase.getOrDefault(phase, 0L);
+  }
+
+  /**
+   * @return Accumulated number of nanoseconds spent in all phases.
+   */
+  public long getTotalNanos() {
+    return nanosByPhase.values().stream().mapToLong(Long::longValue).sum();
+  }
+
+  /**
+   * @return Map of report entry keys to the time spent in each phase, plus the total, in
+   * milliseconds with microsecond precision, e.g., 'mongounit.insert.ms' to '12.345'. Every phase
+   * is included, even if no time was recorded for it. The number and size of the documents seeded
+   * and, if known, the locations of the seed dataset files are included as well.
+   */
+  public Map<String, String> toReportEntries() {
+
+    Map<String, String> reportEntries = new LinkedHashMap<>();
+    for (MongoUnitPhase phase : MongoUnitPhase.values()) {
+      reportEntries.put(
+          REPORT_ENTRY_KEY_PREFIX + phase.getKey() + REPORT_ENTRY_KEY_SUFFIX,
+          toMillisString(getNanos(phase)));
+    }
+
+    reportEntries.put(
+        REPORT_ENTRY_KEY_PREFIX + TOTAL_KEY + REPORT_ENTRY_KEY_SUFFIX,
+        toMillisString(getTotalNanos()));
+
+    reportEntries.put(SEED_DOCUMENTS_KEY, String.valueOf(seedDocumentCount));
+    reportEntries.put(SEED_BYTES_KEY, String.valueOf(seedByteCount));
+
+    // JUnit doesn't allow blank report entry values, so leave out unknown locations
+    if (!seedDatasetLocations.isEmpty()) {
+      reportEntries.put(
+          SEED_DATASETS_KEY,
+          String.join(DATASET_LOCATION_SEPARATOR, seedDatasetLocations));
+    }
+
+    return reportEntries;
+  }
+
+  /**
+   * @return Map of phase names to the number of nanoseconds spent in each phase, plus the total.
+   * Every phase is included, even if no time was recorded for it.
+   */
+  public Map<String, Long> toNanosMap() {
+
+    Map<String, Long> nanosMap = new LinkedHashMap<>();
+    for (MongoUnitPhase phase : MongoUnitPhase.values()) {
+      nanosMap.put(phase.getKey(), getNanos(phase));
+    }
+
+    nanosMap.put(TOTAL_KEY, getTotalNanos());
+
+    return nanosMap;
+  }
+
+  /**
+   * @param nanos Number of nanoseconds to format.
+   * @return String representation of the provided 'nanos' in milliseconds with 3 decimal places.
+   */
+  private static String toMillisString(long nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / 1_000_000.0);
+  }
+
+  @Override
+  public String toString() {
+    return "PhaseTimings{" +
+        "nanosByPhase=" + nanosByPhase +
+        ", seedDocumentCount=" + seedDocumentCount +
+        ", seedByteCount=" + seedByteCount +
+        ", seedDatasetLocations=" + seedDatasetLocations +
+        '}';
+  }
+}
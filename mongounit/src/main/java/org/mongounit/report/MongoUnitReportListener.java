@@ -0,0 +1,314 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.report;
+
+import static org.mongounit.config.MongoUnitConfigurationUtil.loadMongoUnitProperties;
+import static org.mongounit.model.PhaseTimings.DATASET_LOCATION_SEPARATOR;
+import static org.mongounit.model.PhaseTimings.REPORT_ENTRY_KEY_PREFIX;
+import static org.mongounit.model.PhaseTimings.REPORT_ENTRY_KEY_SUFFIX;
+import static org.mongounit.model.PhaseTimings.SEED_BYTES_KEY;
+import static org.mongounit.model.PhaseTimings.SEED_DATASETS_KEY;
+import static org.mongounit.model.PhaseTimings.SEED_DOCUMENTS_KEY;
+import static org.mongounit.model.PhaseTimings.TOTAL_KEY;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+import org.junit.platform.engine.reporting.ReportEntry;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+import org.mongounit.MongoUnitPhase;
+import org.mongounit.config.MongoUnitProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link MongoUnitReportListener} class is a JUnit Platform {@link TestExecutionListener} that
+ * collects the per-test MongoUnit timings and dataset sizes published as report entries by the
+ * {@link org.mongounit.MongoUnitExtension} and, at the end of the test run, produces a ranked
+ * report of the tests with the highest MongoUnit overhead, the largest seed datasets, and the most
+ * reused dataset files.
+ *
+ * The listener is registered automatically through the 'ServiceLoader' mechanism but only produces
+ * the report if the 'mongounit.report.enabled' property is set to 'true'.
+ */
+public class MongoUnitReportListener implements TestExecutionListener {
+
+  /**
+   * Logger for this class.
+   */
+  private static final Logger log = LoggerFactory.getLogger(MongoUnitReportListener.class);
+
+  /**
+   * Collection of properties framework was configured with. 'null' if the report is not enabled.
+   */
+  private MongoUnitProperties mongoUnitProperties;
+
+  /**
+   * Test plan being executed.
+   */
+  private TestPlan testPlan;
+
+  /**
+   * Records of the tests that published MongoUnit report entries.
+   */
+  private final ConcurrentLinkedQueue<TestRecord> testRecords = new ConcurrentLinkedQueue<>();
+
+  @Override
+  public void testPlanExecutionStarted(TestPlan testPlan) {
+
+    MongoUnitProperties properties = loadMongoUnitProperties();
+    this.mongoUnitProperties = properties.isReportEnabled() ? properties : null;
+    this.testPlan = testPlan;
+    testRecords.clear();
+  }
+
+  @Override
+  public void reportingEntryPublished(TestIdentifier testIdentifier, ReportEntry entry) {
+
+    // Only record MongoUnit entries of tests (as opposed to class-level entries) if enabled
+    Map<String, String> keyValuePairs = entry.getKeyValuePairs();
+    String totalKey = REPORT_ENTRY_KEY_PREFIX + TOTAL_KEY + REPORT_ENTRY_KEY_SUFFIX;
+    if (mongoUnitProperties == null
+        || !testIdentifier.isTest()
+        || !keyValuePairs.containsKey(totalKey)) {
+      return;
+    }
+
+    TestRecord testRecord = new TestRecord();
+    testRecord.name = getTestName(testIdentifier);
+    testRecord.totalMillis = parseDouble(keyValuePairs.get(totalKey));
+    testRecord.seedMillis = getPhaseMillis(keyValuePairs, MongoUnitPhase.BSON_CONVERSION)
+        + getPhaseMillis(keyValuePairs, MongoUnitPhase.INSERT);
+    testRecord.resetMillis = getPhaseMillis(keyValuePairs, MongoUnitPhase.DROP);
+    testRecord.assertMillis = getPhaseMillis(keyValuePairs, MongoUnitPhase.EXTRACTION)
+        + getPhaseMillis(keyValuePairs, MongoUnitPhase.ASSERTION);
+    testRecord.seedDocuments = (long) parseDouble(keyValuePairs.get(SEED_DOCUMENTS_KEY));
+    testRecord.seedBytes = (long) parseDouble(keyValuePairs.get(SEED_BYTES_KEY));
+
+    String seedDatasets = keyValuePairs.get(SEED_DATASETS_KEY);
+    testRecord.seedDatasetLocations = seedDatasets == null || seedDatasets.isEmpty() ?
+        new ArrayList<>() :
+        List.of(seedDatasets.split(DATASET_LOCATION_SEPARATOR));
+
+    testRecords.add(testRecord);
+  }
+
+  @Override
+  public void testPlanExecutionFinished(TestPlan testPlan) {
+
+    if (mongoUnitProperties == null || testRecords.isEmpty()) {
+      return;
+    }
+
+    String report = generateReport(
+        new ArrayList<>(testRecords),
+        mongoUnitProperties.getReportTopCount());
+
+    // Write report to file if configured, otherwise print it
+    String reportFile = mongoUnitProperties.getReportFile();
+    if (reportFile == null) {
+      System.out.println(report);
+    } else {
+
+      try {
+
+        Path path = Paths.get(reportFile);
+        Path parentPath = path.toAbsolutePath().getParent();
+        if (parentPath != null) {
+          Files.createDirectories(parentPath);
+        }
+        Files.write(path, report.getBytes(StandardCharsets.UTF_8));
+
+      } catch (IOException ioException) {
+        log.error("Unable to write MongoUnit report to '" + reportFile + "'.", ioException);
+      }
+    }
+  }
+
+  /**
+   * @param testRecords Records of the tests to report on.
+   * @param topCount Number of entries to list in each section of the report.
+   * @return Text of the report.
+   */
+  static String generateReport(List<TestRecord> testRecords, int topCount) {
+
+    StringBuilder report = new StringBuilder();
+    double totalMillis = testRecords.stream().mapToDouble(record -> record.totalMillis).sum();
+    report.append(String.format(Locale.ROOT,
+        "%nMongoUnit performance report: %d tests, %.3f ms total MongoUnit overhead%n",
+        testRecords.size(),
+        totalMillis));
+
+    // Slowest tests by total MongoUnit overhead
+    report.append(String.format("%nSlowest tests by MongoUnit overhead:%n"));
+    List<TestRecord> slowestTests = testRecords.stream()
+        .sorted(Comparator.comparingDouble((TestRecord record) -> record.totalMillis).reversed())
+        .limit(topCount)
+        .collect(Collectors.toList());
+    for (int i = 0; i < slowestTests.size(); i++) {
+      TestRecord record = slowestTests.get(i);
+      report.append(String.format(Locale.ROOT,
+          "%3d. %12.3f ms (seed %.3f, reset %.3f, assert %.3f)  %s%n",
+          i + 1,
+          record.totalMillis,
+          record.seedMillis,
+          record.resetMillis,
+          record.assertMillis,
+          record.name));
+    }
+
+    // Largest seed datasets, where a dataset is the combination of files a test was seeded from
+    Map<String, TestRecord> largestByDataset = new HashMap<>();
+    for (TestRecord record : testRecords) {
+      if (!record.seedDatasetLocations.isEmpty()) {
+        largestByDataset.merge(
+            String.join(", ", record.seedDatasetLocations),
+            record,
+            (existing, candidate) -> candidate.seedBytes > existing.seedBytes ?
+                candidate :
+                existing);
+      }
+    }
+    report.append(String.format("%nLargest seed datasets:%n"));
+    List<Map.Entry<String, TestRecord>> largestDatasets = largestByDataset.entrySet().stream()
+        .sorted(Comparator.comparingLong(
+            (Map.Entry<String, TestRecord> entry) -> entry.getValue().seedBytes).reversed())
+        .limit(topCount)
+        .collect(Collectors.toList());
+    for (int i = 0; i < largestDatasets.size(); i++) {
+      Map.Entry<String, TestRecord> entry = largestDatasets.get(i);
+      report.append(String.format(Locale.ROOT,
+          "%3d. %12d bytes %8d documents  %s%n",
+          i + 1,
+          entry.getValue().seedBytes,
+          entry.getValue().seedDocuments,
+          entry.getKey()));
+    }
+
+    // Dataset files seeded by the most tests are the best candidates for caching
+    Map<String, Long> testCountByLocation = testRecords.stream()
+        .flatMap(record -> record.seedDatasetLocations.stream().distinct())
+        .collect(Collectors.groupingBy(location -> location, Collectors.counting()));
+    report.append(String.format("%nMost reused seed dataset files:%n"));
+    List<Map.Entry<String, Long>> mostReused = testCountByLocation.entrySet().stream()
+        .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+        .limit(topCount)
+        .collect(Collectors.toList());
+    for (int i = 0; i < mostReused.size(); i++) {
+      report.append(String.format(Locale.ROOT,
+          "%3d. %6d tests  %s%n",
+          i + 1,
+          mostReused.get(i).getValue(),
+          mostReused.get(i).getKey()));
+    }
+
+    return report.toString();
+  }
+
+  /**
+   * @param testIdentifier Identifier of the test.
+   * @return Name of the test, prefixed with the display name of its parent, e.g., 'MyIT >
+   * testSomething()'.
+   */
+  private String getTestName(TestIdentifier testIdentifier) {
+
+    String parentName = testPlan == null ?
+        null :
+        testPlan.getParent(testIdentifier).map(TestIdentifier::getDisplayName).orElse(null);
+
+    return parentName == null ?
+        testIdentifier.getDisplayName() :
+        parentName + " > " + testIdentifier.getDisplayName();
+  }
+
+  /**
+   * @param keyValuePairs Key/value pairs of the MongoUnit report entry.
+   * @param phase Phase to retrieve the time spent in.
+   * @return Time spent in the provided 'phase', in milliseconds. Zero if not present.
+   */
+  private static double getPhaseMillis(Map<String, String> keyValuePairs, MongoUnitPhase phase) {
+    return parseDouble(
+        keyValuePairs.get(REPORT_ENTRY_KEY_PREFIX + phase.getKey() + REPORT_ENTRY_KEY_SUFFIX));
+  }
+
+  /**
+   * @param value String representation of a number. Can be 'null'.
+   * @return Number represented by the provided 'value' or zero if it's 'null' or not a number.
+   */
+  private static double parseDouble(String value) {
+
+    if (value == null) {
+      return 0;
+    }
+
+    try {
+      return Double.parseDouble(value);
+    } catch (NumberFormatException numberFormatException) {
+      return 0;
+    }
+  }
+
+  /**
+   * {@link TestRecord} class holds the MongoUnit timings and dataset sizes of a single test.
+   */
+  static class TestRecord {
+
+    /**
+     * Name of the test.
+     */
+    String name;
+
+    /**
+     * Total MongoUnit overhead of the test, in milliseconds.
+     */
+    double totalMillis;
+
+    /**
+     * Time spent seeding the database, in milliseconds.
+     */
+    double seedMillis;
+
+    /**
+     * Time spent resetting the database, in milliseconds.
+     */
+    double resetMillis;
+
+    /**
+     * Time spent extracting and asserting the database state, in milliseconds.
+     */
+    double assertMillis;
+
+    /**
+     * Number of documents seeded.
+     */
+    long seedDocuments;
+
+    /**
+     * BSON encoded size of the documents seeded, in bytes.
+     */
+    long seedBytes;
+
+    /**
+     * Locations of the dataset files the test was seeded from.
+     */
+    List<String> seedDatasetLocations = new ArrayList<>();
+  }
+}
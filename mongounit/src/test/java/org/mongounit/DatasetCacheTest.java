@@ -0,0 +1,268 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mongounit.config.MongoUnitProperties;
+import org.mongounit.model.MongoUnitCollection;
+
+/**
+ * {@link DatasetCacheTest} is a test class for {@link DatasetCache} class.
+ */
+@DisplayName("Dataset cache")
+class DatasetCacheTest {
+
+  /**
+   * Executor that runs each prefetch on the thread that schedules it.
+   */
+  private static final Executor INLINE_EXECUTOR = Runnable::run;
+
+  @TempDir
+  Path tempDirectory;
+
+  @AfterEach
+  void clearCache() {
+    DatasetCache.clear();
+  }
+
+  @Test
+  @DisplayName("Prefetched file is retrieved from the cache")
+  void testCacheHit() throws IOException {
+
+    Path file = writeDataset("hit.json", "prefetched");
+    DatasetCache.prefetch(file.toString(), LocationType.ABSOLUTE, null, "Test", INLINE_EXECUTOR);
+
+    // The file is no longer read once it's cached
+    Files.delete(file);
+    List<MongoUnitCollection> dataset = retrieve(file);
+
+    assertEquals("prefetched", toName(dataset));
+    assertSame(dataset, retrieve(file), "Every test should get the same cached collections");
+  }
+
+  @Test
+  @DisplayName("File that is not prefetched is loaded on every request")
+  void testCacheMiss() throws IOException {
+
+    Path file = writeDataset("miss.json", "original");
+    List<MongoUnitCollection> dataset = retrieve(file);
+    assertEquals("original", toName(dataset));
+
+    writeDataset("miss.json", "changed");
+    List<MongoUnitCollection> reloadedDataset = retrieve(file);
+    assertNotSame(dataset, reloadedDataset, "Uncached file should not be kept");
+    assertEquals("changed", toName(reloadedDataset), "Uncached file should be read again");
+  }
+
+  @Test
+  @DisplayName("File requested before its prefetch started is loaded by the test")
+  void testPrefetchNotStarted() throws IOException {
+
+    Path file = writeDataset("pending.json", "pending");
+    List<Runnable> scheduledPrefetches = new ArrayList<>();
+    DatasetCache.prefetch(
+        file.toString(),
+        LocationType.ABSOLUTE,
+        null,
+        "Test",
+        scheduledPrefetches::add);
+
+    List<MongoUnitCollection> dataset = retrieve(file);
+    assertEquals("pending", toName(dataset));
+
+    // The late prefetch leaves the collections the test loaded in place
+    scheduledPrefetches.get(0).run();
+    Files.delete(file);
+    assertSame(dataset, retrieve(file), "Collections loaded by the test should be cached");
+  }
+
+  @Test
+  @DisplayName("Failed prefetch is reported when the file is requested")
+  void testPrefetchFailure() throws IOException {
+
+    Path file = tempDirectory.resolve("failure.json");
+    DatasetCache.prefetch(file.toString(), LocationType.ABSOLUTE, null, "Test", INLINE_EXECUTOR);
+
+    // Error is the same as without the cache
+    MongoUnitException exception = assertThrows(MongoUnitException.class, () -> retrieve(file));
+    assertTrue(
+        exception.getMessage().contains("Failed to load file resource"),
+        "Error should come from loading the file");
+
+    // File is loaded again, so a file that's fixed since is found
+    writeDataset("failure.json", "fixed");
+    assertEquals("fixed", toName(retrieve(file)));
+  }
+
+  @Test
+  @DisplayName("Prefetched datasets are held off-heap within the budget")
+  void testOffHeapBudget() throws IOException {
+
+    Path file = writeDataset("offheap.json", "off-heap");
+    DatasetCache.setOffHeapBudget(1024L * 1024);
+    DatasetCache.prefetch(file.toString(), LocationType.ABSOLUTE, null, "Test", INLINE_EXECUTOR);
+    Files.delete(file);
+
+    // Every request decodes its own copy from the off-heap store
+    List<MongoUnitCollection> dataset = retrieve(file);
+    assertEquals("off-heap", toName(dataset));
+    assertNotSame(dataset, retrieve(file), "Off-heap dataset should be decoded again");
+    assertEquals(dataset, retrieve(file));
+  }
+
+  @Test
+  @DisplayName("Dataset evicted from the off-heap store is loaded from its file again")
+  void testOffHeapEviction() throws IOException {
+
+    // Budget too small for any dataset, so it's kept on the heap instead
+    Path file = writeDataset("tiny.json", "on-heap");
+    DatasetCache.setOffHeapBudget(1L);
+    DatasetCache.prefetch(file.toString(), LocationType.ABSOLUTE, null, "Test", INLINE_EXECUTOR);
+    List<MongoUnitCollection> dataset = retrieve(file);
+    assertSame(dataset, retrieve(file), "Dataset over the budget should stay on the heap");
+
+    // Budget of a single dataset, so the second one evicts the first
+    DatasetCache.clear();
+    Path first = writeDataset("first.json", "first");
+    Path second = writeDataset("second.json", "other");
+    DatasetCache.setOffHeapBudget(measureOffHeap(first));
+    DatasetCache.prefetch(first.toString(), LocationType.ABSOLUTE, null, "Test", INLINE_EXECUTOR);
+    DatasetCache.prefetch(second.toString(), LocationType.ABSOLUTE, null, "Test", INLINE_EXECUTOR);
+
+    writeDataset("first.json", "reloaded");
+    assertEquals("reloaded", toName(retrieve(first)), "Evicted dataset should be loaded again");
+  }
+
+  @Test
+  @DisplayName("Prefetched seed dataset is converted to BSON once for all tests")
+  void testPrefetchConversion() throws IOException {
+
+    MongoUnitProperties mongoUnitProperties = MongoUnitProperties.builder().build();
+    Path file = writeDataset("seed.json", "converted");
+    Path parsedFile = writeDataset("parsed.json", "parsed");
+    DatasetCache.prefetch(
+        file.toString(),
+        LocationType.ABSOLUTE,
+        null,
+        "Test",
+        mongoUnitProperties,
+        INLINE_EXECUTOR);
+    DatasetCache.prefetch(
+        parsedFile.toString(),
+        LocationType.ABSOLUTE,
+        null,
+        "Test",
+        INLINE_EXECUTOR);
+
+    List<Map<String, Object>> documents = retrieve(file).get(0).getDocuments();
+    List<Document> bsonDocuments =
+        DatasetCache.getConvertedDocuments(documents, mongoUnitProperties);
+    assertEquals(List.of(new Document("name", "converted")), bsonDocuments);
+
+    // Seeding reuses the converted documents rather than converting them again
+    assertSame(
+        bsonDocuments,
+        MongoUnitUtil.toBsonDocuments(retrieve(file), mongoUnitProperties).get(documents),
+        "Converted documents should be reused");
+
+    // Documents converted with other MongoUnit value indicators can't be reused
+    assertNull(DatasetCache.getConvertedDocuments(
+        documents,
+        MongoUnitProperties.builder().mongoUnitValueFieldNameIndicator("##").build()));
+
+    // Dataset prefetched without properties is only parsed
+    assertNull(DatasetCache.getConvertedDocuments(
+        retrieve(parsedFile).get(0).getDocuments(),
+        mongoUnitProperties));
+
+    // Converted documents are cleared along with the datasets
+    DatasetCache.clear();
+    assertNull(DatasetCache.getConvertedDocuments(documents, mongoUnitProperties));
+  }
+
+  @Test
+  @DisplayName("Prefetched seed dataset held off-heap is not converted to BSON")
+  void testPrefetchConversionOffHeap() throws IOException {
+
+    MongoUnitProperties mongoUnitProperties = MongoUnitProperties.builder().build();
+    Path file = writeDataset("offheapseed.json", "off-heap");
+    DatasetCache.setOffHeapBudget(1024L * 1024);
+    DatasetCache.prefetch(
+        file.toString(),
+        LocationType.ABSOLUTE,
+        null,
+        "Test",
+        mongoUnitProperties,
+        INLINE_EXECUTOR);
+
+    assertNull(DatasetCache.getConvertedDocuments(
+        retrieve(file).get(0).getDocuments(),
+        mongoUnitProperties));
+  }
+
+  /**
+   * @param file Path to the dataset file.
+   * @return Number of bytes the dataset of the provided 'file' takes in an off-heap store.
+   */
+  private static long measureOffHeap(Path file) {
+
+    OffHeapDatasetStore store = new OffHeapDatasetStore(Long.MAX_VALUE);
+    store.put("dataset", retrieve(file));
+    return store.getUsedBytes();
+  }
+
+  /**
+   * @param fileName Name of the file to write in the temporary directory.
+   * @param name Name of the only document of the dataset.
+   * @return Path to the written dataset file with a 'people' collection holding a single document
+   * with the provided 'name'.
+   * @throws IOException If the file could not be written.
+   */
+  private Path writeDataset(String fileName, String name) throws IOException {
+
+    String dataset =
+        "[{\"collectionName\":\"people\",\"documents\":[{\"name\":\"" + name + "\"}]}]";
+    return Files.write(tempDirectory.resolve(fileName), dataset.getBytes(UTF_8));
+  }
+
+  /**
+   * @param file Path to the dataset file.
+   * @return Collections of the dataset file, as retrieved from the {@link DatasetCache}.
+   */
+  private static List<MongoUnitCollection> retrieve(Path file) {
+    return DatasetCache.retrieveDataset(file.toString(), LocationType.ABSOLUTE, null, "Test");
+  }
+
+  /**
+   * @param dataset Dataset with a single 'people' collection holding a single document.
+   * @return Name of the document.
+   */
+  private static Object toName(List<MongoUnitCollection> dataset) {
+    return dataset.get(0).getDocuments().get(0).get("name");
+  }
+}
@@ -0,0 +1,433 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mongounit.MongoUnitUtil.fromDatabase;
+import static org.mongounit.MongoUnitUtil.retrieveDatasetFromFile;
+import static org.mongounit.config.MongoUnitProperties.DEFAULT_MONGO_UNIT_VALUE_INDICATOR_FIELD_NAME;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mongounit.config.MongoUnitProperties;
+import org.mongounit.embedded.EmbeddedMongoServer;
+import org.mongounit.model.MongoUnitCollection;
+
+/**
+ * {@link DatasetExporterTest} is a test class for {@link DatasetExporter} class, exercised against
+ * an {@link EmbeddedMongoServer}.
+ */
+@DisplayName("Dataset exporter")
+class DatasetExporterTest {
+
+  private static final String DATABASE_NAME = "exporterdb";
+
+  private static final List<String> PRESERVE_BSON_TYPES = Arrays.asList("OBJECT_ID", "DATE_TIME");
+
+  private static EmbeddedMongoServer server;
+
+  private static MongoClient mongoClient;
+
+  private final MongoUnitProperties mongoUnitProperties =
+      new MongoUnitProperties(
+          null,
+          null,
+          DEFAULT_MONGO_UNIT_VALUE_INDICATOR_FIELD_NAME,
+          null,
+          null);
+
+  @TempDir
+  Path tempDir;
+
+  @BeforeAll
+  static void startServer() {
+    server = new EmbeddedMongoServer();
+    server.start(0);
+    mongoClient = MongoClients.create(server.getConnectionString(DATABASE_NAME));
+  }
+
+  @AfterAll
+  static void stopServer() {
+    mongoClient.close();
+    server.close();
+  }
+
+  @BeforeEach
+  void seedDatabase() {
+
+    server.clearDatabase(DATABASE_NAME);
+
+    List<Document> people = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      people.add(new Document("_id", new ObjectId())
+          .append("name", "person" + i)
+          .append("age", i % 7)
+          .append("born", new Date(1_000_000_000_000L + i))
+          .append("address", new Document("city", "city" + i % 3).append("zip", i))
+          .append("tags", Arrays.asList("tag" + i % 2, i)));
+    }
+    getDatabase().getCollection("people").insertMany(people);
+    getDatabase().createCollection("empty");
+  }
+
+  @Test
+  @DisplayName("Streamed JSON output matches the serialized extracted dataset")
+  void testStreamedJson() throws Exception {
+
+    List<String> collectionNames = Arrays.asList("people", "empty");
+    Path outputPath = tempDir.resolve("output.json");
+
+    newExporter(arguments().build()).export(collectionNames, outputPath);
+
+    // Same bytes as writing the whole dataset, extracted in memory, with the default printer
+    ObjectMapper jsonMapper = new ObjectMapper();
+    jsonMapper.registerModule(new JavaTimeModule());
+    jsonMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    List<MongoUnitCollection> extractedDataset = fromDatabase(
+        getDatabase(),
+        mongoUnitProperties,
+        PRESERVE_BSON_TYPES,
+        collectionNames.toArray(new String[0]));
+    assertEquals(
+        jsonMapper.writerWithDefaultPrettyPrinter().writeValueAsString(extractedDataset),
+        Files.readString(outputPath),
+        "Streamed output should be identical to the in-memory output");
+    assertNoChunksLeft();
+  }
+
+  @Test
+  @DisplayName("Streamed JSON Lines and gzipped output load as the same dataset")
+  void testStreamedJsonLines() throws Exception {
+
+    List<String> collectionNames = Arrays.asList("people", "empty");
+    Path jsonPath = tempDir.resolve("output.json");
+    Path jsonLinesPath = tempDir.resolve("output.jsonl.gz");
+
+    DatasetExporter datasetExporter = newExporter(arguments().build());
+    datasetExporter.export(collectionNames, jsonPath);
+    datasetExporter.export(collectionNames, jsonLinesPath);
+
+    List<MongoUnitCollection> jsonDataset = load(jsonPath);
+    List<MongoUnitCollection> jsonLinesDataset = load(jsonLinesPath);
+    assertEquals(2, jsonLinesDataset.size(), "Empty collection should still have a header");
+    assertEquals(50, jsonLinesDataset.get(0).getDocuments().size());
+    assertTrue(jsonLinesDataset.get(1).getDocuments().isEmpty());
+    assertEquals(jsonDataset, jsonLinesDataset, "Both formats should load the same dataset");
+    assertNoChunksLeft();
+  }
+
+  @Test
+  @DisplayName("Ranges of mixed '_id' types are complete and disjoint")
+  void testPlanRangesMixedIds() {
+
+    // Numbers are the most common type, mixed with other numeric types and other types
+    List<Document> documents = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      documents.add(new Document("_id", i % 10 == 5 ? (Object) (i + 0.5) : (Object) i));
+    }
+    documents.add(new Document("_id", 1_000L));
+    for (int i = 0; i < 30; i++) {
+      documents.add(new Document("_id", "id" + i));
+    }
+    for (int i = 0; i < 20; i++) {
+      documents.add(new Document("_id", new ObjectId()));
+    }
+    documents.add(new Document("_id", new Document("compound", 1)));
+    getDatabase().getCollection("mixed").insertMany(documents);
+
+    List<BsonDocument> rangeFilters =
+        newExporter(arguments().parallelism(4).build()).planRanges("mixed");
+
+    // Boundaries split the numbers only; everything else falls into the last range
+    assertTrue(rangeFilters.size() > 2, "Numbers should be split: " + rangeFilters);
+    assertTrue(rangeFilters.size() <= 5, "At most 4 ranges plus the catch-all: " + rangeFilters);
+    assertEquals(
+        new BsonString("number"),
+        rangeFilters.get(0).getDocument("_id").get("$type"),
+        "First range should select only numbers");
+    for (BsonDocument rangeFilter : rangeFilters.subList(1, rangeFilters.size() - 1)) {
+      assertTrue(rangeFilter.getDocument("_id").get("$gte").isNumber(), rangeFilter.toJson());
+    }
+    assertEquals(
+        BsonDocument.parse("{_id: {$not: {$type: 'number'}}}"),
+        rangeFilters.get(rangeFilters.size() - 1),
+        "Last range should select every other type");
+
+    assertCompleteAndDisjoint("mixed", rangeFilters, 252);
+  }
+
+  @Test
+  @DisplayName("Ranges of a collection smaller than the parallelism are complete and disjoint")
+  void testPlanRangesSmallCollection() {
+
+    getDatabase().getCollection("small").insertMany(Arrays.asList(
+        new Document("_id", "a"),
+        new Document("_id", "b"),
+        new Document("_id", "c")));
+
+    DatasetExporter datasetExporter = newExporter(arguments().parallelism(8).build());
+    assertCompleteAndDisjoint("small", datasetExporter.planRanges("small"), 3);
+
+    // Empty collections and single documents aren't split
+    assertEquals(
+        Collections.singletonList(new BsonDocument()),
+        datasetExporter.planRanges("empty"));
+    getDatabase().getCollection("single").insertOne(new Document("_id", 1));
+    assertCompleteAndDisjoint("single", datasetExporter.planRanges("single"), 1);
+  }
+
+  @Test
+  @DisplayName("Collections aren't split without parallelism, with a limit or a sample, or if"
+      + " sampling fails")
+  void testPlanRangesUnsplit() {
+
+    List<BsonDocument> unsplit = Collections.singletonList(new BsonDocument());
+    assertEquals(unsplit, newExporter(arguments().build()).planRanges("people"));
+    assertEquals(
+        unsplit,
+        newExporter(arguments().parallelism(4).limit(10).build()).planRanges("people"));
+    assertEquals(
+        unsplit,
+        newExporter(arguments().parallelism(4).sampleSize(10).build()).planRanges("people"));
+    assertEquals(
+        unsplit,
+        newExporter(arguments()
+            .parallelism(4)
+            .filter(BsonDocument.parse("{name: {$unsupported: 1}}"))
+            .build())
+            .planRanges("people"));
+  }
+
+  @Test
+  @DisplayName("Chunks of parallel scans merge into the same output as a single scan")
+  void testParallelExportMatchesSingleScan() throws Exception {
+
+    // Insert in '_id' order, so the natural order of a single scan matches the order of the ranges
+    List<Document> documents = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      documents.add(new Document("_id", i).append("name", "item" + i));
+    }
+    for (int i = 0; i < 10; i++) {
+      documents.add(new Document("_id", "id" + i).append("name", "text" + i));
+    }
+    getDatabase().getCollection("items").insertMany(documents);
+
+    List<String> collectionNames = Arrays.asList("items", "people", "empty");
+    for (String fileName : Arrays.asList("output.json", "output.jsonl")) {
+
+      Path singlePath = tempDir.resolve("single-" + fileName);
+      Path parallelPath = tempDir.resolve("parallel-" + fileName);
+      newExporter(arguments().build()).export(collectionNames, singlePath);
+      newExporter(arguments().parallelism(4).build()).export(collectionNames, parallelPath);
+
+      assertEquals(
+          Files.readString(singlePath),
+          Files.readString(parallelPath),
+          "Parallel output should be identical to single scan output of " + fileName);
+      assertEquals(310, load(parallelPath).get(0).getDocuments().size());
+    }
+    assertNoChunksLeft();
+  }
+
+  @Test
+  @DisplayName("Chunks are deleted when an export fails")
+  void testFailedExportCleanup() throws Exception {
+
+    DatasetExporter datasetExporter = newExporter(arguments()
+        .parallelism(4)
+        .collectionFilters(Collections.singletonMap(
+            "people",
+            BsonDocument.parse("{name: {$unsupported: 1}}")))
+        .build());
+
+    assertThrows(
+        MongoException.class,
+        () -> datasetExporter.export(
+            Arrays.asList("empty", "people"),
+            tempDir.resolve("output.json")));
+    assertNoChunksLeft();
+  }
+
+  @Test
+  @DisplayName("Filters, per-collection filters, and projections are applied to the export")
+  void testFilterAndProjection() throws Exception {
+
+    getDatabase().getCollection("pets").insertMany(Arrays.asList(
+        new Document("name", "Rex").append("age", 0),
+        new Document("name", "Tom").append("age", 2)));
+
+    Path outputPath = tempDir.resolve("output.json");
+    newExporter(arguments()
+        .parallelism(4)
+        .filter(BsonDocument.parse("{age: 0}"))
+        .collectionFilters(Collections.singletonMap("pets", BsonDocument.parse("{age: 2}")))
+        .projection(BsonDocument.parse("{name: 1, _id: 0}"))
+        .build())
+        .export(Arrays.asList("people", "pets"), outputPath);
+
+    List<MongoUnitCollection> dataset = load(outputPath);
+    List<Map<String, Object>> people = dataset.get(0).getDocuments();
+    assertEquals(8, people.size(), "Every 7th person should match the filter");
+    for (Map<String, Object> person : people) {
+      assertEquals(Collections.singleton("name"), person.keySet(), "Should project the name");
+    }
+    assertEquals(
+        Collections.singletonList(Collections.singletonMap("name", "Tom")),
+        dataset.get(1).getDocuments(),
+        "Collection filter should replace the filter of all collections");
+  }
+
+  @Test
+  @DisplayName("A limit caps each collection even with parallel chunks")
+  void testLimit() throws Exception {
+
+    Path outputPath = tempDir.resolve("output.json");
+    newExporter(arguments().parallelism(4).limit(7).build())
+        .export(Arrays.asList("people", "empty"), outputPath);
+
+    List<MongoUnitCollection> dataset = load(outputPath);
+    assertEquals(7, dataset.get(0).getDocuments().size(), "Should export exactly the limit");
+    assertEquals("person0", dataset.get(0).getDocuments().get(0).get("name"));
+    assertTrue(dataset.get(1).getDocuments().isEmpty());
+    assertNoChunksLeft();
+  }
+
+  @Test
+  @DisplayName("A sample picks distinct documents among those matching the filter")
+  void testSampleWithFilter() throws Exception {
+
+    DatasetGeneratorArguments.DatasetGeneratorArgumentsBuilder sampleArguments = arguments()
+        .parallelism(4)
+        .filter(BsonDocument.parse("{age: 0}"));
+    Path outputPath = tempDir.resolve("output.json");
+
+    newExporter(sampleArguments.sampleSize(5).build())
+        .export(Collections.singletonList("people"), outputPath);
+    List<Map<String, Object>> people = load(outputPath).get(0).getDocuments();
+    assertEquals(5, people.size(), "Should export the sample size");
+    assertEquals(5, people.stream().map(person -> person.get("name")).distinct().count());
+    for (Map<String, Object> person : people) {
+      assertEquals(0, person.get("age"), "Sampled documents should match the filter");
+    }
+
+    // Sample larger than the matching documents exports them all, and a limit caps the sample
+    newExporter(sampleArguments.sampleSize(20).build())
+        .export(Collections.singletonList("people"), outputPath);
+    assertEquals(8, load(outputPath).get(0).getDocuments().size());
+    newExporter(sampleArguments.sampleSize(20).limit(3).build())
+        .export(Collections.singletonList("people"), outputPath);
+    assertEquals(3, load(outputPath).get(0).getDocuments().size());
+  }
+
+  /**
+   * Asserts that every document of the collection with the provided 'collectionName' is selected
+   * by exactly one of the provided 'rangeFilters'.
+   *
+   * @param collectionName Name of the collection the provided 'rangeFilters' were planned for.
+   * @param rangeFilters Filters of the ranges of the collection.
+   * @param documentCount Number of documents in the collection.
+   */
+  private static void assertCompleteAndDisjoint(
+      String collectionName,
+      List<BsonDocument> rangeFilters,
+      int documentCount) {
+
+    MongoCollection<BsonDocument> collection =
+        getDatabase().getCollection(collectionName, BsonDocument.class);
+    Set<BsonValue> allIds = new HashSet<>();
+    collection.find().forEach(document -> allIds.add(document.get("_id")));
+    assertEquals(documentCount, allIds.size());
+
+    Set<BsonValue> rangeIds = new HashSet<>();
+    for (BsonDocument rangeFilter : rangeFilters) {
+      collection.find(rangeFilter).forEach(document -> assertTrue(
+          rangeIds.add(document.get("_id")),
+          document.get("_id") + " should be in only one range of " + rangeFilters));
+    }
+    assertEquals(allIds, rangeIds, "Every document should be in a range of " + rangeFilters);
+  }
+
+  /**
+   * @return Builder of the arguments of an export that preserves the default BSON types.
+   */
+  private static DatasetGeneratorArguments.DatasetGeneratorArgumentsBuilder arguments() {
+
+    return DatasetGeneratorArguments.builder()
+        .preserveBsonTypes(PRESERVE_BSON_TYPES)
+        .mongoUnitValueFieldNameIndicator(DEFAULT_MONGO_UNIT_VALUE_INDICATOR_FIELD_NAME)
+        .parallelism(1);
+  }
+
+  /**
+   * @param arguments Arguments of the export.
+   * @return Exporter of the test database with the provided 'arguments'.
+   */
+  private DatasetExporter newExporter(DatasetGeneratorArguments arguments) {
+    return new DatasetExporter(getDatabase(), mongoUnitProperties, arguments);
+  }
+
+  /**
+   * @param outputPath Path of an exported dataset file.
+   * @return Dataset in the file at the provided 'outputPath'.
+   */
+  private static List<MongoUnitCollection> load(Path outputPath) {
+    return retrieveDatasetFromFile(outputPath.toString(), LocationType.ABSOLUTE, null, null);
+  }
+
+  /**
+   * Asserts that no chunk files are left behind in the temporary directory.
+   *
+   * @throws Exception If the temporary directory could not be listed.
+   */
+  private void assertNoChunksLeft() throws Exception {
+
+    try (Stream<Path> files = Files.list(tempDir)) {
+      assertTrue(
+          files.noneMatch(file -> file.getFileName().toString().endsWith(".chunk")),
+          "Chunk files should be deleted");
+    }
+  }
+
+  /**
+   * @return Database the tests export from.
+   */
+  private static MongoDatabase getDatabase() {
+    return mongoClient.getDatabase(DATABASE_NAME);
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mongounit.DatasetGenerator.extractArgumentValues;
+import static org.mongounit.DatasetGenerator.extractListArgumentValues;
+
+import java.util.Arrays;
+import java.util.List;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link DatasetGeneratorTest} class is a test class for public method of {@link DatasetGenerator}
+ * class.
+ */
+class DatasetGeneratorTest {
+
+  @Test
+  @DisplayName("extractListArgumentValues")
+  void testExtractListArgumentValues() {
+
+    List<String> values = extractListArgumentValues("DATE_TIME,OBJECT_ID");
+    assertEquals("DATE_TIME", values.get(0), "1st value should be correct");
+    assertEquals("OBJECT_ID", values.get(1), "2nd value should be correct");
+    assertEquals(2, values.size(), "Should be 2 values in list");
+
+    // Missing value support
+    values = extractListArgumentValues("DATE_TIME,,OBJECT_ID");
+    assertEquals("DATE_TIME", values.get(0), "1st value should be correct");
+    assertEquals("OBJECT_ID", values.get(1), "2nd value should be correct");
+    assertEquals(2, values.size(), "Should be 2 values in list");
+
+    // Empty list support
+    values = extractListArgumentValues("");
+    assertEquals(0, values.size(), "Should be 0 values in list");
+  }
+
+  @Test
+  @DisplayName("extractArgumentValues of the export options")
+  void testExtractExportArgumentValues() {
+
+    DatasetGeneratorArguments arguments = extractArgumentValues(new String[]{
+        "-dbName=exportdb",
+        "-parallelism=4",
+        "-filter={age: {$gte: 3}}",
+        "-filter.people={name: 'Bob'}",
+        "-filter.my.events={type: {$in: ['a', 'b']}}",
+        "-projection={name: 1, _id: 0}",
+        "-limit=10",
+        "-sample=5"});
+
+    assertEquals("exportdb", arguments.getMongoClientURI().getDatabase());
+    assertEquals(4, arguments.getParallelism());
+    assertEquals(BsonDocument.parse("{age: {$gte: 3}}"), arguments.getFilter());
+    assertEquals(2, arguments.getCollectionFilters().size(), "Should be 2 collection filters");
+    assertEquals(
+        BsonDocument.parse("{name: 'Bob'}"),
+        arguments.getCollectionFilters().get("people"),
+        "Collection filter should be keyed by the collection name");
+    assertEquals(
+        BsonDocument.parse("{type: {$in: ['a', 'b']}}"),
+        arguments.getCollectionFilters().get("my.events"),
+        "Collection name may contain dots");
+    assertEquals(BsonDocument.parse("{name: 1, _id: 0}"), arguments.getProjection());
+    assertEquals(10, arguments.getLimit());
+    assertEquals(5, arguments.getSampleSize());
+
+    // Values may contain '=' after the first one
+    arguments = extractArgumentValues(new String[]{
+        "-dbName=exportdb",
+        "-filter={expression: 'a=b'}"});
+    assertEquals(BsonDocument.parse("{expression: 'a=b'}"), arguments.getFilter());
+  }
+
+  @Test
+  @DisplayName("extractArgumentValues defaults of the export options")
+  void testExtractExportArgumentDefaults() {
+
+    DatasetGeneratorArguments arguments =
+        extractArgumentValues(new String[]{"-dbUri=mongodb://localhost:27017/exportdb"});
+
+    assertEquals(1, arguments.getParallelism(), "Should export on a single thread");
+    assertNull(arguments.getFilter(), "Should export every document");
+    assertTrue(arguments.getCollectionFilters().isEmpty(), "Should have no collection filters");
+    assertNull(arguments.getProjection(), "Should export every field");
+    assertNull(arguments.getLimit(), "Should not limit the documents");
+    assertNull(arguments.getSampleSize(), "Should not sample the documents");
+    assertEquals(Arrays.asList("OBJECT_ID", "DATE_TIME"), arguments.getPreserveBsonTypes());
+  }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mongounit.model.CompactDocument;
+import org.mongounit.model.MongoUnitCollection;
+
+/**
+ * {@link DatasetMemoryBenchmark} class measures the heap retained by a parsed dataset, i.e., what
+ * the {@link DatasetCache} holds on to for every dataset file, for a realistic fixture of orders
+ * with enum-like fields (tenant ids, statuses, types, SKUs), nested documents, and arrays.
+ *
+ * It compares plain Jackson maps, {@link CompactDocument}s with Jackson's strings, and the
+ * datasets as loaded by MongoUnit, i.e., {@link CompactDocument}s with strings deduplicated by the
+ * {@link InterningStringDeserializer}. Since it takes a while and needs a large heap, it's skipped
+ * unless the 'mongounit.benchmark' system property is 'true'. To run it:
+ *
+ * <pre>
+ * mvn test -Dtest=DatasetMemoryBenchmark -Dmongounit.benchmark=true \
+ *     [-Dmongounit.benchmark.document-count=100000]
+ * </pre>
+ */
+@Tag("benchmark")
+@EnabledIfSystemProperty(named = "mongounit.benchmark", matches = "true")
+@DisplayName("Dataset memory benchmark")
+class DatasetMemoryBenchmark {
+
+  /**
+   * Number of orders in the fixture, unless specified by the
+   * 'mongounit.benchmark.document-count' system property.
+   */
+  private static final int DEFAULT_DOCUMENT_COUNT = 100_000;
+
+  /**
+   * Number of times each measurement is repeated, the smallest result of which is reported.
+   */
+  private static final int MEASUREMENT_COUNT = 3;
+
+  /**
+   * Memory bean to read the used heap from.
+   */
+  private static final MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+
+  /**
+   * Field that keeps the measured dataset reachable while the used heap is read.
+   */
+  private static Object retainedDataset;
+
+  @Test
+  @DisplayName("Retained heap of a realistic dataset with and without interning")
+  void testRetainedHeap() throws IOException {
+
+    int documentCount =
+        Integer.getInteger("mongounit.benchmark.document-count", DEFAULT_DOCUMENT_COUNT);
+    Path fixture = writeFixture(documentCount);
+    String fixtureLocation = fixture.toAbsolutePath().toString();
+
+    try {
+
+      long plainBytes = measure(() -> parsePlain(fixture));
+      long compactBytes = measure(() -> compactPlain(parsePlain(fixture)));
+      long loadedBytes = measure(() -> MongoUnitUtil.retrieveDatasetFromFile(
+          fixtureLocation,
+          LocationType.ABSOLUTE,
+          null,
+          null));
+
+      System.out.printf(Locale.ROOT, "Retained heap of %d orders (%d bytes of JSON):%n",
+          documentCount, Files.size(fixture));
+      print("Jackson maps", plainBytes, plainBytes);
+      print("Compact documents", compactBytes, plainBytes);
+      print("Compact documents, interned strings", loadedBytes, plainBytes);
+
+      assertTrue(
+          loadedBytes < compactBytes,
+          "Interning strings should reduce the retained heap of the fixture");
+
+    } finally {
+      Files.delete(fixture);
+    }
+  }
+
+  /**
+   * @param dataset Supplier of the dataset to measure, which is invoked once per measurement.
+   * @return Smallest growth of the used heap, in bytes, while the supplied dataset is retained.
+   */
+  private static long measure(Supplier<Object> dataset) {
+
+    long smallestBytes = Long.MAX_VALUE;
+    for (int i = 0; i < MEASUREMENT_COUNT; i++) {
+
+      retainedDataset = null;
+      long baselineBytes = usedHeapAfterGc();
+      retainedDataset = dataset.get();
+      smallestBytes = Math.min(smallestBytes, usedHeapAfterGc() - baselineBytes);
+    }
+    retainedDataset = null;
+
+    return smallestBytes;
+  }
+
+  /**
+   * @return Used heap, in bytes, after garbage collection has settled.
+   */
+  private static long usedHeapAfterGc() {
+
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+
+    return memoryBean.getHeapMemoryUsage().getUsed();
+  }
+
+  /**
+   * @param label Description of what was measured.
+   * @param bytes Measured retained heap, in bytes.
+   * @param baselineBytes Retained heap of the plain Jackson maps, in bytes.
+   */
+  private static void print(String label, long bytes, long baselineBytes) {
+    System.out.printf(Locale.ROOT, "  %-40s %10.1f MB %6.1f%%%n",
+        label, bytes / 1e6, 100.0 * bytes / baselineBytes);
+  }
+
+  /**
+   * @param fixture Path of the fixture.
+   * @return Collections of the fixture, parsed by Jackson into plain maps.
+   */
+  private static List<MongoUnitCollection> parsePlain(Path fixture) {
+
+    try {
+      return new ObjectMapper().readValue(
+          fixture.toFile(),
+          new TypeReference<List<MongoUnitCollection>>() {
+          });
+    } catch (IOException ioException) {
+      throw new IllegalStateException(ioException);
+    }
+  }
+
+  /**
+   * @param mongoUnitCollections Collections parsed into plain maps.
+   * @return The provided 'mongoUnitCollections' with their documents compacted.
+   */
+  private static List<MongoUnitCollection> compactPlain(
+      List<MongoUnitCollection> mongoUnitCollections) {
+
+    for (MongoUnitCollection mongoUnitCollection : mongoUnitCollections) {
+      mongoUnitCollection.setDocuments(CompactDocument.compact(mongoUnitCollection.getDocuments()));
+    }
+
+    return mongoUnitCollections;
+  }
+
+  /**
+   * @param documentCount Number of orders to write.
+   * @return Path of a temporary dataset file with the provided 'documentCount' orders.
+   * @throws IOException If the file could not be written.
+   */
+  private static Path writeFixture(int documentCount) throws IOException {
+
+    String[] tenantIds = new String[20];
+    for (int i = 0; i < tenantIds.length; i++) {
+      tenantIds[i] = "tenant-" + (1000 + i);
+    }
+    String[] statuses = {"NEW", "PAID", "SHIPPED", "DELIVERED", "CANCELLED"};
+    String[] types = {"ONLINE", "IN_STORE", "PHONE", "MARKETPLACE"};
+    String[] currencies = {"USD", "EUR", "GBP"};
+
+    Random random = new Random(42);
+    StringBuilder json = new StringBuilder("[{\"collectionName\":\"orders\",\"documents\":[");
+    for (int i = 0; i < documentCount; i++) {
+
+      if (i > 0) {
+        json.append(',');
+      }
+
+      json.append("{\"_id\":{\"$$OBJECT_ID\":\"")
+          .append(String.format(Locale.ROOT, "5d1a%020x", i))
+          .append("\"},\"tenantId\":\"").append(tenantIds[random.nextInt(tenantIds.length)])
+          .append("\",\"status\":\"").append(statuses[random.nextInt(statuses.length)])
+          .append("\",\"type\":\"").append(types[random.nextInt(types.length)])
+          .append("\",\"createdAt\":{\"$$DATE_TIME\":\"2019-0")
+          .append(1 + random.nextInt(9)).append("-1").append(random.nextInt(10))
+          .append("T10:00:00Z\"},\"customer\":{\"name\":\"Customer ").append(i)
+          .append("\",\"email\":\"customer").append(i).append("@example.com\"},\"items\":[");
+
+      int itemCount = 1 + random.nextInt(3);
+      for (int j = 0; j < itemCount; j++) {
+
+        if (j > 0) {
+          json.append(',');
+        }
+
+        json.append("{\"sku\":\"SKU-").append(random.nextInt(500))
+            .append("\",\"quantity\":").append(1 + random.nextInt(5))
+            .append(",\"price\":").append(random.nextInt(10000) / 100.0)
+            .append(",\"currency\":\"").append(currencies[random.nextInt(currencies.length)])
+            .append("\"}");
+      }
+
+      json.append("],\"total\":").append(random.nextInt(100000) / 100.0)
+          .append(",\"gift\":").append(random.nextBoolean())
+          .append('}');
+    }
+    json.append("]}]");
+
+    Path fixture = Files.createTempFile("mongounit-benchmark-", ".json");
+    Files.write(fixture, json.toString().getBytes(StandardCharsets.UTF_8));
+
+    return fixture;
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+import org.mongounit.test.EmbeddedSnapshotTestClass;
+import org.mongounit.test.TestClassRunner;
+
+/**
+ * {@link EmbeddedSnapshotTest} is a test class for the reseeding of the embedded database from
+ * snapshots by the {@link MongoUnitExtension}.
+ */
+@DisplayName("Embedded database snapshots")
+class EmbeddedSnapshotTest {
+
+  @Test
+  @DisplayName("Each test starts from the snapshot of its own seed datasets")
+  void testSnapshotPerSeedDatasets() {
+
+    TestExecutionSummary summary = TestClassRunner.run(EmbeddedSnapshotTestClass.class);
+
+    assertEquals(4, summary.getTestsStartedCount(), "All tests should run");
+    assertEquals(
+        4,
+        summary.getTestsSucceededCount(),
+        () -> "Every test should see its seeded state, but got " + summary.getFailures());
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link InterningStringDeserializerTest} is a test class for {@link InterningStringDeserializer}
+ * class.
+ */
+@DisplayName("Interning string deserializer")
+class InterningStringDeserializerTest {
+
+  @Test
+  @DisplayName("Repeated short values are the same instance")
+  void testRepeatedValues() throws Exception {
+
+    List<String> values = read("[\"active\", \"pending\", \"active\", \"pending\", \"\", \"\"]");
+
+    assertEquals(Arrays.asList("active", "pending", "active", "pending", "", ""), values);
+    assertSame(values.get(0), values.get(2), "Repeated value should be deduplicated");
+    assertSame(values.get(1), values.get(3), "Repeated value should be deduplicated");
+    assertSame(values.get(4), values.get(5), "Repeated empty value should be deduplicated");
+
+    // Values of documents, nested or not, are deduplicated too
+    List<Map<String, Object>> documents = newObjectMapper().readValue(
+        "[{\"status\": \"active\", \"address\": {\"state\": \"MD\"}},"
+            + "{\"status\": \"active\", \"address\": {\"state\": \"MD\"}}]",
+        new TypeReference<>() {
+        });
+    assertSame(documents.get(0).get("status"), documents.get(1).get("status"));
+    assertSame(
+        ((Map<?, ?>) documents.get(0).get("address")).get("state"),
+        ((Map<?, ?>) documents.get(1).get("address")).get("state"));
+
+    // A separate load doesn't share values with this one
+    assertNotSame(values.get(0), read("[\"active\"]").get(0));
+  }
+
+  @Test
+  @DisplayName("Values longer than the maximum are not deduplicated")
+  void testLongValues() throws Exception {
+
+    String maxLengthValue = "m".repeat(InterningStringDeserializer.MAX_INTERNED_LENGTH);
+    String longValue = "l".repeat(InterningStringDeserializer.MAX_INTERNED_LENGTH + 1);
+
+    List<String> values = read("[\"" + maxLengthValue + "\", \"" + maxLengthValue + "\", \""
+        + longValue + "\", \"" + longValue + "\"]");
+
+    assertEquals(Arrays.asList(maxLengthValue, maxLengthValue, longValue, longValue), values);
+    assertSame(values.get(0), values.get(1), "Value of the maximum length should be deduplicated");
+    assertNotSame(values.get(2), values.get(3), "Longer value should not be deduplicated");
+  }
+
+  @Test
+  @DisplayName("Values sharing a slot are returned correctly")
+  void testSlotCollisions() throws Exception {
+
+    String[] collidingValues = findCollidingValues();
+
+    List<String> values = read("[\"" + collidingValues[0] + "\", \"" + collidingValues[1] + "\", \""
+        + collidingValues[0] + "\", \"" + collidingValues[1] + "\"]");
+
+    assertEquals(
+        Arrays.asList(collidingValues[0], collidingValues[1], collidingValues[0],
+            collidingValues[1]),
+        values,
+        "Colliding values should never be mistaken for each other");
+
+    // Each value replaces the other in the slot, so neither is deduplicated
+    assertNotSame(values.get(0), values.get(2));
+    assertNotSame(values.get(1), values.get(3));
+
+    // Values with the same hash code share a slot too
+    List<String> sameHashValues = read("[\"Aa\", \"BB\", \"Aa\"]");
+    assertEquals("Aa".hashCode(), "BB".hashCode());
+    assertEquals(Arrays.asList("Aa", "BB", "Aa"), sameHashValues);
+  }
+
+  @Test
+  @DisplayName("Non-string tokens are coerced to strings")
+  void testNonStringTokens() throws Exception {
+
+    List<String> values = read("[1, 2.5, true, false, -7, null, \"text\"]");
+
+    assertEquals(Arrays.asList("1", "2.5", "true", "false", "-7", null, "text"), values);
+  }
+
+  /**
+   * @param json JSON array of values.
+   * @return Values of the provided 'json' array, deserialized as strings by a new {@link
+   * InterningStringDeserializer}.
+   * @throws Exception If the provided 'json' could not be deserialized.
+   */
+  private static List<String> read(String json) throws Exception {
+    return newObjectMapper().readValue(json, new TypeReference<>() {
+    });
+  }
+
+  /**
+   * @return Object mapper that deserializes strings with a new {@link
+   * InterningStringDeserializer}, as datasets are loaded.
+   */
+  private static ObjectMapper newObjectMapper() {
+
+    ObjectMapper objectMapper = new ObjectMapper();
+    objectMapper.registerModule(
+        new SimpleModule().addDeserializer(String.class, new InterningStringDeserializer()));
+    return objectMapper;
+  }
+
+  /**
+   * @return Two different values that fall into the same slot of the table of an {@link
+   * InterningStringDeserializer}.
+   */
+  private static String[] findCollidingValues() {
+
+    Map<Integer, String> valuesBySlot = new HashMap<>();
+    for (int i = 0; ; i++) {
+
+      String value = "value" + i;
+      int hash = value.hashCode();
+      int slot = (hash ^ (hash >>> 16)) & (InterningStringDeserializer.TABLE_SIZE - 1);
+
+      String collidingValue = valuesBySlot.putIfAbsent(slot, value);
+      if (collidingValue != null) {
+        assertNotEquals(collidingValue, value);
+        return new String[]{collidingValue, value};
+      }
+    }
+  }
+}
@@ -0,0 +1,221 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mongounit.MongoUnitUtil.combineDatasets;
+import static org.mongounit.MongoUnitUtil.forEachDocument;
+import static org.mongounit.MongoUnitUtil.fromDatabase;
+import static org.mongounit.MongoUnitUtil.toBsonDocuments;
+import static org.mongounit.MongoUnitUtil.toDatabase;
+import static org.mongounit.config.MongoUnitProperties.DEFAULT_MONGO_UNIT_VALUE_INDICATOR_FIELD_NAME;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mongounit.config.MongoUnitProperties;
+import org.mongounit.embedded.EmbeddedMongoServer;
+import org.mongounit.model.MongoUnitCollection;
+
+/**
+ * {@link MongoUnitUtilDatabaseTest} is a test class for the methods of {@link MongoUnitUtil} that
+ * read from a database, exercised against an {@link EmbeddedMongoServer}.
+ */
+@DisplayName("MongoUnitUtil database reads")
+class MongoUnitUtilDatabaseTest {
+
+  private static final String DATABASE_NAME = "mongounitutildb";
+
+  private static EmbeddedMongoServer server;
+
+  private static MongoClient mongoClient;
+
+  private static final List<BsonDocument> readCommands = new CopyOnWriteArrayList<>();
+
+  @BeforeAll
+  static void startServer() {
+
+    server = new EmbeddedMongoServer();
+    server.start(0);
+
+    // Record the reads, so their batch sizes can be checked
+    CommandListener commandListener = new CommandListener() {
+      @Override
+      public void commandStarted(CommandStartedEvent event) {
+        if (event.getCommandName().equals("find") || event.getCommandName().equals("getMore")) {
+          readCommands.add(event.getCommand().clone());
+        }
+      }
+    };
+    mongoClient = MongoClients.create(MongoClientSettings.builder()
+        .applyConnectionString(new ConnectionString(server.getConnectionString(DATABASE_NAME)))
+        .addCommandListener(commandListener)
+        .build());
+  }
+
+  @AfterAll
+  static void stopServer() {
+    mongoClient.close();
+    server.close();
+  }
+
+  @BeforeEach
+  void seedDatabase() {
+
+    server.clearDatabase(DATABASE_NAME);
+
+    List<Document> people = new ArrayList<>();
+    for (int i = 0; i < 25; i++) {
+      people.add(new Document("_id", i).append("name", "person" + i));
+    }
+    getDatabase().getCollection("people").insertMany(people);
+    readCommands.clear();
+  }
+
+  @Test
+  @DisplayName("fromDatabase reads with the provided batch size")
+  void testFromDatabaseBatchSize() {
+
+    List<MongoUnitCollection> dataset = fromDatabase(getDatabase(), null, null, 10);
+
+    assertEquals(1, dataset.size(), "Should extract the only collection");
+    assertEquals(25, dataset.get(0).getDocuments().size(), "Should extract every batch");
+    assertEquals("find", readCommands.get(0).getFirstKey());
+    assertEquals(10, readCommands.get(0).getInt32("batchSize").getValue());
+    assertEquals(3, readCommands.size(), "25 documents should take a find and 2 getMores");
+    for (BsonDocument getMore : readCommands.subList(1, readCommands.size())) {
+      assertEquals(10, getMore.getInt32("batchSize").getValue());
+    }
+  }
+
+  @Test
+  @DisplayName("fromDatabase without a batch size leaves it to the driver")
+  void testFromDatabaseDefaultBatchSize() {
+
+    List<MongoUnitCollection> dataset = fromDatabase(getDatabase(), null, null);
+
+    assertEquals(25, dataset.get(0).getDocuments().size());
+    assertEquals(1, readCommands.size(), "Default batch should fit all documents");
+    assertFalse(readCommands.get(0).containsKey("batchSize"), "No batch size should be sent");
+
+    // Documents come back in the same representation either way
+    readCommands.clear();
+    Map<String, Object> document = fromDatabase(getDatabase(), null, null, 5)
+        .get(0).getDocuments().get(0);
+    assertEquals(dataset.get(0).getDocuments().get(0), document);
+  }
+
+  @Test
+  @DisplayName("forEachDocument streams the documents fromDatabase extracts")
+  void testForEachDocument() {
+
+    MongoUnitProperties mongoUnitProperties =
+        new MongoUnitProperties(
+            null,
+            null,
+            DEFAULT_MONGO_UNIT_VALUE_INDICATOR_FIELD_NAME,
+            null,
+            null);
+    List<String> preserveBsonTypes = Arrays.asList("OBJECT_ID", "DATE_TIME");
+    getDatabase().getCollection("people").insertOne(new Document("_id", new ObjectId())
+        .append("born", new Date(1_000_000_000_000L))
+        .append("address", new Document("city", "Boston")));
+
+    List<Map<String, Object>> streamedDocuments = new ArrayList<>();
+    forEachDocument(
+        getDatabase().getCollection("people", RawBsonDocument.class).find().batchSize(4),
+        mongoUnitProperties,
+        preserveBsonTypes,
+        streamedDocuments::add);
+
+    List<MongoUnitCollection> dataset =
+        fromDatabase(getDatabase(), mongoUnitProperties, preserveBsonTypes);
+    assertEquals(26, streamedDocuments.size(), "Every document should be streamed");
+    assertEquals(
+        dataset.get(0).getDocuments(),
+        streamedDocuments,
+        "Streamed documents should be in the same representation and order");
+  }
+
+  @Test
+  @DisplayName("toDatabase reuses documents converted ahead of time")
+  void testToDatabaseConvertedDocuments() {
+
+    MongoUnitProperties mongoUnitProperties =
+        new MongoUnitProperties(
+            null,
+            null,
+            DEFAULT_MONGO_UNIT_VALUE_INDICATOR_FIELD_NAME,
+            null,
+            null);
+    List<Map<String, Object>> classDocuments =
+        List.of(Map.of("_id", 100, "name", "class"), Map.of("_id", 101, "name", "class"));
+    List<Map<String, Object>> methodDocuments = List.of(Map.of("_id", 102, "name", "method"));
+    List<MongoUnitCollection> classDataset = List.of(MongoUnitCollection.builder()
+        .collectionName("people")
+        .documents(classDocuments)
+        .build());
+
+    // Each list of documents is converted on its own, so it's found in any concatenation
+    Map<List<Map<String, Object>>, List<Document>> convertedDocuments =
+        toBsonDocuments(classDataset, mongoUnitProperties);
+    assertEquals(1, convertedDocuments.size());
+    assertEquals(
+        List.of(new Document("_id", 100).append("name", "class"),
+            new Document("_id", 101).append("name", "class")),
+        convertedDocuments.get(classDocuments));
+
+    // Converted documents are used as they are, while the others are converted while seeding
+    Map<List<Map<String, Object>>, List<Document>> markedDocuments = new IdentityHashMap<>();
+    markedDocuments.put(
+        classDocuments,
+        List.of(new Document("_id", 100).append("name", "converted")));
+    List<MongoUnitCollection> combinedDataset = combineDatasets(
+        classDataset,
+        List.of(MongoUnitCollection.builder()
+            .collectionName("people")
+            .documents(methodDocuments)
+            .build()));
+    server.clearDatabase(DATABASE_NAME);
+    toDatabase(combinedDataset, getDatabase(), mongoUnitProperties, markedDocuments);
+
+    assertEquals(
+        List.of(new Document("_id", 100).append("name", "converted"),
+            new Document("_id", 102).append("name", "method")),
+        getDatabase().getCollection("people").find().into(new ArrayList<>()));
+  }
+
+  /**
+   * @return Database the tests read from.
+   */
+  private static MongoDatabase getDatabase() {
+    return mongoClient.getDatabase(DATABASE_NAME);
+  }
+}
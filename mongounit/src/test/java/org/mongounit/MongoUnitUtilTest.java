@@ -8,12 +8,14 @@
  */
 package org.mongounit;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.mongounit.MongoUnitUtil.COMPARATOR_FIELD_NAME;
 import static org.mongounit.MongoUnitUtil.assertMatches;
 import static org.mongounit.MongoUnitUtil.assertMatchesMongoUnitValue;
@@ -26,17 +28,34 @@ import static org.mongounit.MongoUnitUtil.extractTestClassName;
 import static org.mongounit.MongoUnitUtil.generateMongoUnitValueDocument;
 import static org.mongounit.MongoUnitUtil.getFileLocations;
 import static org.mongounit.MongoUnitUtil.getTestClassNamePath;
+import static org.mongounit.MongoUnitUtil.retrieveDatasetFromFile;
 import static org.mongounit.MongoUnitUtil.retrieveDatasetFromLocations;
 import static org.mongounit.MongoUnitUtil.retrieveResourceFromFile;
+import static org.mongounit.MongoUnitUtil.toMongoUnitTypedCollections;
+import static org.mongounit.MongoUnitUtil.toMongoUnitTypedCollectionsFromJsonLines;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.lang.reflect.Method;
 import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.bson.BsonBinary;
 import org.bson.BsonBinarySubType;
 import org.bson.BsonObjectId;
@@ -45,6 +64,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.mockito.Mockito;
 import org.mongounit.config.MongoUnitProperties;
+import org.mongounit.jfr.MongoUnitEvent;
 import org.mongounit.model.MongoUnitCollection;
 import org.mongounit.model.MongoUnitDatasets;
 import org.mongounit.model.MongoUnitValue;
@@ -550,8 +570,50 @@ class MongoUnitUtilTest {
         "List of collections should not match. Extra collection in expected.");
   }
 
+  @Test
+  @DisplayName("Assertion emits flight recorder event.")
+  void testAssertMatchesCollectionsEmitsEvent() throws Exception {
+    MongoUnitProperties props = new MongoUnitProperties();
+
+    Map<String, Object> document = new HashMap<>();
+    document.put("name", "TestName");
+    List<MongoUnitCollection> collections = Collections.singletonList(
+        MongoUnitCollection.builder()
+            .collectionName("col1")
+            .documents(Collections.singletonList(document))
+            .build());
+
+    Path recordingPath = Files.createTempFile("mongounit", ".jfr");
+    try (Recording recording = new Recording()) {
+
+      recording.enable("org.mongounit.Assert");
+      recording.start();
+
+      MongoUnitEvent.setCurrentTestId("test-id");
+      try {
+        assertMatches(collections, collections, props);
+      } finally {
+        MongoUnitEvent.setCurrentTestId(null);
+      }
+
+      recording.stop();
+      recording.dump(recordingPath);
+
+      List<RecordedEvent> events = RecordingFile.readAllEvents(recordingPath);
+      assertEquals(1, events.size(), "Exactly one assert event should be recorded.");
+      assertEquals("test-id", events.get(0).getString("testId"));
+      assertEquals(1, events.get(0).getLong("collectionCount"));
+      assertEquals(1, events.get(0).getLong("documentCount"));
+      assertTrue(events.get(0).getBoolean("match"));
+
+    } finally {
+      Files.deleteIfExists(recordingPath);
+    }
+  }
+
   @Test
   @DisplayName("retrieveResourceFromFile")
+  @SuppressWarnings("deprecation")
   void testRetrieveResourceFromFile() {
 
     assertNotNull(retrieveResourceFromFile(
@@ -591,6 +653,7 @@ class MongoUnitUtilTest {
 
   @Test
   @DisplayName("retrieveResourceFromFile with classpath root as default")
+  @SuppressWarnings("deprecation")
   void testRetrieveResourceFromFileClassPathRoot() {
 
     assertNotNull(
@@ -627,8 +690,14 @@ class MongoUnitUtilTest {
         extractMongoUnitDatasets(extensionContext, testClassName, true);
 
     assertTrue(mongoUnitDatasets.isAssertAnnotationPresent(), "Assertion datasets present");
+    assertFalse(
+        mongoUnitDatasets.isAssertMatchesDatasetsResolved(),
+        "Assert datasets not loaded until requested.");
     assertEquals(1, mongoUnitDatasets.getSeedWithDatasets().size(), "1 seed collection.");
     assertEquals(1, mongoUnitDatasets.getAssertMatchesDatasets().size(), "1 assert collection.");
+    assertTrue(
+        mongoUnitDatasets.isAssertMatchesDatasetsResolved(),
+        "Assert datasets loaded once requested.");
 
     assertEquals(
         1,
@@ -638,6 +707,10 @@ class MongoUnitUtilTest {
         2,
         mongoUnitDatasets.getAssertMatchesDatasets().get(0).getDocuments().size(),
         "2 assert documents.");
+    assertEquals(
+        Collections.singletonList("/org/mongounit/test/annotatedclass/classSeed.json"),
+        mongoUnitDatasets.getSeedWithDatasetLocations(),
+        "Seed dataset location.");
 
     mongoUnitDatasets = extractMongoUnitDatasets(extensionContext, testClassName, false);
 
@@ -651,6 +724,119 @@ class MongoUnitUtilTest {
         "2 seed document.");
   }
 
+  @Test
+  @DisplayName("extractMongoUnitDatasets loads single-file annotations concurrently, in order")
+  void testExtractMongoUnitDatasetsConcurrently() throws Exception {
+
+    // Named pipes block their reader until written to, and their writer until read from, so
+    // writing the second file before the first only completes if both are read at the same time
+    Path fifoDirectory = Files.createDirectories(Path.of("/tmp", "mongounit-fifo-datasets"));
+    List<Path> fifos = new ArrayList<>();
+    for (String fileName : Arrays.asList("seed1", "seed2", "assert1", "assert2")) {
+
+      Path fifo = fifoDirectory.resolve(fileName + ".json");
+      Files.deleteIfExists(fifo);
+      boolean created;
+      try {
+        created = new ProcessBuilder("mkfifo", fifo.toString()).start().waitFor() == 0;
+      } catch (IOException exception) {
+        created = false;
+      }
+      assumeTrue(created, "Named pipes are not supported on this platform");
+      fifos.add(fifo);
+    }
+
+    ExtensionContext extensionContext = Mockito.mock(ExtensionContext.class);
+    Mockito
+        .<Class<?>>when(extensionContext.getRequiredTestClass())
+        .thenReturn(AnnotatedTestClass.class);
+    Mockito
+        .when(extensionContext.getRequiredTestMethod())
+        .thenReturn(AnnotatedTestClass.class.getMethod("singleFileAnnotationsMethod"));
+
+    ExecutorService executorService = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable);
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+
+      Future<MongoUnitDatasets> extraction = executorService.submit(() -> extractMongoUnitDatasets(
+          extensionContext,
+          extractTestClassName(AnnotatedTestClass.class),
+          false));
+      writeInReverse(executorService, fifos.get(1), fifos.get(0), "seed");
+      MongoUnitDatasets mongoUnitDatasets = extraction.get(10, TimeUnit.SECONDS);
+
+      assertEquals(
+          Arrays.asList("seed1", "seed2"),
+          toNames(mongoUnitDatasets.getSeedWithDatasets()),
+          "Seed documents should be in declaration order");
+
+      Future<List<MongoUnitCollection>> assertion =
+          executorService.submit(mongoUnitDatasets::getAssertMatchesDatasets);
+      writeInReverse(executorService, fifos.get(3), fifos.get(2), "assert");
+      assertEquals(
+          Arrays.asList("assert1", "assert2"),
+          toNames(assertion.get(10, TimeUnit.SECONDS)),
+          "Assert documents should be in declaration order");
+
+    } finally {
+
+      executorService.shutdownNow();
+      for (Path fifo : fifos) {
+        Files.deleteIfExists(fifo);
+      }
+    }
+  }
+
+  /**
+   * Writes a dataset into the provided 'secondFifo', then into the provided 'firstFifo', failing
+   * if the writes don't complete, i.e., if the files are not read concurrently.
+   *
+   * @param executorService Executor to write on, so a blocked write can't block the test.
+   * @param secondFifo Named pipe of the second dataset file.
+   * @param firstFifo Named pipe of the first dataset file.
+   * @param prefix Prefix of the names of the documents, followed by the file number.
+   * @throws Exception If either write didn't complete.
+   */
+  private static void writeInReverse(
+      ExecutorService executorService,
+      Path secondFifo,
+      Path firstFifo,
+      String prefix) throws Exception {
+
+    executorService.submit(() -> {
+      Files.write(secondFifo, toDataset(prefix + "2"));
+      Files.write(firstFifo, toDataset(prefix + "1"));
+      return null;
+    }).get(10, TimeUnit.SECONDS);
+  }
+
+  /**
+   * @param name Name of the only document of the dataset.
+   * @return JSON dataset with a 'people' collection holding a single document with the provided
+   * 'name'.
+   */
+  private static byte[] toDataset(String name) {
+    return ("[{\"collectionName\":\"people\",\"documents\":[{\"name\":\"" + name + "\"}]}]")
+        .getBytes(UTF_8);
+  }
+
+  /**
+   * @param dataset Dataset with a single 'people' collection.
+   * @return Names of the documents of the collection, in order.
+   */
+  private static List<Object> toNames(List<MongoUnitCollection> dataset) {
+
+    assertEquals(1, dataset.size(), "Same-named collections should be combined");
+    List<Object> names = new ArrayList<>();
+    for (Map<String, Object> document : dataset.get(0).getDocuments()) {
+      names.add(document.get("name"));
+    }
+    return names;
+  }
+
   @Test
   @DisplayName("combineDatasets and combineNoRepeatingCollections")
   void testCombineDatasets() {
@@ -700,6 +886,22 @@ class MongoUnitUtilTest {
     assertEquals(2, actualDataset.size(), "2 collections should be present.");
     assertEquals(3, actualDataset.get(0).getDocuments().size(), "col 1 should have 3 docs");
     assertEquals(1, actualDataset.get(1).getDocuments().size(), "col 2 should have 1 doc");
+    assertEquals(
+        Arrays.asList(dataset1Docs.get(0), dataset2Docs.get(0), dataset3Docs.get(0)),
+        actualDataset.get(0).getDocuments(),
+        "col 1 docs should be in order of datasets");
+
+    // Original datasets should not be modified
+    assertEquals(1, dataset1.get(0).getDocuments().size(), "original col 1 should have 1 doc");
+    assertEquals(1, dataset2.get(0).getDocuments().size(), "original col 1 should have 1 doc");
+
+    // Combining again should not grow the datasets either
+    combineDatasets(actualDataset, dataset2);
+    assertEquals(3, actualDataset.get(0).getDocuments().size(), "col 1 should still have 3 docs");
+    assertThrows(
+        UnsupportedOperationException.class,
+        () -> actualDataset.get(0).getDocuments().add(new HashMap<>()),
+        "combined docs should be read-only");
   }
 
   @Test
@@ -878,18 +1080,118 @@ class MongoUnitUtilTest {
         () -> new BsonBinary(UUID.fromString((String) value)),
         "Should throw exception when trying to convert non UUID string to BsonBinary.");
   }
-}
-
-
 
+  @Test
+  @DisplayName("toMongoUnitTypedCollectionsFromJsonLines")
+  void testToMongoUnitTypedCollectionsFromJsonLines() {
 
+    String jsonLines = "{\"$collection\":\"people\"}\n"
+        + "{\"name\":\"Bob\",\"age\":30}\n"
+        + "\n"
+        + "{\"name\":\"Alice\"}\n"
+        + "{\"$collection\":\"empty\"}\n";
 
+    List<MongoUnitCollection> mongoUnitCollections =
+        toMongoUnitTypedCollections(jsonLines, "/datasets/people.jsonl");
 
+    assertEquals(2, mongoUnitCollections.size(), "Should have a collection per header line.");
+    assertEquals("people", mongoUnitCollections.get(0).getCollectionName());
+    assertEquals(2, mongoUnitCollections.get(0).getDocuments().size(),
+        "Blank lines should be ignored.");
+    assertEquals("Alice", mongoUnitCollections.get(0).getDocuments().get(1).get("name"));
+    assertEquals("empty", mongoUnitCollections.get(1).getCollectionName());
+    assertTrue(mongoUnitCollections.get(1).getDocuments().isEmpty());
 
+    assertThrows(
+        MongoUnitException.class,
+        () -> toMongoUnitTypedCollectionsFromJsonLines("{\"name\":\"Bob\"}\n"),
+        "Should throw exception when a document precedes any header line.");
+  }
 
+  @Test
+  @DisplayName("retrieveDatasetFromFile decompresses gzipped datasets")
+  void testRetrieveDatasetFromGzippedFile() throws Exception {
+
+    Path datasetPath = Files.createTempFile("mongounit", ".jsonl.gz");
+    try {
+
+      try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(datasetPath))) {
+        outputStream.write(
+            "{\"$collection\":\"people\"}\n{\"name\":\"Bob\"}\n".getBytes(UTF_8));
+      }
+
+      List<MongoUnitCollection> mongoUnitCollections = retrieveDatasetFromFile(
+          datasetPath.toString(),
+          LocationType.ABSOLUTE,
+          null,
+          null);
+
+      assertEquals(1, mongoUnitCollections.size());
+      assertEquals("people", mongoUnitCollections.get(0).getCollectionName());
+      assertEquals("Bob", mongoUnitCollections.get(0).getDocuments().get(0).get("name"));
+
+    } finally {
+      Files.deleteIfExists(datasetPath);
+    }
+  }
 
+  @Test
+  @DisplayName("JSON Lines datasets are parsed in batches as they are read")
+  void testToMongoUnitTypedCollectionsFromJsonLinesStream() {
+
+    // More lines than fit a single batch, with a header and a document straddling the boundary
+    int documentCount = 25_000;
+    StringBuilder jsonLines = new StringBuilder("{\"$collection\":\"people\"}\n");
+    for (int i = 0; i < documentCount; i++) {
+      jsonLines.append("{\"index\":").append(i).append(",\"name\":\"Zoë\"}\n");
+      if (i == 9_997) {
+        jsonLines.append("{\"$collection\":\"others\"}\n");
+      }
+    }
+
+    List<MongoUnitCollection> mongoUnitCollections = toMongoUnitTypedCollections(
+        new ByteArrayInputStream(jsonLines.toString().getBytes(UTF_8)),
+        "/datasets/people.jsonl");
+
+    assertEquals(2, mongoUnitCollections.size(), "Should have a collection per header line.");
+    assertEquals(9_998, mongoUnitCollections.get(0).getDocuments().size());
+    assertEquals("others", mongoUnitCollections.get(1).getCollectionName());
+    List<Map<String, Object>> others = mongoUnitCollections.get(1).getDocuments();
+    assertEquals(documentCount - 9_998, others.size());
+    for (int i = 0; i < others.size(); i++) {
+      assertEquals(9_998 + i, others.get(i).get("index"), "Documents should stay in order.");
+    }
+    assertEquals("Zoë", others.get(0).get("name"), "Lines should be decoded as UTF-8.");
+
+    // Line numbers in errors count from the start of the dataset, not of the batch
+    jsonLines.append("not json\n");
+    MongoUnitException exception = assertThrows(
+        MongoUnitException.class,
+        () -> toMongoUnitTypedCollections(
+            new ByteArrayInputStream(jsonLines.toString().getBytes(UTF_8)),
+            "/datasets/people.jsonl"));
+    assertTrue(
+        exception.getMessage().contains("Line " + (documentCount + 3) + " "),
+        "Error should name the line of the whole dataset: " + exception.getMessage());
+  }
 
+  @Test
+  @DisplayName("retrieveResourceFromFile decodes the file as UTF-8")
+  @SuppressWarnings("deprecation")
+  void testRetrieveResourceFromFileAsUtf8() throws Exception {
 
+    Path resourcePath = Files.createTempFile("mongounit", ".json");
+    try {
 
+      Files.write(resourcePath, "[{\"name\":\"Zoë 名前\"}]".getBytes(UTF_8));
 
+      assertEquals(
+          "[{\"name\":\"Zoë 名前\"}]",
+          retrieveResourceFromFile(resourcePath.toString(), LocationType.ABSOLUTE, null, null),
+          "Contents should be decoded as UTF-8 regardless of the platform charset.");
 
+    } finally {
+      Files.deleteIfExists(resourcePath);
+    }
+  }
+}
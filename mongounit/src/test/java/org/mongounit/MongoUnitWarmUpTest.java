@@ -0,0 +1,115 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mongounit.MongoUnitUtil.extractTestClassName;
+import static org.mongounit.config.MongoUnitProperties.DEFAULT_MONGO_UNIT_VALUE_INDICATOR_FIELD_NAME;
+
+import java.util.List;
+import java.util.Map;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.mockito.Mockito;
+import org.mongounit.MongoUnitWarmUp.LoadedDatasets;
+import org.mongounit.config.MongoUnitProperties;
+import org.mongounit.model.MongoUnitCollection;
+import org.mongounit.test.AnnotatedTestClass;
+
+/**
+ * {@link MongoUnitWarmUpTest} is a test class for {@link MongoUnitWarmUp} class.
+ */
+@DisplayName("MongoUnit warm-up")
+class MongoUnitWarmUpTest {
+
+  @Test
+  @DisplayName("Class datasets are loaded and converted to BSON in the background")
+  void testLoadClassDatasets() {
+
+    ExtensionContext extensionContext = Mockito.mock(ExtensionContext.class);
+    Mockito
+        .<Class<?>>when(extensionContext.getRequiredTestClass())
+        .thenReturn(AnnotatedTestClass.class);
+    MongoUnitProperties mongoUnitProperties =
+        new MongoUnitProperties(
+            null,
+            null,
+            DEFAULT_MONGO_UNIT_VALUE_INDICATOR_FIELD_NAME,
+            null,
+            null);
+
+    LoadedDatasets loadedDatasets = MongoUnitWarmUp.await(MongoUnitWarmUp.loadClassDatasets(
+        extensionContext,
+        extractTestClassName(AnnotatedTestClass.class),
+        mongoUnitProperties,
+        true));
+
+    // Seed documents are converted, keyed by the very list they were converted from
+    List<MongoUnitCollection> seedDataset =
+        loadedDatasets.getMongoUnitDatasets().getSeedWithDatasets();
+    Map<List<Map<String, Object>>, List<Document>> bsonSeedDocuments =
+        loadedDatasets.getBsonSeedDocuments();
+    assertEquals(1, bsonSeedDocuments.size(), "Only seed collection should be converted");
+    List<Document> bsonDocuments = bsonSeedDocuments.get(seedDataset.get(0).getDocuments());
+    assertEquals(1, bsonDocuments.size());
+    assertEquals("Yaakov-1", bsonDocuments.get(0).getString("name"));
+    assertEquals(
+        21299,
+        bsonDocuments.get(0).get("address", Document.class).getInteger("zipcode"));
+
+    // Conversion is timed with the loading
+    assertNotEquals(
+        0,
+        loadedDatasets.getPhaseTimings().getNanos(MongoUnitPhase.BSON_CONVERSION),
+        "Conversion should be timed");
+    assertNotEquals(
+        0,
+        loadedDatasets.getPhaseTimings().getNanos(MongoUnitPhase.FILE_LOAD),
+        "Loading should be timed");
+  }
+
+  @Test
+  @DisplayName("Errors of the background load are rethrown as is")
+  void testLoadClassDatasetsFailure() {
+
+    ExtensionContext extensionContext = Mockito.mock(ExtensionContext.class);
+    Mockito
+        .<Class<?>>when(extensionContext.getRequiredTestClass())
+        .thenReturn(MissingDatasetTestClass.class);
+    MongoUnitProperties mongoUnitProperties =
+        new MongoUnitProperties(
+            null,
+            null,
+            DEFAULT_MONGO_UNIT_VALUE_INDICATOR_FIELD_NAME,
+            null,
+            null);
+
+    MongoUnitException exception = assertThrows(
+        MongoUnitException.class,
+        () -> MongoUnitWarmUp.await(MongoUnitWarmUp.loadClassDatasets(
+            extensionContext,
+            extractTestClassName(MissingDatasetTestClass.class),
+            mongoUnitProperties,
+            true)));
+    assertTrue(exception.getMessage().contains("missing.json"), "Error should name the file");
+  }
+
+  /**
+   * Test class whose class-level seed dataset file doesn't exist.
+   */
+  @MongoUnitTest(name = "missingdataset")
+  @SeedWithDataset("missing.json")
+  static class MissingDatasetTestClass {
+  }
+}
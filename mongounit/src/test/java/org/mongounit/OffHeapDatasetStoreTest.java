@@ -0,0 +1,213 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mongounit.model.CompactDocument;
+import org.mongounit.model.MongoUnitCollection;
+
+/**
+ * {@link OffHeapDatasetStoreTest} is a test class for {@link OffHeapDatasetStore} class.
+ */
+@DisplayName("Off-heap dataset store")
+class OffHeapDatasetStoreTest {
+
+  @Test
+  @DisplayName("Least recently used datasets are evicted at the budget")
+  void testEviction() {
+
+    long datasetBytes = measure(toDataset("a"));
+    OffHeapDatasetStore store = new OffHeapDatasetStore(2 * datasetBytes);
+
+    assertTrue(store.put("a", toDataset("a")));
+    assertTrue(store.put("b", toDataset("b")));
+    assertEquals(2 * datasetBytes, store.getUsedBytes(), "Both datasets should fit exactly");
+
+    // Retrieving 'a' makes 'b' the least recently used one
+    assertNotNull(store.get("a"));
+    assertTrue(store.put("c", toDataset("c")));
+
+    assertNull(store.get("b"), "Least recently used dataset should be evicted");
+    assertEquals("a", toName(store.get("a")));
+    assertEquals("c", toName(store.get("c")));
+    assertEquals(2 * datasetBytes, store.getUsedBytes());
+
+    // Replacing a dataset doesn't count it twice
+    assertTrue(store.put("c", toDataset("d")));
+    assertEquals("d", toName(store.get("c")));
+    assertNotNull(store.get("a"), "Replacing a dataset should not evict others");
+    assertEquals(2 * datasetBytes, store.getUsedBytes());
+
+    store.clear();
+    assertNull(store.get("a"));
+    assertEquals(0, store.getUsedBytes());
+  }
+
+  @Test
+  @DisplayName("Dataset larger than the whole budget is not stored")
+  void testOverBudgetDataset() {
+
+    long datasetBytes = measure(toDataset("a"));
+    OffHeapDatasetStore store = new OffHeapDatasetStore(datasetBytes);
+    assertTrue(store.put("a", toDataset("a")));
+
+    List<MongoUnitCollection> largeDataset = toDataset("a larger dataset");
+    assertFalse(store.put("large", largeDataset), "Dataset over the budget should be rejected");
+
+    assertNull(store.get("large"));
+    assertEquals("a", toName(store.get("a")), "Stored datasets should not be evicted for it");
+    assertEquals(datasetBytes, store.getUsedBytes());
+  }
+
+  @Test
+  @DisplayName("Values are decoded as they were stored")
+  void testValueFidelity() {
+
+    Map<String, Object> address = new LinkedHashMap<>();
+    address.put("city", "Boston");
+    address.put("zip", 2101);
+
+    Map<String, Object> document = new LinkedHashMap<>();
+    document.put("_id", "id1");
+    document.put("int", Integer.MIN_VALUE);
+    document.put("long", Long.MAX_VALUE);
+    document.put("smallLong", 1L);
+    document.put("double", -0.0);
+    document.put("wholeDouble", 2.0);
+    document.put("true", true);
+    document.put("false", false);
+    document.put("null", null);
+    document.put("unicode", "é中😀");
+    document.put("address", address);
+    document.put("tags", Arrays.asList("a", 1, null, Collections.singletonMap("nested", 2L)));
+    document.put("empty", new ArrayList<>());
+
+    List<MongoUnitCollection> dataset = Arrays.asList(
+        toCollection("people", Collections.singletonList(document)),
+        toCollection("empty", new ArrayList<>()));
+
+    OffHeapDatasetStore store = new OffHeapDatasetStore(1024 * 1024);
+    assertTrue(store.put("dataset", dataset));
+    List<MongoUnitCollection> decodedDataset = store.get("dataset");
+
+    assertEquals(dataset, decodedDataset, "Decoded dataset should equal the stored one");
+    Map<String, Object> decodedDocument = decodedDataset.get(0).getDocuments().get(0);
+    assertTrue(decodedDocument instanceof CompactDocument, "Documents should be compacted");
+    assertEquals(
+        new ArrayList<>(document.keySet()),
+        new ArrayList<>(decodedDocument.keySet()),
+        "Field order should be kept");
+    assertEquals(Long.class, decodedDocument.get("smallLong").getClass());
+    assertEquals(Double.class, decodedDocument.get("wholeDouble").getClass());
+    assertEquals(-0.0, decodedDocument.get("double"), "Sign of zero should be kept");
+
+    // Each retrieval decodes a fresh copy, which encodes the same way again
+    assertNotSame(decodedDataset, store.get("dataset"));
+    assertEquals(decodedDataset, store.get("dataset"));
+    assertTrue(store.put("reencoded", decodedDataset));
+    assertEquals(measure(dataset), measure(decodedDataset), "Encoding should be stable");
+    assertEquals(dataset, store.get("reencoded"));
+  }
+
+  @Test
+  @DisplayName("Datasets with numbers BSON can't hold exactly stay on the heap")
+  void testHeapFallback() {
+
+    OffHeapDatasetStore store = new OffHeapDatasetStore(1024 * 1024);
+
+    BigInteger bigInteger = new BigInteger("123456789012345678901234567890");
+    assertFalse(
+        store.put("bigInteger", toDataset("name", bigInteger)),
+        "BigInteger should not be stored off-heap");
+    assertFalse(
+        store.put("bigDecimal", toDataset("name", new BigDecimal("1.10"))),
+        "BigDecimal should not be stored off-heap");
+
+    // Unsupported values nested deep down are found too
+    Map<String, Object> nestedDocument = new LinkedHashMap<>();
+    nestedDocument.put("values", Collections.singletonList(BigDecimal.ONE));
+    assertFalse(store.put("nested", toDataset("name", nestedDocument)));
+
+    assertNull(store.get("bigInteger"));
+    assertNull(store.get("bigDecimal"));
+    assertNull(store.get("nested"));
+    assertEquals(0, store.getUsedBytes(), "Rejected datasets should take no space");
+  }
+
+  /**
+   * @param dataset Dataset to measure.
+   * @return Number of bytes the provided 'dataset' takes in an off-heap store.
+   */
+  private static long measure(List<MongoUnitCollection> dataset) {
+
+    OffHeapDatasetStore store = new OffHeapDatasetStore(Long.MAX_VALUE);
+    assertTrue(store.put("dataset", dataset));
+    return store.getUsedBytes();
+  }
+
+  /**
+   * @param name Name of the only document of the dataset.
+   * @return Dataset with a 'people' collection holding a single document with the provided
+   * 'name'.
+   */
+  private static List<MongoUnitCollection> toDataset(String name) {
+    return toDataset("name", name);
+  }
+
+  /**
+   * @param fieldName Name of the only field of the only document of the dataset.
+   * @param value Value of the field.
+   * @return Dataset with a 'people' collection holding a single document with the provided field.
+   */
+  private static List<MongoUnitCollection> toDataset(String fieldName, Object value) {
+
+    Map<String, Object> document = new LinkedHashMap<>();
+    document.put(fieldName, value);
+    return Collections.singletonList(toCollection("people", Collections.singletonList(document)));
+  }
+
+  /**
+   * @param collectionName Name of the collection.
+   * @param documents Documents of the collection.
+   * @return {@link MongoUnitCollection} with the provided 'collectionName' and 'documents'.
+   */
+  private static MongoUnitCollection toCollection(
+      String collectionName,
+      List<Map<String, Object>> documents) {
+
+    return MongoUnitCollection.builder()
+        .collectionName(collectionName)
+        .documents(documents)
+        .build();
+  }
+
+  /**
+   * @param dataset Dataset with a single 'people' collection holding a single document.
+   * @return Name of the document.
+   */
+  private static Object toName(List<MongoUnitCollection> dataset) {
+    return dataset.get(0).getDocuments().get(0).get("name");
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mongounit.model.PhaseTimings;
+
+/**
+ * {@link PhaseTimerTest} is a test class for {@link PhaseTimer} and {@link PhaseTimings}.
+ */
+@DisplayName("MongoUnit phase timings")
+class PhaseTimerTest {
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  @DisplayName("Recording only while the current thread is timing")
+  void testRecord() {
+
+    // Not timing, so nothing is recorded and nothing fails
+    PhaseTimer.record(MongoUnitPhase.INSERT, System.nanoTime() - 1_000);
+    assertEquals(0, PhaseTimer.end().getTotalNanos(), "Nothing should be recorded");
+
+    PhaseTimer.begin();
+    PhaseTimer.record(MongoUnitPhase.INSERT, System.nanoTime() - 2_000_000);
+    PhaseTimer.record(MongoUnitPhase.INSERT, System.nanoTime() - 1_000_000);
+    PhaseTimer.recordSeeded(3, 300);
+
+    PhaseTimings otherThreadTimings = new PhaseTimings();
+    otherThreadTimings.add(MongoUnitPhase.FILE_LOAD, 5_000_000);
+    otherThreadTimings.addSeeded(2, 200);
+    PhaseTimer.recordAll(otherThreadTimings);
+
+    PhaseTimings phaseTimings = PhaseTimer.end();
+    assertTrue(phaseTimings.getNanos(MongoUnitPhase.INSERT) >= 3_000_000, "Inserts should add up");
+    assertEquals(5_000_000, phaseTimings.getNanos(MongoUnitPhase.FILE_LOAD));
+    assertEquals(0, phaseTimings.getNanos(MongoUnitPhase.DROP), "Unrecorded phase should be 0");
+    assertEquals(
+        phaseTimings.getNanos(MongoUnitPhase.INSERT) + 5_000_000,
+        phaseTimings.getTotalNanos());
+    assertEquals(5, phaseTimings.getSeedDocumentCount());
+    assertEquals(500, phaseTimings.getSeedByteCount());
+
+    // Timing ended, so recording is a no-op again
+    PhaseTimer.record(MongoUnitPhase.INSERT, System.nanoTime());
+    assertEquals(0, PhaseTimer.end().getTotalNanos(), "Nothing should be recorded after end");
+  }
+
+  @Test
+  @DisplayName("Report entries and nanos map")
+  void testReportEntries() {
+
+    PhaseTimings phaseTimings = new PhaseTimings();
+    phaseTimings.add(MongoUnitPhase.DROP, 1_234_567);
+    phaseTimings.add(MongoUnitPhase.ASSERTION, 1_000);
+
+    Map<String, String> reportEntries = phaseTimings.toReportEntries();
+    for (MongoUnitPhase phase : MongoUnitPhase.values()) {
+      assertTrue(reportEntries.containsKey("mongounit." + phase.getKey() + ".ms"),
+          "Every phase should be reported");
+    }
+    assertEquals("1.235", reportEntries.get("mongounit.drop.ms"));
+    assertEquals("0.000", reportEntries.get("mongounit.insert.ms"));
+    assertEquals("1.236", reportEntries.get("mongounit.total.ms"));
+    assertEquals("0", reportEntries.get(PhaseTimings.SEED_DOCUMENTS_KEY));
+    assertFalse(reportEntries.containsKey(PhaseTimings.SEED_DATASETS_KEY),
+        "Unknown dataset locations should not be reported as a blank value");
+
+    phaseTimings.setSeedDatasetLocations(List.of("a-seed.json", "b-seed.json"));
+    assertEquals(
+        "a-seed.json;b-seed.json",
+        phaseTimings.toReportEntries().get(PhaseTimings.SEED_DATASETS_KEY));
+
+    Map<String, Long> nanosMap = phaseTimings.toNanosMap();
+    assertEquals(MongoUnitPhase.values().length + 1, nanosMap.size());
+    assertEquals(1_234_567L, nanosMap.get("drop"));
+    assertEquals(1_235_567L, nanosMap.get(PhaseTimings.TOTAL_KEY));
+  }
+
+  @Test
+  @DisplayName("Appending to the timings file")
+  void testAppendToTimingsFile() throws IOException {
+
+    Path timingsFile = tempDir.resolve("nested/dir/timings.jsonl");
+
+    Map<String, Object> line = new LinkedHashMap<>();
+    line.put("testMethod", "first");
+    PhaseTimer.appendToTimingsFile(timingsFile.toString(), line);
+    line.put("testMethod", "second");
+    PhaseTimer.appendToTimingsFile(timingsFile.toString(), line);
+
+    List<String> lines = Files.readAllLines(timingsFile);
+    assertEquals(2, lines.size(), "Each call should append a line");
+    assertEquals("second", new ObjectMapper().readTree(lines.get(1)).get("testMethod").asText());
+
+    // Path that is a directory can't be written to
+    assertThrows(
+        MongoUnitException.class,
+        () -> PhaseTimer.appendToTimingsFile(tempDir.toString(), line));
+  }
+}
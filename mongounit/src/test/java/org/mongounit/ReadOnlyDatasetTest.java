@@ -0,0 +1,43 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.launcher.listeners.TestExecutionSummary;
+import org.junit.platform.launcher.listeners.TestExecutionSummary.Failure;
+import org.mongounit.test.ReadOnlyDatasetTestClass;
+import org.mongounit.test.TestClassRunner;
+
+/**
+ * {@link ReadOnlyDatasetTest} is a test class for the enforcement of {@link ReadOnlyDataset} by
+ * the {@link MongoUnitExtension}.
+ */
+@DisplayName("@ReadOnlyDataset enforcement")
+class ReadOnlyDatasetTest {
+
+  @Test
+  @DisplayName("Read-only test passes, test that writes fails")
+  void testReadOnlyDataset() {
+
+    TestExecutionSummary summary = TestClassRunner.run(ReadOnlyDatasetTestClass.class);
+
+    assertEquals(2, summary.getTestsStartedCount(), "Both tests should run");
+    assertEquals(1, summary.getTestsSucceededCount(), "Read-only test should pass");
+    assertEquals(1, summary.getTestsFailedCount(), "Test that writes should fail");
+
+    Failure failure = summary.getFailures().get(0);
+    assertEquals("testWrite()", failure.getTestIdentifier().getDisplayName());
+    assertTrue(failure.getException().getMessage().contains("insert on 'people'"),
+        "Failure should name the write command");
+  }
+}
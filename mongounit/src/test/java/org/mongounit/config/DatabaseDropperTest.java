@@ -0,0 +1,179 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.config;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mongounit.config.MongoUnitProperties.DROP_DATABASE_MODE_END_OF_RUN;
+import static org.mongounit.config.MongoUnitProperties.DROP_DATABASE_MODE_SYNC;
+
+import com.mongodb.client.MongoClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.mongounit.embedded.EmbeddedMongoServer;
+
+/**
+ * {@link DatabaseDropperTest} is a test class for {@link DatabaseDropper}.
+ */
+@DisplayName("Test database dropping")
+@TestMethodOrder(OrderAnnotation.class)
+class DatabaseDropperTest {
+
+  private static EmbeddedMongoServer server;
+
+  private static MongoClient mongoClient;
+
+  @BeforeAll
+  static void startServer() {
+    server = new EmbeddedMongoServer();
+    server.start(0);
+    mongoClient = MongoClientRegistry.acquire(
+        server.getConnectionString("dropperdb"),
+        MongoUnitProperties.builder().build());
+  }
+
+  @AfterAll
+  static void stopServer() {
+    MongoClientRegistry.release(mongoClient);
+    server.close();
+  }
+
+  @Test
+  @DisplayName("Synchronous drop")
+  void testSyncDrop() {
+
+    seed("dropper_sync");
+
+    DatabaseDropper.drop(
+        server.getConnectionString("dropper_sync"),
+        MongoUnitProperties.builder().dropDatabaseMode(DROP_DATABASE_MODE_SYNC).build());
+
+    assertFalse(databaseNames().contains("dropper_sync"), "Database should be dropped");
+    assertEquals(1, MongoClientRegistry.getReferenceCount(mongoClient),
+        "Drop should release its reference to the client");
+  }
+
+  @Test
+  @DisplayName("Background drop releases the client once done")
+  void testAsyncDrop() {
+
+    seed("dropper_async");
+
+    DatabaseDropper.drop(
+        server.getConnectionString("dropper_async"),
+        MongoUnitProperties.builder().build());
+
+    await().atMost(Duration.ofSeconds(10)).until(
+        () -> !databaseNames().contains("dropper_async")
+            && MongoClientRegistry.getReferenceCount(mongoClient) == 1);
+  }
+
+  @Test
+  @DisplayName("Missing database is dropped without failing")
+  void testDropMissingDatabase() {
+
+    assertFalse(databaseNames().contains("dropper_missing"), "Database should not exist");
+
+    DatabaseDropper.drop(
+        server.getConnectionString("dropper_missing"),
+        MongoUnitProperties.builder().dropDatabaseMode(DROP_DATABASE_MODE_SYNC).build());
+    DatabaseDropper.drop(
+        server.getConnectionString("dropper_missing"),
+        MongoUnitProperties.builder().build());
+
+    await().atMost(Duration.ofSeconds(10))
+        .until(() -> MongoClientRegistry.getReferenceCount(mongoClient) == 1);
+    assertTrue(mongoClient.getDatabase("admin").runCommand(new Document("ping", 1))
+        .containsKey("ok"), "Client should still be usable");
+  }
+
+  @Test
+  @DisplayName("End-of-run drop waits for the end of the run")
+  void testEndOfRunDrop() {
+
+    seed("dropper_end_of_run");
+
+    DatabaseDropper.drop(
+        server.getConnectionString("dropper_end_of_run"),
+        MongoUnitProperties.builder().dropDatabaseMode(DROP_DATABASE_MODE_END_OF_RUN).build());
+
+    assertTrue(databaseNames().contains("dropper_end_of_run"), "Drop should be deferred");
+    assertEquals(2, MongoClientRegistry.getReferenceCount(mongoClient),
+        "Deferred drop should hold a reference to the client");
+
+    // What the shutdown hook does first
+    DatabaseDropper.submitEndOfRunDrops();
+
+    await().atMost(Duration.ofSeconds(10)).until(
+        () -> !databaseNames().contains("dropper_end_of_run")
+            && MongoClientRegistry.getReferenceCount(mongoClient) == 1);
+  }
+
+  /**
+   * Shuts the background drops down as the JVM shutdown hook does, so it must run last.
+   */
+  @Test
+  @Order(Integer.MAX_VALUE)
+  @DisplayName("Drops requested after the shutdown hook ran are executed synchronously")
+  void testDropAfterShutdown() {
+
+    seed("dropper_pending");
+    DatabaseDropper.drop(
+        server.getConnectionString("dropper_pending"),
+        MongoUnitProperties.builder().dropDatabaseMode(DROP_DATABASE_MODE_END_OF_RUN).build());
+
+    // Pending end-of-run drop is executed by the hook
+    DatabaseDropper.awaitDrops(10);
+    assertFalse(databaseNames().contains("dropper_pending"), "Pending drop should be executed");
+    assertEquals(1, MongoClientRegistry.getReferenceCount(mongoClient));
+
+    // As Spring's shutdown hook closes contexts after MongoUnit's hook ran
+    seed("dropper_late_async");
+    seed("dropper_late_end_of_run");
+    DatabaseDropper.drop(
+        server.getConnectionString("dropper_late_async"),
+        MongoUnitProperties.builder().build());
+    DatabaseDropper.drop(
+        server.getConnectionString("dropper_late_end_of_run"),
+        MongoUnitProperties.builder().dropDatabaseMode(DROP_DATABASE_MODE_END_OF_RUN).build());
+
+    assertFalse(databaseNames().contains("dropper_late_async"), "Database should be dropped");
+    assertFalse(databaseNames().contains("dropper_late_end_of_run"), "Database should be dropped");
+    assertEquals(1, MongoClientRegistry.getReferenceCount(mongoClient),
+        "Drops should release their references to the client");
+  }
+
+  /**
+   * Creates the database with the provided 'databaseName' by inserting a document into it.
+   *
+   * @param databaseName Name of the database to create.
+   */
+  private static void seed(String databaseName) {
+    mongoClient.getDatabase(databaseName).getCollection("items").insertOne(new Document("a", 1));
+    assertTrue(databaseNames().contains(databaseName), "Database should exist");
+  }
+
+  /**
+   * @return Names of the databases on the server.
+   */
+  private static List<String> databaseNames() {
+    return mongoClient.listDatabaseNames().into(new ArrayList<>());
+  }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mongounit.embedded.EmbeddedMongoServer;
+
+/**
+ * {@link EmbeddedServerHandleTest} is a test class for {@link EmbeddedServerHandle}.
+ */
+@DisplayName("Embedded server handle")
+class EmbeddedServerHandleTest {
+
+  @Test
+  @DisplayName("Handle delegates to the shared embedded server")
+  void testSharedInstance() {
+
+    EmbeddedServerHandle handle = EmbeddedServerHandle.getSharedInstance();
+    assertSame(handle, EmbeddedServerHandle.getSharedInstance());
+    assertSame(handle, EmbeddedServerHandle.getSharedInstanceIfStarted());
+    assertEquals(
+        EmbeddedMongoServer.getSharedInstance().getConnectionString("handledb"),
+        handle.getConnectionString("handledb"));
+
+    try (MongoClient client = MongoClients.create(handle.getConnectionString("handledb"))) {
+
+      MongoCollection<Document> items = client.getDatabase("handledb").getCollection("items");
+      items.insertOne(new Document("a", 1));
+
+      // Restoring the snapshot discards the changes made after taking it
+      Object snapshot = handle.snapshotDatabase("handledb");
+      items.insertOne(new Document("a", 2));
+      handle.restoreDatabase("handledb", snapshot);
+      assertEquals(1, items.countDocuments());
+
+      // Clearing removes all the collections
+      handle.clearDatabase("handledb");
+      assertEquals(0, items.countDocuments());
+    }
+  }
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link LocalMongodLauncherTest} is a test class for {@link LocalMongodLauncher}.
+ */
+@DisplayName("Local mongod process grouping")
+class LocalMongodLauncherTest {
+
+  @Test
+  @DisplayName("Consecutive fork numbers share a group")
+  void testToGroupId() {
+
+    assertEquals("0", LocalMongodLauncher.toGroupId("1", 1));
+    assertEquals("1", LocalMongodLauncher.toGroupId("2", 1));
+    assertEquals("0", LocalMongodLauncher.toGroupId("1", 2));
+    assertEquals("0", LocalMongodLauncher.toGroupId("2", 2));
+    assertEquals("1", LocalMongodLauncher.toGroupId("3", 2));
+    assertEquals("2", LocalMongodLauncher.toGroupId("3", 0));
+    assertEquals("worker_a", LocalMongodLauncher.toGroupId("worker_a", 2));
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.mongodb.client.MongoClient;
+import java.util.List;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mongounit.embedded.EmbeddedMongoServer;
+
+/**
+ * {@link MongoClientRegistryTest} is a test class for {@link MongoClientRegistry}.
+ */
+@DisplayName("Shared MongoDB client registry")
+class MongoClientRegistryTest {
+
+  private static EmbeddedMongoServer server;
+
+  @BeforeAll
+  static void startServer() {
+    server = new EmbeddedMongoServer();
+    server.start(0);
+  }
+
+  @AfterAll
+  static void stopServer() {
+    server.close();
+  }
+
+  @Test
+  @DisplayName("Client is shared per cluster and closed with its last reference")
+  void testAcquireAndRelease() {
+
+    MongoUnitProperties mongoUnitProperties = MongoUnitProperties.builder().build();
+
+    MongoClient client1 = MongoClientRegistry
+        .acquire(server.getConnectionString("registrydb1"), mongoUnitProperties);
+    MongoClient client2 = MongoClientRegistry
+        .acquire(server.getConnectionString("registrydb2"), mongoUnitProperties);
+    assertSame(client1, client2, "Contexts on the same cluster should share the client");
+    assertEquals(2, MongoClientRegistry.getReferenceCount(client1));
+
+    // Client stays open while any context still uses it
+    MongoClientRegistry.release(client1);
+    assertEquals(1, MongoClientRegistry.getReferenceCount(client1));
+    client2.getDatabase("registrydb2").getCollection("items").insertOne(new Document("a", 1));
+    assertEquals(1, client2.getDatabase("registrydb2").getCollection("items").countDocuments());
+
+    // Last release closes it
+    MongoClientRegistry.release(client2);
+    assertEquals(0, MongoClientRegistry.getReferenceCount(client2));
+    assertThrows(
+        IllegalStateException.class,
+        () -> client2.getDatabase("registrydb2").getCollection("items").countDocuments(),
+        "Client should be closed");
+
+    // Acquiring again creates a new client
+    MongoClient client3 = MongoClientRegistry
+        .acquire(server.getConnectionString("registrydb1"), mongoUnitProperties);
+    assertNotSame(client1, client3, "Closed client should not be reused");
+    MongoClientRegistry.release(client3);
+
+    // Releasing an unknown client does nothing
+    MongoClientRegistry.release(client1);
+    assertEquals(0, MongoClientRegistry.getReferenceCount(client1));
+  }
+
+  @Test
+  @DisplayName("MongoUnit's own client is shared unless it has specific settings")
+  void testAcquireForMongoUnit() {
+
+    String uri = server.getConnectionString("registrydb3");
+
+    MongoUnitProperties sharedProperties = MongoUnitProperties.builder().build();
+    MongoClient applicationClient = MongoClientRegistry.acquire(uri, sharedProperties);
+    MongoClient mongoUnitClient = MongoClientRegistry.acquireForMongoUnit(uri, sharedProperties);
+    assertSame(applicationClient, mongoUnitClient, "Client should be shared without settings");
+    MongoClientRegistry.release(mongoUnitClient);
+
+    MongoUnitProperties profileProperties =
+        MongoUnitProperties.builder().profileMaxPoolSize(2).build();
+    MongoClient profileClient = MongoClientRegistry.acquireForMongoUnit(uri, profileProperties);
+    assertNotSame(applicationClient, profileClient, "Client should be separate with settings");
+    assertSame(profileClient, MongoClientRegistry.acquireForMongoUnit(uri, profileProperties));
+    assertEquals(2, MongoClientRegistry.getReferenceCount(profileClient));
+
+    MongoClientRegistry.release(profileClient);
+    MongoClientRegistry.release(profileClient);
+    MongoClientRegistry.release(applicationClient);
+    assertEquals(0, MongoClientRegistry.getReferenceCount(applicationClient));
+  }
+
+  @Test
+  @DisplayName("Writes through MongoUnit's own client are monitored with specific settings too")
+  void testAcquireForMongoUnitMonitorsWrites() {
+
+    MongoUnitProperties profileProperties =
+        MongoUnitProperties.builder().profileMaxPoolSize(3).build();
+    MongoClient profileClient = MongoClientRegistry.acquireForMongoUnit(
+        server.getConnectionString("registrydb4"),
+        profileProperties);
+
+    try {
+
+      WriteCommandListener.INSTANCE.arm("registrydb4");
+      profileClient.getDatabase("registrydb4").getCollection("items")
+          .insertOne(new Document("a", 1));
+
+      assertEquals(
+          List.of("insert on 'items'"),
+          WriteCommandListener.INSTANCE.disarm("registrydb4"),
+          "Write should be detected regardless of the client settings");
+
+    } finally {
+      MongoClientRegistry.release(profileClient);
+    }
+  }
+
+  @Test
+  @DisplayName("Client key ignores the database name unless it is the auth source")
+  void testToClientKey() {
+
+    assertEquals(
+        "mongodb://localhost:27017/?w=1",
+        MongoClientRegistry.toClientKey("mongodb://localhost:27017/testdb_1?w=1"));
+    assertEquals(
+        MongoClientRegistry.toClientKey("mongodb://localhost:27017/testdb_1"),
+        MongoClientRegistry.toClientKey("mongodb://localhost:27017/testdb_2"));
+    assertEquals(
+        "mongodb://user:pw@localhost:27017/testdb_1",
+        MongoClientRegistry.toClientKey("mongodb://user:pw@localhost:27017/testdb_1"));
+    assertEquals(
+        "mongodb://user:pw@localhost:27017/?authSource=admin",
+        MongoClientRegistry.toClientKey("mongodb://user:pw@localhost:27017/db?authSource=admin"));
+  }
+}
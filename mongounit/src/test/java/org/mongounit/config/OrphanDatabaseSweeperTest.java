@@ -0,0 +1,44 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.config;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link OrphanDatabaseSweeperTest} is a test class for {@link OrphanDatabaseSweeper}.
+ */
+@DisplayName("Orphaned test database detection")
+class OrphanDatabaseSweeperTest {
+
+  @Test
+  @DisplayName("Only generated database names older than the cutoff")
+  void testIsOrphaned() {
+
+    ZoneId utc = ZoneId.of("UTC");
+    Instant cutoff = Instant.parse("2020-01-02T00:00:00Z");
+    String prefix = "demodb_jsmith_";
+
+    assertTrue(OrphanDatabaseSweeper
+        .isOrphaned("demodb_jsmith_2020_01_01_10_20_30_-12345", prefix, utc, cutoff));
+    assertFalse(OrphanDatabaseSweeper
+        .isOrphaned("demodb_jsmith_2020_01_03_10_20_30_12345", prefix, utc, cutoff));
+    assertFalse(OrphanDatabaseSweeper
+        .isOrphaned("demodb_jdoe_2020_01_01_10_20_30_12345", prefix, utc, cutoff));
+    assertFalse(OrphanDatabaseSweeper
+        .isOrphaned("demodb_jsmith_fork_1", prefix, utc, cutoff));
+    assertFalse(OrphanDatabaseSweeper
+        .isOrphaned("demodb_jsmith_2020_13_01_10_20_30_12345", prefix, utc, cutoff));
+  }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import java.util.List;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link WriteCommandListenerTest} is a test class for {@link WriteCommandListener}.
+ */
+@DisplayName("Write command monitoring")
+class WriteCommandListenerTest {
+
+  private static final ConnectionDescription CONNECTION_DESCRIPTION =
+      new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+  private final WriteCommandListener listener = WriteCommandListener.INSTANCE;
+
+  @Test
+  @DisplayName("Databases are armed independently")
+  void testArmedPerDatabase() {
+
+    listener.arm("wcl_db1");
+    listener.arm("wcl_db2");
+
+    send("wcl_db1", "{insert: 'people', documents: [{}]}");
+    send("wcl_db2", "{find: 'people'}");
+    send("wcl_db3", "{delete: 'people', deletes: []}");
+
+    // Re-arming the other database must not discard the writes recorded for the first one
+    listener.arm("wcl_db2");
+    send("wcl_db2", "{update: 'items', updates: []}");
+
+    assertEquals(List.of("insert on 'people'"), listener.disarm("wcl_db1"));
+    assertEquals(List.of("update on 'items'"), listener.disarm("wcl_db2"));
+    assertTrue(listener.disarm("wcl_db3").isEmpty(), "Database that's not armed isn't recorded");
+
+    // Disarmed, so nothing is recorded anymore
+    send("wcl_db1", "{insert: 'people', documents: [{}]}");
+    assertTrue(listener.disarm("wcl_db1").isEmpty(), "Disarmed database isn't recorded");
+  }
+
+  @Test
+  @DisplayName("Aliases, aggregation output, and cluster-wide bulk writes")
+  void testWriteCommands() {
+
+    listener.arm("wcl_db4");
+
+    send("wcl_db4", "{findandmodify: 'people', query: {}, remove: true}");
+    send("wcl_db4", "{aggregate: 'people', pipeline: [{$match: {}}]}");
+    send("wcl_db4", "{aggregate: 'people', pipeline: [{$match: {}}, {$out: 'copy'}]}");
+    send("admin", "{bulkWrite: 1, ops: [], nsInfo: [{ns: 'other_db.items'}, {ns: 'wcl_db4.a.b'}]}");
+
+    assertEquals(
+        List.of("findandmodify on 'people'", "aggregate on 'people'", "bulkWrite on 'a.b'"),
+        listener.disarm("wcl_db4"));
+  }
+
+  /**
+   * Notifies the listener of the provided 'command' being sent to the provided 'databaseName'.
+   *
+   * @param databaseName Name of the database the command is sent to.
+   * @param command JSON of the command document, whose first key is the command name.
+   */
+  private void send(String databaseName, String command) {
+
+    BsonDocument commandDocument = BsonDocument.parse(command);
+    listener.commandStarted(new CommandStartedEvent(
+        null,
+        1,
+        1,
+        CONNECTION_DESCRIPTION,
+        databaseName,
+        commandDocument.getFirstKey(),
+        commandDocument));
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mongounit.metrics.MongoUnitMetrics.BYTES_COUNTER_NAME;
+import static org.mongounit.metrics.MongoUnitMetrics.COLLECTION_TAG;
+import static org.mongounit.metrics.MongoUnitMetrics.DOCUMENTS_COUNTER_NAME;
+import static org.mongounit.metrics.MongoUnitMetrics.OPERATION_DOCUMENTS_SUMMARY_NAME;
+import static org.mongounit.metrics.MongoUnitMetrics.OPERATION_TAG;
+import static org.mongounit.metrics.MongoUnitMetrics.OPERATION_TIMER_NAME;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mongounit.MongoUnitOperation;
+import org.mongounit.MongoUnitOperationListeners;
+import org.mongounit.MongoUnitUtil;
+import org.mongounit.config.MongoUnitProperties;
+import org.springframework.context.support.GenericApplicationContext;
+
+/**
+ * {@link MongoUnitMetricsTest} is a test class for {@link MongoUnitMetrics}.
+ */
+@DisplayName("MongoUnit Micrometer metrics")
+class MongoUnitMetricsTest {
+
+  @Test
+  @DisplayName("Operations and per-collection counts")
+  void testOperationsAndCollectionCounts() {
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MongoUnitMetrics mongoUnitMetrics = new MongoUnitMetrics();
+    mongoUnitMetrics.bindTo(registry);
+
+    // Timers are registered upfront
+    assertEquals(0, registry.get(OPERATION_TIMER_NAME).tag(OPERATION_TAG, "cleanup").timer()
+        .count());
+
+    mongoUnitMetrics.collectionInserted("people", 3, 300);
+    mongoUnitMetrics.collectionInserted("people", 2, 100);
+    mongoUnitMetrics.collectionExtracted("people", 5, 400);
+    mongoUnitMetrics.operationCompleted(MongoUnitOperation.SEED, 2_000_000, 5, 400);
+    mongoUnitMetrics.operationCompleted(MongoUnitOperation.ASSERTION, 1_000_000, 0, 0);
+
+    assertEquals(5, registry.get(DOCUMENTS_COUNTER_NAME)
+        .tag(OPERATION_TAG, "seed").tag(COLLECTION_TAG, "people").counter().count());
+    assertEquals(400, registry.get(BYTES_COUNTER_NAME)
+        .tag(OPERATION_TAG, "seed").tag(COLLECTION_TAG, "people").counter().count());
+    assertEquals(5, registry.get(DOCUMENTS_COUNTER_NAME)
+        .tag(OPERATION_TAG, "extraction").tag(COLLECTION_TAG, "people").counter().count());
+
+    assertEquals(2, registry.get(OPERATION_TIMER_NAME).tag(OPERATION_TAG, "seed").timer()
+        .totalTime(TimeUnit.MILLISECONDS));
+    assertEquals(1, registry.get(OPERATION_TIMER_NAME).tag(OPERATION_TAG, "assertion").timer()
+        .count());
+    assertEquals(5, registry.get(OPERATION_DOCUMENTS_SUMMARY_NAME).tag(OPERATION_TAG, "seed")
+        .summary().totalAmount());
+    assertEquals(0, registry.find(OPERATION_DOCUMENTS_SUMMARY_NAME)
+        .tag(OPERATION_TAG, "assertion").summaries().size());
+  }
+
+  @Test
+  @DisplayName("Operations are only recorded by the registry of the current Spring context")
+  void testRegistryPerContext() {
+
+    SimpleMeterRegistry firstRegistry = new SimpleMeterRegistry();
+    SimpleMeterRegistry secondRegistry = new SimpleMeterRegistry();
+
+    try (GenericApplicationContext firstContext = toApplicationContext(firstRegistry);
+        GenericApplicationContext secondContext = toApplicationContext(secondRegistry)) {
+
+      MongoUnitMetrics.bindIfAvailable(firstContext);
+      MongoUnitMetrics.bindIfAvailable(secondContext);
+      MongoUnitMetrics.bindIfAvailable(firstContext);
+
+      try {
+
+        MongoUnitOperationListeners.enterScope(firstContext);
+        assertMatches();
+        assertMatches();
+
+        MongoUnitOperationListeners.enterScope(secondContext);
+        assertMatches();
+
+      } finally {
+        MongoUnitOperationListeners.exitScope();
+      }
+
+      // Operations outside of any context aren't recorded by either registry
+      assertMatches();
+
+      assertEquals(2, countAssertions(firstRegistry), "Only operations of its context");
+      assertEquals(1, countAssertions(secondRegistry), "Only operations of its context");
+    }
+  }
+
+  /**
+   * Matches an empty expected dataset against an empty actual one, which reports an assertion
+   * operation.
+   */
+  private static void assertMatches() {
+    MongoUnitUtil.assertMatches(
+        new ArrayList<>(),
+        new ArrayList<>(),
+        MongoUnitProperties.builder().build());
+  }
+
+  /**
+   * @param meterRegistry Registry to read the count from.
+   * @return Number of assertion operations recorded by the provided 'meterRegistry'.
+   */
+  private static long countAssertions(MeterRegistry meterRegistry) {
+    return meterRegistry.get(OPERATION_TIMER_NAME).tag(OPERATION_TAG, "assertion").timer().count();
+  }
+
+  /**
+   * @param meterRegistry Registry to register as a bean.
+   * @return Refreshed Spring application context with the provided 'meterRegistry' as its only
+   * bean.
+   */
+  private static GenericApplicationContext toApplicationContext(MeterRegistry meterRegistry) {
+
+    GenericApplicationContext applicationContext = new GenericApplicationContext();
+    applicationContext.registerBean(MeterRegistry.class, () -> meterRegistry);
+    applicationContext.refresh();
+
+    return applicationContext;
+  }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.bson.BsonDocument;
+import org.bson.BsonDocumentReader;
+import org.bson.BsonDocumentWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link CompactDocumentTest} is a test class for {@link CompactDocument} class.
+ */
+@DisplayName("Compact documents")
+class CompactDocumentTest {
+
+  @Test
+  @DisplayName("Equality and hash code match plain maps")
+  void testEqualsAndHashCode() {
+
+    Map<String, Object> document = toDocument(1);
+    Map<String, Object> compactDocument = compactOne(document);
+
+    Map<String, Object> hashMap = new HashMap<>(document);
+    assertEquals(hashMap, compactDocument, "Compact document should equal a hash map");
+    assertEquals(compactDocument, hashMap, "Hash map should equal a compact document");
+    assertEquals(hashMap.hashCode(), compactDocument.hashCode());
+    assertEquals(
+        hashMap.hashCode(),
+        compactDocument.hashCode(),
+        "Cached hash code should not change");
+
+    assertEquals(document, compactDocument, "Compact document should equal a linked hash map");
+    assertEquals(compactDocument, document, "Linked hash map should equal a compact document");
+    assertEquals(document.hashCode(), compactDocument.hashCode());
+
+    // Value types are kept, so an int doesn't equal a long of the same value
+    Map<String, Object> longCountDocument = new LinkedHashMap<>(document);
+    longCountDocument.put("count", 1L);
+    assertNotEquals(compactDocument, longCountDocument);
+    assertNotEquals(compactDocument, compactOne(longCountDocument));
+
+    // Differences in any kind of value are detected
+    Map<String, Object> otherDocument = toDocument(2);
+    assertNotEquals(compactDocument, compactOne(otherDocument));
+    assertEquals(compactOne(otherDocument), compactOne(toDocument(2)));
+  }
+
+  @Test
+  @DisplayName("Values of all types are read back as they were")
+  void testValues() {
+
+    Map<String, Object> document = new LinkedHashMap<>();
+    document.put("int", Integer.MIN_VALUE);
+    document.put("long", Long.MAX_VALUE);
+    document.put("double", -0.0);
+    document.put("nan", Double.NaN);
+    document.put("true", true);
+    document.put("false", false);
+    document.put("decimal", new BigDecimal("1.10"));
+    document.put("null", null);
+
+    Map<String, Object> compactDocument = compactOne(document);
+
+    assertEquals(Integer.MIN_VALUE, compactDocument.get("int"));
+    assertEquals(Long.MAX_VALUE, compactDocument.get("long"));
+    assertEquals(-0.0, compactDocument.get("double"), "Sign of zero should be kept");
+    assertEquals(Double.NaN, compactDocument.get("nan"));
+    assertEquals(true, compactDocument.get("true"));
+    assertEquals(false, compactDocument.get("false"));
+    assertEquals(new BigDecimal("1.10"), compactDocument.get("decimal"), "Scale should be kept");
+    assertTrue(compactDocument.containsKey("null"), "Field with 'null' value should be present");
+    assertNull(compactDocument.get("null"));
+    assertFalse(compactDocument.containsKey("missing"));
+    assertNull(compactDocument.get("missing"));
+    assertEquals(document, compactDocument);
+  }
+
+  @Test
+  @DisplayName("Nested documents and arrays are compacted and read-only")
+  void testNestedDocumentsAndArrays() {
+
+    Map<String, Object> document = toDocument(1);
+    Map<String, Object> compactDocument = compactOne(document);
+
+    Object address = compactDocument.get("address");
+    assertTrue(address instanceof CompactDocument, "Nested document should be compacted");
+    assertEquals(document.get("address"), address);
+
+    @SuppressWarnings("unchecked")
+    List<Object> orders = (List<Object>) compactDocument.get("orders");
+    assertEquals(document.get("orders"), orders);
+    assertTrue(orders.get(0) instanceof CompactDocument, "Documents in arrays should be compacted");
+    assertEquals(Arrays.asList("a", "b"), compactDocument.get("tags"));
+
+    assertThrows(UnsupportedOperationException.class, () -> compactDocument.put("name", "x"));
+    assertThrows(UnsupportedOperationException.class, () -> compactDocument.remove("name"));
+    assertThrows(UnsupportedOperationException.class, () -> compactDocument.clear());
+    assertThrows(
+        UnsupportedOperationException.class,
+        () -> compactDocument.entrySet().iterator().next().setValue("x"));
+    @SuppressWarnings("unchecked")
+    Map<String, Object> nestedDocument = (Map<String, Object>) address;
+    assertThrows(UnsupportedOperationException.class, () -> nestedDocument.put("city", "x"));
+    assertThrows(UnsupportedOperationException.class, () -> orders.set(0, "x"));
+    assertThrows(UnsupportedOperationException.class, () -> orders.add("x"));
+
+    // Original document is left alone
+    assertTrue(document.get("address") instanceof LinkedHashMap);
+    assertEquals(toDocument(1), document);
+  }
+
+  @Test
+  @DisplayName("Fields are iterated in the order of the original document")
+  void testIterationOrder() {
+
+    // Enough fields to be looked up by hash rather than by scanning
+    Map<String, Object> document = new LinkedHashMap<>();
+    for (int i = 20; i > 0; i--) {
+      document.put("field" + i, i % 2 == 0 ? i : "value" + i);
+    }
+
+    Map<String, Object> compactDocument = compactOne(document);
+
+    assertEquals(new ArrayList<>(document.keySet()), new ArrayList<>(compactDocument.keySet()));
+    assertEquals(new ArrayList<>(document.values()), new ArrayList<>(compactDocument.values()));
+    assertEquals(20, compactDocument.size());
+    assertEquals("value7", compactDocument.get("field7"));
+    assertEquals(8, compactDocument.get("field8"));
+    assertEquals(document, compactDocument);
+
+    // Same fields in another order make another shape
+    Map<String, Object> reversedDocument = new LinkedHashMap<>();
+    reversedDocument.put("b", 2);
+    reversedDocument.put("a", 1);
+    Map<String, Object> sortedDocument = new LinkedHashMap<>();
+    sortedDocument.put("a", 1);
+    sortedDocument.put("b", 2);
+    List<Map<String, Object>> compactDocuments =
+        CompactDocument.compact(Arrays.asList(reversedDocument, sortedDocument));
+    assertEquals(Arrays.asList("b", "a"), new ArrayList<>(compactDocuments.get(0).keySet()));
+    assertEquals(Arrays.asList("a", "b"), new ArrayList<>(compactDocuments.get(1).keySet()));
+    assertEquals(compactDocuments.get(0), compactDocuments.get(1));
+  }
+
+  @Test
+  @DisplayName("Compacting keeps the list and skips compacted documents")
+  void testCompact() {
+
+    assertNull(CompactDocument.compact(null));
+    assertEquals(Collections.emptyList(), CompactDocument.compact(new ArrayList<>()));
+
+    Map<String, Object> compactDocument = compactOne(toDocument(1));
+    List<Map<String, Object>> compactDocuments =
+        CompactDocument.compact(Arrays.asList(compactDocument, toDocument(2)));
+    assertSame(compactDocument, compactDocuments.get(0), "Compact document should be reused");
+    assertEquals(toDocument(2), compactDocuments.get(1));
+  }
+
+  @Test
+  @DisplayName("BSON conversion round trip")
+  void testBsonRoundTrip() {
+
+    Map<String, Object> document = toDocument(1);
+    Map<String, Object> compactDocument = compactOne(document);
+
+    DocumentCodec documentCodec = new DocumentCodec();
+    BsonDocument bsonDocument = new BsonDocument();
+    documentCodec.encode(
+        new BsonDocumentWriter(bsonDocument),
+        new Document(compactDocument),
+        EncoderContext.builder().build());
+    Document decodedDocument = documentCodec.decode(
+        new BsonDocumentReader(bsonDocument),
+        DecoderContext.builder().build());
+
+    assertEquals(new ArrayList<>(document.keySet()), new ArrayList<>(bsonDocument.keySet()));
+    assertEquals(compactDocument, decodedDocument, "Decoded document should have every value");
+    assertEquals(compactDocument, compactOne(decodedDocument));
+    assertEquals(compactDocument.hashCode(), compactOne(decodedDocument).hashCode());
+  }
+
+  /**
+   * @param document Map of field name/value pairs of a single document.
+   * @return {@link CompactDocument} of the provided 'document'.
+   */
+  private static Map<String, Object> compactOne(Map<String, Object> document) {
+    return CompactDocument.compact(Collections.singletonList(document)).get(0);
+  }
+
+  /**
+   * @param id Identifier of the document, which all of its values are derived from.
+   * @return Document with a value of each type, a nested document, and arrays of values and of
+   * documents.
+   */
+  private static Map<String, Object> toDocument(int id) {
+
+    Map<String, Object> address = new LinkedHashMap<>();
+    address.put("city", "City " + id);
+    address.put("zip", 10000 + id);
+
+    List<Object> orders = new ArrayList<>();
+    for (int i = 0; i < 2; i++) {
+      Map<String, Object> order = new LinkedHashMap<>();
+      order.put("number", id * 10 + i);
+      order.put("total", id * 1.5 + i);
+      orders.add(order);
+    }
+
+    Map<String, Object> document = new LinkedHashMap<>();
+    document.put("_id", "id" + id);
+    document.put("count", id);
+    document.put("views", id * 1_000_000_000_000L);
+    document.put("score", id / 4.0);
+    document.put("active", id % 2 == 0);
+    document.put("name", "Name " + id);
+    document.put("born", new Date(id * 86_400_000L));
+    document.put("nickname", null);
+    document.put("address", address);
+    document.put("orders", orders);
+    document.put("tags", new ArrayList<>(Arrays.asList("a", "b")));
+
+    return document;
+  }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * {@link ConcatenatedDocumentsTest} is a test class for {@link ConcatenatedDocuments} class.
+ */
+@DisplayName("Concatenated documents")
+class ConcatenatedDocumentsTest {
+
+  @Test
+  @DisplayName("Concatenation of several lists")
+  void testConcat() {
+
+    List<Map<String, Object>> first = toDocuments("a", "b");
+    List<Map<String, Object>> second = toDocuments("c");
+    List<Map<String, Object>> third = toDocuments("d", "e");
+
+    List<Map<String, Object>> concatenated = ConcatenatedDocuments.concat(
+        Arrays.asList(first, null, new ArrayList<>(), second, third));
+
+    assertEquals(5, concatenated.size(), "All documents should be present");
+    for (int i = 0; i < concatenated.size(); i++) {
+      assertEquals(
+          String.valueOf((char) ('a' + i)),
+          concatenated.get(i).get("name"),
+          "Documents should be in order of the lists");
+    }
+    assertThrows(IndexOutOfBoundsException.class, () -> concatenated.get(5));
+    assertThrows(IndexOutOfBoundsException.class, () -> concatenated.get(-1));
+
+    // Concatenating a concatenation keeps the order and leaves the original lists alone
+    List<Map<String, Object>> nested = ConcatenatedDocuments.concat(
+        Arrays.asList(concatenated, toDocuments("f")));
+    assertEquals(6, nested.size(), "All documents should be present");
+    assertEquals("f", nested.get(5).get("name"));
+    assertEquals(2, first.size(), "Original list should not grow");
+  }
+
+  @Test
+  @DisplayName("Read-only result for any number of lists")
+  void testReadOnly() {
+
+    List<Map<String, Object>> empty =
+        ConcatenatedDocuments.concat(Arrays.asList(null, new ArrayList<>()));
+    assertTrue(empty.isEmpty(), "Concatenation of empty lists should be empty");
+    assertThrows(UnsupportedOperationException.class, () -> empty.add(new HashMap<>()));
+
+    List<Map<String, Object>> documents = toDocuments("a");
+    List<Map<String, Object>> single =
+        ConcatenatedDocuments.concat(Arrays.asList(documents, Collections.emptyList()));
+    assertEquals(documents, single, "Single list should be returned as is");
+    assertThrows(UnsupportedOperationException.class, () -> single.add(new HashMap<>()));
+    assertThrows(UnsupportedOperationException.class, () -> single.remove(0));
+    assertEquals(1, documents.size(), "Original list should not change");
+
+    List<Map<String, Object>> several =
+        ConcatenatedDocuments.concat(Arrays.asList(documents, toDocuments("b")));
+    assertThrows(UnsupportedOperationException.class, () -> several.set(0, new HashMap<>()));
+  }
+
+  @Test
+  @DisplayName("Segments of concatenated and plain lists")
+  void testSegmentsOf() {
+
+    List<Map<String, Object>> first = toDocuments("a");
+    List<Map<String, Object>> second = toDocuments("b", "c");
+
+    List<List<Map<String, Object>>> segments = ConcatenatedDocuments.segmentsOf(
+        ConcatenatedDocuments.concat(Arrays.asList(first, new ArrayList<>(), second)));
+    assertEquals(2, segments.size(), "Empty lists should not be segments");
+    assertSame(first, segments.get(0), "Segments should be the concatenated lists themselves");
+    assertSame(second, segments.get(1));
+    assertThrows(UnsupportedOperationException.class, () -> segments.remove(0));
+
+    assertEquals(Collections.singletonList(first), ConcatenatedDocuments.segmentsOf(first));
+    assertTrue(ConcatenatedDocuments.segmentsOf(new ArrayList<>()).isEmpty());
+    assertTrue(ConcatenatedDocuments.segmentsOf(null).isEmpty());
+  }
+
+  /**
+   * @param names Names of the documents to create.
+   * @return Mutable list of documents, each with a 'name' field of one of the provided 'names'.
+   */
+  private static List<Map<String, Object>> toDocuments(String... names) {
+
+    List<Map<String, Object>> documents = new ArrayList<>();
+    for (String name : names) {
+      Map<String, Object> document = new HashMap<>();
+      document.put("name", name);
+      documents.add(document);
+    }
+
+    return documents;
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.report;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mongounit.report.MongoUnitReportListener.TestRecord;
+
+/**
+ * {@link MongoUnitReportListenerTest} is a test class for {@link MongoUnitReportListener}.
+ */
+@DisplayName("MongoUnit performance report")
+class MongoUnitReportListenerTest {
+
+  @Test
+  @DisplayName("Ranks tests, datasets and dataset reuse")
+  void testGenerateReport() {
+
+    List<TestRecord> testRecords = Arrays.asList(
+        testRecord("MyIT > fast()", 1.5, 10, "/a-seed.json"),
+        testRecord("MyIT > slow()", 25.0, 5000, "/a-seed.json", "/b-seed.json"),
+        testRecord("OtherIT > medium()", 7.25, 200, "/a-seed.json"));
+
+    String report = MongoUnitReportListener.generateReport(testRecords, 2);
+
+    assertTrue(report.contains("3 tests, 33.750 ms total"), report);
+
+    // Slowest first, limited to the top 2
+    assertTrue(report.indexOf("MyIT > slow()") < report.indexOf("OtherIT > medium()"), report);
+    assertTrue(!report.contains("MyIT > fast()"), report);
+
+    // Largest dataset is the combination of both files
+    assertTrue(report.contains("5000 bytes"), report);
+    assertTrue(report.contains("/a-seed.json, /b-seed.json"), report);
+
+    // Dataset file 'a' is reused by all 3 tests
+    assertTrue(report.contains("3 tests  /a-seed.json"), report);
+  }
+
+  /**
+   * @param name Name of the test.
+   * @param totalMillis Total MongoUnit overhead of the test, in milliseconds.
+   * @param seedBytes BSON encoded size of the documents seeded, in bytes.
+   * @param seedDatasetLocations Locations of the dataset files the test was seeded from.
+   * @return Test record with the provided values.
+   */
+  private TestRecord testRecord(
+      String name,
+      double totalMillis,
+      long seedBytes,
+      String... seedDatasetLocations) {
+
+    TestRecord testRecord = new TestRecord();
+    testRecord.name = name;
+    testRecord.totalMillis = totalMillis;
+    testRecord.seedBytes = seedBytes;
+    testRecord.seedDatasetLocations = Arrays.asList(seedDatasetLocations);
+    return testRecord;
+  }
+}
@@ -9,6 +9,7 @@
 package org.mongounit.test;
 
 import org.mongounit.AssertMatchesDataset;
+import org.mongounit.LocationType;
 import org.mongounit.MongoUnitTest;
 import org.mongounit.SeedWithDataset;
 
@@ -28,4 +29,19 @@ public class AnnotatedTestClass {
     // do nothing, it's just for annotations
   }
 
+  @SeedWithDataset(
+      value = "/tmp/mongounit-fifo-datasets/seed1.json",
+      locationType = LocationType.ABSOLUTE)
+  @SeedWithDataset(
+      value = "/tmp/mongounit-fifo-datasets/seed2.json",
+      locationType = LocationType.ABSOLUTE)
+  @AssertMatchesDataset(
+      value = "/tmp/mongounit-fifo-datasets/assert1.json",
+      locationType = LocationType.ABSOLUTE)
+  @AssertMatchesDataset(
+      value = "/tmp/mongounit-fifo-datasets/assert2.json",
+      locationType = LocationType.ABSOLUTE)
+  public void singleFileAnnotationsMethod() {
+    // do nothing, it's just for annotations
+  }
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.bson.Document;
+import org.junit.jupiter.api.MethodOrderer.OrderAnnotation;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.mongounit.MongoUnitTest;
+import org.mongounit.SeedWithDataset;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * {@link EmbeddedSnapshotTestClass} is a sample test class whose tests alternate between two seed
+ * datasets and modify the database, so each test after the first two starts from a restored
+ * snapshot of the embedded database.
+ */
+@SpringBootTest(classes = TestApplication.class)
+@MongoUnitTest(name = "embeddedsnapshot")
+@SeedWithDataset("classSeed.json")
+@TestMethodOrder(OrderAnnotation.class)
+public class EmbeddedSnapshotTestClass {
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Test
+  @Order(1)
+  public void testClassSeed() {
+    assertPeopleCount(2);
+    mongoTemplate.getCollection("people").insertOne(new Document("name", "Dave"));
+  }
+
+  @Test
+  @Order(2)
+  @SeedWithDataset("extraSeed.json")
+  public void testExtraSeed() {
+    assertPeopleCount(3);
+    mongoTemplate.getCollection("people").deleteMany(new Document());
+  }
+
+  @Test
+  @Order(3)
+  public void testRestoredClassSeed() {
+    assertPeopleCount(2);
+    mongoTemplate.getCollection("people").deleteOne(new Document("name", "Alice"));
+  }
+
+  @Test
+  @Order(4)
+  @SeedWithDataset("extraSeed.json")
+  public void testRestoredExtraSeed() {
+    assertPeopleCount(3);
+  }
+
+  /**
+   * @param expectedCount Number of documents the 'people' collection is expected to hold.
+   */
+  private void assertPeopleCount(long expectedCount) {
+    assertEquals(expectedCount, mongoTemplate.getCollection("people").countDocuments());
+  }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2019 Yaakov Chaikin (yaakov@ClearlyDecoded.com). Licensed under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except in compliance with the License. You
+ * may obtain a copy of the License at http://www.apache.org/licenses/LICENSE-2.0. Unless required
+ * by applicable law or agreed to in writing, software distributed under the License is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See
+ * the License for the specific language governing permissions and limitations under the License.
+ */
+package org.mongounit.test;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.mongounit.MongoUnitTest;
+import org.mongounit.ReadOnlyDataset;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+/**
+ * {@link ReadOnlyDatasetTestClass} is a sample test class with one {@link ReadOnlyDataset} test
+ * that only reads and one that, incorrectly, writes to the database.
+ */
+@SpringBootTest(classes = TestApplication.class)
+@MongoUnitTest
+public class ReadOnlyDatasetTestClass {
+
+  @Autowired
+  private MongoTemplate mongoTemplate;
+
+  @Test
+  @ReadOnlyDataset
+  public void testRead() {
+    mongoTemplate.getCollection("people").countDocuments();
+  }
+
+  @Test
+  @ReadOnlyDataset
+  public void testWrite() {
+    mongoTemplate.getCollection("people").insertOne(new Document("name", "Bob"));
+  }
+}